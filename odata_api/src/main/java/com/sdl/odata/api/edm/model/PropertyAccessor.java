@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.edm.model;
+
+/**
+ * Fast access to the value of a structural property in an instance of its Java type.
+ * <p>
+ * An accessor is created once per property when the entity data model is built, so that renderers and unmarshallers
+ * do not have to go through reflection for every property of every entity. The primitive variants avoid boxing for
+ * numeric and boolean fields; for other fields they convert the (boxed) value.
+ */
+public interface PropertyAccessor {
+
+    /**
+     * Returns the Java type of the property.
+     *
+     * @return The Java type of the property.
+     */
+    Class<?> getType();
+
+    /**
+     * Gets the value of the property.
+     *
+     * @param instance The object to get the value from (typically an OData entity).
+     * @return The value of the property.
+     */
+    Object get(Object instance);
+
+    /**
+     * Sets the value of the property.
+     *
+     * @param instance The object to set the value in (typically an OData entity).
+     * @param value    The value to set.
+     * @throws IllegalArgumentException If the value cannot be assigned to the property.
+     */
+    void set(Object instance, Object value);
+
+    /**
+     * Gets the value of an integral numeric property.
+     *
+     * @param instance The object to get the value from.
+     * @return The value of the property.
+     */
+    long getLong(Object instance);
+
+    /**
+     * Gets the value of a floating point numeric property.
+     *
+     * @param instance The object to get the value from.
+     * @return The value of the property.
+     */
+    double getDouble(Object instance);
+
+    /**
+     * Gets the value of a boolean property.
+     *
+     * @param instance The object to get the value from.
+     * @return The value of the property.
+     */
+    boolean getBoolean(Object instance);
+}
@@ -68,4 +68,12 @@ public interface StructuralProperty {
      * @return The Java field which is associated with this property.
      */
     Field getJavaField();
+
+    /**
+     * Returns the accessor for the value of this property, which is resolved once for the Java field.
+     *
+     * @return The accessor for the value of this property, or {@code null} if there is no Java field associated
+     *      with this property.
+     */
+    PropertyAccessor getPropertyAccessor();
 }
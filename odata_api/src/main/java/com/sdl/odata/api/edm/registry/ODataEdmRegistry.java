@@ -39,4 +39,18 @@ public interface ODataEdmRegistry {
      * @throws ODataException If unable to get the entity data model
      */
     EntityDataModel getEntityDataModel() throws ODataException;
+
+    /**
+     * Gets the version of the currently published entity data model. The version increases every time a model
+     * for newly registered classes is published, so that caches keyed on the model can be invalidated.
+     * @return The version of the published entity data model, or 0 if no model has been published yet
+     */
+    long getEntityDataModelVersion();
+
+    /**
+     * Adds a listener which is notified every time a new entity data model is published. If a model has been
+     * published already, the listener is notified of it as well.
+     * @param listener The listener to add
+     */
+    void addListener(ODataEdmRegistryListener listener);
 }
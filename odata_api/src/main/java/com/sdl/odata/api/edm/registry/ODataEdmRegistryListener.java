@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.edm.registry;
+
+import com.sdl.odata.api.edm.model.EntityDataModel;
+
+/**
+ * Listener which is notified when the {@link ODataEdmRegistry} publishes a new entity data model.
+ *
+ * Listeners are called on the background thread of the registry, after the model has been published, so they can
+ * prepare anything that is derived from the model without delaying requests.
+ */
+public interface ODataEdmRegistryListener {
+
+    /**
+     * Called after a new entity data model has been published.
+     * @param entityDataModel The published entity data model
+     * @param version The version of the published entity data model
+     */
+    void entityDataModelPublished(EntityDataModel entityDataModel, long version);
+}
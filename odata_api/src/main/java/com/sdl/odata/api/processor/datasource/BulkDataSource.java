@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.processor.datasource;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUri;
+
+import java.util.List;
+
+/**
+ * Optional extension of {@link DataSource} for data sources which can write many entities in one call.
+ * <p>
+ * When the {@link TransactionalDataSource} returned by {@link DataSource#startTransaction()} also implements this
+ * interface, consecutive operations of a changeset which use the same HTTP method on the same entity type are handed
+ * over in one call instead of one call per entity. Data sources which do not implement it keep receiving the
+ * operations one by one.
+ * <p>
+ * The operations must be applied in the given order, since later operations may refer to entities written by earlier
+ * ones. The results must be returned in the same order as the operations.
+ */
+public interface BulkDataSource extends DataSource {
+
+    /**
+     * Creates entities in the data storage.
+     *
+     * @param operations      The OData URIs and the entities to create.
+     * @param entityDataModel The entity data model.
+     * @return The created entities, one for each operation, in the order of the operations.
+     * @throws ODataException If the operation fails.
+     */
+    List<Object> createAll(List<Operation> operations, EntityDataModel entityDataModel) throws ODataException;
+
+    /**
+     * Updates entities in the data storage.
+     *
+     * @param operations      The OData URIs and the entities to update.
+     * @param entityDataModel The entity data model.
+     * @return The updated entities, one for each operation, in the order of the operations.
+     * @throws ODataException If the operation fails.
+     */
+    List<Object> updateAll(List<Operation> operations, EntityDataModel entityDataModel) throws ODataException;
+
+    /**
+     * Deletes entities in the data storage.
+     *
+     * @param uris            The OData URIs which identify the entities to delete.
+     * @param entityDataModel The entity data model.
+     * @throws ODataException If the operation fails.
+     */
+    void deleteAll(List<ODataUri> uris, EntityDataModel entityDataModel) throws ODataException;
+
+    /**
+     * A single write operation: the OData URI of the request together with the entity of the request body.
+     */
+    final class Operation {
+        private final ODataUri uri;
+        private final Object entity;
+
+        public Operation(ODataUri uri, Object entity) {
+            this.uri = uri;
+            this.entity = entity;
+        }
+
+        public ODataUri getUri() {
+            return uri;
+        }
+
+        public Object getEntity() {
+            return entity;
+        }
+
+        @Override
+        public String toString() {
+            return "Operation{uri=" + uri + ", entity=" + entity + "}";
+        }
+    }
+}
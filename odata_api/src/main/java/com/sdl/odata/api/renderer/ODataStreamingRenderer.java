@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.renderer;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.service.ODataResponse;
+
+/**
+ * OData renderer which is able to render a complete response body straight into the response output stream, instead
+ * of building the body in memory first. With streaming rendering the memory used by a request does not depend on the
+ * size of the result.
+ */
+public interface ODataStreamingRenderer extends ODataRenderer {
+
+    /**
+     * Checks whether the specified data can be rendered with {@link #renderToStream}.
+     *
+     * @param requestContext The request context.
+     * @param data           The data to render.
+     * @return {@code true} if the data can be streamed, {@code false} if it must be rendered with
+     * {@link #render}.
+     */
+    boolean isStreamable(ODataRequestContext requestContext, QueryResult data);
+
+    /**
+     * Prepares the response for streaming rendering. The appropriate headers are added to the response builder,
+     * together with an {@link com.sdl.odata.api.service.ODataContent} which renders the body when the response is
+     * written.
+     *
+     * @param requestContext  The request context.
+     * @param data            The data to render.
+     * @param responseBuilder The response builder to which the headers and the streaming content are added.
+     * @param bufferSize      The number of bytes to buffer before the response is sent to the client.
+     * @throws ODataException If an error occurs while preparing the response.
+     */
+    void renderToStream(ODataRequestContext requestContext, QueryResult data, ODataResponse.Builder responseBuilder,
+                        int bufferSize) throws ODataException;
+}
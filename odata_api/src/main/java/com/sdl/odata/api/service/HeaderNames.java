@@ -31,6 +31,10 @@ public final class HeaderNames {
      * Accept Charset.
      */
     public static final String ACCEPT_CHARSET = "Accept-Charset";
+    /**
+     * Accept Encoding.
+     */
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
     /**
      * Prefer.
      */
@@ -79,6 +83,14 @@ public final class HeaderNames {
      * ETag.
      */
     public static final String ETAG = "ETag";
+    /**
+     * If None Match.
+     */
+    public static final String IF_NONE_MATCH = "If-None-Match";
+    /**
+     * Vary.
+     */
+    public static final String VARY = "Vary";
     /**
      * OData Version.
      */
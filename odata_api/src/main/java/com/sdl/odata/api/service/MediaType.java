@@ -18,6 +18,7 @@ package com.sdl.odata.api.service;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -82,6 +83,17 @@ public final class MediaType {
     private static final Pattern MEDIA_TYPE_PATTERN = Pattern.compile("(([^/]+)/([^/;]+)|(\\*))(.*)");
     private static final Pattern PARAMETER_PATTERN = Pattern.compile(";\\s*([^;=]+)=([^;=]+)");
 
+    /**
+     * Maximum number of parsed media types kept by {@link #valueOf(String)}.
+     */
+    private static final int INTERN_CACHE_MAX_SIZE = 256;
+
+    /**
+     * Media type strings that resolve to the shared constants without parsing.
+     */
+    private static final Map<String, MediaType> WELL_KNOWN = wellKnownMediaTypes();
+
+    private static final Map<String, MediaType> INTERN_CACHE = new ConcurrentHashMap<>();
 
     private final String type;
     private final String subType;
@@ -144,6 +156,43 @@ public final class MediaType {
         return new MediaType(type, subType, Collections.unmodifiableMap(parametersBuilder));
     }
 
+    /**
+     * Returns a {@code MediaType} for the specified string, as {@link #fromString(String)} does, but reuses earlier
+     * results. Well-known media types such as "application/json" or "*&#47;*" resolve to the shared constants of this
+     * class, other strings are parsed once and kept in a bounded cache keyed on the raw string. This is safe because
+     * {@code MediaType} objects are immutable.
+     *
+     * @param text A string representing a media type.
+     * @return A {@code MediaType} object, possibly shared with other callers.
+     * @throws java.lang.IllegalArgumentException If the string is not a valid media type string.
+     */
+    public static MediaType valueOf(String text) {
+        MediaType mediaType = WELL_KNOWN.get(text);
+        if (mediaType != null) {
+            return mediaType;
+        }
+        mediaType = INTERN_CACHE.get(text);
+        if (mediaType == null) {
+            mediaType = fromString(text);
+            if (INTERN_CACHE.size() >= INTERN_CACHE_MAX_SIZE) {
+                // Header values are client controlled; start over rather than growing without bound
+                INTERN_CACHE.clear();
+            }
+            INTERN_CACHE.put(text, mediaType);
+        }
+        return mediaType;
+    }
+
+    private static Map<String, MediaType> wellKnownMediaTypes() {
+        Map<String, MediaType> mediaTypes = new HashMap<>();
+        for (MediaType mediaType : new MediaType[] {XML, ATOM_XML, MULTIPART, ATOM_SVC_XML, JSON, TEXT}) {
+            mediaTypes.put(mediaType.getType() + "/" + mediaType.getSubType(), mediaType);
+        }
+        mediaTypes.put("*/*", WILDCARD_ANY);
+        mediaTypes.put("*", WILDCARD_ANY);
+        return Collections.unmodifiableMap(mediaTypes);
+    }
+
     public String getType() {
         return type;
     }
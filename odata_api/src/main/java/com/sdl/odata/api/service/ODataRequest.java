@@ -70,6 +70,7 @@ public final class ODataRequest extends ODataRequestResponseBase {
         private String uri;
         private final Map<String, String> headersBuilder = new HashMap<>();
         private byte[] body;
+        private ODataRequestBody bodySource;
         private Map<Class<?>, Object> additionalData = new HashMap<>();
 
         public Builder setMethod(Method builderMethod) {
@@ -121,6 +122,18 @@ public final class ODataRequest extends ODataRequestResponseBase {
             return this;
         }
 
+        /**
+         * Sets a lazily consumed source for the body, which is used instead of a body that is completely read in
+         * advance.
+         *
+         * @param builderBodySource The source of the body.
+         * @return This builder.
+         */
+        public Builder setBodySource(ODataRequestBody builderBodySource) {
+            this.bodySource = builderBodySource;
+            return this;
+        }
+
         public Builder addAdditionalData(Object data) {
             additionalData.put(data.getClass(), data);
             return this;
@@ -136,7 +149,7 @@ public final class ODataRequest extends ODataRequestResponseBase {
     private final Map<Class<?>, Object> additionalData;
 
     private ODataRequest(Builder builder) {
-        super(unmodifiableMap(builder.headersBuilder), builder.body, null);
+        super(unmodifiableMap(builder.headersBuilder), builder.body, builder.bodySource, null);
 
         if (builder.method == null) {
             throw new IllegalArgumentException("Method is required");
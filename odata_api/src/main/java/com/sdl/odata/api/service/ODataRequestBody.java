@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lazily consumed source of a request body.
+ * <p>
+ * The body is only read from the underlying stream when it is needed, so that unmarshallers can parse it
+ * incrementally instead of the complete body being buffered in memory first. The stream can be consumed only once.
+ * If a maximum size is set, it is enforced while reading.
+ */
+public final class ODataRequestBody {
+
+    /**
+     * Value for the size hint when the size of the body is not known, and for the maximum size when it is unlimited.
+     */
+    public static final long UNKNOWN = -1L;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private final long sizeHint;
+    private final long maxSize;
+    private final AtomicBoolean consumed = new AtomicBoolean();
+
+    public ODataRequestBody(InputStream inputStream, long sizeHint, long maxSize) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream is required");
+        }
+        this.inputStream = inputStream;
+        this.sizeHint = sizeHint;
+        this.maxSize = maxSize;
+    }
+
+    public ODataRequestBody(ReadableByteChannel channel, long sizeHint, long maxSize) {
+        this(Channels.newInputStream(channel), sizeHint, maxSize);
+    }
+
+    /**
+     * Returns the expected size of the body in bytes, for example from the {@code Content-Length} header.
+     *
+     * @return The expected size of the body, or {@link #UNKNOWN}.
+     */
+    public long getSizeHint() {
+        return sizeHint;
+    }
+
+    /**
+     * Returns the maximum size of the body in bytes.
+     *
+     * @return The maximum size of the body, or {@link #UNKNOWN} if it is unlimited.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isConsumed() {
+        return consumed.get();
+    }
+
+    /**
+     * Returns the stream to read the body from. This can be called only once.
+     *
+     * @return The stream to read the body from.
+     * @throws IllegalStateException If the body has already been consumed.
+     */
+    public InputStream getInputStream() {
+        if (!consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("The request body has already been consumed");
+        }
+        return maxSize < 0 ? inputStream : new SizeLimitedInputStream(inputStream, maxSize);
+    }
+
+    /**
+     * Reads the complete body.
+     *
+     * @return The bytes of the body.
+     * @throws IOException If an I/O error occurs or the body is larger than the maximum size.
+     */
+    public byte[] readFully() throws IOException {
+        int initialSize = sizeHint > 0 && sizeHint < Integer.MAX_VALUE ? (int) sizeHint : BUFFER_SIZE;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(initialSize);
+        // The underlying stream is owned by whoever created this body source, so it is not closed here
+        InputStream in = getInputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Thrown when a request body is larger than the maximum size.
+     */
+    public static class SizeLimitExceededException extends IOException {
+        public SizeLimitExceededException(long maxSize) {
+            super("The request body is larger than the maximum size of " + maxSize + " bytes");
+        }
+    }
+
+    /**
+     * Input stream which fails as soon as more than the maximum number of bytes has been read.
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long count;
+
+        private SizeLimitedInputStream(InputStream in, long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result != -1) {
+                count(1);
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                count(result);
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = super.skip(n);
+            count(result);
+            return result;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long bytes) throws SizeLimitExceededException {
+            count += bytes;
+            if (count > maxSize) {
+                throw new SizeLimitExceededException(maxSize);
+            }
+        }
+    }
+}
@@ -26,11 +26,13 @@ public final class ODataRequestContext {
     private final ODataRequest request;
     private final ODataUri uri;
     private final EntityDataModel entityDataModel;
+    private final ResolvedRequestPlan resolvedPlan;
 
     public ODataRequestContext(ODataRequest request, ODataUri uri, EntityDataModel entityDataModel) {
         this.request = request;
         this.uri = uri;
         this.entityDataModel = entityDataModel;
+        this.resolvedPlan = new ResolvedRequestPlan(uri, entityDataModel);
     }
 
     public ODataRequestContext(ODataRequest request, EntityDataModel entityDataModel) {
@@ -53,6 +55,15 @@ public final class ODataRequestContext {
         return entityDataModel;
     }
 
+    /**
+     * Returns the plan of this request, which resolves the facts derived from the URI once for all processing stages.
+     *
+     * @return The resolved plan.
+     */
+    public ResolvedRequestPlan getResolvedPlan() {
+        return resolvedPlan;
+    }
+
     @Override
     public String toString() {
         return request.toString();
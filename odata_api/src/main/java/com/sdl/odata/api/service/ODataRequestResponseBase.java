@@ -15,6 +15,11 @@
  */
 package com.sdl.odata.api.service;
 
+import com.sdl.odata.api.ODataSystemException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,12 +35,23 @@ import static com.sdl.odata.util.ReferenceUtil.isNullOrEmpty;
 public abstract class ODataRequestResponseBase {
 
     private Map<String, String> headers;
-    private final byte[] body;
+    private byte[] body;
+    private final ODataRequestBody bodySource;
     private ODataContent streamingContent;
 
+    // Parsed Accept and Content-Type headers, together with the raw values they were parsed from
+    private volatile ParsedHeader<List<MediaType>> parsedAccept;
+    private volatile ParsedHeader<MediaType> parsedContentType;
+
     protected ODataRequestResponseBase(Map<String, String> headers, byte[] body, ODataContent streamingContent) {
+        this(headers, body, null, streamingContent);
+    }
+
+    protected ODataRequestResponseBase(Map<String, String> headers, byte[] body, ODataRequestBody bodySource,
+                                       ODataContent streamingContent) {
         this.headers = headers;
         this.body = body;
+        this.bodySource = bodySource;
         this.streamingContent = streamingContent;
     }
 
@@ -57,36 +73,128 @@ public abstract class ODataRequestResponseBase {
         return null;
     }
 
+    /**
+     * Returns the media types listed in the Accept header. The header is parsed once; the result is reused for as long
+     * as the header value does not change.
+     *
+     * @return The accepted media types, or an empty list if there is no Accept header.
+     */
     public List<MediaType> getAccept() {
         String acceptHeader = getHeader(HeaderNames.ACCEPT);
         if (isNullOrEmpty(acceptHeader)) {
             return Collections.emptyList();
         }
 
+        ParsedHeader<List<MediaType>> parsed = parsedAccept;
+        if (parsed != null && parsed.isParsedFrom(acceptHeader)) {
+            return parsed.value;
+        }
+
         List<MediaType> mediaTypesBuilder = new ArrayList<>();
         for (String part : acceptHeader.split(",")) {
-            mediaTypesBuilder.add(MediaType.fromString(part.trim()));
+            mediaTypesBuilder.add(MediaType.valueOf(part.trim()));
         }
 
-        return Collections.unmodifiableList(mediaTypesBuilder);
+        List<MediaType> mediaTypes = Collections.unmodifiableList(mediaTypesBuilder);
+        parsedAccept = new ParsedHeader<>(acceptHeader, mediaTypes);
+        return mediaTypes;
     }
 
-
+    /**
+     * Returns the media type in the Content-Type header. The header is parsed once; the result is reused for as long
+     * as the header value does not change.
+     *
+     * @return The content type, or {@code null} if there is no Content-Type header.
+     */
     public MediaType getContentType() {
         String contentTypeHeader = getHeader(HeaderNames.CONTENT_TYPE);
-        return (isNullOrEmpty(contentTypeHeader)) ?
-                null : MediaType.fromString(contentTypeHeader);
+        if (isNullOrEmpty(contentTypeHeader)) {
+            return null;
+        }
+
+        ParsedHeader<MediaType> parsed = parsedContentType;
+        if (parsed != null && parsed.isParsedFrom(contentTypeHeader)) {
+            return parsed.value;
+        }
+
+        MediaType contentType = MediaType.valueOf(contentTypeHeader);
+        parsedContentType = new ParsedHeader<>(contentTypeHeader, contentType);
+        return contentType;
     }
 
-    public byte[] getBody() {
+    /**
+     * Returns the body. If the body is only available as a lazily consumed source, it is read completely first.
+     *
+     * @return The body.
+     * @throws ODataSystemException If the body cannot be read, or if the body source has already been consumed
+     *                              through {@link #getBodyStream()}.
+     */
+    public synchronized byte[] getBody() {
+        if (body == null && bodySource != null) {
+            if (bodySource.isConsumed()) {
+                throw new ODataSystemException("The body has already been consumed as a stream");
+            }
+            try {
+                body = bodySource.readFully();
+            } catch (IOException e) {
+                throw new ODataSystemException("Unable to read the body", e);
+            }
+        }
         return body;
     }
 
+    /**
+     * Returns a stream to read the body from. If the body is available as a lazily consumed source which has not been
+     * read yet, the stream reads directly from that source, so the body is never held in memory as a whole.
+     *
+     * @return A stream to read the body from, or {@code null} if there is no body.
+     */
+    public synchronized InputStream getBodyStream() {
+        if (body == null && bodySource != null && !bodySource.isConsumed()) {
+            return bodySource.getInputStream();
+        }
+        byte[] bytes = getBody();
+        return bytes == null ? null : new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * Returns whether the body source has been consumed through {@link #getBodyStream()}, after which the body can no
+     * longer be read.
+     *
+     * @return {@code true} if the body can no longer be read.
+     */
+    public synchronized boolean isBodyConsumed() {
+        return body == null && bodySource != null && bodySource.isConsumed();
+    }
+
+    public ODataRequestBody getBodySource() {
+        return bodySource;
+    }
+
     public ODataContent getStreamingContent() {
         return streamingContent;
     }
 
     public String getBodyText(String charset) throws UnsupportedEncodingException {
-        return new String(body, charset);
+        return new String(getBody(), charset);
+    }
+
+    /**
+     * Result of parsing a header value, remembered together with the raw value it was parsed from.
+     *
+     * @param <T> The type of the parsed value.
+     */
+    private static final class ParsedHeader<T> {
+        private final String raw;
+        private final T value;
+
+        private ParsedHeader(String raw, T value) {
+            this.raw = raw;
+            this.value = value;
+        }
+
+        private boolean isParsedFrom(String header) {
+            return raw.equals(header);
+        }
     }
 }
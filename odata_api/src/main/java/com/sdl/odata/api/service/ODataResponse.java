@@ -99,7 +99,11 @@ public final class ODataResponse extends ODataRequestResponseBase {
         /**
          * Service Unavailable Status.
          */
-        SERVICE_UNAVAILABLE(503);
+        SERVICE_UNAVAILABLE(503),
+        /**
+         * Gateway Timeout Status.
+         */
+        GATEWAY_TIMEOUT(504);
 
         private final int code;
 
@@ -154,6 +158,10 @@ public final class ODataResponse extends ODataRequestResponseBase {
             return this;
         }
 
+        public Status getStatus() {
+            return status;
+        }
+
         public Builder setHeader(String name, String value) {
             this.headersMap.put(name, value);
             return this;
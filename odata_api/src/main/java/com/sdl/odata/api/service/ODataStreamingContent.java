@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.service;
+
+import com.sdl.odata.api.ODataException;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.sdl.odata.api.service.HeaderNames.ODATA_CHUNKED_ERROR_MESSAGE_PROPERTY;
+
+/**
+ * OData content which writes a complete response body straight into the servlet output stream.
+ * <p>
+ * At most {@code bufferSize} bytes are buffered by the servlet container; when the buffer is full it is sent to the
+ * client using chunked transfer encoding. If writing fails before anything has been sent, the buffer is discarded and
+ * the error is propagated, so that a proper error response can still be sent. Once the response is committed the
+ * headers cannot be changed anymore, so an error message line is appended to the body instead.
+ */
+public class ODataStreamingContent implements ODataContent {
+
+    /**
+     * Writes a response body into an output stream.
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+
+        /**
+         * Writes the body.
+         *
+         * @param outputStream The stream to write to. It must not be closed by the writer.
+         * @throws IOException    If an I/O error occurs.
+         * @throws ODataException If the body cannot be rendered.
+         */
+        void write(OutputStream outputStream) throws IOException, ODataException;
+    }
+
+    private final BodyWriter bodyWriter;
+    private final int bufferSize;
+
+    public ODataStreamingContent(BodyWriter bodyWriter, int bufferSize) {
+        this.bodyWriter = bodyWriter;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void write(HttpServletResponse httpServletResponse) throws IOException, ODataException {
+        if (bufferSize > 0 && !httpServletResponse.isCommitted()) {
+            httpServletResponse.setBufferSize(bufferSize);
+        }
+        ServletOutputStream servletOutputStream = httpServletResponse.getOutputStream();
+
+        try {
+            bodyWriter.write(servletOutputStream);
+            servletOutputStream.flush();
+        } catch (ODataException | RuntimeException e) {
+            if (!httpServletResponse.isCommitted()) {
+                httpServletResponse.resetBuffer();
+                throw e;
+            }
+            // We cannot modify the headers after the first chunk has been sent already.
+            servletOutputStream.write((System.lineSeparator() + ODATA_CHUNKED_ERROR_MESSAGE_PROPERTY + ":" +
+                    e.getMessage()).getBytes(StandardCharsets.UTF_8));
+            servletOutputStream.flush();
+        }
+    }
+}
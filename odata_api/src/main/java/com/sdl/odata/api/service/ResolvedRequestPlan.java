@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.service;
+
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntitySet;
+import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.api.parser.FormatOption;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.parser.TargetType;
+import scala.Option;
+import scala.collection.JavaConverters;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The facts about a request that are derived from its OData URI: the target type, the entity set, the context URL,
+ * the expanded properties, the count option and the requested format.
+ * <p>
+ * Each of these is resolved the first time it is asked for and then kept, so that the query processor, the data
+ * source factory, the renderers and the writers do not walk the URI again. The plan never changes once a value has
+ * been resolved; a request context with another URI gets another plan.
+ */
+public final class ResolvedRequestPlan {
+
+    private final ODataUri uri;
+    private final EntityDataModel entityDataModel;
+
+    private volatile Option<TargetType> targetType;
+    private volatile Option<Type> targetEdmType;
+    private volatile Option<String> entitySetName;
+    private volatile Option<EntitySet> entitySet;
+    private volatile Option<String> contextUrl;
+    private volatile Option<String> writeContextUrl;
+    private volatile List<String> expandPropertyNames;
+    private volatile Boolean countOption;
+    private volatile Boolean operationCall;
+    private volatile Option<FormatOption> formatOption;
+
+    public ResolvedRequestPlan(ODataUri uri, EntityDataModel entityDataModel) {
+        this.uri = uri;
+        this.entityDataModel = entityDataModel;
+    }
+
+    public ODataUri getUri() {
+        return uri;
+    }
+
+    public EntityDataModel getEntityDataModel() {
+        return entityDataModel;
+    }
+
+    /**
+     * @return The target type of the URI, or nothing if it cannot be determined.
+     */
+    public Option<TargetType> getTargetType() {
+        if (targetType == null) {
+            synchronized (this) {
+                if (targetType == null) {
+                    targetType = uri == null ? Option.empty() : ODataUriUtil.resolveTargetType(uri, entityDataModel);
+                }
+            }
+        }
+        return targetType;
+    }
+
+    /**
+     * @return The type in the entity data model of the target type, or {@code null} if it cannot be determined.
+     */
+    public Type getTargetEdmType() {
+        if (targetEdmType == null) {
+            synchronized (this) {
+                if (targetEdmType == null) {
+                    Option<TargetType> resolved = getTargetType();
+                    targetEdmType = Option.apply(resolved.isDefined()
+                            ? entityDataModel.getType(resolved.get().typeName()) : null);
+                }
+            }
+        }
+        return targetEdmType.isDefined() ? targetEdmType.get() : null;
+    }
+
+    /**
+     * @return The name of the entity set in the resource path, or nothing if there is none.
+     */
+    public Option<String> getEntitySetName() {
+        if (entitySetName == null) {
+            synchronized (this) {
+                if (entitySetName == null) {
+                    entitySetName = uri == null ? Option.empty() : ODataUriUtil.getEntitySetName(uri);
+                }
+            }
+        }
+        return entitySetName;
+    }
+
+    /**
+     * @return The entity set in the resource path, or {@code null} if there is none.
+     */
+    public EntitySet getEntitySet() {
+        if (entitySet == null) {
+            synchronized (this) {
+                if (entitySet == null) {
+                    Option<String> name = getEntitySetName();
+                    entitySet = Option.apply(name.isDefined()
+                            ? entityDataModel.getEntityContainer().getEntitySet(name.get()) : null);
+                }
+            }
+        }
+        return entitySet.isDefined() ? entitySet.get() : null;
+    }
+
+    /**
+     * @return The context URL for the response to a read request, or nothing if it cannot be built.
+     */
+    public Option<String> getContextUrl() {
+        if (contextUrl == null) {
+            synchronized (this) {
+                if (contextUrl == null) {
+                    contextUrl = uri == null ? Option.empty() : ODataUriUtil.getContextUrl(uri);
+                }
+            }
+        }
+        return contextUrl;
+    }
+
+    /**
+     * @return The context URL for the response to a write request, or nothing if it cannot be built.
+     */
+    public Option<String> getWriteContextUrl() {
+        if (writeContextUrl == null) {
+            synchronized (this) {
+                if (writeContextUrl == null) {
+                    writeContextUrl = uri == null ? Option.empty() : ODataUriUtil.getContextUrlWriteOperation(uri);
+                }
+            }
+        }
+        return writeContextUrl;
+    }
+
+    /**
+     * @return The names of the navigation properties in {@code $expand} which have a simple path.
+     */
+    public List<String> getExpandPropertyNames() {
+        if (expandPropertyNames == null) {
+            synchronized (this) {
+                if (expandPropertyNames == null) {
+                    expandPropertyNames = uri == null ? Collections.emptyList() : Collections.unmodifiableList(
+                            JavaConverters.seqAsJavaList(ODataUriUtil.getSimpleExpandPropertyNames(uri)));
+                }
+            }
+        }
+        return expandPropertyNames;
+    }
+
+    /**
+     * @return {@code true} if the URI has {@code $count=true}.
+     */
+    public boolean hasCountOption() {
+        if (countOption == null) {
+            synchronized (this) {
+                if (countOption == null) {
+                    countOption = uri != null && ODataUriUtil.hasCountOption(uri);
+                }
+            }
+        }
+        return countOption;
+    }
+
+    /**
+     * @return {@code true} if the URI calls an action or a function.
+     */
+    public boolean isOperationCall() {
+        if (operationCall == null) {
+            synchronized (this) {
+                if (operationCall == null) {
+                    operationCall = uri != null &&
+                            (ODataUriUtil.isActionCallUri(uri) || ODataUriUtil.isFunctionCallUri(uri));
+                }
+            }
+        }
+        return operationCall;
+    }
+
+    /**
+     * @return The {@code $format} option, which takes precedence over the {@code Accept} header when the response
+     * format is negotiated, or nothing if the URI has none.
+     */
+    public Option<FormatOption> getFormatOption() {
+        if (formatOption == null) {
+            synchronized (this) {
+                if (formatOption == null) {
+                    formatOption = uri == null ? Option.empty() : ODataUriUtil.getFormatOption(uri);
+                }
+            }
+        }
+        return formatOption;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.api.unmarshaller;
+
+import com.sdl.odata.api.ODataException;
+
+import java.io.Closeable;
+
+/**
+ * A collection of entities in a request body which is unmarshalled lazily: each entity is read from the body and
+ * converted when it is requested, so that the entities of a large collection are never all held in memory.
+ * <p>
+ * Unmarshallers may return it from {@link ODataUnmarshaller#unmarshall} for a POST request to an entity set whose body
+ * contains a collection of entities. The write processor creates the entities in chunks while it reads them, and
+ * closes the feed when it is done.
+ */
+public interface ODataEntityFeed extends Closeable {
+
+    /**
+     * Reads and unmarshalls the next entity of the collection.
+     *
+     * @return The next entity, or {@code null} if there are no more entities.
+     * @throws ODataException If the next entity cannot be read or is not valid.
+     */
+    Object nextEntity() throws ODataException;
+
+    /**
+     * Releases the request body. Entities which have not been read yet are discarded.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache for concurrent use which evicts the least recently used entries when it is full.
+ * <p>
+ * Lookups do not take a lock: an entry only records the time it was last used. When a put makes the cache exceed its
+ * maximum size, one thread removes the least recently used entries, plus a tenth of the maximum size so that the cost
+ * of sorting the entries is shared by many puts. Other threads do not wait for the eviction, so the cache may briefly
+ * hold a few more entries than its maximum size.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public final class ConcurrentLruCache<K, V> {
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+
+    private final int maxSize;
+    private final Map<K, Node<V>> map = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize The maximum number of entries.
+     */
+    public ConcurrentLruCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the value of a key and marks it as used.
+     *
+     * @param key The key.
+     * @return The value, or {@code null} if the key is not in the cache.
+     */
+    public V get(K key) {
+        Node<V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        node.lastAccess = System.nanoTime();
+        return node.value;
+    }
+
+    /**
+     * Puts a value in the cache, evicting the least recently used entries if the cache is full.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(K key, V value) {
+        map.put(key, new Node<>(value));
+        if (map.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Removes a key if it still has the given value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return {@code true} if the key was removed.
+     */
+    public boolean remove(K key, V value) {
+        Node<V> node = map.get(key);
+        return node != null && node.value == value && map.remove(key, node);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * @return The number of entries in the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @return The number of entries removed because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = map.size() - maxSize;
+            if (excess <= 0) {
+                return;
+            }
+
+            // Take a snapshot of the access times, as they change while sorting
+            List<Candidate<K, V>> candidates = new ArrayList<>(map.size());
+            for (Map.Entry<K, Node<V>> entry : map.entrySet()) {
+                candidates.add(new Candidate<>(entry.getKey(), entry.getValue()));
+            }
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+
+            int count = Math.min(candidates.size(), excess + maxSize / EVICTION_BATCH_DIVISOR);
+            for (int i = 0; i < count; i++) {
+                Candidate<K, V> candidate = candidates.get(i);
+                if (map.remove(candidate.key, candidate.node)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A cached value with the time it was last used.
+     *
+     * @param <V> The type of the value.
+     */
+    private static final class Node<V> {
+        private final V value;
+        private volatile long lastAccess;
+
+        private Node(V value) {
+            this.value = value;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+    /**
+     * An entry considered for eviction.
+     *
+     * @param <K> The type of the key.
+     * @param <V> The type of the value.
+     */
+    private static final class Candidate<K, V> {
+        private final K key;
+        private final Node<V> node;
+        private final long lastAccess;
+
+        private Candidate(K key, Node<V> node) {
+            this.key = key;
+            this.node = node;
+            this.lastAccess = node.lastAccess;
+        }
+    }
+}
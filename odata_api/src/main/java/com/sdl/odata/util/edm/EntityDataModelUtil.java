@@ -38,7 +38,6 @@ import com.sdl.odata.api.edm.model.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
 import java.time.Period;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -327,11 +326,9 @@ public final class EntityDataModelUtil {
      * @return The value of the property.
      */
     public static Object getPropertyValue(StructuralProperty property, Object object) {
-        Field field = property.getJavaField();
-        field.setAccessible(true);
         try {
-            return field.get(object);
-        } catch (IllegalAccessException e) {
+            return property.getPropertyAccessor().get(object);
+        } catch (ODataSystemException | ClassCastException e) {
             throw new ODataSystemException("Cannot read property: " + property + " of object: " + object, e);
         }
     }
@@ -344,11 +341,9 @@ public final class EntityDataModelUtil {
      * @param value    The value to set.
      */
     public static void setPropertyValue(StructuralProperty property, Object object, Object value) {
-        Field field = property.getJavaField();
-        field.setAccessible(true);
         try {
-            field.set(object, value);
-        } catch (IllegalAccessException e) {
+            property.getPropertyAccessor().set(object, value);
+        } catch (ODataSystemException | ClassCastException e) {
             throw new ODataSystemException("Cannot write property: " + property + " of object: " + object, e);
         }
     }
@@ -735,7 +730,7 @@ public final class EntityDataModelUtil {
                 LOG.error("Not possible to retrieve entity key for entity " + entity);
                 throw new ODataEdmException("Entity key is not found for " + entity);
             }
-        } catch (ReflectiveOperationException e) {
+        } catch (ODataSystemException e) {
             LOG.error("Not possible to retrieve entity key for entity " + entity, e);
             throw new ODataEdmException("Not possible to retrieve entity key for entity " + entity, e);
         }
@@ -743,12 +738,10 @@ public final class EntityDataModelUtil {
 
     private static String getKeyValueFromPropertyRef(EntityDataModel entityDataModel, Object entity,
                                                      PropertyRef propertyRef)
-            throws IllegalAccessException, ODataEdmException {
+            throws ODataEdmException {
 
         EntityType entityType = getAndCheckEntityType(entityDataModel, entity.getClass());
-        Field field = entityType.getStructuralProperty(propertyRef.getPath()).getJavaField();
-        field.setAccessible(true);
-        Object value = field.get(entity);
+        Object value = entityType.getStructuralProperty(propertyRef.getPath()).getPropertyAccessor().get(entity);
         if (value instanceof String) {
             return String.format("'%s'", ((String) value).replaceAll("'", "''"));
         } else if (value instanceof Period) {
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.util.edm;
+
+import com.sdl.odata.api.ODataSystemException;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link PropertyAccessor} backed by method handles which are resolved once for a Java field.
+ * <p>
+ * The field is made accessible once; the getter and setter handles are adapted to plain {@code Object} signatures
+ * so that they can be invoked exactly, and integral, floating point and boolean fields get an additional getter that
+ * returns the primitive value without boxing.
+ */
+public final class FieldPropertyAccessor implements PropertyAccessor {
+
+    private static final MethodType GETTER_TYPE = methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = methodType(void.class, Object.class, Object.class);
+    private static final MethodType LONG_GETTER_TYPE = methodType(long.class, Object.class);
+    private static final MethodType DOUBLE_GETTER_TYPE = methodType(double.class, Object.class);
+    private static final MethodType BOOLEAN_GETTER_TYPE = methodType(boolean.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final MethodHandle longGetter;
+    private final MethodHandle doubleGetter;
+    private final MethodHandle booleanGetter;
+
+    private FieldPropertyAccessor(Field field) throws IllegalAccessException {
+        this.field = field;
+        field.setAccessible(true);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle rawGetter = lookup.unreflectGetter(field);
+        MethodHandle rawSetter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+            rawGetter = MethodHandles.dropArguments(rawGetter, 0, Object.class);
+            rawSetter = rawSetter == null ? null : MethodHandles.dropArguments(rawSetter, 0, Object.class);
+        }
+
+        Class<?> type = field.getType();
+        this.getter = rawGetter.asType(GETTER_TYPE);
+        this.setter = rawSetter == null ? null : rawSetter.asType(SETTER_TYPE);
+        this.longGetter = type == long.class || type == int.class || type == short.class || type == byte.class ?
+                rawGetter.asType(LONG_GETTER_TYPE) : null;
+        this.doubleGetter = type == double.class || type == float.class ? rawGetter.asType(DOUBLE_GETTER_TYPE) : null;
+        this.booleanGetter = type == boolean.class ? rawGetter.asType(BOOLEAN_GETTER_TYPE) : null;
+    }
+
+    /**
+     * Creates the accessor for a Java field.
+     *
+     * @param field The field.
+     * @return The accessor for the field.
+     * @throws ODataSystemException If the field cannot be made accessible.
+     */
+    public static FieldPropertyAccessor forField(Field field) {
+        try {
+            return new FieldPropertyAccessor(field);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new ODataSystemException("Cannot access field: " + field.toGenericString(), e);
+        }
+    }
+
+    @Override
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    @Override
+    public Object get(Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        if (setter == null) {
+            // Final fields can only be written through reflection
+            try {
+                field.set(instance, value);
+                return;
+            } catch (IllegalAccessException e) {
+                throw new ODataSystemException("Cannot write field: " + field.toGenericString(), e);
+            }
+        }
+
+        try {
+            setter.invokeExact(instance, value);
+        } catch (ClassCastException | NullPointerException e) {
+            throw new IllegalArgumentException("Cannot set field " + field.toGenericString() + " to " +
+                    (value == null ? "null" : value.getClass().getName()), e);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    @Override
+    public long getLong(Object instance) {
+        if (longGetter == null) {
+            return ((Number) get(instance)).longValue();
+        }
+        try {
+            return (long) longGetter.invokeExact(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    @Override
+    public double getDouble(Object instance) {
+        if (doubleGetter == null) {
+            return ((Number) get(instance)).doubleValue();
+        }
+        try {
+            return (double) doubleGetter.invokeExact(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(Object instance) {
+        if (booleanGetter == null) {
+            return (Boolean) get(instance);
+        }
+        try {
+            return (boolean) booleanGetter.invokeExact(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new ODataSystemException(t);
+    }
+
+    @Override
+    public String toString() {
+        return field.toGenericString();
+    }
+}
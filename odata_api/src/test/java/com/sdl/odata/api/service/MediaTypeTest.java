@@ -18,6 +18,7 @@ package com.sdl.odata.api.service;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -73,4 +74,26 @@ public class MediaTypeTest {
         assertThat(mediaType.getSubType(), is("*"));
         assertThat(mediaType.getParameter("q"), is(".4"));
     }
+
+    @Test
+    public void testValueOfWellKnown() {
+        assertSame(MediaType.JSON, MediaType.valueOf("application/json"));
+        assertSame(MediaType.ATOM_XML, MediaType.valueOf("application/atom+xml"));
+        assertSame(MediaType.XML, MediaType.valueOf("application/xml"));
+        assertSame(MediaType.WILDCARD_ANY, MediaType.valueOf("*/*"));
+        assertSame(MediaType.WILDCARD_ANY, MediaType.valueOf("*"));
+    }
+
+    @Test
+    public void testValueOfInterned() {
+        MediaType mediaType = MediaType.valueOf("application/json;odata.metadata=minimal");
+
+        assertThat(mediaType, is(MediaType.fromString("application/json;odata.metadata=minimal")));
+        assertSame(mediaType, MediaType.valueOf("application/json;odata.metadata=minimal"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueOfInvalid() {
+        MediaType.valueOf("text;q=0.8");
+    }
 }
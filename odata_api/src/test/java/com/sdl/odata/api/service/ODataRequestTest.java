@@ -16,13 +16,20 @@
 package com.sdl.odata.api.service;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.sdl.odata.api.ODataSystemException;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -63,6 +70,55 @@ public class ODataRequestTest {
         assertThat(request.getBodyText("UTF-8"), is("The bike costs € 725"));
     }
 
+    @Test
+    public void testBuilderBodySource() throws Exception {
+        byte[] bytes = "{\"Name\":\"Bike\"}".getBytes(StandardCharsets.UTF_8);
+        ODataRequest request = new ODataRequest.Builder()
+                .setMethod(ODataRequest.Method.POST)
+                .setUri("http://localhost:8080/test")
+                .setBodySource(new ODataRequestBody(new ByteArrayInputStream(bytes), bytes.length,
+                        ODataRequestBody.UNKNOWN))
+                .build();
+
+        assertThat(request.getBodySource().getSizeHint(), is((long) bytes.length));
+        assertThat(ByteStreams.toByteArray(request.getBodyStream()), is(bytes));
+        assertTrue(request.getBodySource().isConsumed());
+    }
+
+    @Test
+    public void testBodySourceReadOnDemand() throws Exception {
+        ODataRequest request = new ODataRequest.Builder()
+                .setMethod(ODataRequest.Method.POST)
+                .setUri("http://localhost:8080/test")
+                .setBodySource(new ODataRequestBody(new ByteArrayInputStream(new byte[]{1, 2, 3}),
+                        ODataRequestBody.UNKNOWN, ODataRequestBody.UNKNOWN))
+                .build();
+
+        assertThat(request.getBody(), is(new byte[]{1, 2, 3}));
+        assertThat(ByteStreams.toByteArray(request.getBodyStream()), is(new byte[]{1, 2, 3}));
+    }
+
+    @Test(expected = ODataSystemException.class)
+    public void testBodyCannotBeReadAfterStreamIsConsumed() throws Exception {
+        ODataRequest request = new ODataRequest.Builder()
+                .setMethod(ODataRequest.Method.POST)
+                .setUri("http://localhost:8080/test")
+                .setBodySource(new ODataRequestBody(new ByteArrayInputStream(new byte[]{1, 2, 3}),
+                        ODataRequestBody.UNKNOWN, ODataRequestBody.UNKNOWN))
+                .build();
+
+        assertFalse(request.isBodyConsumed());
+        ByteStreams.toByteArray(request.getBodyStream());
+        assertTrue(request.isBodyConsumed());
+        request.getBody();
+    }
+
+    @Test(expected = ODataRequestBody.SizeLimitExceededException.class)
+    public void testBodySourceMaxSize() throws Exception {
+        ODataRequestBody body = new ODataRequestBody(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}), 4, 3);
+        body.readFully();
+    }
+
     @Test
     public void testGetAccept() {
         ODataRequest request = new ODataRequest.Builder()
@@ -95,6 +151,40 @@ public class ODataRequestTest {
         assertThat(mediaType3.getParameter("q"), is("0.1"));
     }
 
+    @Test
+    public void testGetAcceptMemoized() {
+        ODataRequest request = new ODataRequest.Builder()
+                .setMethod(ODataRequest.Method.GET)
+                .setUri("http://localhost:8080/test")
+                .setHeader(HeaderNames.ACCEPT, "application/json, */*")
+                .setHeader(HeaderNames.CONTENT_TYPE, "application/atom+xml")
+                .build();
+
+        List<MediaType> mediaTypes = request.getAccept();
+        assertSame(mediaTypes, request.getAccept());
+        assertSame(MediaType.JSON, mediaTypes.get(0));
+        assertSame(MediaType.WILDCARD_ANY, mediaTypes.get(1));
+        assertSame(MediaType.ATOM_XML, request.getContentType());
+        assertSame(request.getContentType(), request.getContentType());
+    }
+
+    @Test
+    public void testGetAcceptAfterHeadersChange() {
+        ODataRequest request = new ODataRequest.Builder()
+                .setMethod(ODataRequest.Method.GET)
+                .setUri("http://localhost:8080/test")
+                .setHeader(HeaderNames.ACCEPT, "text/html")
+                .build();
+
+        List<MediaType> mediaTypes = request.getAccept();
+        request.setHeaders(ImmutableMap.of(HeaderNames.ACCEPT, "application/xml"));
+
+        List<MediaType> changed = request.getAccept();
+        assertNotSame(mediaTypes, changed);
+        assertThat(changed.size(), is(1));
+        assertSame(MediaType.XML, changed.get(0));
+    }
+
     @Test
     public void testBuilderWithAdditionalData() throws UnsupportedEncodingException {
         ODataRequest request = new ODataRequest.Builder()
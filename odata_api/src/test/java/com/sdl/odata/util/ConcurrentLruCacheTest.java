@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link ConcurrentLruCache}.
+ */
+public class ConcurrentLruCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2);
+        cache.put("a", "1");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.getEvictionCount());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void testEvictsInBatches() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100);
+        for (int i = 0; i <= 100; i++) {
+            cache.put(i, i);
+        }
+
+        assertEquals(90, cache.size());
+        assertEquals(11L, cache.getEvictionCount());
+        assertNull(cache.get(0));
+        assertEquals(Integer.valueOf(100), cache.get(100));
+    }
+
+    @Test
+    public void testRemoveOnlyCurrentValue() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2);
+        String value = "1";
+        cache.put("a", value);
+
+        assertFalse(cache.remove("a", new String("1")));
+        assertTrue(cache.remove("a", value));
+        assertNull(cache.get("a"));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.util.edm;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * The Field Property Accessor Test.
+ */
+public class FieldPropertyAccessorTest {
+
+    /**
+     * Sample class with fields of different kinds.
+     */
+    private static final class Sample {
+        private long id = 42L;
+        private int count = 7;
+        private double price = 1.5;
+        private boolean active = true;
+        private String name;
+        private Integer boxed = 3;
+    }
+
+    private static FieldPropertyAccessor accessor(String fieldName) throws NoSuchFieldException {
+        return FieldPropertyAccessor.forField(Sample.class.getDeclaredField(fieldName));
+    }
+
+    @Test
+    public void testGetAndSet() throws Exception {
+        Sample sample = new Sample();
+        FieldPropertyAccessor name = accessor("name");
+
+        assertThat(name.getType().getName(), is(String.class.getName()));
+        assertThat(name.get(sample), is(nullValue()));
+        name.set(sample, "Foo");
+        assertThat(sample.name, is("Foo"));
+        assertThat(name.get(sample), is((Object) "Foo"));
+
+        FieldPropertyAccessor count = accessor("count");
+        count.set(sample, 9);
+        assertThat(sample.count, is(9));
+    }
+
+    @Test
+    public void testPrimitiveGetters() throws Exception {
+        Sample sample = new Sample();
+
+        assertThat(accessor("id").getLong(sample), is(42L));
+        assertThat(accessor("count").getLong(sample), is(7L));
+        assertThat(accessor("boxed").getLong(sample), is(3L));
+        assertThat(accessor("price").getDouble(sample), is(1.5));
+        assertThat(accessor("active").getBoolean(sample), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetWrongType() throws Exception {
+        accessor("count").set(new Sample(), "not a number");
+    }
+}
@@ -17,24 +17,31 @@ package com.sdl.odata.controller;
 
 import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestBody;
 import com.sdl.odata.api.service.ODataResponse;
 import com.sdl.odata.api.service.ODataService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import javax.annotation.PostConstruct;
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.Enumeration;
+import java.util.Locale;
 import java.util.Map;
 
+import static com.sdl.odata.api.service.HeaderNames.ACCEPT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_TYPE;
+import static com.sdl.odata.api.service.HeaderNames.VARY;
 import static com.sdl.odata.util.ReferenceUtil.isNullOrEmpty;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.springframework.web.bind.annotation.RequestMethod.DELETE;
@@ -49,13 +56,39 @@ import static org.springframework.web.bind.annotation.RequestMethod.PUT;
 public abstract class AbstractODataController {
     private static final Logger LOG = LoggerFactory.getLogger(AbstractODataController.class);
 
-    private static final int BUFFER_SIZE = 1024;
     private static final int DEFAULT_PORT_NUMBER = 80;
     private static final int DEFAULT_SSL_PORT_NUMBER = 443;
+    private static final int DEFAULT_COMPRESSION_MIN_SIZE = 1024;
+    private static final int DEFAULT_COMPRESSION_LEVEL = 6;
 
     @Autowired
     private ODataService oDataService;
 
+    @Value("${odata.request.streaming-body:false}")
+    private boolean streamingBody;
+
+    @Value("${odata.request.max-body-size:-1}")
+    private long maxBodySize = ODataRequestBody.UNKNOWN;
+
+    @Value("${odata.response.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${odata.response.compression.min-size:1024}")
+    private int compressionMinSize = DEFAULT_COMPRESSION_MIN_SIZE;
+
+    @Value("${odata.response.compression.level:6}")
+    private int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+
+    private ResponseCompression responseCompression;
+
+    @PostConstruct
+    public void initResponseCompression() {
+        if (compressionEnabled) {
+            responseCompression = new ResponseCompression(compressionLevel,
+                    2 * Runtime.getRuntime().availableProcessors());
+        }
+    }
+
     @RequestMapping(method = {
             GET, POST, PATCH, PUT, DELETE
     })
@@ -65,12 +98,29 @@ public abstract class AbstractODataController {
             LOG.trace("Start processing request from: {}", servletRequest.getRemoteAddr());
         }
 
-        ODataResponse oDataResponse;
+        if (maxBodySize >= 0 && servletRequest.getContentLengthLong() > maxBodySize) {
+            servletResponse.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        ODataRequest oDataRequest;
         try {
-            ODataRequest oDataRequest = buildODataRequest(servletRequest);
-            doWireLogging(oDataRequest);
-            oDataResponse = oDataService.handleRequest(oDataRequest);
-            fillServletResponse(oDataResponse, servletResponse);
+            oDataRequest = buildODataRequest(servletRequest);
+        } catch (ODataRequestBody.SizeLimitExceededException e) {
+            LOG.debug("Rejected request from: {}", servletRequest.getRemoteAddr(), e);
+            servletResponse.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        doWireLogging(oDataRequest);
+
+        if (servletRequest.isAsyncSupported()) {
+            serviceAsync(oDataRequest, servletRequest, servletResponse);
+            return;
+        }
+
+        try {
+            ODataResponse oDataResponse = oDataService.handleRequest(oDataRequest);
+            fillServletResponse(oDataRequest, oDataResponse, servletResponse);
         } catch (ODataException e) {
             throw new ServletException(e);
         }
@@ -80,6 +130,59 @@ public abstract class AbstractODataController {
         }
     }
 
+    /**
+     * Handles the request asynchronously, so that the container thread is released while the request is processed.
+     * The service enforces the request deadline, so the container's async timeout is disabled. The service completes
+     * the response on a thread of the actor system; writing the response blocks on the client, so it is handed back
+     * to a container thread with {@link AsyncContext#start(Runnable)}.
+     *
+     * @param oDataRequest    The {@code ODataRequest}.
+     * @param servletRequest  The {@code HttpServletRequest}.
+     * @param servletResponse The {@code HttpServletResponse}.
+     */
+    private void serviceAsync(ODataRequest oDataRequest, HttpServletRequest servletRequest,
+                              HttpServletResponse servletResponse) {
+        String remoteAddr = servletRequest.getRemoteAddr();
+        AsyncContext asyncContext = servletRequest.startAsync(servletRequest, servletResponse);
+        asyncContext.setTimeout(0);
+
+        oDataService.handleRequestAsync(oDataRequest).whenComplete((oDataResponse, error) ->
+                asyncContext.start(() -> writeAsyncResponse(oDataRequest, oDataResponse, error, servletResponse,
+                        asyncContext, remoteAddr)));
+    }
+
+    /**
+     * Writes the outcome of an asynchronously handled request and completes the async context.
+     *
+     * @param oDataRequest    The {@code ODataRequest}.
+     * @param oDataResponse   The {@code ODataResponse}, or {@code null} if the request failed.
+     * @param error           The error the request failed with, or {@code null}.
+     * @param servletResponse The {@code HttpServletResponse}.
+     * @param asyncContext    The async context of the request.
+     * @param remoteAddr      The address of the client, for logging.
+     */
+    private void writeAsyncResponse(ODataRequest oDataRequest, ODataResponse oDataResponse, Throwable error,
+                                    HttpServletResponse servletResponse, AsyncContext asyncContext,
+                                    String remoteAddr) {
+        try {
+            if (error != null) {
+                LOG.error("Error while processing request from: " + remoteAddr, error);
+                servletResponse.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } else {
+                fillServletResponse(oDataRequest, oDataResponse, servletResponse);
+            }
+        } catch (IOException | ODataException | RuntimeException e) {
+            LOG.error("Unable to write response for request from: " + remoteAddr, e);
+            sendErrorIfNotCommitted(servletResponse);
+        } finally {
+            asyncContext.complete();
+        }
+
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Finished processing request from: {}", remoteAddr);
+        }
+    }
+
     /**
      * Converts an {@code HttpServletRequest} to an {@code ODataRequest}.
      *
@@ -108,15 +211,14 @@ public abstract class AbstractODataController {
             builder.setHeader(name, value);
         }
 
-        // Read the request body
-        InputStream in = servletRequest.getInputStream();
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        int count;
-        byte[] buffer = new byte[BUFFER_SIZE];
-        while ((count = in.read(buffer)) != -1) {
-            out.write(buffer, 0, count);
+        // Either hand the request body over to be consumed lazily, or read it completely
+        ODataRequestBody body = new ODataRequestBody(servletRequest.getInputStream(),
+                servletRequest.getContentLengthLong(), maxBodySize);
+        if (streamingBody) {
+            builder.setBodySource(body);
+        } else {
+            builder.setBody(body.readFully());
         }
-        builder.setBody(out.toByteArray());
 
         return builder.build();
     }
@@ -151,14 +253,16 @@ public abstract class AbstractODataController {
     }
 
     /**
-     * Transfers data from an {@code ODataResponse} into an {@code HttpServletResponse}.
+     * Transfers data from an {@code ODataResponse} into an {@code HttpServletResponse}. When response compression is
+     * enabled and the client accepts it, the body is compressed on the way out.
      *
+     * @param oDataRequest    The {@code ODataRequest} the response answers.
      * @param oDataResponse   The {@code ODataResponse}.
      * @param servletResponse The {@code HttpServletResponse}
      * @throws java.io.IOException If an I/O error occurs.
      */
-    private void fillServletResponse(ODataResponse oDataResponse, HttpServletResponse servletResponse)
-            throws IOException, ODataException {
+    private void fillServletResponse(ODataRequest oDataRequest, ODataResponse oDataResponse,
+                                     HttpServletResponse servletResponse) throws IOException, ODataException {
         servletResponse.setStatus(oDataResponse.getStatus().getCode());
 
         for (Map.Entry<String, String> entry : oDataResponse.getHeaders().entrySet()) {
@@ -167,11 +271,74 @@ public abstract class AbstractODataController {
 
         byte[] body = oDataResponse.getBody();
         if (body != null && body.length != 0) {
-            OutputStream out = servletResponse.getOutputStream();
-            out.write(oDataResponse.getBody());
-            out.flush();
+            ResponseCompression.Coding coding = selectCompression(oDataRequest, oDataResponse, servletResponse);
+            if (coding != null && body.length >= compressionMinSize) {
+                servletResponse.setHeader(CONTENT_ENCODING, coding.getName());
+                try (OutputStream out = responseCompression.compress(servletResponse.getOutputStream(), coding)) {
+                    out.write(body);
+                }
+            } else {
+                OutputStream out = servletResponse.getOutputStream();
+                out.write(body);
+                out.flush();
+            }
         } else if (oDataResponse.getStreamingContent() != null) {
-            oDataResponse.getStreamingContent().write(servletResponse);
+            // The size of streamed content is not known up front, so the minimum size does not apply
+            ResponseCompression.Coding coding = selectCompression(oDataRequest, oDataResponse, servletResponse);
+            if (coding != null) {
+                CompressingServletResponse compressingResponse =
+                        new CompressingServletResponse(servletResponse, responseCompression, coding);
+                try {
+                    oDataResponse.getStreamingContent().write(compressingResponse);
+                } finally {
+                    compressingResponse.finish();
+                }
+            } else {
+                oDataResponse.getStreamingContent().write(servletResponse);
+            }
+        }
+    }
+
+    /**
+     * Selects the content coding to compress a response body with. Bodies which already have a content coding, for
+     * example pre-rendered gzip documents, and content types which are compressed by nature are left alone. For
+     * other bodies {@code Vary: Accept-Encoding} is added, since the representation depends on that header.
+     *
+     * @param oDataRequest    The {@code ODataRequest}.
+     * @param oDataResponse   The {@code ODataResponse}.
+     * @param servletResponse The {@code HttpServletResponse}
+     * @return The content coding, or {@code null} if the body must be sent as it is.
+     */
+    private ResponseCompression.Coding selectCompression(ODataRequest oDataRequest, ODataResponse oDataResponse,
+                                                         HttpServletResponse servletResponse) {
+        if (responseCompression == null || oDataResponse.getHeader(CONTENT_ENCODING) != null
+                || !ResponseCompression.isCompressible(oDataResponse.getHeader(CONTENT_TYPE))) {
+            return null;
+        }
+
+        String vary = servletResponse.getHeader(VARY);
+        if (isNullOrEmpty(vary)) {
+            servletResponse.setHeader(VARY, ACCEPT_ENCODING);
+        } else if (!vary.toLowerCase(Locale.ENGLISH).contains(ACCEPT_ENCODING.toLowerCase(Locale.ENGLISH))) {
+            servletResponse.setHeader(VARY, vary + ", " + ACCEPT_ENCODING);
+        }
+        return ResponseCompression.negotiate(oDataRequest.getHeader(ACCEPT_ENCODING));
+    }
+
+    /**
+     * Sends an internal server error if nothing has been sent to the client yet, for example when streaming rendering
+     * of the response body failed.
+     *
+     * @param servletResponse The {@code HttpServletResponse}.
+     */
+    private void sendErrorIfNotCommitted(HttpServletResponse servletResponse) {
+        if (!servletResponse.isCommitted()) {
+            try {
+                servletResponse.reset();
+                servletResponse.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (IOException | IllegalStateException e) {
+                LOG.debug("Unable to send error response", e);
+            }
         }
     }
 
@@ -184,7 +351,9 @@ public abstract class AbstractODataController {
                 LOG.trace("Header: {} value: {}", headerEntry.getKey(), headerEntry.getValue());
             }
 
-            LOG.trace("BODY: {}", request.getBodyText(UTF_8.name()));
+            if (request.getBodySource() == null) {
+                LOG.trace("BODY: {}", request.getBodyText(UTF_8.name()));
+            }
         }
     }
 }
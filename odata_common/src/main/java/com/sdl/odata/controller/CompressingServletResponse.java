@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.controller;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_LENGTH;
+
+/**
+ * Response wrapper which compresses everything written to the response, used for streamed response bodies whose
+ * size is not known up front. The {@code Content-Encoding} header is set when the output stream or writer is first
+ * requested, so a response without a body is sent without it; the content length is ignored, since it would describe
+ * the uncompressed body. {@link #finish()} must be called when the body is complete.
+ */
+final class CompressingServletResponse extends HttpServletResponseWrapper {
+
+    private final ResponseCompression compression;
+    private final ResponseCompression.Coding coding;
+    private CompressingServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CompressingServletResponse(HttpServletResponse response, ResponseCompression compression,
+                               ResponseCompression.Coding coding) {
+        super(response);
+        this.compression = compression;
+        this.coding = coding;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (outputStream == null) {
+            outputStream = createOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            outputStream = createOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    private CompressingServletOutputStream createOutputStream() throws IOException {
+        super.setHeader(CONTENT_ENCODING, coding.getName());
+        ServletOutputStream servletOutputStream = getResponse().getOutputStream();
+        return new CompressingServletOutputStream(servletOutputStream,
+                compression.compress(servletOutputStream, coding));
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (outputStream != null) {
+            outputStream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        // The length of the compressed body is not known
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // The length of the compressed body is not known
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    /**
+     * Finishes the compressed body and returns the deflater to the pool. The underlying output stream is flushed,
+     * but not closed.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Servlet output stream which writes through a compressing stream.
+     */
+    private static final class CompressingServletOutputStream extends ServletOutputStream {
+        private final ServletOutputStream servletOutputStream;
+        private final OutputStream compressingStream;
+
+        private CompressingServletOutputStream(ServletOutputStream servletOutputStream,
+                                               OutputStream compressingStream) {
+            this.servletOutputStream = servletOutputStream;
+            this.compressingStream = compressingStream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            compressingStream.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            compressingStream.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            compressingStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            compressingStream.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return servletOutputStream.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            servletOutputStream.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses response bodies with gzip or deflate. The content coding is negotiated from the {@code Accept-Encoding}
+ * request header. Deflaters hold native memory, so they are kept in a bounded pool and reused instead of being
+ * created and ended for every response.
+ */
+final class ResponseCompression {
+
+    /**
+     * Content codings supported for responses, in order of preference.
+     */
+    enum Coding {
+        GZIP("gzip", true),
+        DEFLATE("deflate", false);
+
+        private final String name;
+        private final boolean nowrap;
+
+        Coding(String name, boolean nowrap) {
+            this.name = name;
+            this.nowrap = nowrap;
+        }
+
+        /**
+         * Returns the name of the coding, as used in the {@code Content-Encoding} header.
+         *
+         * @return The name of the coding.
+         */
+        String getName() {
+            return name;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int BYTE_MASK = 0xff;
+    private static final int BYTE_BITS = 8;
+    private static final long UINT_MASK = 0xffffffffL;
+
+    private final int level;
+    private final BlockingQueue<Deflater> gzipDeflaters;
+    private final BlockingQueue<Deflater> deflateDeflaters;
+
+    /**
+     * Constructor.
+     *
+     * @param level    The compression level, from 1 to 9, or -1 for the default level.
+     * @param poolSize The maximum number of idle deflaters to keep per coding.
+     */
+    ResponseCompression(int level, int poolSize) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+        this.gzipDeflaters = new ArrayBlockingQueue<>(poolSize);
+        this.deflateDeflaters = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Selects the content coding to use for a response from an {@code Accept-Encoding} header. The coding with the
+     * highest quality wins; gzip is preferred when qualities are equal, and a wildcard accepts gzip.
+     *
+     * @param acceptEncoding The header value, may be {@code null}.
+     * @return The coding to use, or {@code null} if the body must not be compressed.
+     */
+    static Coding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+            double quality = parts.length < 2 ? 1 : quality(parts[1].trim());
+            if (Coding.GZIP.name.equals(name) || "x-gzip".equals(name)) {
+                gzip = quality;
+            } else if (Coding.DEFLATE.name.equals(name)) {
+                deflate = quality;
+            } else if ("*".equals(name)) {
+                wildcard = quality;
+            }
+        }
+
+        if (gzip < 0) {
+            gzip = wildcard;
+        }
+        if (deflate < 0) {
+            deflate = wildcard;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return Coding.GZIP;
+        }
+        return deflate > 0 ? Coding.DEFLATE : null;
+    }
+
+    private static double quality(String parameter) {
+        if (!parameter.startsWith("q=")) {
+            return 1;
+        }
+        try {
+            return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Checks whether a body of the given content type is worth compressing. Images, audio, video and archives are
+     * already compressed.
+     *
+     * @param contentType The value of the {@code Content-Type} header, may be {@code null}.
+     * @return {@code true} if the body should be compressed.
+     */
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+
+        String type = contentType.toLowerCase(Locale.ENGLISH);
+        if (type.startsWith("image/")) {
+            return type.startsWith("image/svg");
+        }
+        return !(type.startsWith("audio/") || type.startsWith("video/")
+                || type.startsWith("application/zip") || type.startsWith("application/gzip")
+                || type.startsWith("application/x-gzip") || type.startsWith("application/x-compress")
+                || type.startsWith("application/x-7z-compressed") || type.startsWith("application/x-rar"));
+    }
+
+    /**
+     * Opens a stream that compresses everything written to it into the given stream. Flushing the stream flushes
+     * the data compressed so far, so streamed responses still reach the client in chunks. Closing the stream
+     * finishes the compressed data and returns the deflater to the pool, but does not close the given stream.
+     *
+     * @param out    The stream to write the compressed data to.
+     * @param coding The content coding.
+     * @return The compressing stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    OutputStream compress(OutputStream out, Coding coding) throws IOException {
+        BlockingQueue<Deflater> pool = coding == Coding.GZIP ? gzipDeflaters : deflateDeflaters;
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, coding.nowrap);
+        }
+        return new CompressingOutputStream(out, deflater, pool, coding == Coding.GZIP);
+    }
+
+    /**
+     * Compressing stream which borrows its deflater from a pool. For gzip, the deflater produces raw deflate data
+     * and the gzip header and trailer are written here.
+     */
+    private static final class CompressingOutputStream extends DeflaterOutputStream {
+        private static final byte[] GZIP_HEADER = {
+                (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> BYTE_BITS), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+        };
+
+        private final BlockingQueue<Deflater> pool;
+        private final CRC32 crc;
+        private boolean closed;
+
+        private CompressingOutputStream(OutputStream out, Deflater deflater, BlockingQueue<Deflater> pool,
+                                        boolean gzip) throws IOException {
+            super(out, deflater, BUFFER_SIZE, true);
+            this.pool = pool;
+            this.crc = gzip ? new CRC32() : null;
+            if (gzip) {
+                out.write(GZIP_HEADER);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            super.write(b, off, len);
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Once closed, the deflater may already be in use by another response
+            if (!closed) {
+                super.flush();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!def.finished()) {
+                super.finish();
+                if (crc != null) {
+                    writeInt(crc.getValue());
+                    writeInt(def.getBytesRead() & UINT_MASK);
+                }
+            }
+        }
+
+        private void writeInt(long value) throws IOException {
+            for (int i = 0; i < Integer.BYTES; i++) {
+                out.write((int) (value >> (i * BYTE_BITS)) & BYTE_MASK);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                finish();
+                out.flush();
+            } finally {
+                def.reset();
+                if (!pool.offer(def)) {
+                    def.end();
+                }
+            }
+        }
+    }
+}
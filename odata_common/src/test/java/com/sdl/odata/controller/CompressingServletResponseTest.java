@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.controller;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_LENGTH;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_TYPE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compressing Servlet Response Test.
+ */
+public class CompressingServletResponseTest {
+
+    private static final String BODY = "{\"value\":[{\"id\":1,\"name\":\"Alice\"},{\"id\":2,\"name\":\"Bob\"}]}";
+
+    private final ResponseCompression compression = new ResponseCompression(-1, 1);
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private HttpServletResponse response;
+
+    @Before
+    public void setUp() throws IOException {
+        response = mock(HttpServletResponse.class);
+        when(response.getCharacterEncoding()).thenReturn(UTF_8.name());
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+    }
+
+    @Test
+    public void testGzipOutputStreamRoundTrip() throws IOException {
+        CompressingServletResponse compressing =
+                new CompressingServletResponse(response, compression, ResponseCompression.Coding.GZIP);
+        ServletOutputStream out = compressing.getOutputStream();
+        out.write(BODY.getBytes(UTF_8));
+        out.flush();
+        compressing.finish();
+
+        verify(response).setHeader(CONTENT_ENCODING, "gzip");
+        assertEquals(BODY, read(new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))));
+    }
+
+    @Test
+    public void testDeflateWriterRoundTrip() throws IOException {
+        CompressingServletResponse compressing =
+                new CompressingServletResponse(response, compression, ResponseCompression.Coding.DEFLATE);
+        PrintWriter writer = compressing.getWriter();
+        writer.write(BODY);
+        compressing.finish();
+
+        verify(response).setHeader(CONTENT_ENCODING, "deflate");
+        assertEquals(BODY, read(new InflaterInputStream(new ByteArrayInputStream(body.toByteArray()))));
+    }
+
+    @Test
+    public void testNoContentEncodingWithoutBody() throws IOException {
+        CompressingServletResponse compressing =
+                new CompressingServletResponse(response, compression, ResponseCompression.Coding.GZIP);
+        compressing.setHeader(CONTENT_TYPE, "application/json");
+        compressing.finish();
+
+        verify(response).setHeader(CONTENT_TYPE, "application/json");
+        verify(response, never()).setHeader(eq(CONTENT_ENCODING), anyString());
+        verify(response, never()).getOutputStream();
+        assertEquals(0, body.size());
+    }
+
+    @Test
+    public void testContentLengthIsDropped() throws IOException {
+        CompressingServletResponse compressing =
+                new CompressingServletResponse(response, compression, ResponseCompression.Coding.GZIP);
+        compressing.setContentLength(BODY.length());
+        compressing.setContentLengthLong(BODY.length());
+        compressing.setHeader(CONTENT_LENGTH, String.valueOf(BODY.length()));
+        compressing.addHeader(CONTENT_LENGTH, String.valueOf(BODY.length()));
+
+        verify(response, never()).setContentLength(anyInt());
+        verify(response, never()).setContentLengthLong(anyLong());
+        verify(response, never()).setHeader(eq(CONTENT_LENGTH), anyString());
+        verify(response, never()).addHeader(eq(CONTENT_LENGTH), anyString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriterAfterOutputStream() throws IOException {
+        CompressingServletResponse compressing =
+                new CompressingServletResponse(response, compression, ResponseCompression.Coding.GZIP);
+        compressing.getOutputStream();
+        compressing.getWriter();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.controller;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.sdl.odata.controller.ResponseCompression.Coding.DEFLATE;
+import static com.sdl.odata.controller.ResponseCompression.Coding.GZIP;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Response Compression Test.
+ */
+public class ResponseCompressionTest {
+
+    private static final String BODY =
+            "{\"@odata.context\":\"$metadata#Customers\",\"value\":[{\"id\":1,\"name\":\"Alice\"}]}";
+
+    private final ResponseCompression compression = new ResponseCompression(-1, 1);
+
+    @Test
+    public void testGzipRoundTrip() throws IOException {
+        byte[] compressed = compress(GZIP, BODY);
+
+        assertEquals(BODY, read(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testDeflateRoundTrip() throws IOException {
+        byte[] compressed = compress(DEFLATE, BODY);
+
+        assertEquals(BODY, read(new InflaterInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testRoundTripWithFlushesAndPooledDeflater() throws IOException {
+        compress(GZIP, "first response");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream compressing = compression.compress(out, GZIP)) {
+            compressing.write("first chunk, ".getBytes(UTF_8));
+            compressing.flush();
+            compressing.write("second chunk".getBytes(UTF_8));
+        }
+
+        assertEquals("first chunk, second chunk",
+                read(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    @Test
+    public void testEmptyGzipBodyIsValid() throws IOException {
+        byte[] compressed = compress(GZIP, "");
+
+        assertEquals("", read(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLevel() {
+        new ResponseCompression(10, 1);
+    }
+
+    @Test
+    public void testNegotiate() {
+        assertNull(ResponseCompression.negotiate(null));
+        assertNull(ResponseCompression.negotiate("identity"));
+        assertEquals(GZIP, ResponseCompression.negotiate("gzip"));
+        assertEquals(GZIP, ResponseCompression.negotiate("x-gzip"));
+        assertEquals(DEFLATE, ResponseCompression.negotiate("deflate"));
+        assertEquals(DEFLATE, ResponseCompression.negotiate("gzip;q=0.5, deflate"));
+    }
+
+    @Test
+    public void testNegotiateRejectsZeroQuality() {
+        assertNull(ResponseCompression.negotiate("gzip;q=0"));
+        assertNull(ResponseCompression.negotiate("gzip;q=0, deflate;q=0.0"));
+        assertEquals(DEFLATE, ResponseCompression.negotiate("gzip;q=0, deflate"));
+        assertNull(ResponseCompression.negotiate("*;q=0"));
+    }
+
+    @Test
+    public void testNegotiateWildcard() {
+        assertEquals(GZIP, ResponseCompression.negotiate("*"));
+        assertEquals(DEFLATE, ResponseCompression.negotiate("gzip;q=0, *"));
+        assertEquals(GZIP, ResponseCompression.negotiate("deflate;q=0, *;q=0.5"));
+        assertEquals(DEFLATE, ResponseCompression.negotiate("deflate, *;q=0.5"));
+    }
+
+    @Test
+    public void testNegotiatePrefersGzipOnTies() {
+        assertEquals(GZIP, ResponseCompression.negotiate("deflate, gzip"));
+        assertEquals(GZIP, ResponseCompression.negotiate("deflate;q=0.8, gzip;q=0.8"));
+        assertEquals(GZIP, ResponseCompression.negotiate("deflate, *"));
+    }
+
+    @Test
+    public void testIsCompressible() {
+        assertTrue(ResponseCompression.isCompressible(null));
+        assertTrue(ResponseCompression.isCompressible("application/json;odata.metadata=minimal"));
+        assertTrue(ResponseCompression.isCompressible("application/atom+xml"));
+        assertTrue(ResponseCompression.isCompressible("image/svg+xml"));
+        assertFalse(ResponseCompression.isCompressible("image/png"));
+        assertFalse(ResponseCompression.isCompressible("video/mp4"));
+        assertFalse(ResponseCompression.isCompressible("application/zip"));
+    }
+
+    private byte[] compress(ResponseCompression.Coding coding, String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream compressing = compression.compress(out, coding)) {
+            compressing.write(body.getBytes(UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
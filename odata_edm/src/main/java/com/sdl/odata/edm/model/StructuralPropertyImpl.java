@@ -15,8 +15,10 @@
  */
 package com.sdl.odata.edm.model;
 
+import com.sdl.odata.api.edm.model.PropertyAccessor;
 import com.sdl.odata.api.edm.model.StructuralProperty;
 import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.util.edm.FieldPropertyAccessor;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
@@ -126,6 +128,7 @@ public abstract class StructuralPropertyImpl implements StructuralProperty {
     private final boolean isCollection;
     private final boolean isNullable;
     private final Field javaField;
+    private final PropertyAccessor propertyAccessor;
 
     protected StructuralPropertyImpl(Builder builder) {
         this.name = builder.name;
@@ -133,6 +136,7 @@ public abstract class StructuralPropertyImpl implements StructuralProperty {
         this.isCollection = builder.isCollection;
         this.isNullable = builder.isNullable;
         this.javaField = builder.javaField;
+        this.propertyAccessor = builder.javaField != null ? FieldPropertyAccessor.forField(builder.javaField) : null;
     }
 
     public String getName() {
@@ -159,6 +163,10 @@ public abstract class StructuralPropertyImpl implements StructuralProperty {
         return javaField;
     }
 
+    public PropertyAccessor getPropertyAccessor() {
+        return propertyAccessor;
+    }
+
     @Override
     public String toString() {
         return name;
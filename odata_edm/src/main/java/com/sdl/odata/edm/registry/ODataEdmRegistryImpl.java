@@ -18,16 +18,29 @@ package com.sdl.odata.edm.registry;
 import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.edm.registry.ODataEdmRegistry;
+import com.sdl.odata.api.edm.registry.ODataEdmRegistryListener;
 import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Implementation of {@link com.sdl.odata.api.edm.registry.ODataEdmRegistry}.
+ * <p>
+ * The entity data model is published as an immutable, versioned snapshot. Registering classes bumps the version and
+ * rebuilds the model in the background; the new snapshot is swapped in atomically once it is built, readers keep
+ * getting the previous snapshot until then. Only the very first model is built on the calling thread, if it is
+ * requested before the background build has published it. Listeners are notified of every published snapshot on
+ * the background thread.
  */
 @Component
 public class ODataEdmRegistryImpl implements ODataEdmRegistry {
@@ -35,25 +48,127 @@ public class ODataEdmRegistryImpl implements ODataEdmRegistry {
 
     private final List<Class<?>> classes = new ArrayList<>();
 
-    private EntityDataModel entityDataModel;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    private final List<ODataEdmRegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "odata-edm-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long registeredVersion;
 
     @Override
     public synchronized void registerClasses(List<Class<?>> registerClasses) {
         LOG.debug("registerClasses: classes={}", registerClasses);
         this.classes.addAll(registerClasses);
-        entityDataModel = null;
+        registeredVersion++;
+
+        builder.execute(this::buildInBackground);
+    }
+
+    @Override
+    public EntityDataModel getEntityDataModel() throws ODataException {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            return current.entityDataModel;
+        }
+
+        // Nothing has been published yet, so there is nothing for the reader to use in the meantime
+        return build().entityDataModel;
+    }
+
+    @Override
+    public long getEntityDataModelVersion() {
+        Snapshot current = snapshot.get();
+        return current != null ? current.version : 0L;
     }
 
     @Override
-    public synchronized EntityDataModel getEntityDataModel() throws ODataException {
-        if (entityDataModel == null) {
-            AnnotationEntityDataModelFactory factory = new AnnotationEntityDataModelFactory();
-            classes.forEach(factory::addClass);
+    public void addListener(ODataEdmRegistryListener listener) {
+        listeners.add(listener);
+
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            notifyInBackground(listener, current);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private void buildInBackground() {
+        try {
+            build();
+        } catch (ODataException | RuntimeException e) {
+            LOG.error("Unable to build EntityDataModel, keeping version " + getEntityDataModelVersion(), e);
+        }
+    }
+
+    /**
+     * Builds the model for the currently registered classes and publishes it, unless a model for the same or a
+     * newer version has been published already.
+     *
+     * @return The published snapshot.
+     * @throws ODataException If unable to build the entity data model
+     */
+    private Snapshot build() throws ODataException {
+        List<Class<?>> buildClasses;
+        long buildVersion;
+        synchronized (this) {
+            buildClasses = new ArrayList<>(classes);
+            buildVersion = registeredVersion;
+        }
+
+        Snapshot current = snapshot.get();
+        if (current != null && current.version >= buildVersion) {
+            return current;
+        }
 
-            LOG.info("Building EntityDataModel");
-            entityDataModel = factory.buildEntityDataModel();
+        AnnotationEntityDataModelFactory factory = new AnnotationEntityDataModelFactory();
+        buildClasses.forEach(factory::addClass);
+
+        LOG.info("Building EntityDataModel version {}", buildVersion);
+        Snapshot built = new Snapshot(factory.buildEntityDataModel(), buildVersion);
+
+        Snapshot published = snapshot.accumulateAndGet(built,
+                (previous, candidate) -> previous == null || candidate.version > previous.version ?
+                        candidate : previous);
+        if (published == built) {
+            listeners.forEach(listener -> notifyInBackground(listener, built));
+        }
+        return published;
+    }
+
+    private void notifyInBackground(ODataEdmRegistryListener listener, Snapshot published) {
+        try {
+            builder.execute(() -> {
+                try {
+                    listener.entityDataModelPublished(published.entityDataModel, published.version);
+                } catch (RuntimeException e) {
+                    LOG.error("Listener failed for EntityDataModel version " + published.version, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Not notifying listener of EntityDataModel version {}, registry is shut down",
+                    published.version);
         }
+    }
 
-        return entityDataModel;
+    /**
+     * An immutable entity data model together with the registration version it was built from.
+     */
+    private static final class Snapshot {
+        private final EntityDataModel entityDataModel;
+        private final long version;
+
+        private Snapshot(EntityDataModel entityDataModel, long version) {
+            this.entityDataModel = entityDataModel;
+            this.version = version;
+        }
     }
 }
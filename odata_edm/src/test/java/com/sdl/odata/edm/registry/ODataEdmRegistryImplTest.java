@@ -25,14 +25,22 @@ import com.sdl.odata.test.model.Customer;
 import com.sdl.odata.test.model.ExampleFlags;
 import com.sdl.odata.test.model.Order;
 import com.sdl.odata.test.model.OrderLine;
+import com.sdl.odata.test.model.PrimitiveTypesSample;
 import com.sdl.odata.test.model.Product;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -59,4 +67,43 @@ public class ODataEdmRegistryImplTest {
         assertNotNull(schema);
         assertThat(schema.getTypes().size(), is(6));
     }
+
+    @Test
+    public void testNewModelIsPublishedWithNewVersion() throws Exception {
+        assertThat(registry.getEntityDataModelVersion(), is(0L));
+
+        registry.registerClasses(Arrays.asList(Address.class, Category.class, Customer.class, ExampleFlags.class,
+                Order.class, OrderLine.class, Product.class));
+        EntityDataModel first = registry.getEntityDataModel();
+        assertThat(registry.getEntityDataModelVersion(), is(1L));
+        assertNull(first.getType(PrimitiveTypesSample.class));
+
+        registry.registerClasses(Collections.singletonList(PrimitiveTypesSample.class));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (registry.getEntityDataModelVersion() < 2L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(registry.getEntityDataModelVersion(), is(2L));
+        EntityDataModel second = registry.getEntityDataModel();
+        assertNotSame(first, second);
+        assertNotNull(second.getType(PrimitiveTypesSample.class));
+    }
+
+    @Test
+    public void testListenerIsNotifiedOfPublishedModel() throws Exception {
+        BlockingQueue<Long> published = new LinkedBlockingQueue<>();
+        registry.addListener((entityDataModel, version) -> published.add(version));
+
+        registry.registerClasses(Arrays.asList(Address.class, Category.class, Customer.class, ExampleFlags.class,
+                Order.class, OrderLine.class, Product.class));
+
+        assertThat(published.poll(10, TimeUnit.SECONDS), is(1L));
+        assertThat(registry.getEntityDataModelVersion(), is(1L));
+
+        // A listener added later is notified of the model that is already published
+        BlockingQueue<EntityDataModel> late = new LinkedBlockingQueue<>();
+        registry.addListener((entityDataModel, version) -> late.add(entityDataModel));
+        assertSame(registry.getEntityDataModel(), late.poll(10, TimeUnit.SECONDS));
+    }
 }
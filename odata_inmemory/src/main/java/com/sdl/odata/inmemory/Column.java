@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.edm.model.PropertyAccessor;
+
+/**
+ * The values of one property for all rows of a {@link ColumnarSnapshot}. Properties of a primitive Java type are
+ * stored in an array of that primitive type, so that filters and sorting can read them without boxing.
+ */
+abstract class Column {
+
+    /**
+     * Reads the values of a property from all entities into a new column.
+     *
+     * @param accessor The accessor of the property.
+     * @param entities The entities, in row order.
+     * @return The column.
+     */
+    static Column of(PropertyAccessor accessor, Object[] entities) {
+        Class<?> type = accessor.getType();
+        if (type == long.class || type == int.class || type == short.class || type == byte.class) {
+            long[] values = new long[entities.length];
+            for (int row = 0; row < entities.length; row++) {
+                values[row] = accessor.getLong(entities[row]);
+            }
+            return new LongColumn(values);
+        } else if (type == double.class || type == float.class) {
+            double[] values = new double[entities.length];
+            for (int row = 0; row < entities.length; row++) {
+                values[row] = accessor.getDouble(entities[row]);
+            }
+            return new DoubleColumn(values);
+        } else if (type == boolean.class) {
+            boolean[] values = new boolean[entities.length];
+            for (int row = 0; row < entities.length; row++) {
+                values[row] = accessor.getBoolean(entities[row]);
+            }
+            return new BooleanColumn(values);
+        }
+
+        Object[] values = new Object[entities.length];
+        for (int row = 0; row < entities.length; row++) {
+            values[row] = accessor.get(entities[row]);
+        }
+        return new ObjectColumn(values);
+    }
+
+    /**
+     * Returns the value in a row.
+     *
+     * @param row The row.
+     * @return The (boxed) value.
+     */
+    abstract Object get(int row);
+
+    /**
+     * Compares the values in two rows, ordering {@code null} before any other value.
+     *
+     * @param row      The first row.
+     * @param otherRow The second row.
+     * @return A negative number, zero or a positive number if the value in the first row is less than, equal to or
+     * greater than the value in the second row.
+     */
+    abstract int compare(int row, int otherRow);
+
+    /**
+     * Column of integral values.
+     */
+    static final class LongColumn extends Column {
+        private final long[] values;
+
+        private LongColumn(long[] values) {
+            this.values = values;
+        }
+
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        int compare(int row, int otherRow) {
+            return Long.compare(values[row], values[otherRow]);
+        }
+    }
+
+    /**
+     * Column of floating point values.
+     */
+    static final class DoubleColumn extends Column {
+        private final double[] values;
+
+        private DoubleColumn(double[] values) {
+            this.values = values;
+        }
+
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        int compare(int row, int otherRow) {
+            return Double.compare(values[row], values[otherRow]);
+        }
+    }
+
+    /**
+     * Column of boolean values.
+     */
+    static final class BooleanColumn extends Column {
+        private final boolean[] values;
+
+        private BooleanColumn(boolean[] values) {
+            this.values = values;
+        }
+
+        boolean getBoolean(int row) {
+            return values[row];
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        int compare(int row, int otherRow) {
+            return Boolean.compare(values[row], values[otherRow]);
+        }
+    }
+
+    /**
+     * Column of values of any other type.
+     */
+    static final class ObjectColumn extends Column {
+        private final Object[] values;
+
+        private ObjectColumn(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        int compare(int row, int otherRow) {
+            Object value = values[row];
+            Object otherValue = values[otherRow];
+            if (value == null || otherValue == null) {
+                return value == null ? (otherValue == null ? 0 : -1) : 1;
+            }
+            if (value instanceof Comparable && value.getClass() == otherValue.getClass()) {
+                return ((Comparable<Object>) value).compareTo(otherValue);
+            }
+            return value.toString().compareTo(otherValue.toString());
+        }
+    }
+}
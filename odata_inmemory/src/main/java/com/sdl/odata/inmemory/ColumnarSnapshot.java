@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.edm.model.NavigationProperty;
+import com.sdl.odata.api.edm.model.StructuralProperty;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable state of an {@link InMemoryEntitySet}: the entities in insertion order, a hash index from key to row and
+ * the property values in columns. Columns are created the first time a query needs them and are kept for the lifetime
+ * of the snapshot, so a snapshot can be shared by any number of concurrent readers.
+ */
+final class ColumnarSnapshot {
+
+    private static final Column NO_COLUMN = new Column() {
+        @Override
+        Object get(int row) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        int compare(int row, int otherRow) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private final EntityType entityType;
+    private final Object[] keys;
+    private final Object[] entities;
+    private final Map<Object, Integer> keyIndex;
+    private final Map<String, Column> columns = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param entityType    The type of the entities.
+     * @param entitiesByKey The entities by (normalized) key, in row order.
+     */
+    ColumnarSnapshot(EntityType entityType, LinkedHashMap<Object, Object> entitiesByKey) {
+        this.entityType = entityType;
+        this.keys = entitiesByKey.keySet().toArray();
+        this.entities = entitiesByKey.values().toArray();
+        this.keyIndex = new HashMap<>(entitiesByKey.size() * 2);
+        for (int row = 0; row < keys.length; row++) {
+            keyIndex.put(keys[row], row);
+        }
+    }
+
+    EntityType getEntityType() {
+        return entityType;
+    }
+
+    int size() {
+        return entities.length;
+    }
+
+    Object getEntity(int row) {
+        return entities[row];
+    }
+
+    /**
+     * Returns the row of the entity with a key.
+     *
+     * @param key The normalized key.
+     * @return The row or {@code -1} if there is no entity with the key.
+     */
+    int getRow(Object key) {
+        Integer row = keyIndex.get(key);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Returns the column of a property.
+     *
+     * @param propertyName The name of the property.
+     * @return The column or {@code null} if the property is unknown, or is a collection or navigation property.
+     */
+    Column getColumn(String propertyName) {
+        Column column = columns.computeIfAbsent(propertyName, name -> {
+            StructuralProperty property = entityType.getStructuralProperty(name);
+            if (property == null || property.isCollection() || property instanceof NavigationProperty ||
+                    property.getPropertyAccessor() == null) {
+                return NO_COLUMN;
+            }
+            return Column.of(property.getPropertyAccessor(), entities);
+        });
+        return column == NO_COLUMN ? null : column;
+    }
+
+    /**
+     * Returns a copy of the entities by key, in row order, to apply changes to.
+     *
+     * @return A new, modifiable map.
+     */
+    LinkedHashMap<Object, Object> toMap() {
+        LinkedHashMap<Object, Object> map = new LinkedHashMap<>(entities.length * 2);
+        for (int row = 0; row < entities.length; row++) {
+            map.put(keys[row], entities[row]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.link.ODataLink;
+
+/**
+ * Data source of an {@link InMemoryDataSourceProvider}. Each write is a transaction of its own, which is committed
+ * before the write returns.
+ */
+final class InMemoryDataSource implements DataSource {
+
+    private final InMemoryDataSourceProvider provider;
+
+    InMemoryDataSource(InMemoryDataSourceProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public Object create(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+        InMemoryTransactionalDataSource transaction = startTransaction();
+        Object created = transaction.create(uri, entity, entityDataModel);
+        transaction.commitOrThrow();
+        return created;
+    }
+
+    @Override
+    public Object update(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+        InMemoryTransactionalDataSource transaction = startTransaction();
+        Object updated = transaction.update(uri, entity, entityDataModel);
+        transaction.commitOrThrow();
+        return updated;
+    }
+
+    @Override
+    public void delete(ODataUri uri, EntityDataModel entityDataModel) throws ODataException {
+        InMemoryTransactionalDataSource transaction = startTransaction();
+        transaction.delete(uri, entityDataModel);
+        transaction.commitOrThrow();
+    }
+
+    @Override
+    public void createLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+        throw new ODataNotImplementedException("Links are not supported by the in-memory data source");
+    }
+
+    @Override
+    public void deleteLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+        throw new ODataNotImplementedException("Links are not supported by the in-memory data source");
+    }
+
+    @Override
+    public InMemoryTransactionalDataSource startTransaction() {
+        return new InMemoryTransactionalDataSource(provider);
+    }
+}
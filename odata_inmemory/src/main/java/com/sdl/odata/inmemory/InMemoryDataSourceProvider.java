@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntitySet;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.datasource.DataSourceProvider;
+import com.sdl.odata.api.processor.datasource.ODataDataSourceException;
+import com.sdl.odata.api.processor.query.QueryOperation;
+import com.sdl.odata.api.processor.query.strategy.QueryOperationStrategy;
+import com.sdl.odata.api.service.ODataRequestContext;
+import scala.Option;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link DataSourceProvider} which holds the entities of registered entity types in memory.
+ * <p>
+ * It is meant for small, hot and read-mostly entity sets such as lookup tables. The entities are kept in immutable
+ * snapshots in which property values are stored in columns of primitive arrays. Queries run against the snapshot
+ * that is current when they start and never wait for writers: writes, including those of {@link
+ * InMemoryTransactionalDataSource transactions}, build new snapshots and publish them when they are committed.
+ * <p>
+ * The provider is not registered automatically. To use it, declare it as a bean and register the entity types it
+ * should hold:
+ * <pre>
+ * InMemoryDataSourceProvider provider = new InMemoryDataSourceProvider();
+ * provider.register(countryType, countries);
+ * </pre>
+ * Entities are held by reference, so navigation properties are returned as they are set on the registered entities.
+ */
+public class InMemoryDataSourceProvider implements DataSourceProvider {
+
+    private final Map<String, InMemoryEntitySet> entitySets = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final InMemoryDataSource dataSource = new InMemoryDataSource(this);
+
+    /**
+     * Registers an entity type without entities.
+     *
+     * @param entityType The entity type.
+     */
+    public void register(EntityType entityType) {
+        register(entityType, Collections.emptyList());
+    }
+
+    /**
+     * Registers an entity type with its initial entities, replacing the entities of the entity type if it was
+     * registered before.
+     *
+     * @param entityType The entity type.
+     * @param entities   The initial entities.
+     */
+    public void register(EntityType entityType, Collection<?> entities) {
+        entitySets.put(entityType.getFullyQualifiedName(), new InMemoryEntitySet(entityType, entities));
+    }
+
+    @Override
+    public boolean isSuitableFor(ODataRequestContext requestContext, String entityType) {
+        return entitySets.containsKey(entityType);
+    }
+
+    @Override
+    public DataSource getDataSource(ODataRequestContext requestContext) {
+        return dataSource;
+    }
+
+    @Override
+    public QueryOperationStrategy getStrategy(ODataRequestContext requestContext, QueryOperation operation,
+                                              TargetType expectedODataEntityType) throws ODataException {
+        EntitySet entitySet = requestContext.getEntityDataModel().getEntityContainer()
+                .getEntitySet(operation.entitySetName());
+        InMemoryEntitySet inMemoryEntitySet = entitySet == null ? null : entitySets.get(entitySet.getTypeName());
+        if (inMemoryEntitySet == null) {
+            return null;
+        }
+        return InMemoryQueryStrategy.create(requestContext, operation, expectedODataEntityType, inMemoryEntitySet);
+    }
+
+    Object getWriteLock() {
+        return writeLock;
+    }
+
+    InMemoryEntitySet getEntitySet(Object entity, EntityDataModel entityDataModel) throws ODataDataSourceException {
+        Type type = entityDataModel.getType(entity.getClass());
+        return getEntitySet(type == null ? entity.getClass().getName() : type.getFullyQualifiedName());
+    }
+
+    InMemoryEntitySet getEntitySet(ODataUri uri, EntityDataModel entityDataModel) throws ODataDataSourceException {
+        // Also resolves the entity set of a URI which selects an entity by key, such as Products(1)
+        Option<TargetType> targetType = ODataUriUtil.resolveTargetType(uri, entityDataModel);
+        if (!targetType.isDefined() || targetType.get().propertyName().isDefined()) {
+            throw new ODataDataSourceException("The URI does not refer to an entity set or an entity: " + uri);
+        }
+        return getEntitySet(targetType.get().typeName());
+    }
+
+    private InMemoryEntitySet getEntitySet(String entityTypeName) throws ODataDataSourceException {
+        InMemoryEntitySet entitySet = entitySets.get(entityTypeName);
+        if (entitySet == null) {
+            throw new ODataDataSourceException("The entity type '" + entityTypeName +
+                    "' is not registered with the in-memory data source");
+        }
+        return entitySet;
+    }
+}
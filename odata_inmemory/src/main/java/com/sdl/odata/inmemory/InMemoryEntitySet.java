@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.ODataBadRequestException;
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataSystemException;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
+import com.sdl.odata.api.edm.model.PropertyRef;
+import com.sdl.odata.api.edm.model.StructuralProperty;
+import com.sdl.odata.api.processor.datasource.ODataDuplicateKeyException;
+import com.sdl.odata.api.processor.datasource.ODataEntityNotFoundException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The entities of one entity type held by an {@link InMemoryDataSourceProvider}.
+ * <p>
+ * The entities are held in an immutable {@link ColumnarSnapshot}. Readers take the current snapshot without locking;
+ * writers build a new snapshot with their changes and publish it, so readers never see a partially applied change.
+ */
+final class InMemoryEntitySet {
+
+    private final EntityType entityType;
+    private final List<String> keyNames = new ArrayList<>();
+    private final List<PropertyAccessor> keyAccessors = new ArrayList<>();
+    private volatile ColumnarSnapshot snapshot;
+
+    InMemoryEntitySet(EntityType entityType, Collection<?> entities) {
+        this.entityType = entityType;
+        for (PropertyRef propertyRef : entityType.getKey().getPropertyRefs()) {
+            StructuralProperty property = entityType.getStructuralProperty(propertyRef.getPath());
+            if (property == null || property.getPropertyAccessor() == null) {
+                throw new ODataSystemException("The key property '" + propertyRef.getPath() + "' of entity type '" +
+                        entityType.getFullyQualifiedName() + "' cannot be read");
+            }
+            keyNames.add(property.getName());
+            keyAccessors.add(property.getPropertyAccessor());
+        }
+
+        LinkedHashMap<Object, Object> entitiesByKey = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            if (entitiesByKey.put(getKey(entity), entity) != null) {
+                throw new ODataSystemException("Duplicate key for entity of type '" +
+                        entityType.getFullyQualifiedName() + "': " + entity);
+            }
+        }
+        this.snapshot = new ColumnarSnapshot(entityType, entitiesByKey);
+    }
+
+    EntityType getEntityType() {
+        return entityType;
+    }
+
+    ColumnarSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot. Must only be called while holding the write lock of the provider.
+     *
+     * @param newSnapshot The new snapshot.
+     */
+    void publish(ColumnarSnapshot newSnapshot) {
+        this.snapshot = newSnapshot;
+    }
+
+    /**
+     * Returns the normalized key of an entity.
+     *
+     * @param entity The entity.
+     * @return The key: the value of the key property, or a list of values for a compound key.
+     */
+    Object getKey(Object entity) {
+        if (keyAccessors.size() == 1) {
+            return normalize(keyAccessors.get(0).get(entity));
+        }
+        List<Object> key = new ArrayList<>(keyAccessors.size());
+        for (PropertyAccessor accessor : keyAccessors) {
+            key.add(normalize(accessor.get(entity)));
+        }
+        return key;
+    }
+
+    /**
+     * Returns the normalized key for key values as found in an OData URI.
+     *
+     * @param keyValues The values of the key properties by name.
+     * @return The key: the value of the key property, or a list of values for a compound key.
+     * @throws ODataBadRequestException If a key property is missing.
+     */
+    Object getKey(Map<String, ?> keyValues) throws ODataBadRequestException {
+        List<Object> key = new ArrayList<>(keyNames.size());
+        for (String keyName : keyNames) {
+            if (!keyValues.containsKey(keyName)) {
+                throw new ODataBadRequestException("The key property '" + keyName + "' of entity type '" +
+                        entityType.getFullyQualifiedName() + "' is missing");
+            }
+            key.add(normalize(keyValues.get(keyName)));
+        }
+        return key.size() == 1 ? key.get(0) : key;
+    }
+
+    /**
+     * Applies a change to the entities by key.
+     *
+     * @param entitiesByKey The entities by key, as returned by {@link ColumnarSnapshot#toMap()}.
+     * @param change        The change.
+     * @throws ODataException If an entity to create already exists or an entity to update or delete does not exist.
+     */
+    void apply(Map<Object, Object> entitiesByKey, Change change) throws ODataException {
+        boolean exists = entitiesByKey.containsKey(change.getKey());
+        switch (change.getKind()) {
+            case CREATE:
+                if (exists) {
+                    throw new ODataDuplicateKeyException("An entity of type '" + entityType.getFullyQualifiedName() +
+                            "' with key " + change.getKey() + " already exists");
+                }
+                entitiesByKey.put(change.getKey(), change.getEntity());
+                break;
+            case UPDATE:
+                checkExists(exists, change);
+                entitiesByKey.put(change.getKey(), change.getEntity());
+                break;
+            default:
+                checkExists(exists, change);
+                entitiesByKey.remove(change.getKey());
+                break;
+        }
+    }
+
+    private void checkExists(boolean exists, Change change) throws ODataEntityNotFoundException {
+        if (!exists) {
+            throw new ODataEntityNotFoundException("An entity of type '" + entityType.getFullyQualifiedName() +
+                    "' with key " + change.getKey() + " does not exist");
+        }
+    }
+
+    /**
+     * Normalizes a key value, so that keys read from entities and keys parsed from URIs are equal: integral numbers
+     * become {@code Long}s and other numbers {@code BigDecimal}s without trailing zeros.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+
+        BigDecimal decimal;
+        if (value instanceof scala.math.BigDecimal) {
+            decimal = ((scala.math.BigDecimal) value).bigDecimal();
+        } else if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            decimal = BigDecimal.valueOf(((Number) value).doubleValue());
+        } else {
+            return value;
+        }
+
+        try {
+            return decimal.longValueExact();
+        } catch (ArithmeticException e) {
+            return decimal.stripTrailingZeros();
+        }
+    }
+
+    /**
+     * A change to an entity set.
+     */
+    static final class Change {
+
+        /**
+         * Kind of change.
+         */
+        enum Kind {
+            CREATE, UPDATE, DELETE
+        }
+
+        private final Kind kind;
+        private final Object key;
+        private final Object entity;
+
+        Change(Kind kind, Object key, Object entity) {
+            this.kind = kind;
+            this.key = key;
+            this.entity = entity;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        Object getKey() {
+            return key;
+        }
+
+        Object getEntity() {
+            return entity;
+        }
+    }
+}
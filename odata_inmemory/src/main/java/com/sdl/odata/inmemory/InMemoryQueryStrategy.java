@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.ODataBadRequestException;
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.edm.model.StructuralProperty;
+import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.processor.query.CountOperation;
+import com.sdl.odata.api.processor.query.Criteria;
+import com.sdl.odata.api.processor.query.CriteriaFilterOperation;
+import com.sdl.odata.api.processor.query.Descending$;
+import com.sdl.odata.api.processor.query.ExpandOperation;
+import com.sdl.odata.api.processor.query.LimitOperation;
+import com.sdl.odata.api.processor.query.OrderByOperation;
+import com.sdl.odata.api.processor.query.OrderByProperty;
+import com.sdl.odata.api.processor.query.QueryOperation;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.processor.query.SelectByKeyOperation;
+import com.sdl.odata.api.processor.query.SelectOperation;
+import com.sdl.odata.api.processor.query.SelectPropertiesOperation;
+import com.sdl.odata.api.processor.query.SkipOperation;
+import com.sdl.odata.api.processor.query.ValueOperation;
+import com.sdl.odata.api.processor.query.strategy.QueryOperationStrategy;
+import com.sdl.odata.api.service.ODataRequestContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Executes a query operation on the current snapshot of an {@link InMemoryEntitySet}.
+ * <p>
+ * The query operation tree is flattened when the strategy is created and executed in the order defined by OData,
+ * independent of the order of the query options: select by key through the key index, filter, count, order by, skip
+ * and limit. Expanded navigation properties need no work, because the entities are held by reference.
+ */
+final class InMemoryQueryStrategy implements QueryOperationStrategy {
+
+    /**
+     * Compares two rows of a snapshot.
+     */
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int row, int otherRow);
+    }
+
+    private final ODataRequestContext requestContext;
+    private final TargetType targetType;
+    private final InMemoryEntitySet entitySet;
+
+    private Map<String, Object> key;
+    private final List<Criteria> criteria = new ArrayList<>();
+    private List<OrderByProperty> orderByProperties = Collections.emptyList();
+    private int skip;
+    private int limit = -1;
+    private boolean count;
+    private String selectedProperty;
+
+    private InMemoryQueryStrategy(ODataRequestContext requestContext, TargetType targetType,
+                                  InMemoryEntitySet entitySet) {
+        this.requestContext = requestContext;
+        this.targetType = targetType;
+        this.entitySet = entitySet;
+    }
+
+    /**
+     * Creates the strategy for a query operation.
+     *
+     * @param requestContext The OData request context.
+     * @param operation      The query operation.
+     * @param targetType     The expected type of the result.
+     * @param entitySet      The entity set the operation selects from.
+     * @return The strategy or {@code null} if the query operation contains an operation that is not supported.
+     */
+    static InMemoryQueryStrategy create(ODataRequestContext requestContext, QueryOperation operation,
+                                        TargetType targetType, InMemoryEntitySet entitySet) {
+        InMemoryQueryStrategy strategy = new InMemoryQueryStrategy(requestContext, targetType, entitySet);
+        return strategy.addOperation(operation) ? strategy : null;
+    }
+
+    private boolean addOperation(QueryOperation operation) {
+        if (operation instanceof SelectOperation) {
+            return true;
+        } else if (operation instanceof SelectByKeyOperation) {
+            key = ((SelectByKeyOperation) operation).getKeyAsJava();
+            return addOperation(((SelectByKeyOperation) operation).getSource());
+        } else if (operation instanceof CriteriaFilterOperation) {
+            criteria.add(((CriteriaFilterOperation) operation).getCriteria());
+            return addOperation(((CriteriaFilterOperation) operation).getSource());
+        } else if (operation instanceof OrderByOperation) {
+            orderByProperties = ((OrderByOperation) operation).getOrderByPropertiesAsJava();
+            return addOperation(((OrderByOperation) operation).getSource());
+        } else if (operation instanceof SkipOperation) {
+            skip = ((SkipOperation) operation).getCount();
+            return addOperation(((SkipOperation) operation).getSource());
+        } else if (operation instanceof LimitOperation) {
+            limit = ((LimitOperation) operation).getCount();
+            return addOperation(((LimitOperation) operation).getSource());
+        } else if (operation instanceof CountOperation) {
+            count = ((CountOperation) operation).getTrueFalse();
+            return addOperation(((CountOperation) operation).getSource());
+        } else if (operation instanceof SelectPropertiesOperation) {
+            // A property path selects the value of the property; $select is applied when the entities are rendered
+            SelectPropertiesOperation select = (SelectPropertiesOperation) operation;
+            if (targetType.propertyName().isDefined()) {
+                if (selectedProperty != null) {
+                    // Paths into complex properties are not supported
+                    return false;
+                }
+                selectedProperty = select.getPropertyNamesAsJava().get(0);
+            }
+            return addOperation(select.getSource());
+        } else if (operation instanceof ExpandOperation) {
+            return addOperation(((ExpandOperation) operation).getSource());
+        } else if (operation instanceof ValueOperation) {
+            return addOperation(((ValueOperation) operation).getSource());
+        }
+        return false;
+    }
+
+    @Override
+    public QueryResult execute() throws ODataException {
+        ColumnarSnapshot snapshot = entitySet.getSnapshot();
+
+        int[] rows;
+        if (key != null) {
+            int row = snapshot.getRow(entitySet.getKey(key));
+            rows = row < 0 ? new int[0] : new int[]{row};
+        } else {
+            rows = new int[snapshot.size()];
+            Arrays.setAll(rows, row -> row);
+        }
+
+        for (Criteria filterCriteria : criteria) {
+            rows = filter(rows, RowFilterCompiler.compile(filterCriteria, snapshot,
+                    requestContext.getEntityDataModel()));
+        }
+
+        long total = rows.length;
+        if (ODataUriUtil.isCountPathUri(requestContext.getUri())) {
+            return QueryResult.from(total);
+        }
+
+        if (!orderByProperties.isEmpty()) {
+            sort(rows, getComparator(snapshot));
+        }
+        int from = Math.min(skip, rows.length);
+        int to = limit < 0 ? rows.length : (int) Math.min(rows.length, (long) from + limit);
+
+        if (selectedProperty != null) {
+            return selectProperty(snapshot, rows, from, to);
+        }
+
+        List<Object> entities = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            entities.add(snapshot.getEntity(rows[i]));
+        }
+        QueryResult result = QueryResult.from(entities);
+        return count ? result.withCount(total) : result;
+    }
+
+    private QueryResult selectProperty(ColumnarSnapshot snapshot, int[] rows, int from, int to)
+            throws ODataException {
+        if (from >= to) {
+            return QueryResult.from(Collections.emptyList());
+        }
+        StructuralProperty property = entitySet.getEntityType().getStructuralProperty(selectedProperty);
+        if (property == null) {
+            throw new ODataBadRequestException("The entity type '" +
+                    entitySet.getEntityType().getFullyQualifiedName() + "' does not contain a property named '" +
+                    selectedProperty + "'");
+        }
+        if (property.getPropertyAccessor() == null) {
+            throw new ODataNotImplementedException("The property '" + selectedProperty +
+                    "' cannot be read by the in-memory data source");
+        }
+
+        // The value is read from the entity rather than from a column, which widens the values it holds
+        Object value = property.getPropertyAccessor().get(snapshot.getEntity(rows[from]));
+        if (value instanceof Collection && !(value instanceof List)) {
+            value = new ArrayList<>((Collection<?>) value);
+        }
+        return QueryResult.from(value);
+    }
+
+    private RowComparator getComparator(ColumnarSnapshot snapshot) throws ODataNotImplementedException {
+        RowComparator comparator = null;
+        for (OrderByProperty orderByProperty : orderByProperties) {
+            Column column = snapshot.getColumn(orderByProperty.getPropertyName());
+            if (column == null) {
+                throw new ODataNotImplementedException("Ordering by '" + orderByProperty.getPropertyName() +
+                        "' is not supported by the in-memory data source");
+            }
+            RowComparator propertyComparator = orderByProperty.getDirection() == Descending$.MODULE$
+                    ? (row, otherRow) -> column.compare(otherRow, row) : column::compare;
+
+            RowComparator previous = comparator;
+            comparator = previous == null ? propertyComparator : (row, otherRow) -> {
+                int result = previous.compare(row, otherRow);
+                return result != 0 ? result : propertyComparator.compare(row, otherRow);
+            };
+        }
+        return comparator;
+    }
+
+    private static int[] filter(int[] rows, IntPredicate predicate) {
+        int[] matches = new int[rows.length];
+        int size = 0;
+        for (int row : rows) {
+            if (predicate.test(row)) {
+                matches[size++] = row;
+            }
+        }
+        return size == rows.length ? rows : Arrays.copyOf(matches, size);
+    }
+
+    /**
+     * Sorts rows with a stable merge sort, which works on the primitive row numbers.
+     */
+    private static void sort(int[] rows, RowComparator comparator) {
+        mergeSort(rows.clone(), rows, 0, rows.length, comparator);
+    }
+
+    private static void mergeSort(int[] source, int[] target, int from, int to, RowComparator comparator) {
+        // Both arrays hold the same rows between from and to; the sorted rows end up in target
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle, comparator);
+        mergeSort(target, source, middle, to, comparator);
+
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(source[left], source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+}
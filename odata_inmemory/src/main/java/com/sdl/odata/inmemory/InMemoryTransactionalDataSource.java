@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.processor.datasource.ODataDataSourceException;
+import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
+import com.sdl.odata.api.processor.link.ODataLink;
+import com.sdl.odata.inmemory.InMemoryEntitySet.Change;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.sdl.odata.api.parser.ODataUriUtil.asJavaMap;
+import static com.sdl.odata.api.parser.ODataUriUtil.getEntityKeyMap;
+
+/**
+ * Transaction on the entity sets of an {@link InMemoryDataSourceProvider}.
+ * <p>
+ * Changes are checked against the state of the entity sets when the transaction first touched them, together with
+ * the earlier changes of the transaction, so that a duplicate or missing key is reported by the operation itself.
+ * Nothing is visible to readers until the transaction is committed; the commit then publishes new snapshots of all
+ * changed entity sets at once. If another transaction was committed in the meantime, the changes are applied again on
+ * top of its snapshots.
+ */
+public final class InMemoryTransactionalDataSource implements TransactionalDataSource {
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryTransactionalDataSource.class);
+
+    private final InMemoryDataSourceProvider provider;
+    private final Map<InMemoryEntitySet, PendingChanges> pendingChanges = new LinkedHashMap<>();
+    private boolean active = true;
+
+    InMemoryTransactionalDataSource(InMemoryDataSourceProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public Object create(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+        InMemoryEntitySet entitySet = provider.getEntitySet(entity, entityDataModel);
+        record(entitySet, new Change(Change.Kind.CREATE, entitySet.getKey(entity), entity));
+        return entity;
+    }
+
+    @Override
+    public Object update(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+        InMemoryEntitySet entitySet = provider.getEntitySet(entity, entityDataModel);
+        record(entitySet, new Change(Change.Kind.UPDATE, entitySet.getKey(entity), entity));
+        return entity;
+    }
+
+    @Override
+    public void delete(ODataUri uri, EntityDataModel entityDataModel) throws ODataException {
+        InMemoryEntitySet entitySet = provider.getEntitySet(uri, entityDataModel);
+        Object key = entitySet.getKey(asJavaMap(getEntityKeyMap(uri, entityDataModel)));
+        record(entitySet, new Change(Change.Kind.DELETE, key, null));
+    }
+
+    @Override
+    public void createLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+        throw new ODataNotImplementedException("Links are not supported by the in-memory data source");
+    }
+
+    @Override
+    public void deleteLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+        throw new ODataNotImplementedException("Links are not supported by the in-memory data source");
+    }
+
+    @Override
+    public TransactionalDataSource startTransaction() {
+        return new InMemoryTransactionalDataSource(provider);
+    }
+
+    @Override
+    public boolean commit() {
+        try {
+            commitOrThrow();
+            return true;
+        } catch (ODataException e) {
+            LOG.warn("Could not commit in-memory transaction", e);
+            return false;
+        }
+    }
+
+    /**
+     * Commits the transaction, reporting why it could not be committed.
+     *
+     * @throws ODataException If the transaction is no longer active, or conflicts with a transaction that was committed
+     *                        after it started.
+     */
+    void commitOrThrow() throws ODataException {
+        checkActive();
+        active = false;
+
+        synchronized (provider.getWriteLock()) {
+            Map<InMemoryEntitySet, ColumnarSnapshot> snapshots = new LinkedHashMap<>();
+            for (Map.Entry<InMemoryEntitySet, PendingChanges> entry : pendingChanges.entrySet()) {
+                InMemoryEntitySet entitySet = entry.getKey();
+                PendingChanges pending = entry.getValue();
+
+                LinkedHashMap<Object, Object> entities = pending.entities;
+                ColumnarSnapshot current = entitySet.getSnapshot();
+                if (current != pending.base) {
+                    entities = current.toMap();
+                    for (Change change : pending.changes) {
+                        entitySet.apply(entities, change);
+                    }
+                }
+                snapshots.put(entitySet, new ColumnarSnapshot(entitySet.getEntityType(), entities));
+            }
+            snapshots.forEach(InMemoryEntitySet::publish);
+        }
+        pendingChanges.clear();
+    }
+
+    @Override
+    public void rollback() {
+        active = false;
+        pendingChanges.clear();
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    private void record(InMemoryEntitySet entitySet, Change change) throws ODataException {
+        checkActive();
+        PendingChanges pending = pendingChanges.get(entitySet);
+        if (pending == null) {
+            pending = new PendingChanges(entitySet.getSnapshot());
+            pendingChanges.put(entitySet, pending);
+        }
+        entitySet.apply(pending.entities, change);
+        pending.changes.add(change);
+    }
+
+    private void checkActive() throws ODataDataSourceException {
+        if (!active) {
+            throw new ODataDataSourceException("The in-memory transaction is no longer active");
+        }
+    }
+
+    /**
+     * The changes of this transaction to one entity set.
+     */
+    private static final class PendingChanges {
+        private final ColumnarSnapshot base;
+        private final LinkedHashMap<Object, Object> entities;
+        private final List<Change> changes = new ArrayList<>();
+
+        private PendingChanges(ColumnarSnapshot base) {
+            this.base = base;
+            this.entities = base.toMap();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.processor.query.AndOperator$;
+import com.sdl.odata.api.processor.query.ComparisonCriteria;
+import com.sdl.odata.api.processor.query.CompositeCriteria;
+import com.sdl.odata.api.processor.query.Criteria;
+import com.sdl.odata.api.processor.query.CriteriaValue;
+import com.sdl.odata.api.processor.query.LiteralCriteriaValue;
+import com.sdl.odata.api.processor.query.PropertyCriteriaValue;
+import com.sdl.odata.inmemory.Column.BooleanColumn;
+import com.sdl.odata.inmemory.Column.DoubleColumn;
+import com.sdl.odata.inmemory.Column.LongColumn;
+import com.sdl.odata.processor.query.Comparison;
+import com.sdl.odata.processor.query.CriteriaCompiler;
+
+import java.math.BigDecimal;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Compiles filter criteria into a predicate on the rows of a {@link ColumnarSnapshot}. A comparison between a property
+ * with a primitive column and a literal reads the column directly; all other criteria are evaluated on the entities
+ * by a predicate compiled by {@link CriteriaCompiler}.
+ */
+final class RowFilterCompiler {
+
+    private RowFilterCompiler() {
+    }
+
+    static IntPredicate compile(Criteria criteria, ColumnarSnapshot snapshot, EntityDataModel entityDataModel)
+            throws ODataException {
+        if (criteria instanceof CompositeCriteria) {
+            CompositeCriteria composite = (CompositeCriteria) criteria;
+            IntPredicate left = compile(composite.getLeft(), snapshot, entityDataModel);
+            IntPredicate right = compile(composite.getRight(), snapshot, entityDataModel);
+            return composite.getOperator() == AndOperator$.MODULE$ ? left.and(right) : left.or(right);
+        }
+        if (criteria instanceof ComparisonCriteria) {
+            IntPredicate predicate = compileColumnComparison((ComparisonCriteria) criteria, snapshot);
+            if (predicate != null) {
+                return predicate;
+            }
+        }
+
+        Predicate<Object> predicate = CriteriaCompiler.compile(criteria, snapshot.getEntityType(), entityDataModel);
+        return row -> predicate.test(snapshot.getEntity(row));
+    }
+
+    private static IntPredicate compileColumnComparison(ComparisonCriteria criteria, ColumnarSnapshot snapshot)
+            throws ODataNotImplementedException {
+        CriteriaValue left = criteria.getLeft();
+        CriteriaValue right = criteria.getRight();
+        Comparison comparison = Comparison.of(criteria.getOperator());
+        if (left instanceof LiteralCriteriaValue && right instanceof PropertyCriteriaValue) {
+            left = criteria.getRight();
+            right = criteria.getLeft();
+            comparison = comparison.reverse();
+        }
+        if (!(left instanceof PropertyCriteriaValue) || !(right instanceof LiteralCriteriaValue)) {
+            return null;
+        }
+
+        Column column = snapshot.getColumn(((PropertyCriteriaValue) left).getPropertyName());
+        Object literal = ((LiteralCriteriaValue) right).getValue();
+        Comparison operator = comparison;
+        if (column instanceof LongColumn && literal instanceof scala.math.BigDecimal) {
+            LongColumn longColumn = (LongColumn) column;
+            BigDecimal value = ((scala.math.BigDecimal) literal).bigDecimal();
+            try {
+                long constant = value.longValueExact();
+                return row -> operator.matches(Long.compare(longColumn.getLong(row), constant));
+            } catch (ArithmeticException e) {
+                double constant = value.doubleValue();
+                return row -> operator.matches(longColumn.getLong(row), constant);
+            }
+        } else if (column instanceof DoubleColumn && literal instanceof scala.math.BigDecimal) {
+            DoubleColumn doubleColumn = (DoubleColumn) column;
+            double constant = ((scala.math.BigDecimal) literal).doubleValue();
+            return row -> operator.matches(doubleColumn.getDouble(row), constant);
+        } else if (column instanceof BooleanColumn && literal instanceof Boolean &&
+                (operator == Comparison.EQ || operator == Comparison.NE)) {
+            BooleanColumn booleanColumn = (BooleanColumn) column;
+            boolean constant = (Boolean) literal;
+            return row -> (booleanColumn.getBoolean(row) == constant) == (operator == Comparison.EQ);
+        }
+        return null;
+    }
+}
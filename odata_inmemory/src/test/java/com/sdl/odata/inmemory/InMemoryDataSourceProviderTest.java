@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.inmemory;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.datasource.ODataDuplicateKeyException;
+import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
+import com.sdl.odata.api.processor.query.JoinOperation;
+import com.sdl.odata.api.processor.query.JoinSelectRight$;
+import com.sdl.odata.api.processor.query.QueryOperation;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.processor.query.SelectOperation;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import com.sdl.odata.parser.ODataParserImpl;
+import com.sdl.odata.processor.QueryModelBuilder;
+import com.sdl.odata.test.model.Category;
+import com.sdl.odata.test.model.Product;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.sdl.odata.api.service.ODataRequest.Method.GET;
+import static com.sdl.odata.test.util.TestUtils.SERVICE_ROOT;
+import static com.sdl.odata.test.util.TestUtils.createODataRequestContext;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The In Memory Data Source Provider Test.
+ */
+public class InMemoryDataSourceProviderTest {
+
+    private EntityDataModel entityDataModel;
+    private InMemoryDataSourceProvider provider;
+
+    @Before
+    public void setUp() throws ODataException {
+        entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClass(Category.class)
+                .addClass(Product.class)
+                .buildEntityDataModel();
+
+        provider = new InMemoryDataSourceProvider();
+        provider.register((EntityType) entityDataModel.getType(Product.class), Arrays.asList(
+                product(1, "Apple", Category.HOUSEHOLD),
+                product(2, "Banana", Category.BOOKS),
+                product(3, "Cherry", Category.ELECTRONICS),
+                product(4, "Date", Category.BOOKS),
+                product(5, "Elderberry", Category.HOUSEHOLD)));
+    }
+
+    @Test
+    public void testIsSuitableForRegisteredEntityTypes() throws Exception {
+        ODataRequestContext requestContext = requestContext("Products");
+        assertTrue(provider.isSuitableFor(requestContext, "ODataDemo.Product"));
+        assertFalse(provider.isSuitableFor(requestContext, "ODataDemo.Customer"));
+    }
+
+    @Test
+    public void testSelectByKey() throws Exception {
+        assertEquals(Arrays.asList(3L), ids(query("Products(3)")));
+        assertEquals(Arrays.asList(), ids(query("Products(42)")));
+    }
+
+    @Test
+    public void testFilterOrderBySkipTopAndCount() throws Exception {
+        QueryResult result = query("Products?$top=2&$skip=1&$orderby=name desc&$filter=id gt 1&$count=true");
+
+        assertEquals(Arrays.asList(4L, 3L), ids(result));
+        assertEquals(4L, result.getMeta().get("count"));
+    }
+
+    @Test
+    public void testFilterEvaluatedOnEntities() throws Exception {
+        assertEquals(Arrays.asList(2L, 4L), ids(query("Products?$filter=name eq 'Banana' or 'Date' eq name")));
+        assertEquals(Arrays.asList(3L, 5L),
+                ids(query("Products?$filter=startswith(name,'C') or endswith(name,'berry')")));
+    }
+
+    @Test
+    public void testCountPath() throws Exception {
+        assertEquals(5L, query("Products/$count").getData());
+    }
+
+    @Test
+    public void testPropertyPath() throws Exception {
+        QueryResult result = query("Products(2)/id");
+
+        assertEquals(QueryResult.ResultType.OBJECT, result.getType());
+        assertEquals(2L, result.getData());
+        // QueryResult.from types a string as raw JSON, the property renderers only use the value
+        assertEquals("Banana", query("Products(2)/name").getData());
+    }
+
+    @Test
+    public void testUnsupportedOperationHasNoStrategy() throws Exception {
+        QueryOperation join = new JoinOperation(new SelectOperation("Products", false),
+                new SelectOperation("Products", false), "category", JoinSelectRight$.MODULE$, false);
+
+        assertNull(provider.getStrategy(requestContext("Products"), join,
+                new TargetType("ODataDemo.Product", true, scala.Option.apply(null))));
+    }
+
+    @Test
+    public void testTransactionIsVisibleAfterCommit() throws Exception {
+        TransactionalDataSource transaction = provider.getDataSource(requestContext("Products")).startTransaction();
+        transaction.create(parse("Products"), product(6, "Fig", Category.HOUSEHOLD), entityDataModel);
+        transaction.delete(parse("Products(1)"), entityDataModel);
+
+        assertEquals(5L, query("Products/$count").getData());
+        assertTrue(transaction.commit());
+        assertFalse(transaction.isActive());
+        assertEquals(Arrays.asList(2L, 3L, 4L, 5L, 6L), ids(query("Products")));
+    }
+
+    @Test
+    public void testRolledBackTransactionIsDiscarded() throws Exception {
+        TransactionalDataSource transaction = provider.getDataSource(requestContext("Products")).startTransaction();
+        transaction.delete(parse("Products(1)"), entityDataModel);
+        transaction.rollback();
+
+        assertEquals(5L, query("Products/$count").getData());
+    }
+
+    @Test
+    public void testConcurrentTransactionsAreBothApplied() throws Exception {
+        DataSource dataSource = provider.getDataSource(requestContext("Products"));
+        TransactionalDataSource first = dataSource.startTransaction();
+        TransactionalDataSource second = dataSource.startTransaction();
+        first.create(parse("Products"), product(6, "Fig", Category.HOUSEHOLD), entityDataModel);
+        second.create(parse("Products"), product(7, "Grape", Category.HOUSEHOLD), entityDataModel);
+
+        assertTrue(first.commit());
+        assertTrue(second.commit());
+        assertEquals(7L, query("Products/$count").getData());
+    }
+
+    @Test
+    public void testConflictingTransactionIsNotCommitted() throws Exception {
+        DataSource dataSource = provider.getDataSource(requestContext("Products"));
+        TransactionalDataSource first = dataSource.startTransaction();
+        TransactionalDataSource second = dataSource.startTransaction();
+        first.delete(parse("Products(1)"), entityDataModel);
+        second.delete(parse("Products(1)"), entityDataModel);
+
+        assertTrue(first.commit());
+        assertFalse(second.commit());
+        assertEquals(4L, query("Products/$count").getData());
+    }
+
+    @Test
+    public void testUpdateReplacesEntity() throws Exception {
+        DataSource dataSource = provider.getDataSource(requestContext("Products"));
+        dataSource.update(parse("Products(2)"), product(2, "Blueberry", Category.BOOKS), entityDataModel);
+
+        assertEquals("Blueberry", query("Products(2)/name").getData());
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), ids(query("Products")));
+    }
+
+    @Test(expected = ODataDuplicateKeyException.class)
+    public void testCreateWithExistingKey() throws Exception {
+        provider.getDataSource(requestContext("Products"))
+                .create(parse("Products"), product(1, "Apricot", Category.HOUSEHOLD), entityDataModel);
+    }
+
+    private QueryResult query(String path) throws Exception {
+        ODataRequestContext requestContext = requestContext(path);
+        QueryOperation operation = new QueryModelBuilder(entityDataModel).build(requestContext).operation();
+        TargetType targetType = ODataUriUtil.resolveTargetType(requestContext.getUri(), entityDataModel).get();
+        return provider.getStrategy(requestContext, operation, targetType).execute();
+    }
+
+    private ODataRequestContext requestContext(String path) throws Exception {
+        return createODataRequestContext(GET, parse(path), entityDataModel);
+    }
+
+    private ODataUri parse(String path) throws ODataException {
+        return new ODataParserImpl().parseUri(SERVICE_ROOT + "/" + path, entityDataModel);
+    }
+
+    private static List<Long> ids(QueryResult result) {
+        return ((List<?>) result.getData()).stream()
+                .map(entity -> ((Product) entity).getId())
+                .collect(Collectors.toList());
+    }
+
+    private static Product product(long id, String name, Category category) {
+        return new Product().setId(id).setName(name).setCategory(category);
+    }
+}
@@ -22,19 +22,56 @@ import com.sdl.odata.api.parser.ODataUriParseException;
 import com.sdl.odata.api.parser.ResourcePath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * OData parser implementation.
+ * <p>
+ * The URI parsers hold no state between calls, so one instance of each is shared by all requests for the current
+ * version of the entity data model. They are replaced when a new version of the model is published.
  */
 @Component
 public class ODataParserImpl implements ODataParser {
     private static final Logger LOG = LoggerFactory.getLogger(ODataParserImpl.class);
 
+    @Autowired(required = false)
+    private ODataUriCache uriCache;
+
+    @Value("${odata.parser.recursive-descent:false}")
+    private boolean recursiveDescent;
+
+    private final AtomicReference<UriParsers> uriParsers = new AtomicReference<>();
+
+    public ODataParserImpl() {
+    }
+
+    public ODataParserImpl(ODataUriCache uriCache) {
+        this.uriCache = uriCache;
+    }
+
+    public ODataParserImpl(ODataUriCache uriCache, boolean recursiveDescent) {
+        this.uriCache = uriCache;
+        this.recursiveDescent = recursiveDescent;
+    }
+
     @Override
     public ODataUri parseUri(String uri, EntityDataModel entityDataModel) throws ODataUriParseException {
+        if (uriCache != null && uriCache.isEnabled()) {
+            return uriCache.getOrParse(uri, entityDataModel, this::parse);
+        }
+        return parse(uri, entityDataModel);
+    }
+
+    private ODataUri parse(String uri, EntityDataModel entityDataModel) throws ODataUriParseException {
         LOG.debug("Parsing URI: {}", uri);
-        ODataUri parsedUri = new ODataUriParser(entityDataModel).parseUri(uri);
+        UriParsers parsers = getUriParsers(entityDataModel);
+        ODataUri parsedUri = recursiveDescent
+                ? parsers.recursiveDescentParser.parseUri(uri)
+                : parsers.combinatorParser.parseUri(uri);
         LOG.debug("Parse result: {}", parsedUri);
         return parsedUri;
     }
@@ -43,8 +80,35 @@ public class ODataParserImpl implements ODataParser {
     public ResourcePath parseResourcePath(String resourcePath, EntityDataModel entityDataModel)
             throws ODataUriParseException {
         LOG.debug("Parsing resource path: {}", resourcePath);
-        ResourcePath parsedResourcePath = new ODataUriParser(entityDataModel).parseResourcePath(resourcePath);
+        ResourcePath parsedResourcePath = getUriParsers(entityDataModel).combinatorParser
+                .parseResourcePath(resourcePath);
         LOG.debug("Parse result: {}", parsedResourcePath);
         return parsedResourcePath;
     }
+
+    private UriParsers getUriParsers(EntityDataModel entityDataModel) {
+        UriParsers current = uriParsers.get();
+        if (current != null && current.entityDataModel == entityDataModel) {
+            return current;
+        }
+        UriParsers created = new UriParsers(entityDataModel);
+        // A concurrent request may have installed the parsers for another model version; either one is fine to use
+        uriParsers.compareAndSet(current, created);
+        return created;
+    }
+
+    /**
+     * The URI parsers for one version of the entity data model.
+     */
+    private static final class UriParsers {
+        private final EntityDataModel entityDataModel;
+        private final ODataUriParser combinatorParser;
+        private final ODataUriRecursiveDescentParser recursiveDescentParser;
+
+        private UriParsers(EntityDataModel entityDataModel) {
+            this.entityDataModel = entityDataModel;
+            this.combinatorParser = new ODataUriParser(entityDataModel);
+            this.recursiveDescentParser = new ODataUriRecursiveDescentParser(entityDataModel);
+        }
+    }
 }
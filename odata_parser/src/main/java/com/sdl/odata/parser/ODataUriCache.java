@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser;
+
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.ODataUriParseException;
+import com.sdl.odata.util.ConcurrentLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of parsed OData URIs, keyed on the entity data model and the raw request URI.
+ * <p>
+ * The cache holds at most {@code maxSize} URIs; the least recently used URI is evicted first and a URI expires
+ * {@code ttl} milliseconds after it was parsed. The cache is emptied when a URI is parsed with another entity data
+ * model, for example after new entity classes have been registered.
+ * <p>
+ * When templates are enabled, URIs that are not in the cache are looked up by their {@link ODataUriTemplate}, so that
+ * for example {@code Customers(1)} and {@code Customers(2)} share one parse.
+ * <p>
+ * Lookups do not take a lock, so that request threads do not contend on the cache; see {@link ConcurrentLruCache}.
+ */
+@Component
+public class ODataUriCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ODataUriCache.class);
+
+    /**
+     * Parses a URI.
+     */
+    @FunctionalInterface
+    public interface UriParser {
+        ODataUri parseUri(String uri, EntityDataModel entityDataModel) throws ODataUriParseException;
+    }
+
+    private final boolean enabled;
+    private final boolean templatesEnabled;
+    private final long ttlNanos;
+    private final ConcurrentLruCache<String, Entry> uris;
+    private final ConcurrentLruCache<String, Entry> templates;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder templateHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile EntityDataModel currentEntityDataModel;
+
+    @Autowired
+    public ODataUriCache(@Value("${odata.parser.uri-cache.enabled:false}") boolean enabled,
+                         @Value("${odata.parser.uri-cache.max-size:1000}") int maxSize,
+                         @Value("${odata.parser.uri-cache.ttl:600000}") long ttl,
+                         @Value("${odata.parser.uri-cache.templates:false}") boolean templatesEnabled) {
+        this.enabled = enabled;
+        this.templatesEnabled = templatesEnabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.uris = new ConcurrentLruCache<>(maxSize);
+        this.templates = new ConcurrentLruCache<>(maxSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the parse result of a URI from the cache, or parse it and add it to the cache.
+     *
+     * @param uri             The URI.
+     * @param entityDataModel The entity data model.
+     * @param parser          Parses the URI when it is not in the cache.
+     * @return The parsed URI.
+     * @throws ODataUriParseException If the URI cannot be parsed.
+     */
+    public ODataUri getOrParse(String uri, EntityDataModel entityDataModel, UriParser parser)
+            throws ODataUriParseException {
+        ODataUri cached = get(uris, uri, entityDataModel);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        ODataUriTemplate template = templatesEnabled ? ODataUriTemplate.fromUri(uri) : null;
+        if (template != null) {
+            ODataUri bound = getFromTemplate(uri, template, entityDataModel, parser);
+            if (bound != null) {
+                return bound;
+            }
+        }
+
+        misses.increment();
+        ODataUri parsedUri = parser.parseUri(uri, entityDataModel);
+        put(uris, uri, parsedUri, entityDataModel);
+        return parsedUri;
+    }
+
+    private ODataUri getFromTemplate(String uri, ODataUriTemplate template, EntityDataModel entityDataModel,
+                                     UriParser parser) throws ODataUriParseException {
+        Entry entry = getEntry(templates, template.template(), entityDataModel);
+        if (entry != null) {
+            if (entry.uri == null) {
+                return null;
+            }
+            templateHits.increment();
+            return template.bind(entry.uri);
+        }
+
+        // Use the template only if binding its parse result gives the same result as parsing the URI itself
+        misses.increment();
+        ODataUri parsedUri = parser.parseUri(uri, entityDataModel);
+        ODataUri templateUri;
+        try {
+            templateUri = parser.parseUri(template.template(), entityDataModel);
+        } catch (ODataUriParseException e) {
+            templateUri = null;
+        }
+        if (templateUri != null && !parsedUri.equals(template.bind(templateUri))) {
+            templateUri = null;
+        }
+        LOG.debug("URI template {} is {}", template.template(), templateUri == null ? "not usable" : "usable");
+
+        put(templates, template.template(), templateUri, entityDataModel);
+        put(uris, uri, parsedUri, entityDataModel);
+        return parsedUri;
+    }
+
+    private ODataUri get(ConcurrentLruCache<String, Entry> cache, String key, EntityDataModel model) {
+        Entry entry = getEntry(cache, key, model);
+        return entry == null ? null : entry.uri;
+    }
+
+    private Entry getEntry(ConcurrentLruCache<String, Entry> cache, String key, EntityDataModel model) {
+        Entry entry = cache.get(key);
+        if (entry == null || entry.entityDataModel != model) {
+            return null;
+        }
+        if (System.nanoTime() - entry.created > ttlNanos) {
+            if (cache.remove(key, entry)) {
+                evictions.increment();
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    private void put(ConcurrentLruCache<String, Entry> cache, String key, ODataUri uri, EntityDataModel model) {
+        if (model != currentEntityDataModel) {
+            synchronized (this) {
+                if (model != currentEntityDataModel) {
+                    LOG.debug("Clearing URI cache for new entity data model");
+                    uris.clear();
+                    templates.clear();
+                    currentEntityDataModel = model;
+                }
+            }
+        }
+        cache.put(key, new Entry(uri, model, System.nanoTime()));
+    }
+
+    /**
+     * @return The number of URIs found in the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of URIs found in the cache by their template.
+     */
+    public long getTemplateHitCount() {
+        return templateHits.sum();
+    }
+
+    /**
+     * @return The number of URIs that had to be parsed.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of URIs and templates removed from the cache because it was full or they expired.
+     */
+    public long getEvictionCount() {
+        return evictions.sum() + uris.getEvictionCount() + templates.getEvictionCount();
+    }
+
+    /**
+     * @return The number of URIs in the cache.
+     */
+    public int size() {
+        return uris.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ODataUriCache{hits=" + getHitCount() + ", templateHits=" + getTemplateHitCount() +
+                ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + ", size=" + size() + "}";
+    }
+
+    /**
+     * A cached parse result. The URI is {@code null} for a template that cannot be used. The entity data model the
+     * URI was parsed with is kept, so that an entry put by a request still using a previous model is never returned
+     * for another model.
+     */
+    private static final class Entry {
+        private final ODataUri uri;
+        private final EntityDataModel entityDataModel;
+        private final long created;
+
+        private Entry(ODataUri uri, EntityDataModel entityDataModel, long created) {
+            this.uri = uri;
+            this.entityDataModel = entityDataModel;
+            this.created = created;
+        }
+    }
+}
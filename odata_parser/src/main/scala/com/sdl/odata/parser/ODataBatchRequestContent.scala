@@ -17,8 +17,70 @@ package com.sdl.odata.parser
 
 /**
  * ODataBatchRequestContent.
+ * The request components of a batch request, in the order in which they appear in the request body.
  */
-case class ODataBatchRequestContent(requestComponents:List[ODataRequestComponent])
+case class ODataBatchRequestContent(requestComponents:Seq[ODataRequestComponent]) {
+
+  /**
+   * Iterates the request components. For a batch request which is read from the request body while it is iterated,
+   * no reference is kept to the components which have been returned, but the components can only be iterated once.
+   */
+  def componentIterator(): Iterator[ODataRequestComponent] = requestComponents match {
+    case streamed: StreamedRequestComponents => streamed.streamingIterator()
+    case _ => requestComponents.iterator
+  }
+}
+
+object ODataBatchRequestContent {
+
+  /**
+   * Batch request content whose components are read from the request body while they are iterated.
+   */
+  def streamed(components: Iterator[ODataRequestComponent]): ODataBatchRequestContent =
+    ODataBatchRequestContent(new StreamedRequestComponents(components))
+}
+
+/**
+ * Request components which are read from the request body while they are iterated. The streaming iterator hands out
+ * the underlying iterator without keeping the components it returns. Any other access reads all components into
+ * memory first, after which they can be traversed as often as needed.
+ */
+private final class StreamedRequestComponents(components: Iterator[ODataRequestComponent])
+  extends scala.collection.AbstractSeq[ODataRequestComponent] {
+
+  private var streaming = false
+  private var read: Vector[ODataRequestComponent] = _
+
+  def streamingIterator(): Iterator[ODataRequestComponent] = synchronized {
+    if (read != null) {
+      read.iterator
+    } else {
+      checkNotStreaming()
+      streaming = true
+      components
+    }
+  }
+
+  override def iterator: Iterator[ODataRequestComponent] = readAll().iterator
+
+  override def apply(idx: Int): ODataRequestComponent = readAll()(idx)
+
+  override def length: Int = readAll().length
+
+  override def toString(): String = "StreamedRequestComponents"
+
+  private def readAll(): Vector[ODataRequestComponent] = synchronized {
+    if (read == null) {
+      checkNotStreaming()
+      read = components.toVector
+    }
+    read
+  }
+
+  private def checkNotStreaming(): Unit = if (streaming) {
+    throw new IllegalStateException("The components of a streamed batch request can only be iterated once")
+  }
+}
 
 case class BatchRequestHeaders(headers : Map[String, String], headerType: BatchHeaderType)
 
@@ -34,6 +34,7 @@ import scala.util.parsing.combinator.RegexParsers
 class ODataBatchRequestParser extends RegexParsers {
   // Note that the current implementation does not support the odata.continue-on-error preference
   private val lineSeparator = sys.props("line.separator")
+  private val RequestLinePrefixes = Seq("GET ", "POST ", "PATCH ", "PUT ", "DELETE ")
 
   override def skipWhitespace = false
 
@@ -49,9 +50,31 @@ class ODataBatchRequestParser extends RegexParsers {
     case NoSuccess(msg, _) => throw new ODataBatchParseException(msg)
   }
 
-  // Trim redundant trailing spaces and trailing request line separators
+  // Trim redundant spaces and trailing request line separators. The lines of request bodies after the first one are
+  // kept as they are, only a trailing carriage return is removed from them
   def trimRedundantTrailingSpaces(input: String): String = {
-    input.split(lineSeparator).map(_.trim).reverse.dropWhile(_.isEmpty).reverse.mkString(lineSeparator.toString)
+    var inHeaders = false
+    var atBody = false
+    var inBody = false
+    val lines = input.split(lineSeparator).map { line =>
+      val trimmed = line.trim
+      if (inBody && !trimmed.startsWith("--")) {
+        line.stripSuffix("\r")
+      } else {
+        if (atBody) {
+          inBody = !trimmed.isEmpty && !trimmed.startsWith("--")
+          atBody = false
+        } else if (inHeaders) {
+          atBody = trimmed.isEmpty
+          inHeaders = !atBody
+        } else {
+          inBody = false
+          inHeaders = RequestLinePrefixes.exists(trimmed.startsWith)
+        }
+        trimmed
+      }
+    }
+    lines.reverse.dropWhile(_.trim.isEmpty).reverse.mkString(lineSeparator.toString)
   }
 
   def parseBatchRequest: Parser[ODataBatchRequestContent] = parseRequestContent ^^ {
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser
+
+import java.io.{BufferedReader, IOException, Reader}
+
+import com.sdl.odata.api.ODataSystemException
+import com.sdl.odata.api.parser.ODataBatchParseException
+
+/**
+ * Streaming reader for multipart/mixed batch request bodies.
+ *
+ * Unlike [[ODataBatchRequestParser]], which needs the complete body as a single string, the reader makes a single
+ * pass over the body line by line, driven by the boundary delimiters. Only the part that is being read is buffered.
+ * The request components are returned by an iterator which reads the body up to the end of the next component when
+ * it is advanced, so the first component can be processed while the rest of the body has not been read yet, and
+ * components which have been processed can be garbage collected. Errors in a later component are thrown when that
+ * component is read.
+ *
+ * The reader accepts the same batch requests as [[ODataBatchRequestParser]] and produces the same components for
+ * them. Lines may be separated by CRLF or LF.
+ */
+class ODataBatchRequestReader(input: Reader) {
+
+  import ODataBatchRequestReader._
+
+  private val reader = input match {
+    case buffered: BufferedReader => buffered
+    case _ => new BufferedReader(input)
+  }
+
+  private var pending: String = _
+  private var contentIds = Set[Int]()
+
+  /**
+   * Read the batch request. Only the first component is read before returning, the other components are read when
+   * the iterator of the returned content is advanced.
+   *
+   * @return The batch request content.
+   */
+  def read(): ODataBatchRequestContent = {
+    val opening = nextTrimmedLine()
+    if (opening == null || opening.isEmpty || isCloseDelimiter(opening)) {
+      throw new ODataBatchParseException("Batch request is empty.")
+    }
+    if (!opening.startsWith(DelimiterPrefix)) {
+      throw new ODataBatchParseException(s"Batch request must start with a boundary delimiter, but found: $opening")
+    }
+
+    val components = new ComponentIterator(opening, opening + DelimiterPrefix).buffered
+    // Reading the first component rejects a body which is not a batch request before any part is processed
+    components.head
+    ODataBatchRequestContent.streamed(components)
+  }
+
+  /**
+   * Iterator which reads the components separated by the given delimiter. The delimiter before the first component
+   * has already been read.
+   */
+  private class ComponentIterator(delimiter: String, closeDelimiter: String) extends Iterator[ODataRequestComponent] {
+    private var atDelimiter = true
+    private var closed = false
+
+    override def hasNext: Boolean = {
+      if (!atDelimiter && !closed) {
+        nextTrimmedLine() match {
+          case `delimiter` => atDelimiter = true
+          case `closeDelimiter` => closed = true
+          case line => throw unexpected(line, delimiter)
+        }
+      }
+      !closed
+    }
+
+    override def next(): ODataRequestComponent = {
+      if (!hasNext) {
+        throw new NoSuchElementException("No more components in the batch request")
+      }
+      atDelimiter = false
+      readComponent()
+    }
+  }
+
+  private def readComponent(): ODataRequestComponent = {
+    val headers = readHeaders()
+    val contentType = headers.collectFirst { case (name, value) if name.equalsIgnoreCase(ContentTypeHeader) => value }
+    val otherHeaders = headers.filter { case (name, _) => !name.equalsIgnoreCase(ContentTypeHeader) }
+
+    contentType match {
+      case Some(ct) if ct.startsWith("application/") =>
+        val requestComponent = readRequest(otherHeaders)
+        if (requestComponent.getRequestDetails()(RequestType) != "GET") {
+          throw new ODataBatchParseException("Only GET is supported in Individual requests of batch.")
+        }
+        requestComponent
+      case Some(ct) if ct.startsWith("multipart/mixed") && ct.contains(BoundaryParam) =>
+        val changeSetId = ct.substring(ct.indexOf(BoundaryParam) + BoundaryParam.length).trim.stripPrefix("\"")
+          .stripSuffix("\"")
+        ChangeSetRequestComponent(BatchRequestHeaders(otherHeaders, ChangeSetRequestHeader), readChangeSet(),
+          changeSetId)
+      case _ =>
+        throw new ODataBatchParseException("Each part of a batch request must have a Content-Type header with " +
+          "application/http or multipart/mixed with a boundary")
+    }
+  }
+
+  // Like the combinator parser, any delimiter line inside a change set separates or closes its operations
+  private def readChangeSet(): List[BatchRequestComponent] = {
+    val operations = List.newBuilder[BatchRequestComponent]
+    var line = nextTrimmedLine()
+    while (line != null && line.startsWith(DelimiterPrefix) && !isCloseDelimiter(line)) {
+      operations += readChangeSetOperation()
+      line = nextTrimmedLine()
+    }
+    if (line == null || !line.startsWith(DelimiterPrefix)) {
+      throw unexpected(line, "change set delimiter")
+    }
+    operations.result()
+  }
+
+  private def readChangeSetOperation(): BatchRequestComponent = {
+    val requestComponent = readRequest(readHeaders())
+    if (requestComponent.getRequestDetails()(RequestType) == "GET") {
+      throw new ODataBatchParseException("ChangeSets must not contain GET requests.")
+    }
+
+    val contentId = requestComponent.getHeaders().headers.getOrElse(ContentIdHeader,
+      throw new ODataBatchParseException("Each request within a change set MUST specify a Content-ID header"))
+    val id = try contentId.toInt catch {
+      case _: NumberFormatException =>
+        throw new ODataBatchParseException(s"Value of Content-ID header must be a number: $contentId")
+    }
+    if (contentIds.contains(id)) {
+      throw new ODataBatchParseException("Value of Content-ID header within a change set must be unique")
+    }
+    contentIds += id
+    requestComponent
+  }
+
+  private def readRequest(partHeaders: Map[String, String]): BatchRequestComponent = {
+    partHeaders.get(ContentTransferEncodingHeader) match {
+      case None => throw new ODataBatchParseException(
+        "An individual request of a batch request must contain Content-Transfer-Encoding header")
+      case Some(encoding) if encoding != ContentTransferEncodingHeaderValue => throw new ODataBatchParseException(
+        "Each operation of a batch request must contain Content-Transfer-Encoding with value binary")
+      case _ =>
+    }
+
+    val requestDetails = parseRequestLine(nextTrimmedLine())
+    val requestHeaders = readHeaders()
+    BatchRequestComponent(BatchRequestHeaders(partHeaders ++ requestHeaders, IndividualRequestHeader),
+      requestDetails + (RequestBody -> readBody()))
+  }
+
+  private def readHeaders(): Map[String, String] = {
+    val headers = Map.newBuilder[String, String]
+    var line = nextTrimmedLine()
+    while (line != null && !line.isEmpty) {
+      val separator = line.indexOf(':')
+      if (separator <= 0) {
+        throw new ODataBatchParseException(s"Invalid header in batch request: $line")
+      }
+      headers += line.substring(0, separator).trim -> line.substring(separator + 1).trim
+      line = nextTrimmedLine()
+    }
+    if (line == null) {
+      throw unexpected(line, "empty line after the headers")
+    }
+    headers.result()
+  }
+
+  // Like the combinator parser, only the first line is trimmed and checked; the other lines are kept as they are and
+  // the whitespace at the end of the body is dropped
+  private def readBody(): String = {
+    val first = nextTrimmedLine()
+    if (first == null) {
+      throw unexpected(first, "request body")
+    }
+    if (!(first.isEmpty || first.startsWith("<?xml") || first.startsWith("{"))) {
+      throw new ODataBatchParseException("Request body must contain an empty line or entity data.")
+    }
+
+    if (first.isEmpty) "" else {
+      val body = new StringBuilder(first)
+      var line = peekLine()
+      while (line != null && !line.trim.startsWith(DelimiterPrefix)) {
+        body.append('\n').append(nextLine())
+        line = peekLine()
+      }
+      body.toString.trim
+    }
+  }
+
+  private def nextTrimmedLine(): String = {
+    val line = nextLine()
+    if (line == null) null else line.trim
+  }
+
+  private def nextLine(): String = {
+    val line = peekLine()
+    pending = null
+    line
+  }
+
+  private def peekLine(): String = {
+    if (pending == null) {
+      pending = try reader.readLine() catch {
+        case e: IOException => throw new ODataSystemException("Unable to read the batch request", e)
+      }
+    }
+    pending
+  }
+
+  private def unexpected(line: String, expected: String): ODataBatchParseException =
+    new ODataBatchParseException(if (line == null) s"Unexpected end of batch request, expected: $expected"
+    else s"Unexpected line in batch request, expected: $expected, but found: $line")
+}
+
+object ODataBatchRequestReader {
+  private val DelimiterPrefix = "--"
+  private val BoundaryParam = "boundary="
+  private val ContentTypeHeader = "Content-Type"
+  private val ContentIdHeader = "Content-ID"
+  private val ContentTransferEncodingHeader = "Content-Transfer-Encoding"
+  private val ContentTransferEncodingHeaderValue = "binary"
+  private val RequestType = "RequestType"
+  private val RequestBody = "RequestBody"
+  private val Methods = Set("GET", "POST", "PATCH", "PUT", "DELETE")
+
+  // The same decomposition of the request target as ODataBatchRequestParser.getRequestURI
+  private val HostPattern = "^(http|https):\\/\\/[^\\/]*[:\\d{0,5}]?".r
+  private val RelativePathPattern = "\\/.+\\/(?=[a-zA-Z])".r
+  private val ContentIdPattern = "\\$.d{0,5}\\/".r
+  private val HttpVersionPattern = "HTTP/\\d\\.\\d"
+
+  private def isCloseDelimiter(line: String): Boolean =
+    line.length > DelimiterPrefix.length && line.startsWith(DelimiterPrefix) && line.endsWith(DelimiterPrefix)
+
+  private def parseRequestLine(line: String): Map[String, String] = {
+    val tokens = if (line == null) Array.empty[String] else line.split(" +")
+    if (tokens.length < 2 || tokens.length > 3 || !Methods.contains(tokens(0)) ||
+      (tokens.length == 3 && !tokens(2).matches(HttpVersionPattern))) {
+      throw new ODataBatchParseException(s"Invalid request line in batch request: $line")
+    }
+
+    var target = tokens(1)
+    var details = Map(RequestType -> tokens(0))
+    for ((pattern, key) <- Seq(HostPattern -> "RequestHost", RelativePathPattern -> "RelativePath",
+                               ContentIdPattern -> "ContentId")) {
+      pattern.findPrefixOf(target).foreach { prefix =>
+        details += key -> prefix
+        target = target.substring(prefix.length)
+      }
+    }
+    if (target.isEmpty) {
+      throw new ODataBatchParseException(s"Invalid request line in batch request: $line")
+    }
+    details + ("RequestEntity" -> target)
+  }
+}
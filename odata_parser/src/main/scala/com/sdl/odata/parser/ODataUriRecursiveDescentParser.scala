@@ -0,0 +1,1081 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser
+
+import java.net.URLDecoder
+import java.util.UUID
+
+import com.sdl.odata.api.edm.model.{EntityDataModel, StructuralProperty}
+import com.sdl.odata.api.parser._
+import com.sdl.odata.api.service.MediaType
+
+import scala.collection.mutable.ListBuffer
+import scala.util.Try
+import scala.util.control.ControlThrowable
+
+/**
+  * Hand-written, single-pass alternative to [[ODataUriParser]].
+  *
+  * The URI is scanned character by character and parsed by recursive descent, following the ordered choices of the
+  * combinator grammar exactly, so that the same `ODataUri` is produced without allocating parser combinators and
+  * intermediate results. It covers resource paths into entity sets and singletons and the commonly used query
+  * options; for anything else (operations, lambda expressions, casts, `$search`, `$apply`, date and time literals,
+  * ...) and for URIs that do not parse, the scanner signals an unsupported construct and the combinator parser is
+  * used, so that results and error messages stay the same. Any other exception propagates: it is either a failure the
+  * combinator parser would report the same way (a malformed escape or number) or a bug in this parser, which must not
+  * be hidden by the fallback.
+  *
+  * @param entityDataModel The entity data model.
+  */
+class ODataUriRecursiveDescentParser(val entityDataModel: EntityDataModel) extends EntityDataModelHelpers {
+  import ODataUriRecursiveDescentParser._
+
+  private lazy val combinatorParser = new ODataUriParser(entityDataModel)
+
+  def parseUri(input: String): ODataUri = tryParseUri(input).getOrElse(combinatorParser.parseUri(input))
+
+  /**
+    * Parse a URI without falling back to the combinator parser.
+    *
+    * @param input The URI.
+    * @return The parse result, or `None` if the URI uses a construct this parser leaves to the combinator parser,
+    *         which includes URIs that do not parse.
+    */
+  def tryParseUri(input: String): Option[ODataUri] = {
+    val decoded = URLDecoder.decode(input, "UTF-8")
+    try {
+      Some(new Scanner(decoded).odataUri())
+    } catch {
+      case Unsupported => None
+    }
+  }
+
+  private final class Scanner(in: String) {
+    private val end = in.length
+    private var pos = 0
+
+    def odataUri(): ODataUri = {
+      val rootEnd = serviceRootEnd()
+      if (rootEnd < 0) unsupported()
+      val serviceRoot = in.substring(0, rootEnd)
+      pos = rootEnd
+      if (at('/')) pos += 1
+
+      val start = pos
+      val relativeUri = this.relativeUri()
+      if (relativeUri != null) {
+        if (pos != end) unsupported()
+        ODataUri(serviceRoot, relativeUri)
+      } else {
+        pos = start
+        val format = opt(if (at('?')) { pos += 1; formatMediaType() } else null)
+        if (pos != end) unsupported()
+        ODataUri(serviceRoot, ServiceRootUri(format))
+      }
+    }
+
+    // Everything up to the last ".svc" (case-insensitive) is the service root, like the regex of the combinator parser
+    private def serviceRootEnd(): Int = {
+      var i = 0
+      while (i < end) {
+        if (isLineTerminator(in.charAt(i))) unsupported()
+        i += 1
+      }
+      i = end - SVC.length
+      while (i >= 0 && !(in.charAt(i) == '.' && asciiLower(in.charAt(i + 1)) == 's' &&
+        asciiLower(in.charAt(i + 2)) == 'v' && asciiLower(in.charAt(i + 3)) == 'c')) {
+        i -= 1
+      }
+      if (i < 0) -1 else i + SVC.length
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Relative URI and resource path
+
+    private def relativeUri(): RelativeUri =
+      if (in.startsWith("$batch", pos)) {
+        pos += "$batch".length
+        BatchUri
+      } else if (in.startsWith("$entity", pos)) {
+        unsupported()
+      } else if (in.startsWith("$metadata", pos)) {
+        pos += "$metadata".length
+        if (at('/')) pos += 1
+        val format = opt(if (at('?')) { pos += 1; formatMediaType() } else null)
+        if (at('#')) unsupported()
+        MetadataUri(format, None)
+      } else {
+        resourcePathUri()
+      }
+
+    private def resourcePathUri(): ResourcePathUri = {
+      val resourcePath = this.resourcePath()
+      if (resourcePath == null) {
+        null
+      } else {
+        val contextTypeName = resolveResourcePathTypeName(resourcePath)
+        val options = opt(if (at('?')) { pos += 1; queryOptions(contextTypeName) } else null)
+        ResourcePathUri(resourcePath, options.getOrElse(List.empty))
+      }
+    }
+
+    private def resourcePath(): ResourcePath = {
+      val name = identifier()
+      if (name == null) {
+        if (at('$')) unsupported()
+        null
+      } else if (isEntitySet(name)) {
+        EntitySetPath(name, opt(collectionNavigation(getEntitySetTypeName(name).get)))
+      } else if (isSingleton(name)) {
+        SingletonPath(name, opt(singleNavigation(getSingletonTypeName(name).get)))
+      } else {
+        unsupported()
+      }
+    }
+
+    private def collectionNavigation(contextTypeName: String): EntityCollectionPath = {
+      val derivedTypeName = opt(if (at('/')) { pos += 1; qualifiedName(isEntityType) } else null)
+      val subPath = opt(collectionNavPath(derivedTypeName.getOrElse(contextTypeName)))
+      if (derivedTypeName.isEmpty && subPath.isEmpty) null else EntityCollectionPath(derivedTypeName, subPath)
+    }
+
+    private def collectionNavPath(contextTypeName: String): PathSegment = {
+      val start = pos
+      val keyPredicate = this.keyPredicate()
+      if (keyPredicate != null) {
+        KeyPredicatePath(keyPredicate, opt(singleNavigation(contextTypeName)))
+      } else {
+        pos = start
+        val collectionPath = this.collectionPath()
+        if (collectionPath != null) {
+          collectionPath
+        } else {
+          pos = start
+          if (skip("/$ref")) RefPath else null
+        }
+      }
+    }
+
+    private def singleNavigation(contextTypeName: String): EntityPath = {
+      val derivedTypeName = opt(if (at('/')) { pos += 1; qualifiedName(isEntityType) } else null)
+      val subPath = opt(singleNavPath(derivedTypeName.getOrElse(contextTypeName)))
+      if (derivedTypeName.isEmpty && subPath.isEmpty) null else EntityPath(derivedTypeName, subPath)
+    }
+
+    private def singleNavPath(contextTypeName: String): PathSegment = {
+      val start = pos
+      val propertyPath = if (at('/')) { pos += 1; this.propertyPath(contextTypeName) } else null
+      if (propertyPath != null) {
+        propertyPath
+      } else {
+        pos = start
+        if (at('/')) { pos += 1; rejectNamespace(); pos = start }
+        if (skip("/$ref")) RefPath else if (skip("/$value")) ValuePath else null
+      }
+    }
+
+    private def propertyPath(contextTypeName: String): PropertyPath = {
+      val name = identifier()
+      val property = if (name == null) null else getStructuralProperty(contextTypeName, name).orNull
+      if (property == null) {
+        null
+      } else if (isEntitySingleNavigationProperty(property)) {
+        PropertyPath(name, opt(singleNavigation(property.getTypeName)))
+      } else if (isEntityCollectionNavigationProperty(property)) {
+        PropertyPath(name, opt(collectionNavigation(property.getElementTypeName)))
+      } else if (isComplexSingleProperty(property)) {
+        PropertyPath(name, opt(complexPath(property.getTypeName)))
+      } else if (isComplexCollectionProperty(property)) {
+        PropertyPath(name, opt(collectionPath()))
+      } else if (isPrimitiveSingleProperty(property)) {
+        PropertyPath(name, opt(singlePath()))
+      } else if (isPrimitiveCollectionProperty(property)) {
+        PropertyPath(name, opt(collectionPath()))
+      } else {
+        null
+      }
+    }
+
+    private def complexPath(contextTypeName: String): ComplexPath = {
+      val derivedTypeName = opt(if (at('/')) { pos += 1; qualifiedName(isComplexType) } else null)
+      if (!at('/')) {
+        null
+      } else {
+        pos += 1
+        val start = pos
+        val propertyPath = this.propertyPath(derivedTypeName.getOrElse(contextTypeName))
+        if (propertyPath != null) {
+          ComplexPath(derivedTypeName, Some(propertyPath))
+        } else {
+          pos = start
+          rejectNamespace()
+          null
+        }
+      }
+    }
+
+    private def collectionPath(): PathSegment =
+      if (skip("/$count")) {
+        CountPath
+      } else if (at('/')) {
+        pos += 1
+        rejectNamespace()
+        null
+      } else {
+        null
+      }
+
+    private def singlePath(): PathSegment = if (skip("/$value")) ValuePath else { rejectNamespace(); null }
+
+    private def keyPredicate(): KeyPredicate = if (!at('(')) null else {
+      pos += 1
+      val start = pos
+      val value = primitiveLiteral()
+      if (value != null && at(')')) {
+        pos += 1
+        SimpleKeyPredicate(value)
+      } else {
+        pos = start
+        val values = rep1sep(keyValuePair())(skip(","))
+        if (values != null && at(')')) { pos += 1; CompoundKeyPredicate(values.toMap) } else null
+      }
+    }
+
+    private def keyValuePair(): (String, Literal) = {
+      val name = identifier()
+      if (name == null || !skip("=")) null else {
+        val value = primitiveLiteral()
+        if (value == null) null else (name, value)
+      }
+    }
+
+    private def resolveResourcePathTypeName(resourcePath: ResourcePath): String = resourcePath match {
+      case EntitySetPath(entitySetName, subPath) =>
+        resolvePathSegmentTypeName(getEntitySetTypeName(entitySetName).get, subPath)
+      case SingletonPath(singletonName, subPath) =>
+        resolvePathSegmentTypeName(getSingletonTypeName(singletonName).get, subPath)
+      case _ => unsupported()
+    }
+
+    private def resolvePathSegmentTypeName(contextTypeName: String, pathSegment: Option[PathSegment]): String =
+      pathSegment match {
+        case Some(EntityCollectionPath(derivedTypeName, subPath)) =>
+          resolvePathSegmentTypeName(derivedTypeName.getOrElse(contextTypeName), subPath)
+        case Some(KeyPredicatePath(_, subPath)) =>
+          resolvePathSegmentTypeName(contextTypeName, subPath)
+        case Some(EntityPath(derivedTypeName, subPath)) =>
+          resolvePathSegmentTypeName(derivedTypeName.getOrElse(contextTypeName), subPath)
+        case Some(ComplexPath(derivedTypeName, subPath)) =>
+          resolvePathSegmentTypeName(derivedTypeName.getOrElse(contextTypeName), subPath)
+        case Some(PropertyPath(propertyName, subPath)) =>
+          val subPathContextTypeName = getSinglePropertyTypeName(contextTypeName, propertyName)
+            .orElse(getPropertyElementTypeName(contextTypeName, propertyName)).get
+          resolvePathSegmentTypeName(subPathContextTypeName, subPath)
+        case _ => contextTypeName
+      }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Query options
+
+    private def queryOptions(contextTypeName: String): List[QueryOption] =
+      rep1sep(queryOption(contextTypeName))(skip("&"))
+
+    // System query options all start with a distinct "$name=" prefix, so the first matching prefix decides
+    private def queryOption(contextTypeName: String): QueryOption =
+      if (at('$')) {
+        if (in.startsWith("$expand=", pos)) expand(contextTypeName)
+        else if (in.startsWith("$filter=", pos)) filter(contextTypeName)
+        else if (in.startsWith("$format=", pos)) format()
+        else if (in.startsWith("$id=", pos)) id()
+        else if (in.startsWith("$count=", pos)) inlineCount()
+        else if (in.startsWith("$orderby=", pos)) orderBy(contextTypeName)
+        else if (in.startsWith("$search=", pos)) unsupported()
+        else if (in.startsWith("$select=", pos)) select(contextTypeName)
+        else if (in.startsWith("$skip=", pos)) skipOption()
+        else if (in.startsWith("$skiptoken=", pos)) skipToken()
+        else if (in.startsWith("$top=", pos)) topOption()
+        else if (in.startsWith("$apply=", pos)) unsupported()
+        else null
+      } else if (at('@')) {
+        unsupported()
+      } else {
+        customQueryOption()
+      }
+
+    private def format(): FormatOption = {
+      val mediaType = formatMediaType()
+      if (mediaType == null) null else FormatOption(mediaType)
+    }
+
+    private def id(): IdOption = {
+      pos += "$id=".length
+      val value = spanUntil('&')
+      if (value == null) null else IdOption(value)
+    }
+
+    private def skipToken(): SkipTokenOption = {
+      pos += "$skiptoken=".length
+      val token = span(SKIP_TOKEN_CHARS, 1)
+      if (token == null) null else SkipTokenOption(token)
+    }
+
+    private def filter(contextTypeName: String): FilterOption = {
+      pos += "$filter=".length
+      val expression = boolCommonExpr(contextTypeName)
+      if (expression == null) null else FilterOption(expression)
+    }
+
+    private def orderBy(contextTypeName: String): OrderByOption = {
+      pos += "$orderby=".length
+      val items = rep1sep(orderByItem(contextTypeName))(skip(","))
+      if (items == null) null else OrderByOption(items)
+    }
+
+    private def orderByItem(contextTypeName: String): OrderByItem = {
+      val expression = commonExpr(contextTypeName)
+      if (expression == null) null else {
+        val start = pos
+        if (whitespace(1)) {
+          if (skip("asc")) return AscendingOrderByItem(expression)
+          if (skip("desc")) return DescendingOrderByItem(expression)
+        }
+        pos = start
+        AscendingOrderByItem(expression)
+      }
+    }
+
+    private def skipOption(): SkipOption = {
+      pos += "$skip=".length
+      val digits = span(DIGITS, 1)
+      if (digits == null) null else SkipOption(toInt(digits))
+    }
+
+    private def topOption(): TopOption = {
+      pos += "$top=".length
+      val digits = span(DIGITS, 1)
+      if (digits == null) null else TopOption(toInt(digits))
+    }
+
+    private def inlineCount(): CountOption = {
+      pos += "$count=".length
+      if (skipIgnoreCase("true")) CountOption(true) else if (skipIgnoreCase("false")) CountOption(false) else null
+    }
+
+    private def formatMediaType(): MediaType = if (!skip("$format=")) null else {
+      if (skipIgnoreCase("atom")) MediaType.ATOM_XML
+      else if (skipIgnoreCase("json")) MediaType.JSON
+      else if (skipIgnoreCase("xml")) MediaType.XML
+      else {
+        val mediaType = span(MEDIA_TYPE_CHARS, 1)
+        if (mediaType == null || !skip("/")) null else {
+          val mediaSubType = span(MEDIA_TYPE_CHARS, 1)
+          if (mediaSubType == null) null else new MediaType(mediaType, mediaSubType)
+        }
+      }
+    }
+
+    private def customQueryOption(): CustomOption = {
+      if (pos >= end || !inClass(CUSTOM_NAME_START_CHARS, in.charAt(pos))) null else {
+        val start = pos
+        pos += 1
+        span(CUSTOM_NAME_CHARS, 0)
+        val name = in.substring(start, pos)
+        val value = if (skip("=")) Some(span(CUSTOM_VALUE_CHARS, 0)) else None
+        CustomOption(name, value)
+      }
+    }
+
+    private def select(contextTypeName: String): SelectOption = {
+      pos += "$select=".length
+      val items = rep1sep(selectItem(contextTypeName))(skip(","))
+      if (items == null) null else SelectOption(items)
+    }
+
+    private def selectItem(contextTypeName: String): SelectItem = {
+      val start = pos
+      if (skip("*")) return AllSelectItem
+      val namespace = this.namespace()
+      if (namespace != null && skip("*")) return SchemaAllSelectItem(namespace.substring(0, namespace.length - 1))
+      pos = start
+
+      // Action and function select items are not supported by the combinator parser either
+      val derivedTypeName = derivedEntityTypeName()
+      val path = selectPathSegment(derivedTypeName.getOrElse(contextTypeName))
+      if (path == null) null else PathSelectItem(derivedTypeName, path)
+    }
+
+    private def selectPathSegment(contextTypeName: String): SelectPathSegment = {
+      val name = identifier()
+      val property = if (name == null) null else getStructuralProperty(contextTypeName, name).orNull
+      if (property == null) {
+        null
+      } else if (isComplexSingleProperty(property) || isComplexCollectionProperty(property)) {
+        val derivedTypeName = opt(if (at('/')) { pos += 1; qualifiedName(isComplexType) } else null)
+        val subPathContextTypeName = derivedTypeName.getOrElse(
+          if (property.isCollection) property.getElementTypeName else property.getTypeName)
+        ComplexPropertySelectPathSegment(name, derivedTypeName, opt(selectPathSegment(subPathContextTypeName)))
+      } else if (isPrimitiveSingleProperty(property) || isPrimitiveCollectionProperty(property) ||
+        isEntityNavigationProperty(property)) {
+        TerminalPropertySelectPathSegment(name)
+      } else {
+        null
+      }
+    }
+
+    private def expand(contextTypeName: String): ExpandOption = {
+      pos += "$expand=".length
+      val items = rep1sep(expandItem(contextTypeName))(skip(","))
+      if (items == null) null else ExpandOption(items)
+    }
+
+    private def expandItem(contextTypeName: String): ExpandItem = {
+      if (skip("*/$ref")) return AllRefExpandItem
+      if (skip("*")) return AllExpandItem(opt(allExpandItemLevels()).toList)
+
+      val start = pos
+      var derivedTypeName = derivedEntityTypeName()
+      var path = expandPathSegment(derivedTypeName.getOrElse(contextTypeName))
+      if (path != null && skip("/$ref")) {
+        val options = opt(expandOptions(resolvePathTypeName(contextTypeName, path), ExpandRefOptions))
+        return PathRefExpandItem(derivedTypeName, path, options.getOrElse(List.empty))
+      }
+
+      pos = start
+      derivedTypeName = derivedEntityTypeName()
+      path = expandPathSegment(derivedTypeName.getOrElse(contextTypeName))
+      if (path != null && skip("/$count")) {
+        val options = opt(expandOptions(resolvePathTypeName(contextTypeName, path), ExpandCountOptions))
+        return PathCountExpandItem(derivedTypeName, path, options.getOrElse(List.empty))
+      }
+
+      pos = start
+      derivedTypeName = derivedEntityTypeName()
+      path = expandPathSegment(derivedTypeName.getOrElse(contextTypeName))
+      if (path == null) null else {
+        val options = opt(expandOptions(resolvePathTypeName(contextTypeName, path), ExpandAllOptions))
+        PathExpandItem(derivedTypeName, path, options.getOrElse(List.empty))
+      }
+    }
+
+    private def allExpandItemLevels(): LevelsQueryOption = if (!skip("(")) null else {
+      val levels = this.levels()
+      if (levels != null && skip(")")) levels else null
+    }
+
+    private def expandPathSegment(contextTypeName: String): ExpandPathSegment = {
+      val name = identifier()
+      val property = if (name == null) null else getStructuralProperty(contextTypeName, name).orNull
+      if (property == null) return null
+
+      val afterName = pos
+      if (isComplexSingleProperty(property) || isComplexCollectionProperty(property)) {
+        val segment = complexExpandPathSegment(name, property)
+        if (segment != null) return segment
+        pos = afterName
+      }
+      if (isEntityNavigationProperty(property)) {
+        NavigationPropertyExpandPathSegment(name, opt(if (at('/')) { pos += 1; qualifiedName(isEntityType) } else null))
+      } else {
+        null
+      }
+    }
+
+    private def complexExpandPathSegment(name: String, property: StructuralProperty): ExpandPathSegment =
+      if (!skip("/")) null else {
+        val derivedTypeName = opt { val n = qualifiedName(isComplexType); if (n != null && skip("/")) n else null }
+        val subPathContextTypeName = derivedTypeName.getOrElse(
+          if (property.isCollection) property.getElementTypeName else property.getTypeName)
+        val subPath = expandPathSegment(subPathContextTypeName)
+        if (subPath == null) null else ComplexPropertyExpandPathSegment(name, derivedTypeName, subPath)
+      }
+
+    private def resolvePathTypeName(contextTypeName: String, path: ExpandPathSegment): String = {
+      val subPathContextTypeName = path.derivedTypeName
+        .orElse(getSinglePropertyTypeName(contextTypeName, path.propertyName))
+        .orElse(getPropertyElementTypeName(contextTypeName, path.propertyName))
+        .get
+
+      path match {
+        case ComplexPropertyExpandPathSegment(_, _, subPath) => resolvePathTypeName(subPathContextTypeName, subPath)
+        case NavigationPropertyExpandPathSegment(_, _) => subPathContextTypeName
+      }
+    }
+
+    private def expandOptions(contextTypeName: String, allowed: Int): List[QueryOption] = if (!skip("(")) null else {
+      val options = rep1sep(expandOption(contextTypeName, allowed))(skip(";"))
+      if (options != null && skip(")")) options else null
+    }
+
+    private def expandOption(contextTypeName: String, allowed: Int): QueryOption =
+      if (in.startsWith("$filter=", pos)) filter(contextTypeName)
+      else if (in.startsWith("$search=", pos)) unsupported()
+      else if (allowed == ExpandCountOptions) null
+      else if (in.startsWith("$orderby=", pos)) orderBy(contextTypeName)
+      else if (in.startsWith("$skip=", pos)) skipOption()
+      else if (in.startsWith("$top=", pos)) topOption()
+      else if (in.startsWith("$count=", pos)) inlineCount()
+      else if (allowed == ExpandRefOptions) null
+      else if (in.startsWith("$select=", pos)) select(contextTypeName)
+      else if (in.startsWith("$expand=", pos)) expand(contextTypeName)
+      else levels()
+
+    private def levels(): LevelsQueryOption = if (!skip("$levels=")) null else {
+      val digits = span(DIGITS, 1)
+      if (digits != null) LevelsQueryOption(toInt(digits))
+      else if (skip("max")) LevelsQueryOption(Int.MaxValue)
+      else null
+    }
+
+    private def derivedEntityTypeName(): Option[String] =
+      opt { val name = qualifiedName(isEntityType); if (name != null && skip("/")) name else null }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Expressions; note that binary operators are right-associative, as in the combinator grammar
+
+    private def boolCommonExpr(contextTypeName: String): BooleanExpr = {
+      val left = boolCommonExprPart1(contextTypeName)
+      if (left == null) null else {
+        val start = pos
+        if (operator("or")) {
+          val right = boolCommonExpr(contextTypeName)
+          if (right != null) return OrExpr(left, right)
+        }
+        pos = start
+        left
+      }
+    }
+
+    private def boolCommonExprPart1(contextTypeName: String): BooleanExpr = {
+      val left = boolCommonExprPart2(contextTypeName)
+      if (left == null) null else {
+        val start = pos
+        if (operator("and")) {
+          val right = boolCommonExprPart1(contextTypeName)
+          if (right != null) return AndExpr(left, right)
+        }
+        pos = start
+        left
+      }
+    }
+
+    private def boolCommonExprPart2(contextTypeName: String): BooleanExpr = {
+      val start = pos
+      if (in.startsWith("isof(", pos)) unsupported()
+
+      val methodName = firstPrefix(BOOL_METHOD_NAMES)
+      if (methodName != null) {
+        pos += methodName.length
+        val args = methodCallArgs(contextTypeName)
+        if (args != null) return BooleanMethodCallExpr(methodName, args)
+        pos = start
+      }
+
+      if (skip("not") && whitespace(1)) {
+        val expression = boolCommonExprPart2(contextTypeName)
+        if (expression != null) return NotExpr(expression)
+      }
+      pos = start
+
+      val left = commonExpr(contextTypeName)
+      if (left != null) {
+        val comparison = comparisonExpr(contextTypeName, left)
+        if (comparison != null) return comparison
+      }
+      pos = start
+
+      if (skip("(")) {
+        whitespace(0)
+        val expression = boolCommonExpr(contextTypeName)
+        if (expression != null) {
+          whitespace(0)
+          if (skip(")")) return expression
+        }
+      }
+      pos = start
+      null
+    }
+
+    private def comparisonExpr(contextTypeName: String, left: Expression): ComparisonExpr = {
+      val start = pos
+      var i = 0
+      while (i < COMPARISON_OPERATORS.length) {
+        val op = COMPARISON_OPERATORS(i)
+        if (operator(op)) {
+          val right = commonExpr(contextTypeName)
+          if (right != null) {
+            return op match {
+              case "eq" => EqExpr(left, right)
+              case "ne" => NeExpr(left, right)
+              case "lt" => LtExpr(left, right)
+              case "le" => LeExpr(left, right)
+              case "gt" => GtExpr(left, right)
+              case "ge" => GeExpr(left, right)
+              case _ => HasExpr(left, right)
+            }
+          }
+        }
+        pos = start
+        i += 1
+      }
+      null
+    }
+
+    private def commonExpr(contextTypeName: String): Expression = {
+      val left = commonExprPart1(contextTypeName)
+      if (left == null) null else {
+        val start = pos
+        if (operator("add")) {
+          val right = commonExpr(contextTypeName)
+          if (right != null) return AddExpr(left, right)
+        }
+        pos = start
+        if (operator("sub")) {
+          val right = commonExpr(contextTypeName)
+          if (right != null) return SubExpr(left, right)
+        }
+        pos = start
+        left
+      }
+    }
+
+    private def commonExprPart1(contextTypeName: String): Expression = {
+      val left = commonExprPart2(contextTypeName)
+      if (left == null) null else {
+        val start = pos
+        if (operator("mul")) {
+          val right = commonExprPart1(contextTypeName)
+          if (right != null) return MulExpr(left, right)
+        }
+        pos = start
+        if (operator("div")) {
+          val right = commonExprPart1(contextTypeName)
+          if (right != null) return DivExpr(left, right)
+        }
+        pos = start
+        if (operator("mod")) {
+          val right = commonExprPart1(contextTypeName)
+          if (right != null) return ModExpr(left, right)
+        }
+        pos = start
+        left
+      }
+    }
+
+    private def commonExprPart2(contextTypeName: String): Expression = {
+      val start = pos
+      val literal = primitiveLiteral()
+      if (literal != null) return LiteralExpr(literal)
+      pos = start
+
+      if (skip("@")) {
+        val alias = identifier()
+        if (alias != null) return ParameterAliasExpr(alias)
+        pos = start
+      }
+
+      // Root expressions, function calls and qualified type names in member expressions are not supported
+      if (in.startsWith("$root/", pos)) unsupported()
+      rejectNamespace()
+
+      if (skip("-")) {
+        whitespace(0)
+        val expression = commonExprPart2(contextTypeName)
+        if (expression != null) return NegateExpr(expression)
+      }
+      pos = start
+
+      val methodName = firstPrefix(METHOD_NAMES)
+      if (methodName != null) {
+        pos += methodName.length
+        val args = methodCallArgs(contextTypeName)
+        if (args != null) return MethodCallExpr(methodName, args)
+      }
+      pos = start
+
+      if (skip("(")) {
+        whitespace(0)
+        val expression = commonExpr(contextTypeName)
+        if (expression != null) {
+          whitespace(0)
+          if (skip(")")) return expression
+        }
+      }
+      pos = start
+
+      if (in.startsWith("cast(", pos)) unsupported()
+      val member = memberExpr(contextTypeName)
+      if (member != null) return member
+      pos = start
+      if (in.startsWith("$it", pos)) unsupported()
+      null
+    }
+
+    private def methodCallArgs(contextTypeName: String): List[Expression] = if (!skip("(")) null else {
+      whitespace(0)
+      val args = repsep(commonExpr(contextTypeName)) {
+        whitespace(0)
+        skip(",") && whitespace(0)
+      }
+      whitespace(0)
+      if (skip(")")) args else null
+    }
+
+    private def memberExpr(contextTypeName: String): EntityPathExpr = {
+      rejectNamespace()
+      val subPath = propertyPathExpr(contextTypeName)
+      if (subPath == null) null else EntityPathExpr(None, Some(subPath))
+    }
+
+    private def propertyPathExpr(contextTypeName: String): PropertyPathExpr = {
+      val name = identifier()
+      val property = if (name == null) null else getStructuralProperty(contextTypeName, name).orNull
+      if (property == null) {
+        null
+      } else if (isEntitySingleNavigationProperty(property)) {
+        PropertyPathExpr(name, opt(singleNavigationExpr(property.getTypeName)))
+      } else if (isEntityCollectionNavigationProperty(property)) {
+        PropertyPathExpr(name, opt(collectionNavigationExpr(property.getElementTypeName)))
+      } else if (isComplexSingleProperty(property)) {
+        PropertyPathExpr(name, opt(complexPathExpr(property.getTypeName)))
+      } else if (isComplexCollectionProperty(property)) {
+        PropertyPathExpr(name, opt(collectionPathExpr()))
+      } else if (isPrimitiveSingleProperty(property)) {
+        PropertyPathExpr(name, opt(singlePathExpr()))
+      } else if (isPrimitiveCollectionProperty(property)) {
+        PropertyPathExpr(name, opt(collectionPathExpr()))
+      } else {
+        null
+      }
+    }
+
+    private def singleNavigationExpr(contextTypeName: String): EntityPathExpr =
+      if (skip("/")) memberExpr(contextTypeName) else null
+
+    private def collectionNavigationExpr(contextTypeName: String): EntityCollectionPathExpr = {
+      val start = pos
+      if (skip("/")) rejectNamespace()
+      pos = start
+
+      val keyPredicate = this.keyPredicate()
+      val subPath = if (keyPredicate != null) {
+        KeyPredicatePathExpr(keyPredicate, opt(singleNavigationExpr(contextTypeName)))
+      } else {
+        pos = start
+        collectionPathExpr()
+      }
+      if (subPath == null) null else EntityCollectionPathExpr(None, Some(subPath))
+    }
+
+    private def collectionPathExpr(): PathExpr =
+      if (skip("/$count")) {
+        CountPathExpr
+      } else if (skip("/")) {
+        if (in.startsWith("any(", pos) || in.startsWith("all(", pos)) unsupported()
+        rejectNamespace()
+        null
+      } else {
+        null
+      }
+
+    private def complexPathExpr(contextTypeName: String): ComplexPathExpr = if (!skip("/")) null else {
+      rejectNamespace()
+      val subPath = propertyPathExpr(contextTypeName)
+      if (subPath == null) null else ComplexPathExpr(None, Some(subPath))
+    }
+
+    private def singlePathExpr(): PathExpr = {
+      if (skip("/")) rejectNamespace()
+      null
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Literals
+
+    private def primitiveLiteral(): Literal = {
+      if (skip("null")) return NullLiteral
+      if (skipIgnoreCase("true")) return TrueLiteral
+      if (skipIgnoreCase("false")) return FalseLiteral
+
+      val guid = guidLiteral()
+      if (guid != null) return guid
+      if (isDateOrTime) unsupported()
+      if (at('\'')) return stringLiteral()
+
+      val start = pos
+      val name = qualifiedName(_ => true)
+      if (name != null && isEnumType(name)) unsupported()
+      pos = start
+      if (in.startsWith("(?i)binary'", pos)) unsupported()
+
+      val number = numberLiteral()
+      if (number != null) return number
+      pos = start
+      if (startsWithIgnoreCase("geography'") || startsWithIgnoreCase("geometry'")) unsupported()
+      null
+    }
+
+    private def guidLiteral(): GuidLiteral = {
+      var i = pos
+      var group = 0
+      var ok = true
+      while (ok && group < GUID_GROUPS.length) {
+        val groupEnd = i + GUID_GROUPS(group)
+        while (ok && i < groupEnd) {
+          ok = i < end && Character.digit(in.charAt(i), 16) >= 0 && in.charAt(i) < 128
+          i += 1
+        }
+        if (ok && group < GUID_GROUPS.length - 1) {
+          ok = i < end && in.charAt(i) == '-'
+          i += 1
+        }
+        group += 1
+      }
+      if (!ok) null else {
+        val guid = GuidLiteral(UUID.fromString(in.substring(pos, i)))
+        pos = i
+        guid
+      }
+    }
+
+    private def isDateOrTime: Boolean =
+      (digitsAt(pos, 4) && charAt(pos + 4) == '-' && digitsAt(pos + 5, 2) && charAt(pos + 7) == '-' &&
+        digitsAt(pos + 8, 2)) || (digitsAt(pos, 2) && charAt(pos + 2) == ':' && digitsAt(pos + 3, 2)) ||
+        startsWithIgnoreCase("duration'")
+
+    private def stringLiteral(): StringLiteral = {
+      var i = pos + 1
+      var scanning = true
+      while (scanning) {
+        while (i < end && in.charAt(i) != '\'') i += 1
+        if (i + 1 < end && in.charAt(i + 1) == '\'') i += 2 else scanning = false
+      }
+      if (i >= end) null else {
+        val value = in.substring(pos + 1, i)
+        pos = i + 1
+        StringLiteral(if (value.indexOf('\'') < 0) value else value.replaceAll("''", "'"))
+      }
+    }
+
+    private def numberLiteral(): NumberLiteral = {
+      val start = pos
+      if (at('+') || at('-')) pos += 1
+      if (span(DIGITS, 1) == null) null else {
+        if (at('.') && digitsAt(pos + 1, 1)) { pos += 1; span(DIGITS, 1) }
+        if (at('e')) {
+          val exponent = pos
+          pos += 1
+          if (at('+') || at('-')) pos += 1
+          if (span(DIGITS, 1) == null) pos = exponent
+        }
+        NumberLiteral(BigDecimal(in.substring(start, pos)))
+      }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Names and identifiers
+
+    private def identifier(): String = {
+      val start = pos
+      if (pos < end && isIdentifierStart(in.codePointAt(pos))) {
+        pos += Character.charCount(in.codePointAt(pos))
+        while (pos < end && isIdentifierPart(in.codePointAt(pos))) pos += Character.charCount(in.codePointAt(pos))
+        in.substring(start, pos)
+      } else {
+        null
+      }
+    }
+
+    // Includes the "." at the end, like the combinator parser
+    private def namespace(): String = {
+      val start = pos
+      var last = -1
+      var scanning = true
+      while (scanning) {
+        val segmentStart = pos
+        if (identifier() != null && at('.')) {
+          pos += 1
+          last = pos
+        } else {
+          pos = segmentStart
+          scanning = false
+        }
+      }
+      if (last < 0) { pos = start; null } else in.substring(start, last)
+    }
+
+    private def qualifiedName(predicate: String => Boolean): String = {
+      val namespace = this.namespace()
+      if (namespace == null) null else {
+        val name = identifier()
+        if (name == null || !predicate(namespace + name)) null else namespace + name
+      }
+    }
+
+    // Bound operations, function calls and qualified type names are left to the combinator parser
+    private def rejectNamespace(): Unit = {
+      val start = pos
+      if (namespace() != null) unsupported()
+      pos = start
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Scanning primitives
+
+    private def opt[T <: AnyRef](parser: => T): Option[T] = {
+      val start = pos
+      val result = parser
+      if (result == null) { pos = start; None } else Some(result)
+    }
+
+    private def rep1sep[T <: AnyRef](parser: => T)(separator: => Boolean): List[T] = {
+      val first = parser
+      if (first == null) null else {
+        val results = ListBuffer(first)
+        var scanning = true
+        while (scanning) {
+          val start = pos
+          val next = if (separator) parser else null.asInstanceOf[T]
+          if (next == null) { pos = start; scanning = false } else results += next
+        }
+        results.toList
+      }
+    }
+
+    private def repsep[T <: AnyRef](parser: => T)(separator: => Boolean): List[T] = {
+      val start = pos
+      val results = rep1sep(parser)(separator)
+      if (results == null) { pos = start; List.empty } else results
+    }
+
+    // Matches \s+op\s+
+    private def operator(op: String): Boolean = whitespace(1) && skip(op) && whitespace(1)
+
+    private def whitespace(min: Int): Boolean = {
+      val start = pos
+      while (pos < end && isWhitespace(in.charAt(pos))) pos += 1
+      pos - start >= min
+    }
+
+    private def span(charClass: Array[Boolean], min: Int): String = {
+      val start = pos
+      while (pos < end && inClass(charClass, in.charAt(pos))) pos += 1
+      if (pos - start < min) { pos = start; null } else in.substring(start, pos)
+    }
+
+    private def spanUntil(c: Char): String = {
+      val start = pos
+      while (pos < end && in.charAt(pos) != c) pos += 1
+      if (pos == start) null else in.substring(start, pos)
+    }
+
+    private def firstPrefix(prefixes: Array[String]): String = {
+      var i = 0
+      while (i < prefixes.length && !in.startsWith(prefixes(i), pos)) i += 1
+      if (i < prefixes.length) prefixes(i) else null
+    }
+
+    private def at(c: Char): Boolean = pos < end && in.charAt(pos) == c
+
+    private def charAt(i: Int): Char = if (i < end) in.charAt(i) else 0
+
+    private def digitsAt(from: Int, count: Int): Boolean = {
+      var i = from
+      while (i < from + count && i < end && in.charAt(i) >= '0' && in.charAt(i) <= '9') i += 1
+      i == from + count
+    }
+
+    private def skip(s: String): Boolean = if (in.startsWith(s, pos)) { pos += s.length; true } else false
+
+    private def skipIgnoreCase(s: String): Boolean =
+      if (startsWithIgnoreCase(s)) { pos += s.length; true } else false
+
+    // ASCII-only, like the (?i) flag of the combinator parser's regular expressions
+    private def startsWithIgnoreCase(s: String): Boolean = {
+      var i = 0
+      while (i < s.length && pos + i < end && asciiLower(in.charAt(pos + i)) == s.charAt(i)) i += 1
+      i == s.length
+    }
+
+    private def toInt(digits: String): Int = Try(digits.toInt).getOrElse(unsupported())
+  }
+}
+
+object ODataUriRecursiveDescentParser {
+
+  private val SVC = ".svc"
+
+  private val ExpandAllOptions = 0
+  private val ExpandRefOptions = 1
+  private val ExpandCountOptions = 2
+
+  private val GUID_GROUPS = Array(8, 4, 4, 4, 12)
+
+  private val COMPARISON_OPERATORS = Array("eq", "ne", "lt", "le", "gt", "ge", "has")
+
+  private val BOOL_METHOD_NAMES = Array("contains", "startswith", "endswith", "geo.intersects")
+
+  private val METHOD_NAMES = Array("length", "indexof", "substring", "tolower", "toupper", "trim", "concat",
+    "year", "month", "day", "hour", "minute", "second", "fractionalseconds", "totalseconds", "date", "time",
+    "totaloffsetminutes", "mindatetime", "maxdatetime", "now", "round", "floor", "ceiling", "geo.distance",
+    "geo.length")
+
+  private val DIGITS = asciiClass(alphanumeric = false, "0123456789")
+  private val MEDIA_TYPE_CHARS = asciiClass(alphanumeric = true, "-._~:@$&'=!()*+,;")
+  private val SKIP_TOKEN_CHARS = asciiClass(alphanumeric = true, "-._~!()*+,;:@/?$'=")
+  private val CUSTOM_NAME_START_CHARS = asciiClass(alphanumeric = true, "-._~!()*+,;:/?'")
+  private val CUSTOM_NAME_CHARS = asciiClass(alphanumeric = true, "-._~!()*+,;:@/?$'")
+  private val CUSTOM_VALUE_CHARS = asciiClass(alphanumeric = true, "-._~!()*+,;:@/?$'=")
+
+  // Signals a construct that is left to the combinator parser
+  private object Unsupported extends ControlThrowable
+
+  private def unsupported(): Nothing = throw Unsupported
+
+  private def asciiClass(alphanumeric: Boolean, chars: String): Array[Boolean] = {
+    val charClass = new Array[Boolean](128)
+    for (c <- 0 until 128) {
+      charClass(c) = alphanumeric && Character.isLetterOrDigit(c) || chars.indexOf(c) >= 0
+    }
+    charClass
+  }
+
+  private def inClass(charClass: Array[Boolean], c: Char): Boolean = c < 128 && charClass(c)
+
+  private def asciiLower(c: Char): Char = if (c >= 'A' && c <= 'Z') (c + ('a' - 'A')).toChar else c
+
+  // Characters that \s matches in the combinator parser's regular expressions
+  private def isWhitespace(c: Char): Boolean = c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r'
+
+  // Characters that . does not match in the combinator parser's regular expressions
+  private def isLineTerminator(c: Char): Boolean =
+    c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029
+
+  private val IDENTIFIER_START_TYPES = typeMask(Character.UPPERCASE_LETTER, Character.LOWERCASE_LETTER,
+    Character.TITLECASE_LETTER, Character.MODIFIER_LETTER, Character.OTHER_LETTER, Character.LETTER_NUMBER)
+
+  private val IDENTIFIER_PART_TYPES = IDENTIFIER_START_TYPES | typeMask(Character.DECIMAL_DIGIT_NUMBER,
+    Character.NON_SPACING_MARK, Character.COMBINING_SPACING_MARK, Character.CONNECTOR_PUNCTUATION, Character.FORMAT)
+
+  private def typeMask(types: Byte*): Int = types.foldLeft(0)((mask, t) => mask | (1 << t))
+
+  // [\p{L}\p{Nl}_], see NamesAndIdentifiersParser.odataIdentifier
+  private def isIdentifierStart(codePoint: Int): Boolean =
+    codePoint == '_' || ((1 << Character.getType(codePoint)) & IDENTIFIER_START_TYPES) != 0
+
+  // [\p{L}\p{Nl}\p{Nd}\p{Mn}\p{Mc}\p{Pc}\p{Cf}], see NamesAndIdentifiersParser.odataIdentifier
+  private def isIdentifierPart(codePoint: Int): Boolean =
+    ((1 << Character.getType(codePoint)) & IDENTIFIER_PART_TYPES) != 0
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser
+
+import com.sdl.odata.api.parser._
+
+/**
+  * The template of an OData URI in which the literal values of key predicates and function parameters in the resource
+  * path are replaced by placeholders, so that URIs which only differ in these values share one parse result.
+  *
+  * Only integer and simple string literals are replaced. A template is created with [[ODataUriTemplate.fromUri]];
+  * its [[template]] is parsed like any URI and the parse result is then bound to the literal values of each URI.
+  *
+  * @param template The URI with placeholders.
+  * @param literals The literal values, in the order of their placeholders.
+  */
+final class ODataUriTemplate private(val template: String, literals: IndexedSeq[Literal]) {
+  import ODataUriTemplate._
+
+  private val placeholders: IndexedSeq[Literal] = literals.indices.map(i => placeholder(literals(i), i))
+
+  /**
+    * Bind the parse result of the template to the literal values of this URI.
+    *
+    * @param templateUri The parse result of the template.
+    * @return The parse result of this URI, or `null` if the placeholders do not all appear exactly once in the
+    *         resource path of the parse result.
+    */
+  def bind(templateUri: ODataUri): ODataUri = templateUri.relativeUri match {
+    case ResourcePathUri(resourcePath, options) =>
+      val counts = new Array[Int](literals.size)
+      val bound = ODataUri(templateUri.serviceRoot, ResourcePathUri(bindResourcePath(resourcePath, counts), options))
+      if (counts.forall(_ == 1)) bound else null
+    case _ => null
+  }
+
+  private def bindResourcePath(resourcePath: ResourcePath, counts: Array[Int]): ResourcePath = resourcePath match {
+    case EntitySetPath(entitySetName, subPath) =>
+      EntitySetPath(entitySetName, subPath.map(bindEntityCollectionPath(_, counts)))
+    case SingletonPath(singletonName, subPath) =>
+      SingletonPath(singletonName, subPath.map(bindEntityPath(_, counts)))
+    case FunctionImportCall(functionName, args, subPath) =>
+      FunctionImportCall(functionName, args.map(bindArgs(_, counts)), subPath.map(bindPathSegment(_, counts)))
+    case other => other
+  }
+
+  private def bindEntityCollectionPath(path: EntityCollectionPath, counts: Array[Int]): EntityCollectionPath =
+    EntityCollectionPath(path.derivedTypeName, path.subPath.map(bindPathSegment(_, counts)))
+
+  private def bindEntityPath(path: EntityPath, counts: Array[Int]): EntityPath =
+    EntityPath(path.derivedTypeName, path.subPath.map(bindPathSegment(_, counts)))
+
+  private def bindPathSegment(pathSegment: PathSegment, counts: Array[Int]): PathSegment = pathSegment match {
+    case path: EntityCollectionPath => bindEntityCollectionPath(path, counts)
+    case path: EntityPath => bindEntityPath(path, counts)
+    case KeyPredicatePath(keyPredicate, subPath) =>
+      KeyPredicatePath(bindKeyPredicate(keyPredicate, counts), subPath.map(bindEntityPath(_, counts)))
+    case ComplexPath(derivedTypeName, subPath) => ComplexPath(derivedTypeName, subPath.map(bindPathSegment(_, counts)))
+    case PropertyPath(propertyName, subPath) => PropertyPath(propertyName, subPath.map(bindPathSegment(_, counts)))
+    case BoundFunctionCallPath(functionName, args, subPath) =>
+      BoundFunctionCallPath(functionName, args.map(bindArgs(_, counts)), subPath.map(bindPathSegment(_, counts)))
+    case other => other
+  }
+
+  private def bindKeyPredicate(keyPredicate: KeyPredicate, counts: Array[Int]): KeyPredicate = keyPredicate match {
+    case SimpleKeyPredicate(value) => SimpleKeyPredicate(bindLiteral(value, counts))
+    case CompoundKeyPredicate(values) => CompoundKeyPredicate(values.map {
+      case (name, value) => (name, bindLiteral(value, counts))
+    })
+  }
+
+  private def bindArgs(args: Map[String, FunctionParam], counts: Array[Int]): Map[String, FunctionParam] = args.map {
+    case (name, LiteralFunctionParam(value)) => (name, LiteralFunctionParam(bindLiteral(value, counts)))
+    case other => other
+  }
+
+  private def bindLiteral(literal: Literal, counts: Array[Int]): Literal = {
+    val index = placeholders.indexOf(literal)
+    if (index < 0) {
+      literal
+    } else {
+      counts(index) += 1
+      literals(index)
+    }
+  }
+}
+
+object ODataUriTemplate {
+
+  // An integer or a string without escaped quotes, percent-encoded characters or '+', which is decoded to a space.
+  // It must be a complete key value or function parameter value: "(1)", "(id=1,name='x')", "Function(a=1)".
+  private val LiteralPattern = """(?<=[(,=])(\d{1,9}|'[^'%+]*')(?=[),])""".r
+
+  private val NumberPlaceholderBase = 900000000
+
+  /**
+    * Create the template of a URI.
+    *
+    * @param uri The URI.
+    * @return The template, or `null` if the resource path of the URI does not contain literals to replace.
+    */
+  def fromUri(uri: String): ODataUriTemplate = {
+    val queryStart = uri.indexOf('?')
+    val path = if (queryStart < 0) uri else uri.substring(0, queryStart)
+
+    val literals = IndexedSeq.newBuilder[Literal]
+    var index = 0
+    val templatePath = LiteralPattern.replaceAllIn(path, m => {
+      val literal = toLiteral(m.matched)
+      literals += literal
+      val replacement = placeholderText(literal, index)
+      index += 1
+      replacement
+    })
+
+    if (index == 0) null
+    else new ODataUriTemplate(templatePath + uri.substring(path.length), literals.result())
+  }
+
+  private def toLiteral(text: String): Literal =
+    if (text.startsWith("'")) StringLiteral(text.substring(1, text.length - 1)) else NumberLiteral(BigDecimal(text))
+
+  private def placeholder(literal: Literal, index: Int): Literal = literal match {
+    case _: StringLiteral => StringLiteral("~" + index)
+    case _ => NumberLiteral(BigDecimal(NumberPlaceholderBase + index))
+  }
+
+  private def placeholderText(literal: Literal, index: Int): String = literal match {
+    case _: StringLiteral => "'~" + index + "'"
+    case _ => String.valueOf(NumberPlaceholderBase + index)
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares the combinator based {@link ODataBatchRequestParser} with the streaming {@link ODataBatchRequestReader} on
+ * batch bodies of 1, 10 and 100 MB. Each batch alternates individual GET requests with change sets containing a POST
+ * with a JSON body. Both parsers start from the body bytes, as they do for a request, and all components are read.
+ * Run with the GC profiler (as {@link #main(String[])} does) to compare the allocation rate of both parsers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g" })
+public class ODataBatchParserBenchmark {
+
+    private static final String BATCH_BOUNDARY = "batch_36522ad7-fc75-4b56-8c71-56071383e77b";
+    private static final String CHANGESET_BOUNDARY = "changeset_77162fcd-b8da-41ac-a9f8-9357efbbd";
+    private static final int MEGABYTE = 1024 * 1024;
+    private static final int ENTITY_PROPERTIES = 20;
+
+    /**
+     * The parser to benchmark.
+     */
+    @Param({"combinator", "streaming" })
+    public String parser;
+
+    /**
+     * The approximate size of the generated batch request.
+     */
+    @Param({"1", "10", "100" })
+    public int sizeInMegabytes;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        StringBuilder entity = new StringBuilder("{\"@odata.type\":\"#ODataDemo.Customer\"");
+        for (int i = 0; i < ENTITY_PROPERTIES; i++) {
+            entity.append(",\"property").append(i).append("\":\"value of property ").append(i).append('"');
+        }
+        entity.append('}');
+
+        StringBuilder batch = new StringBuilder();
+        for (int id = 1; batch.length() < sizeInMegabytes * MEGABYTE; id++) {
+            batch.append("--").append(BATCH_BOUNDARY).append('\n')
+                    .append("Content-Type: application/http\n")
+                    .append("Content-Transfer-Encoding: binary\n\n")
+                    .append("GET /service/Customers(").append(id).append(") HTTP/1.1\n")
+                    .append("Host: localhost\n\n\n")
+                    .append("--").append(BATCH_BOUNDARY).append('\n')
+                    .append("Content-Type: multipart/mixed; boundary=").append(CHANGESET_BOUNDARY).append("\n\n")
+                    .append("--").append(CHANGESET_BOUNDARY).append('\n')
+                    .append("Content-Type: application/http\n")
+                    .append("Content-Transfer-Encoding: binary\n")
+                    .append("Content-ID: ").append(id).append("\n\n")
+                    .append("POST /service/Customers HTTP/1.1\n")
+                    .append("Host: localhost\n")
+                    .append("Content-Type: application/json\n\n")
+                    .append(entity).append("\n\n")
+                    .append("--").append(CHANGESET_BOUNDARY).append("--\n");
+        }
+        batch.append("--").append(BATCH_BOUNDARY).append("--\n");
+        body = batch.toString().getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public int parseBatch() {
+        ODataBatchRequestContent content = "streaming".equals(parser)
+                ? new ODataBatchRequestReader(new InputStreamReader(new ByteArrayInputStream(body), UTF_8)).read()
+                : new ODataBatchRequestParser().parseBatch(new String(body, UTF_8));
+        return content.componentIterator().size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ODataBatchParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUri;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link ODataUriCache}.
+ */
+public class ODataUriCacheTest extends ParserTestSuite {
+
+    private static final int MAX_SIZE = 2;
+    private static final long TTL = 60000;
+
+    private final ODataParserImpl uncachedParser = new ODataParserImpl();
+
+    @Test
+    public void testCachedUri() throws ODataException {
+        ODataUriCache cache = new ODataUriCache(true, MAX_SIZE, TTL, false);
+        parser = new ODataParserImpl(cache, recursiveDescent);
+
+        ODataUri first = parser.parseUri(SERVICE_ROOT + "Customers?$top=10", model);
+        ODataUri second = parser.parseUri(SERVICE_ROOT + "Customers?$top=10", model);
+
+        assertThat(second, sameInstance(first));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedUriEvicted() throws ODataException {
+        ODataUriCache cache = new ODataUriCache(true, MAX_SIZE, TTL, false);
+        parser = new ODataParserImpl(cache, recursiveDescent);
+
+        parser.parseUri(SERVICE_ROOT + "Customers", model);
+        parser.parseUri(SERVICE_ROOT + "Orders", model);
+        parser.parseUri(SERVICE_ROOT + "Customers", model);
+        parser.parseUri(SERVICE_ROOT + "Products", model);
+        parser.parseUri(SERVICE_ROOT + "Customers", model);
+
+        assertThat(cache.size(), is(MAX_SIZE));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testExpiredUriParsedAgain() throws ODataException {
+        ODataUriCache cache = new ODataUriCache(true, MAX_SIZE, -1, false);
+        parser = new ODataParserImpl(cache, recursiveDescent);
+
+        parser.parseUri(SERVICE_ROOT + "Customers", model);
+        parser.parseUri(SERVICE_ROOT + "Customers", model);
+
+        assertThat(cache.getHitCount(), is(0L));
+        assertThat(cache.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void testCacheClearedForOtherModel() throws Exception {
+        ODataUriCache cache = new ODataUriCache(true, MAX_SIZE, TTL, false);
+        parser = new ODataParserImpl(cache, recursiveDescent);
+
+        parser.parseUri(SERVICE_ROOT + "Customers", model);
+        EntityDataModel previousModel = model;
+        setUp();
+        parser = new ODataParserImpl(cache, recursiveDescent);
+        parser.parseUri(SERVICE_ROOT + "Customers", model);
+        parser.parseUri(SERVICE_ROOT + "Customers", previousModel);
+
+        assertThat(cache.getHitCount(), is(0L));
+        assertThat(cache.getMissCount(), is(3L));
+    }
+
+    @Test
+    public void testKeyPredicatesShareTemplate() throws ODataException {
+        ODataUriCache cache = new ODataUriCache(true, MAX_SIZE, TTL, true);
+        parser = new ODataParserImpl(cache, recursiveDescent);
+
+        for (String path : new String[] {"Customers(1)/Orders(2)?$top=5", "Customers(3)/Orders(4)?$top=5",
+                "Customers(300)/Orders(12345)?$top=5"}) {
+            uri = parser.parseUri(SERVICE_ROOT + path, model);
+            assertThat(uri, is(uncachedParser.parseUri(SERVICE_ROOT + path, model)));
+        }
+
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getTemplateHitCount(), is(2L));
+    }
+
+    @Test
+    public void testStringKeyPredicatesShareTemplate() throws ODataException {
+        ODataUriCache cache = new ODataUriCache(true, MAX_SIZE, TTL, true);
+        parser = new ODataParserImpl(cache, recursiveDescent);
+
+        for (String path : new String[] {"Products('a')", "Products('b')"}) {
+            uri = parser.parseUri(SERVICE_ROOT + path, model);
+            assertThat(uri, is(uncachedParser.parseUri(SERVICE_ROOT + path, model)));
+        }
+
+        assertThat(cache.getTemplateHitCount(), is(1L));
+    }
+
+    @Test
+    public void testNoTemplateWithoutPathLiterals() {
+        assertNull(ODataUriTemplate.fromUri(SERVICE_ROOT + "Customers?$filter=id eq 1"));
+        assertNull(ODataUriTemplate.fromUri(SERVICE_ROOT + "Customers(-1)"));
+        assertThat(ODataUriTemplate.fromUri(SERVICE_ROOT + "Customers(10)?$filter=id eq 1").template(),
+                is(SERVICE_ROOT + "Customers(900000000)?$filter=id eq 1"));
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser;
+
+import com.sdl.odata.api.edm.ODataEdmException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.ODataUriParseException;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.sdl.odata.test.util.TestUtils.getEdmEntityClasses;
+
+/**
+ * Compares the combinator based {@link ODataUriParser} with the hand-written {@link ODataUriRecursiveDescentParser}
+ * on representative URIs: a plain entity set, a key lookup with navigation, a filtered and ordered query and a query
+ * with nested expand options. Run with the GC profiler (as {@link #main(String[])} does) to compare the allocation
+ * rate of both parsers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ODataUriParserBenchmark {
+
+    private static final String SERVICE_ROOT = "http://localhost:8080/odata.svc/";
+
+    /**
+     * The parser to benchmark.
+     */
+    @Param({"combinator", "recursive-descent" })
+    public String parser;
+
+    /**
+     * The URI to parse, relative to the service root.
+     */
+    @Param({
+            "Customers",
+            "Customers(1)/Orders(2)/orderLines",
+            "Customers?$filter=id gt 10 and startswith(name,'John') or id le 5&$orderby=name desc&$top=20&$skip=40",
+            "Customers?$expand=Orders($filter=id gt 1;$orderby=id;$top=5)&$select=id,name&$count=true"
+    })
+    public String uri;
+
+    private EntityDataModel entityDataModel;
+    private String fullUri;
+
+    @Setup
+    public void setup() throws ODataEdmException {
+        entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClasses(getEdmEntityClasses()).buildEntityDataModel();
+        fullUri = SERVICE_ROOT + uri;
+    }
+
+    @Benchmark
+    public ODataUri parseUri() throws ODataUriParseException {
+        return "recursive-descent".equals(parser)
+                ? new ODataUriRecursiveDescentParser(entityDataModel).parseUri(fullUri)
+                : new ODataUriParser(entityDataModel).parseUri(fullUri);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ODataUriParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -41,17 +41,23 @@ import com.sdl.odata.test.model.Product;
 import com.sdl.odata.test.model.UnboundActionSample;
 import com.sdl.odata.test.model.UnboundFunctionSample;
 import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.collection.immutable.List;
 import scala.math.BigDecimal;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 /**
- * Parser Test Suite.
+ * Parser Test Suite. Every test runs with both the combinator parser and the recursive descent parser.
  */
+@RunWith(Parameterized.class)
 public class ParserTestSuite {
     /**
      * OData URI.
@@ -68,10 +74,22 @@ public class ParserTestSuite {
 
     private static final Logger LOG = LoggerFactory.getLogger(ParserLogicalTest.class);
 
+    /**
+     * Whether the recursive descent parser is used.
+     */
+    @Parameterized.Parameter
+    public boolean recursiveDescent;
+
     protected EntityDataModel model;
 
+    @Parameterized.Parameters(name = "recursiveDescent={0}")
+    public static Collection<Object[]> parsers() {
+        return Arrays.asList(new Object[][] {{false}, {true}});
+    }
+
     @Before
     public void setUp() throws Exception {
+        parser = new ODataParserImpl(null, recursiveDescent);
         LOG.info("Initializing EntityDataModel");
         AnnotationEntityDataModelFactory factory = new AnnotationEntityDataModelFactory();
         factory.addClass(Address.class);
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser
+
+import java.io.{Reader, StringReader}
+
+import com.sdl.odata.api.parser.ODataBatchParseException
+import org.scalatest.FunSuite
+
+import scala.io.Source
+
+/**
+ * Tests for ODataBatchRequestReader.
+ */
+class ODataBatchRequestReaderTest extends FunSuite {
+
+  val batchId = "--batch_36522ad7-fc75-4b56-8c71-56071383e77b"
+
+  def read(input: String): ODataBatchRequestContent = new ODataBatchRequestReader(new StringReader(input)).read()
+
+  def lines(lines: String*): String = lines.mkString("\n")
+
+  test("Same components as the combinator parser for individual requests and change sets") {
+    val fileContents = Source.fromURL(getClass.getResource("/BatchRequestSample1.txt")).mkString
+
+    val expected = new ODataBatchRequestParser().parseBatch(fileContents)
+    assert(read(fileContents).componentIterator().toList == expected.requestComponents.toList)
+  }
+
+  test("Same components as the combinator parser for requests with full urls and bodies") {
+    val body = lines("--batch_1f5bbc13-ac60-458e-988f-18c4a8c09cae",
+      "Content-Type: multipart/mixed; boundary=changeset_926a7f6a-5307-4ce7-91ad-397ff2f83ff5", "",
+      "--changeset_926a7f6a-5307-4ce7-91ad-397ff2f83ff5",
+      "Content-Type: application/http",
+      "Content-Transfer-Encoding: binary",
+      "Content-ID: 666", "",
+      "POST https://secure-host/service.root/applications HTTP/1.1",
+      "Content-Type: application/json;odata.metadata=minimal",
+      "Accept: application/json;odata.metadata=minimal", "",
+      "{ \"some\" : \"content\",",
+      "  \"more\" : \"content\" }", "",
+      "--changeset_926a7f6a-5307-4ce7-91ad-397ff2f83ff5--",
+      "--batch_1f5bbc13-ac60-458e-988f-18c4a8c09cae",
+      "Content-Type: application/http",
+      "Content-Transfer-Encoding:binary", "",
+      "GET http://127.0.0.1:8082/discovery-service/odata.svc/Environment  ",
+      "Host: http://127.0.0.1:8082/discovery-service/odata.svc", "", "",
+      "--batch_1f5bbc13-ac60-458e-988f-18c4a8c09cae--")
+
+    val expected = new ODataBatchRequestParser().parseBatch(body)
+    assert(read(body).componentIterator().toList == expected.requestComponents.toList)
+  }
+
+  test("Only the first line and the end of request bodies are trimmed") {
+    val body = lines("--batch_8a3d", "Content-Type: multipart/mixed; boundary=changeset_2f5c", "",
+      "--changeset_2f5c", "Content-Type: application/http", "Content-Transfer-Encoding: binary", "Content-ID: 1", "",
+      "POST Customers HTTP/1.1", "Content-Type: application/json", "",
+      "{ \"name\" : \"a  \",", "  \"city\" : \"b\" }  ", "", "",
+      "--changeset_2f5c--", "--batch_8a3d--")
+
+    val changeSet = read(body).componentIterator().next().asInstanceOf[ChangeSetRequestComponent]
+    assert(changeSet.getChangeSetRequests().head.getRequestDetails()("RequestBody") ==
+      "{ \"name\" : \"a  \",\n  \"city\" : \"b\" }")
+    assert(new ODataBatchRequestParser().parseBatch(body).requestComponents.head == changeSet)
+  }
+
+  test("Lines separated by CRLF") {
+    val body = List(batchId, "Content-Type: application/http", "Content-Transfer-Encoding:binary", "",
+      "GET /service/Customers('ALFKI') HTTP/1.1", "Host: localhost", "", "", batchId + "--").mkString("\r\n")
+
+    val component = read(body).componentIterator().next().asInstanceOf[BatchRequestComponent]
+    assert(component.getRequestDetails() == Map("RequestType" -> "GET", "RelativePath" -> "/service/",
+      "RequestEntity" -> "Customers('ALFKI')", "RequestBody" -> ""))
+    assert(component.getHeaders().headers == Map("Content-Transfer-Encoding" -> "binary", "Host" -> "localhost"))
+  }
+
+  test("Components are read when the iterator is advanced") {
+    val part = lines(batchId, "Content-Type: application/http", "Content-Transfer-Encoding:binary", "",
+      "GET Customers HTTP/1.1", "", "")
+    val body = lines(part, part, "this is not a batch part")
+    val input = new CountingReader(new StringReader(body))
+
+    val content = new ODataBatchRequestReader(input).read()
+    val components = content.componentIterator()
+    assert(components.next().isInstanceOf[BatchRequestComponent])
+    assert(input.charsRead < body.length)
+
+    val exception = intercept[ODataBatchParseException](components.toList)
+    assert(exception.getMessage.contains("this is not a batch part"))
+    intercept[IllegalStateException](content.componentIterator())
+  }
+
+  test("Individual requests other than GET are rejected") {
+    val body = lines(batchId, "Content-Type: application/http", "Content-Transfer-Encoding:binary", "",
+      "POST /service/Customers('ALFKI')", "Host: localhost", "", "", batchId + "--")
+
+    val exception = intercept[ODataBatchParseException](read(body))
+    assert(exception.getMessage == "Only GET is supported in Individual requests of batch.")
+  }
+
+  test("Request without empty line or entity data is rejected") {
+    val body = lines(batchId, "Content-Type: application/http", "Content-Transfer-Encoding:binary", "",
+      "GET /service/Customers('ALFKI')", "Host: localhost", "", batchId + "--")
+
+    val exception = intercept[ODataBatchParseException](read(body))
+    assert(exception.getMessage == "Request body must contain an empty line or entity data.")
+  }
+
+  test("Change set operations need a unique Content-ID") {
+    val operation = lines("--changeset_1", "Content-Type: application/http", "Content-Transfer-Encoding: binary",
+      "Content-ID: 1", "", "DELETE Customers(1) HTTP/1.1", "", "")
+    val body = lines(batchId, "Content-Type: multipart/mixed; boundary=changeset_1", "", operation, operation,
+      "--changeset_1--", batchId + "--")
+
+    val exception = intercept[ODataBatchParseException](read(body))
+    assert(exception.getMessage == "Value of Content-ID header within a change set must be unique")
+  }
+
+  test("Empty and unterminated batch requests are rejected") {
+    assert(intercept[ODataBatchParseException](read(batchId + "--")).getMessage == "Batch request is empty.")
+    assert(intercept[ODataBatchParseException](read("")).getMessage == "Batch request is empty.")
+
+    val unterminated = lines(batchId, "Content-Type: application/http", "Content-Transfer-Encoding:binary", "",
+      "GET Customers HTTP/1.1", "", "")
+    assert(intercept[ODataBatchParseException](read(unterminated).componentIterator().toList).getMessage
+      .startsWith("Unexpected end of batch request"))
+  }
+
+  /**
+   * Reader which counts the characters that have been read.
+   */
+  class CountingReader(reader: Reader) extends Reader {
+    var charsRead = 0
+
+    override def read(buffer: Array[Char], offset: Int, length: Int): Int = {
+      val count = reader.read(buffer, offset, math.min(length, 16))
+      if (count > 0) charsRead += count
+      count
+    }
+
+    override def close(): Unit = reader.close()
+  }
+}
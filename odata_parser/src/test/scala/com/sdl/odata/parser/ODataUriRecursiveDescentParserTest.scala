@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.parser
+
+import com.sdl.odata.api.parser.ODataUriParseException
+import org.scalatest.FunSuite
+
+class ODataUriRecursiveDescentParserTest extends FunSuite with ParserTestHelpers {
+
+  val recursiveDescentParser = new ODataUriRecursiveDescentParser(parser.entityDataModel)
+
+  val serviceRoot = "http://localhost:8080/odata.svc"
+
+  // URIs that the recursive descent parser handles itself
+  val supportedUris = List(
+    "", "/", "?$format=json", "/?$format=xml", "/$batch", "/$metadata", "/$metadata?$format=xml",
+    "/Customers", "/Customers(1)", "/Customers(-1)", "/Customers('ALFKI')", "/Customers(1)/Orders",
+    "/Customers(0)/Orders(1)/orderLines(2)", "/Customers(1)/address", "/Customers(1)/name", "/Customers(1)/Phone",
+    "/Customers(1)/name/$value", "/Customers/$count", "/Customers(1)/Orders/$ref", "/Customers/ODataDemo.VIPCustomer",
+    "/Customers/ODataDemo.VIPCustomer(1)/vip_id", "/Customers(1)/ODataDemo.VIPCustomer/vip_address/Street",
+    "/Customers?$top=10&$skip=5", "/Products?$count=true", "/Customers?$format=application/json",
+    "/Customers?$filter=id eq 1", "/Customers?$filter=id eq null", "/Customers?$filter=name eq 'O''Neil'",
+    "/Products?$filter=id le 20 and id eq 15", "/Products?$filter=id gt 10 and name eq 'Computer' or id le 20",
+    "/Products?$filter=id le 20 or id gt 10 and name eq 'Computer'", "/Customers?$filter=length(name) eq 19",
+    "/Customers?$filter=startswith(name,'John')", "/Customers?$filter=not contains(name, 'x')",
+    "/Customers?$filter=(id add 1) mul 2 gt -5", "/Customers?$filter=(id sub 1 eq 2 or id div 2 lt 3)",
+    "/Customers?$orderby=name desc,id", "/Customers?$orderby=tolower(name) asc",
+    "/Customers?$select=*", "/Customers?$select=name,address", "/Customers?$expand=*",
+    "/Customers?$expand=*/$ref,Orders", "/Customers?$expand=Orders", "/Customers?$expand=Orders/$ref",
+    "/Customers?$expand=Orders($levels=10)", "/Customers?$expand=Orders($filter=id gt 1;$top=2)",
+    "/Customers?$expand=ODataDemo.Customer/Orders", "/Customers?$skiptoken=abc",
+    "/Customers?custom=value&$top=1", "/Customers(1)/Orders(2)?$top=5&$select=id")
+
+  // URIs that are parsed by the combinator parser instead
+  val fallbackUris = List(
+    "/Customers(2)/ODataDemo.ODataDemoAction", "/$entity?$id=test",
+    "/Customers?$filter=date eq 2014-01-01T00:00:00Z")
+
+  val invalidUris = List(
+    "/Customerz", "/Customers?$filter=", "/Customers?$top=abc", "/Products(", "/Products?$filter=id ")
+
+  test("Supported URIs are parsed exactly like the combinator parser does") {
+    supportedUris.foreach { uri =>
+      assert(recursiveDescentParser.tryParseUri(serviceRoot + uri) == Some(parser.parseUri(serviceRoot + uri)), uri)
+    }
+  }
+
+  test("Other URIs are left to the combinator parser") {
+    fallbackUris.foreach { uri =>
+      assert(recursiveDescentParser.tryParseUri(serviceRoot + uri).isEmpty, uri)
+      assert(recursiveDescentParser.parseUri(serviceRoot + uri) == parser.parseUri(serviceRoot + uri), uri)
+    }
+  }
+
+  test("Invalid URIs fail with the error of the combinator parser") {
+    invalidUris.foreach { uri =>
+      val expected = intercept[ODataUriParseException](parser.parseUri(serviceRoot + uri))
+      val actual = intercept[ODataUriParseException](recursiveDescentParser.parseUri(serviceRoot + uri))
+      assert(actual.getMessage == expected.getMessage, uri)
+    }
+  }
+
+  test("Malformed escapes fail like the combinator parser instead of falling back") {
+    val uri = serviceRoot + "/Customers?$filter=name eq '%zz'"
+    intercept[IllegalArgumentException](parser.parseUri(uri))
+    intercept[IllegalArgumentException](recursiveDescentParser.tryParseUri(uri))
+  }
+
+  test("ODataParserImpl uses the recursive descent parser when selected") {
+    val uri = serviceRoot + "/Customers(1)/Orders?$filter=id gt 5&$orderby=id desc"
+    assert(new ODataParserImpl(null, true).parseUri(uri, parser.entityDataModel) == parser.parseUri(uri))
+  }
+}
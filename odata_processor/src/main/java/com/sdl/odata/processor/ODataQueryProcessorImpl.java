@@ -21,7 +21,6 @@ import com.sdl.odata.api.ODataNotImplementedException;
 import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.parser.MetadataUri;
 import com.sdl.odata.api.parser.ODataUri;
-import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.parser.RelativeUri;
 import com.sdl.odata.api.parser.ServiceRootUri;
 import com.sdl.odata.api.parser.TargetType;
@@ -54,6 +53,9 @@ public class ODataQueryProcessorImpl implements ODataQueryProcessor {
     @Autowired
     private DataSourceFactory dataSourceFactory;
 
+    @Autowired(required = false)
+    private QueryResultCache queryResultCache;
+
     @Override
     public ProcessorResult query(ODataRequestContext requestContext, Object data) throws ODataException {
         if (LOG.isTraceEnabled()) {
@@ -68,7 +70,7 @@ public class ODataQueryProcessorImpl implements ODataQueryProcessor {
             return new ProcessorResult(OK, QueryResult.from(entityDataModel));
         }
 
-        Option<TargetType> targetTypeOption = ODataUriUtil.resolveTargetType(oDataUri, entityDataModel);
+        Option<TargetType> targetTypeOption = requestContext.getResolvedPlan().getTargetType();
         if (!targetTypeOption.isDefined()) {
             throw new ODataBadRequestException("The target type could not be determined for this query: " +
                     requestContext.getRequest().getUri());
@@ -88,7 +90,11 @@ public class ODataQueryProcessorImpl implements ODataQueryProcessor {
         QueryResult result;
 
         try {
-            result = strategy.execute();
+            if (queryResultCache != null && queryResultCache.isEnabled()) {
+                result = queryResultCache.getOrExecute(requestContext, query, targetType, strategy::execute);
+            } else {
+                result = strategy.execute();
+            }
         } catch (Exception e) {
             LOG.error("Unexpected Exception when executing query " + query, e);
             throw e;
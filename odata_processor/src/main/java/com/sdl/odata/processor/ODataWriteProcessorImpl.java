@@ -31,6 +31,7 @@ import com.sdl.odata.processor.write.WriteMethodHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import static com.sdl.odata.api.service.ODataResponse.Status.METHOD_NOT_ALLOWED;
@@ -46,6 +47,12 @@ public class ODataWriteProcessorImpl implements ODataWriteProcessor {
     @Autowired
     private DataSourceFactory dataSourceFactory;
 
+    @Autowired(required = false)
+    private QueryResultCache queryResultCache;
+
+    @Value("${odata.processor.bulk-insert.chunk-size:1000}")
+    private int bulkInsertChunkSize = PostMethodHandler.DEFAULT_CHUNK_SIZE;
+
     @Override
     public ProcessorResult write(ODataRequestContext requestContext, Object entity) throws ODataException {
         try {
@@ -57,6 +64,10 @@ public class ODataWriteProcessorImpl implements ODataWriteProcessor {
         } catch (Exception e) {
             LOG.error("Couldn't persist or delete given entity '" + entity + "'", e);
             throw e;
+        } finally {
+            if (queryResultCache != null) {
+                queryResultCache.invalidate(requestContext);
+            }
         }
     }
 
@@ -69,7 +80,7 @@ public class ODataWriteProcessorImpl implements ODataWriteProcessor {
                     LOG.debug("Invoking Action POST method handler");
                     return new ActionPostMethodHandler(requestContext, dataSourceFactory);
                 }
-                return new PostMethodHandler(requestContext, dataSourceFactory);
+                return new PostMethodHandler(requestContext, dataSourceFactory, bulkInsertChunkSize);
             case PUT:
                 return new PutMethodHandler(requestContext, dataSourceFactory);
             case PATCH:
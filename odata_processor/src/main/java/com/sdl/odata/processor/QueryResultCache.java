@@ -0,0 +1,360 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntitySet;
+import com.sdl.odata.api.edm.registry.ODataEdmRegistry;
+import com.sdl.odata.api.edm.registry.ODataEdmRegistryListener;
+import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.processor.query.ExpandOperation;
+import com.sdl.odata.api.processor.query.FilterOperation;
+import com.sdl.odata.api.processor.query.JoinOperation;
+import com.sdl.odata.api.processor.query.ODataQuery;
+import com.sdl.odata.api.processor.query.QueryOperation;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.processor.query.SelectOperation;
+import com.sdl.odata.api.processor.query.TransformOperation;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
+import com.sdl.odata.util.ConcurrentLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import scala.Option;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of query results, keyed on the entity data model, the query model, the target type and the values of the
+ * configured request headers.
+ * <p>
+ * The cache holds at most {@code maxSize} results; the least recently used result is evicted first and a result
+ * expires {@code ttl} milliseconds after the query was executed. Looking up a result takes no lock. A result is
+ * dropped when an entity set it was read from is written: the write processor and the batch handler call
+ * {@link #invalidate(ODataRequestContext)} after every write. Results of queries with {@code $expand} depend on every
+ * entity set. The cache is emptied when the {@link ODataEdmRegistry} publishes a new entity data model.
+ * <p>
+ * Only enable the cache if the data sources base their results on the query model and the configured headers alone,
+ * and if the data is not written by other means than this service.
+ */
+@Component
+public class QueryResultCache implements ODataEdmRegistryListener {
+    private static final Logger LOG = LoggerFactory.getLogger(QueryResultCache.class);
+
+    /**
+     * Executes a query.
+     */
+    @FunctionalInterface
+    public interface QueryExecutor {
+        QueryResult execute() throws ODataException;
+    }
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final List<String> headerNames;
+    private final ConcurrentLruCache<Key, Entry> results;
+
+    // Entries are stale if an entity set they depend on was invalidated after the query started. The invalidation
+    // counter orders the invalidations; the maps hold the counter value of the last invalidation of each entity set.
+    // They are only written while holding the lock on the cache, and read without it.
+    private final Map<String, Long> entitySetInvalidations = new ConcurrentHashMap<>();
+    private volatile long invalidationCounter;
+    private volatile long allInvalidation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired(required = false)
+    private ODataEdmRegistry edmRegistry;
+
+    @Autowired
+    public QueryResultCache(@Value("${odata.processor.query-cache.enabled:false}") boolean enabled,
+                            @Value("${odata.processor.query-cache.max-size:1000}") int maxSize,
+                            @Value("${odata.processor.query-cache.ttl:60000}") long ttl,
+                            @Value("${odata.processor.query-cache.headers:Authorization}") String[] headerNames) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.headerNames = Arrays.asList(headerNames);
+        this.results = new ConcurrentLruCache<>(maxSize);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled && edmRegistry != null) {
+            edmRegistry.addListener(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the result of a query from the cache, or execute it and add the result to the cache.
+     *
+     * @param requestContext The request context.
+     * @param query          The query model.
+     * @param targetType     The target type of the query.
+     * @param executor       Executes the query when its result is not in the cache.
+     * @return The query result.
+     * @throws ODataException If the query cannot be executed.
+     */
+    public QueryResult getOrExecute(ODataRequestContext requestContext, ODataQuery query, TargetType targetType,
+                                    QueryExecutor executor) throws ODataException {
+        Key key = new Key(requestContext, query, targetType, headerNames);
+        Entry cached = results.get(key);
+        if (cached != null && isValid(cached)) {
+            hits.increment();
+            return cached.result;
+        }
+        if (cached != null) {
+            results.remove(key, cached);
+        }
+        long started = invalidationCounter;
+
+        misses.increment();
+        QueryResult result = executor.execute();
+        if (isCacheable(result)) {
+            Entry entry = new Entry(result, getEntitySets(query.operation()), started, System.nanoTime());
+            synchronized (this) {
+                // Do not cache a result that may have been read before a concurrent write was committed
+                if (isValid(entry)) {
+                    results.put(key, entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop the cached results that depend on the entity sets written by a request. If the entity sets cannot be
+     * determined, for example for an action, all cached results are dropped.
+     *
+     * @param requestContext The context of the write request.
+     */
+    public void invalidate(ODataRequestContext requestContext) {
+        if (!enabled) {
+            return;
+        }
+        ResolvedRequestPlan plan = requestContext.getResolvedPlan();
+        EntityDataModel entityDataModel = requestContext.getEntityDataModel();
+        Set<String> entitySetNames = new HashSet<>();
+        if (!ODataUriUtil.isActionCallUri(requestContext.getUri())) {
+            Option<String> entitySetName = plan.getEntitySetName();
+            if (entitySetName.isDefined()) {
+                entitySetNames.add(entitySetName.get());
+            }
+            Option<TargetType> targetType = plan.getTargetType();
+            if (targetType.isDefined()) {
+                for (EntitySet entitySet : entityDataModel.getEntityContainer().getEntitySets()) {
+                    if (entitySet.getTypeName().equals(targetType.get().typeName())) {
+                        entitySetNames.add(entitySet.getName());
+                    }
+                }
+            }
+        }
+        invalidate(entitySetNames.isEmpty() ? null : entitySetNames);
+    }
+
+    private synchronized void invalidate(Collection<String> entitySetNames) {
+        invalidationCounter++;
+        invalidations.increment();
+        if (entitySetNames == null) {
+            LOG.debug("Invalidating all cached query results");
+            allInvalidation = invalidationCounter;
+        } else {
+            LOG.debug("Invalidating cached query results of entity sets {}", entitySetNames);
+            for (String entitySetName : entitySetNames) {
+                entitySetInvalidations.put(entitySetName, invalidationCounter);
+            }
+        }
+    }
+
+    @Override
+    public void entityDataModelPublished(EntityDataModel entityDataModel, long version) {
+        LOG.debug("Clearing query result cache for EntityDataModel version {}", version);
+        results.clear();
+    }
+
+    private boolean isValid(Entry entry) {
+        if (System.nanoTime() - entry.created > ttlNanos) {
+            evictions.increment();
+            return false;
+        }
+        if (allInvalidation > entry.started) {
+            return false;
+        }
+        if (entry.entitySetNames == null) {
+            return invalidationCounter <= entry.started;
+        }
+        for (String entitySetName : entry.entitySetNames) {
+            if (entitySetInvalidations.getOrDefault(entitySetName, 0L) > entry.started) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCacheable(QueryResult result) {
+        return result != null && result.getType() != QueryResult.ResultType.STREAM &&
+                result.getType() != QueryResult.ResultType.EXCEPTION;
+    }
+
+    /**
+     * Returns the names of the entity sets a query reads from, or {@code null} if it may read from any entity set.
+     */
+    private static Set<String> getEntitySets(QueryOperation operation) {
+        Set<String> entitySetNames = new HashSet<>();
+        List<QueryOperation> operations = new ArrayList<>();
+        operations.add(operation);
+        while (!operations.isEmpty()) {
+            QueryOperation current = operations.remove(operations.size() - 1);
+            if (current instanceof SelectOperation) {
+                entitySetNames.add(current.entitySetName());
+            } else if (current instanceof JoinOperation) {
+                operations.add(((JoinOperation) current).getLeftSource());
+                operations.add(((JoinOperation) current).getRightSource());
+            } else if (current instanceof ExpandOperation) {
+                return null;
+            } else if (current instanceof FilterOperation) {
+                operations.add(((FilterOperation) current).source());
+            } else if (current instanceof TransformOperation) {
+                operations.add(((TransformOperation) current).source());
+            } else {
+                return null;
+            }
+        }
+        return entitySetNames;
+    }
+
+    /**
+     * @return The number of query results found in the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of queries that had to be executed.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of query results removed from the cache because it was full or they expired.
+     */
+    public long getEvictionCount() {
+        return evictions.sum() + results.getEvictionCount();
+    }
+
+    /**
+     * @return The number of writes that invalidated cached query results.
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return The number of query results in the cache, including results that are no longer valid.
+     */
+    public int size() {
+        return results.size();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryResultCache{hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" +
+                getEvictionCount() + ", invalidations=" + getInvalidationCount() + ", size=" + size() + "}";
+    }
+
+    /**
+     * Key of a cached query result. Entity data models are compared by identity, as a new model is published as a
+     * new instance.
+     */
+    private static final class Key {
+        private final EntityDataModel entityDataModel;
+        private final ODataQuery query;
+        private final TargetType targetType;
+        private final List<String> headerValues;
+        private final int hashCode;
+
+        private Key(ODataRequestContext requestContext, ODataQuery query, TargetType targetType,
+                    List<String> headerNames) {
+            this.entityDataModel = requestContext.getEntityDataModel();
+            this.query = query;
+            this.targetType = targetType;
+            this.headerValues = new ArrayList<>(headerNames.size());
+            for (String headerName : headerNames) {
+                headerValues.add(requestContext.getRequest().getHeader(headerName));
+            }
+            this.hashCode = Objects.hash(System.identityHashCode(entityDataModel), query, targetType, headerValues);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return entityDataModel == other.entityDataModel && query.equals(other.query) &&
+                    targetType.equals(other.targetType) && headerValues.equals(other.headerValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A cached query result. The entity set names are {@code null} if the result may depend on any entity set.
+     */
+    private static final class Entry {
+        private final QueryResult result;
+        private final Set<String> entitySetNames;
+        private final long started;
+        private final long created;
+
+        private Entry(QueryResult result, Set<String> entitySetNames, long started, long created) {
+            this.result = result;
+            this.entitySetNames = entitySetNames;
+            this.started = started;
+            this.created = created;
+        }
+    }
+}
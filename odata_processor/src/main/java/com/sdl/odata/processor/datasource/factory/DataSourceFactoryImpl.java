@@ -66,7 +66,7 @@ public class DataSourceFactoryImpl implements DataSourceFactory {
     public QueryOperationStrategy getStrategy(ODataRequestContext requestContext, QueryOperation operation,
                                               TargetType expectedODataEntityType) throws ODataException {
 
-        String entityTypeName = getEntityTypeName(operation, requestContext.getEntityDataModel());
+        String entityTypeName = getEntityTypeName(operation, requestContext);
 
         if (entityTypeName != null) {
             for (DataSourceProvider dataSourceProvider : dataSourceProviders) {
@@ -84,8 +84,14 @@ public class DataSourceFactoryImpl implements DataSourceFactory {
         return null;
     }
 
-    private String getEntityTypeName(QueryOperation operation, EntityDataModel entityDataModel) {
-        EntitySet entitySet = entityDataModel.getEntityContainer().getEntitySet(operation.entitySetName());
+    private String getEntityTypeName(QueryOperation operation, ODataRequestContext requestContext) {
+        EntityDataModel entityDataModel = requestContext.getEntityDataModel();
+
+        // The entity set of the request URI has usually been resolved already
+        EntitySet entitySet = requestContext.getResolvedPlan().getEntitySet();
+        if (entitySet == null || !entitySet.getName().equals(operation.entitySetName())) {
+            entitySet = entityDataModel.getEntityContainer().getEntitySet(operation.entitySetName());
+        }
 
         // If the supplied entity is an EntitySet, return entity set type. Else check for Singleton
         if (entitySet != null) {
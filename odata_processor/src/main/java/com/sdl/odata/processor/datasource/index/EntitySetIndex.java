@@ -0,0 +1,387 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.datasource.index;
+
+import com.sdl.odata.api.ODataSystemException;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.edm.model.EnumMember;
+import com.sdl.odata.api.edm.model.PropertyRef;
+import com.sdl.odata.api.edm.model.StructuralProperty;
+import com.sdl.odata.processor.datasource.index.IndexingDataSourceProvider.IndexType;
+import com.sdl.odata.processor.query.Comparison;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.sdl.odata.util.edm.EntityDataModelUtil.getKeyPropertyValues;
+import static com.sdl.odata.util.edm.EntityDataModelUtil.getPropertyValue;
+
+/**
+ * The indexes of one entity set: the entities by key and, for each indexed property, the keys of the entities by
+ * property value. A hash index answers equality only; a sorted index, backed by a skip list, also answers ranges.
+ * <p>
+ * Property values are normalized, so that values read from entities and literals from a filter can be compared:
+ * numbers become {@link BigDecimal}s without trailing zeros and enum values become the names of their members.
+ */
+final class EntitySetIndex {
+
+    /**
+     * State of the index.
+     */
+    enum State {
+        /**
+         * The entities have not been loaded yet.
+         */
+        NEW,
+        /**
+         * The entities are loaded and the index is kept in sync with writes.
+         */
+        LOADED,
+        /**
+         * The entities could not be loaded; queries are always handled by the wrapped data source provider.
+         */
+        UNAVAILABLE
+    }
+
+    private final EntityType entityType;
+    private final Map<String, IndexType> indexTypes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Object, Object> entities = new HashMap<>();
+    private final Map<Object, Map<String, Object>> indexedValues = new HashMap<>();
+    private final Map<String, Map<Object, Set<Object>>> indexes = new HashMap<>();
+    private volatile State state = State.NEW;
+    private long modifications;
+
+    EntitySetIndex(EntityType entityType, Map<String, IndexType> indexTypes) {
+        this.entityType = entityType;
+        this.indexTypes = indexTypes;
+        for (Map.Entry<String, IndexType> entry : indexTypes.entrySet()) {
+            if (entityType.getStructuralProperty(entry.getKey()) == null) {
+                throw new ODataSystemException("Cannot index unknown property '" + entry.getKey() +
+                        "' of entity type '" + entityType.getFullyQualifiedName() + "'");
+            }
+            indexes.put(entry.getKey(),
+                    entry.getValue() == IndexType.SORTED ? new ConcurrentSkipListMap<>() : new HashMap<>());
+        }
+    }
+
+    EntityType getEntityType() {
+        return entityType;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /**
+     * Checks whether a comparison on a property can be answered by its index.
+     *
+     * @param propertyName The name of the property.
+     * @param comparison   The comparison.
+     * @return {@code true} if the property has an index which supports the comparison.
+     */
+    boolean supports(String propertyName, Comparison comparison) {
+        IndexType indexType = indexTypes.get(propertyName);
+        return indexType != null && (comparison == Comparison.EQ ||
+                (indexType == IndexType.SORTED && comparison != Comparison.NE));
+    }
+
+    /**
+     * Returns the number of writes so far, to pass to {@link #load(Collection, long)}.
+     *
+     * @return The number of writes.
+     */
+    long getModifications() {
+        lock.readLock().lock();
+        try {
+            return modifications;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fills the index with all entities of the entity set, unless an entity was written while they were read.
+     *
+     * @param allEntities         All entities.
+     * @param modificationsBefore The number of writes before the entities were read.
+     * @return {@code true} if the index was loaded, {@code false} if it must be loaded again.
+     */
+    boolean load(Collection<?> allEntities, long modificationsBefore) {
+        lock.writeLock().lock();
+        try {
+            if (modificationsBefore != modifications) {
+                return false;
+            }
+            entities.clear();
+            indexedValues.clear();
+            indexes.values().forEach(Map::clear);
+            allEntities.forEach(this::addEntity);
+            state = State.LOADED;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void markUnavailable() {
+        state = State.UNAVAILABLE;
+    }
+
+    /**
+     * Adds an entity to the index, or replaces the entity with the same key. Until the index is loaded, the write is
+     * only counted.
+     *
+     * @param entity The entity.
+     */
+    void put(Object entity) {
+        lock.writeLock().lock();
+        try {
+            modifications++;
+            if (state == State.LOADED) {
+                removeEntity(getKey(entity));
+                addEntity(entity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the entity with a key from the index. Until the index is loaded, the write is only counted.
+     *
+     * @param key The normalized key.
+     */
+    void remove(Object key) {
+        lock.writeLock().lock();
+        try {
+            modifications++;
+            if (state == State.LOADED) {
+                removeEntity(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards the indexed entities, so that they are loaded again by the next query which uses the index. This is
+     * used when a write does not tell what the written entity looks like afterwards.
+     */
+    void invalidate() {
+        lock.writeLock().lock();
+        try {
+            modifications++;
+            if (state == State.LOADED) {
+                entities.clear();
+                indexedValues.clear();
+                indexes.values().forEach(Map::clear);
+                state = State.NEW;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entity with a key.
+     *
+     * @param key The normalized key.
+     * @return A list with the entity, or an empty list if there is no entity with the key.
+     */
+    List<Object> getByKey(Object key) {
+        lock.readLock().lock();
+        try {
+            Object entity = entities.get(key);
+            return entity == null ? new ArrayList<>() : new ArrayList<>(Collections.singletonList(entity));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entities of which the value of an indexed property compares to a value.
+     *
+     * @param propertyName The name of the indexed property.
+     * @param comparison   The comparison.
+     * @param literal      The value to compare with; not {@code null}.
+     * @return The matching entities, or {@code null} if the index cannot answer the comparison.
+     */
+    List<Object> find(String propertyName, Comparison comparison, Object literal) {
+        Object value = normalize(literal);
+        lock.readLock().lock();
+        try {
+            Map<Object, Set<Object>> index = indexes.get(propertyName);
+            Collection<Set<Object>> matches;
+            if (comparison == Comparison.EQ) {
+                if (index instanceof NavigableMap && !isComparableWith(index, value)) {
+                    return null;
+                }
+                Set<Object> keys = index.get(value);
+                matches = keys == null ? Collections.emptyList() : Collections.singletonList(keys);
+            } else if (index instanceof NavigableMap) {
+                if (!isComparableWith(index, value)) {
+                    return null;
+                }
+                matches = range((NavigableMap<Object, Set<Object>>) index, comparison, value).values();
+            } else {
+                return null;
+            }
+
+            List<Object> result = new ArrayList<>();
+            for (Set<Object> keys : matches) {
+                for (Object key : keys) {
+                    result.add(entities.get(key));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the normalized key of an entity.
+     *
+     * @param entity The entity.
+     * @return The key.
+     */
+    Object getKey(Object entity) {
+        return getKey(getKeyPropertyValues(entityType, entity));
+    }
+
+    /**
+     * Returns the normalized key for the values of the key properties.
+     *
+     * @param keyValues The values of the key properties by name.
+     * @return The key: the value of the key property, or a list of values for a compound key.
+     */
+    Object getKey(Map<String, ?> keyValues) {
+        List<PropertyRef> propertyRefs = entityType.getKey().getPropertyRefs();
+        if (propertyRefs.size() == 1) {
+            return normalize(keyValues.get(propertyRefs.get(0).getPath()));
+        }
+        List<Object> key = new ArrayList<>(propertyRefs.size());
+        for (PropertyRef propertyRef : propertyRefs) {
+            key.add(normalize(keyValues.get(propertyRef.getPath())));
+        }
+        return key;
+    }
+
+    private void addEntity(Object entity) {
+        Object key = getKey(entity);
+        entities.put(key, entity);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Object, Set<Object>>> entry : indexes.entrySet()) {
+            StructuralProperty property = entityType.getStructuralProperty(entry.getKey());
+            Object value = normalize(getPropertyValue(property, entity));
+            if (value == null) {
+                continue;
+            }
+            if (entry.getValue() instanceof NavigableMap && !(value instanceof Comparable)) {
+                throw new ODataSystemException("The values of property '" + entry.getKey() + "' of entity type '" +
+                        entityType.getFullyQualifiedName() + "' cannot be sorted");
+            }
+            entry.getValue().computeIfAbsent(value, v -> new LinkedHashSet<>()).add(key);
+            values.put(entry.getKey(), value);
+        }
+        indexedValues.put(key, values);
+    }
+
+    private void removeEntity(Object key) {
+        entities.remove(key);
+        Map<String, Object> values = indexedValues.remove(key);
+        if (values == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Map<Object, Set<Object>> index = indexes.get(entry.getKey());
+            Set<Object> keys = index.get(entry.getValue());
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                index.remove(entry.getValue());
+            }
+        }
+    }
+
+    private static boolean isComparableWith(Map<Object, Set<Object>> index, Object value) {
+        // A skip list throws ClassCastException when it compares values of different types
+        return index.isEmpty() ||
+                ((NavigableMap<Object, Set<Object>>) index).firstKey().getClass() == value.getClass();
+    }
+
+    private static NavigableMap<Object, Set<Object>> range(NavigableMap<Object, Set<Object>> index,
+                                                           Comparison comparison, Object value) {
+        switch (comparison) {
+            case LT:
+                return index.headMap(value, false);
+            case LE:
+                return index.headMap(value, true);
+            case GT:
+                return index.tailMap(value, false);
+            case GE:
+                return index.tailMap(value, true);
+            default:
+                throw new IllegalArgumentException("Not a range comparison: " + comparison);
+        }
+    }
+
+    /**
+     * Normalizes a value, so that values read from entities and literals from a URI can be compared.
+     *
+     * @param value The value.
+     * @return The normalized value.
+     */
+    static Object normalize(Object value) {
+        if (value instanceof scala.math.BigDecimal) {
+            return ((scala.math.BigDecimal) value).bigDecimal().stripTrailingZeros();
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).stripTrailingZeros();
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value).stripTrailingZeros();
+        } else if (value instanceof Double || value instanceof Float) {
+            double doubleValue = ((Number) value).doubleValue();
+            return Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)
+                    ? value : BigDecimal.valueOf(doubleValue).stripTrailingZeros();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short ||
+                value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue()).stripTrailingZeros();
+        } else if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        } else if (value instanceof scala.collection.Seq) {
+            scala.collection.Seq<?> members = (scala.collection.Seq<?>) value;
+            if (members.size() == 1 && members.head() instanceof EnumMember) {
+                return ((EnumMember) members.head()).getName();
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.datasource.index;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.processor.datasource.BulkDataSource;
+import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
+import com.sdl.odata.api.processor.link.ODataLink;
+import scala.Option;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.sdl.odata.api.parser.ODataUriUtil.asJavaMap;
+import static com.sdl.odata.api.parser.ODataUriUtil.getEntityKeyMap;
+import static com.sdl.odata.api.parser.ODataUriUtil.resolveTargetType;
+
+/**
+ * Data source of an {@link IndexingDataSourceProvider}, which writes through to the wrapped data source and then
+ * updates the indexes of the written entity sets. Writes in a transaction update the indexes when the transaction is
+ * committed.
+ */
+final class IndexingDataSource implements DataSource {
+
+    private final IndexingDataSourceProvider provider;
+    private final DataSource delegate;
+
+    IndexingDataSource(IndexingDataSourceProvider provider, DataSource delegate) {
+        this.provider = provider;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object create(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+        Object created = delegate.create(uri, entity, entityDataModel);
+        indexPut(created != null ? created : entity, entityDataModel);
+        return created;
+    }
+
+    @Override
+    public Object update(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+        Object updated = delegate.update(uri, entity, entityDataModel);
+        indexUpdate(entity, updated, entityDataModel);
+        return updated;
+    }
+
+    @Override
+    public void delete(ODataUri uri, EntityDataModel entityDataModel) throws ODataException {
+        delegate.delete(uri, entityDataModel);
+        indexRemove(uri, entityDataModel);
+    }
+
+    @Override
+    public void createLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+        delegate.createLink(uri, link, entityDataModel);
+    }
+
+    @Override
+    public void deleteLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+        delegate.deleteLink(uri, link, entityDataModel);
+    }
+
+    @Override
+    public TransactionalDataSource startTransaction() {
+        return new Transaction(delegate.startTransaction());
+    }
+
+    private void indexPut(Object entity, EntityDataModel entityDataModel) {
+        EntitySetIndex index = getExistingIndex(entity, entityDataModel);
+        if (index != null) {
+            index.put(entity);
+        }
+    }
+
+    /**
+     * Updates the index with the entity returned by an update. The entity of the request may only hold the changed
+     * properties, so if no entity is returned the index is reloaded instead.
+     */
+    private void indexUpdate(Object entity, Object updated, EntityDataModel entityDataModel) {
+        EntitySetIndex index = getExistingIndex(entity, entityDataModel);
+        if (index != null) {
+            if (updated != null) {
+                index.put(updated);
+            } else {
+                index.invalidate();
+            }
+        }
+    }
+
+    private EntitySetIndex getExistingIndex(Object entity, EntityDataModel entityDataModel) {
+        Type type = entityDataModel.getType(entity.getClass());
+        return type == null ? null : provider.getExistingIndex(type.getFullyQualifiedName());
+    }
+
+    private void indexRemove(ODataUri uri, EntityDataModel entityDataModel) {
+        // The URI of a delete refers to a single entity, for example Products(1), so the index is found by the type
+        // of the entity rather than by the entity set
+        Option<TargetType> targetType = resolveTargetType(uri, entityDataModel);
+        EntitySetIndex index = targetType.isDefined() && targetType.get().propertyName().isEmpty()
+                ? provider.getExistingIndex(targetType.get().typeName()) : null;
+        if (index != null) {
+            Map<String, Object> keyValues = asJavaMap(getEntityKeyMap(uri, entityDataModel));
+            index.remove(index.getKey(keyValues));
+        }
+    }
+
+    /**
+     * A change to the indexes.
+     */
+    @FunctionalInterface
+    private interface IndexChange {
+        void apply();
+    }
+
+    /**
+     * Transaction on the wrapped data source. The index changes are recorded and applied when the wrapped transaction
+     * has been committed. Consecutive writes are handed over to the wrapped transaction in one call if it is a
+     * {@link BulkDataSource}; otherwise they are written one by one.
+     */
+    private final class Transaction implements TransactionalDataSource, BulkDataSource {
+
+        private final TransactionalDataSource transaction;
+        private final List<IndexChange> indexChanges = new ArrayList<>();
+
+        private Transaction(TransactionalDataSource transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public Object create(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+            Object created = transaction.create(uri, entity, entityDataModel);
+            recordPut(created != null ? created : entity, entityDataModel);
+            return created;
+        }
+
+        @Override
+        public Object update(ODataUri uri, Object entity, EntityDataModel entityDataModel) throws ODataException {
+            Object updated = transaction.update(uri, entity, entityDataModel);
+            indexChanges.add(() -> indexUpdate(entity, updated, entityDataModel));
+            return updated;
+        }
+
+        @Override
+        public void delete(ODataUri uri, EntityDataModel entityDataModel) throws ODataException {
+            transaction.delete(uri, entityDataModel);
+            indexChanges.add(() -> indexRemove(uri, entityDataModel));
+        }
+
+        @Override
+        public List<Object> createAll(List<Operation> operations, EntityDataModel entityDataModel)
+                throws ODataException {
+            if (!(transaction instanceof BulkDataSource)) {
+                List<Object> created = new ArrayList<>(operations.size());
+                for (Operation operation : operations) {
+                    created.add(create(operation.getUri(), operation.getEntity(), entityDataModel));
+                }
+                return created;
+            }
+            List<Object> created = ((BulkDataSource) transaction).createAll(operations, entityDataModel);
+            for (int i = 0; i < operations.size(); i++) {
+                Object result = i < created.size() ? created.get(i) : null;
+                recordPut(result != null ? result : operations.get(i).getEntity(), entityDataModel);
+            }
+            return created;
+        }
+
+        @Override
+        public List<Object> updateAll(List<Operation> operations, EntityDataModel entityDataModel)
+                throws ODataException {
+            if (!(transaction instanceof BulkDataSource)) {
+                List<Object> updated = new ArrayList<>(operations.size());
+                for (Operation operation : operations) {
+                    updated.add(update(operation.getUri(), operation.getEntity(), entityDataModel));
+                }
+                return updated;
+            }
+            List<Object> updated = ((BulkDataSource) transaction).updateAll(operations, entityDataModel);
+            for (int i = 0; i < operations.size(); i++) {
+                Object entity = operations.get(i).getEntity();
+                Object result = i < updated.size() ? updated.get(i) : null;
+                indexChanges.add(() -> indexUpdate(entity, result, entityDataModel));
+            }
+            return updated;
+        }
+
+        @Override
+        public void deleteAll(List<ODataUri> uris, EntityDataModel entityDataModel) throws ODataException {
+            if (!(transaction instanceof BulkDataSource)) {
+                for (ODataUri uri : uris) {
+                    delete(uri, entityDataModel);
+                }
+                return;
+            }
+            ((BulkDataSource) transaction).deleteAll(uris, entityDataModel);
+            for (ODataUri uri : uris) {
+                indexChanges.add(() -> indexRemove(uri, entityDataModel));
+            }
+        }
+
+        @Override
+        public void createLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+            transaction.createLink(uri, link, entityDataModel);
+        }
+
+        @Override
+        public void deleteLink(ODataUri uri, ODataLink link, EntityDataModel entityDataModel) throws ODataException {
+            transaction.deleteLink(uri, link, entityDataModel);
+        }
+
+        @Override
+        public TransactionalDataSource startTransaction() {
+            return new Transaction(transaction.startTransaction());
+        }
+
+        @Override
+        public boolean commit() {
+            boolean committed = transaction.commit();
+            if (committed) {
+                indexChanges.forEach(IndexChange::apply);
+            }
+            indexChanges.clear();
+            return committed;
+        }
+
+        @Override
+        public void rollback() {
+            indexChanges.clear();
+            transaction.rollback();
+        }
+
+        @Override
+        public boolean isActive() {
+            return transaction.isActive();
+        }
+
+        private void recordPut(Object entity, EntityDataModel entityDataModel) {
+            indexChanges.add(() -> indexPut(entity, entityDataModel));
+        }
+    }
+}
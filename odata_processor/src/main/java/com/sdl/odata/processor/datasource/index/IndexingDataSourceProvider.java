@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.datasource.index;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.ODataSystemException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntitySet;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.datasource.DataSourceProvider;
+import com.sdl.odata.api.processor.datasource.ODataDataSourceException;
+import com.sdl.odata.api.processor.query.AndOperator$;
+import com.sdl.odata.api.processor.query.ComparisonCriteria;
+import com.sdl.odata.api.processor.query.CompositeCriteria;
+import com.sdl.odata.api.processor.query.Criteria;
+import com.sdl.odata.api.processor.query.CriteriaFilterOperation;
+import com.sdl.odata.api.processor.query.LiteralCriteriaValue;
+import com.sdl.odata.api.processor.query.PropertyCriteriaValue;
+import com.sdl.odata.api.processor.query.QueryOperation;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.processor.query.SelectByKeyOperation;
+import com.sdl.odata.api.processor.query.SelectOperation;
+import com.sdl.odata.api.processor.query.strategy.QueryOperationStrategy;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.processor.datasource.index.EntitySetIndex.State;
+import com.sdl.odata.processor.query.Comparison;
+import com.sdl.odata.processor.query.CriteriaCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Option;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * {@link DataSourceProvider} which answers lookups by key and filters on indexed properties from in-memory indexes,
+ * and delegates everything else to a wrapped data source provider.
+ * <p>
+ * Indexes are declared per entity type. An indexed entity type always gets an index on its key; properties can get a
+ * hash index, for equality, or a sorted index, for equality and ranges:
+ * <pre>
+ * new IndexingDataSourceProvider(customerDataSourceProvider)
+ *         .indexProperty("Demo.Customer", "email", IndexType.HASH)
+ *         .indexProperty("Demo.Customer", "birthDate", IndexType.SORTED);
+ * </pre>
+ * The indexes of an entity type are loaded the first time a query could use them, by selecting all entities through
+ * the wrapped provider. From then on they are updated by the writes that go through the {@link DataSource} of this
+ * provider, so they are only suitable for entity sets which are not also written by other means. An update for which
+ * the wrapped data source returns no entity makes the indexes of the entity type load again.
+ * <p>
+ * A query is answered from an index if it selects by key, or if its filter has a comparison between an indexed
+ * property and a literal, directly or as one of the operands of "and". The remaining operands are evaluated on the
+ * entities from the index. Any other query is executed by the wrapped provider.
+ */
+public class IndexingDataSourceProvider implements DataSourceProvider {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexingDataSourceProvider.class);
+
+    /**
+     * Type of index on a property.
+     */
+    public enum IndexType {
+        /**
+         * Hash index, which answers equality comparisons.
+         */
+        HASH,
+        /**
+         * Sorted index, which answers equality and range comparisons.
+         */
+        SORTED
+    }
+
+    private final DataSourceProvider delegate;
+    private final Map<String, Map<String, IndexType>> declaredIndexes = new ConcurrentHashMap<>();
+    private final Map<String, EntitySetIndex> indexes = new ConcurrentHashMap<>();
+
+    public IndexingDataSourceProvider(DataSourceProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Indexes the entities of an entity type by key.
+     *
+     * @param entityTypeName The fully qualified name of the entity type.
+     * @return This provider.
+     */
+    public IndexingDataSourceProvider indexKey(String entityTypeName) {
+        declaredIndexes.computeIfAbsent(entityTypeName, name -> new LinkedHashMap<>());
+        return this;
+    }
+
+    /**
+     * Indexes the entities of an entity type by key and by the value of a property.
+     *
+     * @param entityTypeName The fully qualified name of the entity type.
+     * @param propertyName   The name of the property.
+     * @param indexType      The type of index.
+     * @return This provider.
+     */
+    public IndexingDataSourceProvider indexProperty(String entityTypeName, String propertyName, IndexType indexType) {
+        declaredIndexes.computeIfAbsent(entityTypeName, name -> new LinkedHashMap<>()).put(propertyName, indexType);
+        return this;
+    }
+
+    @Override
+    public boolean isSuitableFor(ODataRequestContext requestContext, String entityType)
+            throws ODataDataSourceException {
+        return delegate.isSuitableFor(requestContext, entityType);
+    }
+
+    @Override
+    public DataSource getDataSource(ODataRequestContext requestContext) {
+        DataSource dataSource = delegate.getDataSource(requestContext);
+        return dataSource == null ? null : new IndexingDataSource(this, dataSource);
+    }
+
+    @Override
+    public QueryOperationStrategy getStrategy(ODataRequestContext requestContext, QueryOperation operation,
+                                              TargetType expectedODataEntityType) throws ODataException {
+        QueryOperationStrategy fallback = delegate.getStrategy(requestContext, operation, expectedODataEntityType);
+        if (fallback == null) {
+            return null;
+        }
+        EntitySetIndex index = getIndex(requestContext.getEntityDataModel(), operation.entitySetName());
+        if (index == null || index.getState() == State.UNAVAILABLE) {
+            return fallback;
+        }
+
+        if (operation instanceof SelectByKeyOperation &&
+                ((SelectByKeyOperation) operation).getSource() instanceof SelectOperation) {
+            Object key = index.getKey(((SelectByKeyOperation) operation).getKeyAsJava());
+            return () -> ensureLoaded(index, requestContext, operation.entitySetName())
+                    ? QueryResult.from(index.getByKey(key)) : fallback.execute();
+        }
+        if (operation instanceof CriteriaFilterOperation &&
+                ((CriteriaFilterOperation) operation).getSource() instanceof SelectOperation) {
+            return getFilterStrategy(requestContext, operation.entitySetName(),
+                    ((CriteriaFilterOperation) operation).getCriteria(), index, fallback);
+        }
+        return fallback;
+    }
+
+    /**
+     * Returns the index of an entity type if it has been created.
+     *
+     * @param entityTypeName The fully qualified name of the entity type.
+     * @return The index or {@code null}.
+     */
+    EntitySetIndex getExistingIndex(String entityTypeName) {
+        return indexes.get(entityTypeName);
+    }
+
+    private EntitySetIndex getIndex(EntityDataModel entityDataModel, String entitySetName) {
+        EntitySet entitySet = entityDataModel.getEntityContainer().getEntitySet(entitySetName);
+        Map<String, IndexType> indexTypes = entitySet == null ? null : declaredIndexes.get(entitySet.getTypeName());
+        if (indexTypes == null) {
+            return null;
+        }
+        Type type = entityDataModel.getType(entitySet.getTypeName());
+        if (!(type instanceof EntityType)) {
+            return null;
+        }
+        return indexes.computeIfAbsent(entitySet.getTypeName(),
+                name -> new EntitySetIndex((EntityType) type, indexTypes));
+    }
+
+    private QueryOperationStrategy getFilterStrategy(ODataRequestContext requestContext, String entitySetName,
+                                                     Criteria criteria, EntitySetIndex index,
+                                                     QueryOperationStrategy fallback) {
+        List<Criteria> operands = new ArrayList<>();
+        addAndOperands(criteria, operands);
+
+        ComparisonCriteria indexed = null;
+        for (Criteria operand : operands) {
+            if (isAnsweredByIndex(operand, index)) {
+                indexed = (ComparisonCriteria) operand;
+                break;
+            }
+        }
+        if (indexed == null) {
+            return fallback;
+        }
+        operands.remove(indexed);
+
+        Predicate<Object> remaining = entity -> true;
+        try {
+            for (Criteria operand : operands) {
+                remaining = remaining.and(CriteriaCompiler.compile(operand, index.getEntityType(),
+                        requestContext.getEntityDataModel()));
+            }
+        } catch (ODataException e) {
+            LOG.debug("Filter cannot be evaluated on indexed entities, using wrapped data source provider", e);
+            return fallback;
+        }
+
+        boolean propertyOnLeft = indexed.getLeft() instanceof PropertyCriteriaValue;
+        String propertyName = ((PropertyCriteriaValue) (propertyOnLeft ? indexed.getLeft() : indexed.getRight()))
+                .getPropertyName();
+        Object literal = ((LiteralCriteriaValue) (propertyOnLeft ? indexed.getRight() : indexed.getLeft()))
+                .getValue();
+        Comparison comparison = propertyOnLeft ? comparisonOf(indexed) : comparisonOf(indexed).reverse();
+        Predicate<Object> filter = remaining;
+
+        return () -> {
+            if (!ensureLoaded(index, requestContext, entitySetName)) {
+                return fallback.execute();
+            }
+            List<Object> entities = index.find(propertyName, comparison, literal);
+            if (entities == null) {
+                return fallback.execute();
+            }
+            entities.removeIf(filter.negate());
+            return QueryResult.from(entities);
+        };
+    }
+
+    private boolean ensureLoaded(EntitySetIndex index, ODataRequestContext requestContext, String entitySetName)
+            throws ODataException {
+        if (index.getState() == State.NEW) {
+            synchronized (index) {
+                if (index.getState() == State.NEW) {
+                    load(index, requestContext, entitySetName);
+                }
+            }
+        }
+        return index.getState() == State.LOADED;
+    }
+
+    private void load(EntitySetIndex index, ODataRequestContext requestContext, String entitySetName)
+            throws ODataException {
+        String entityTypeName = index.getEntityType().getFullyQualifiedName();
+        long modifications = index.getModifications();
+        QueryOperationStrategy selectAll = delegate.getStrategy(requestContext,
+                new SelectOperation(entitySetName, true),
+                new TargetType(entityTypeName, true, Option.apply(null)));
+        QueryResult result = selectAll == null ? null : selectAll.execute();
+        if (result == null || result.getType() != QueryResult.ResultType.COLLECTION) {
+            LOG.warn("Cannot load the entities of '{}' for indexing, queries will not use the index", entityTypeName);
+            index.markUnavailable();
+        } else if (index.load((List<?>) result.getData(), modifications)) {
+            LOG.debug("Loaded {} entities of '{}' into the index", ((List<?>) result.getData()).size(),
+                    entityTypeName);
+        } else {
+            LOG.debug("Entities of '{}' were written while loading the index, loading again on next query",
+                    entityTypeName);
+        }
+    }
+
+    private static void addAndOperands(Criteria criteria, List<Criteria> operands) {
+        if (criteria instanceof CompositeCriteria &&
+                ((CompositeCriteria) criteria).getOperator() == AndOperator$.MODULE$) {
+            addAndOperands(((CompositeCriteria) criteria).getLeft(), operands);
+            addAndOperands(((CompositeCriteria) criteria).getRight(), operands);
+        } else {
+            operands.add(criteria);
+        }
+    }
+
+    private static boolean isAnsweredByIndex(Criteria criteria, EntitySetIndex index) {
+        if (!(criteria instanceof ComparisonCriteria)) {
+            return false;
+        }
+        ComparisonCriteria comparison = (ComparisonCriteria) criteria;
+        if (comparison.getLeft() instanceof PropertyCriteriaValue &&
+                comparison.getRight() instanceof LiteralCriteriaValue) {
+            return ((LiteralCriteriaValue) comparison.getRight()).getValue() != null && index.supports(
+                    ((PropertyCriteriaValue) comparison.getLeft()).getPropertyName(), comparisonOf(comparison));
+        }
+        if (comparison.getLeft() instanceof LiteralCriteriaValue &&
+                comparison.getRight() instanceof PropertyCriteriaValue) {
+            return ((LiteralCriteriaValue) comparison.getLeft()).getValue() != null && index.supports(
+                    ((PropertyCriteriaValue) comparison.getRight()).getPropertyName(),
+                    comparisonOf(comparison).reverse());
+        }
+        return false;
+    }
+
+    private static Comparison comparisonOf(ComparisonCriteria criteria) {
+        try {
+            return Comparison.of(criteria.getOperator());
+        } catch (ODataNotImplementedException e) {
+            // Every comparison operator of the criteria model has a comparison
+            throw new ODataSystemException(e);
+        }
+    }
+}
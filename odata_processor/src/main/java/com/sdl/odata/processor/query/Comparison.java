@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.query;
+
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.processor.query.ComparisonOperator;
+import com.sdl.odata.api.processor.query.EqOperator$;
+import com.sdl.odata.api.processor.query.GeOperator$;
+import com.sdl.odata.api.processor.query.GtOperator$;
+import com.sdl.odata.api.processor.query.LeOperator$;
+import com.sdl.odata.api.processor.query.LtOperator$;
+import com.sdl.odata.api.processor.query.NeOperator$;
+
+/**
+ * The comparison operators of filter criteria as an enum, so that compiled predicates can switch on them.
+ */
+public enum Comparison {
+    /**
+     * Equal.
+     */
+    EQ,
+    /**
+     * Not equal.
+     */
+    NE,
+    /**
+     * Less than.
+     */
+    LT,
+    /**
+     * Less than or equal.
+     */
+    LE,
+    /**
+     * Greater than.
+     */
+    GT,
+    /**
+     * Greater than or equal.
+     */
+    GE;
+
+    /**
+     * Returns the comparison for a comparison operator of filter criteria.
+     *
+     * @param operator The comparison operator.
+     * @return The comparison.
+     * @throws ODataNotImplementedException If the operator is not supported.
+     */
+    public static Comparison of(ComparisonOperator operator) throws ODataNotImplementedException {
+        if (operator == EqOperator$.MODULE$) {
+            return EQ;
+        } else if (operator == NeOperator$.MODULE$) {
+            return NE;
+        } else if (operator == LtOperator$.MODULE$) {
+            return LT;
+        } else if (operator == LeOperator$.MODULE$) {
+            return LE;
+        } else if (operator == GtOperator$.MODULE$) {
+            return GT;
+        } else if (operator == GeOperator$.MODULE$) {
+            return GE;
+        }
+        throw new ODataNotImplementedException("Unsupported comparison operator: " + operator);
+    }
+
+    /**
+     * Returns the comparison to use when the operands are swapped.
+     *
+     * @return The reversed comparison.
+     */
+    public Comparison reverse() {
+        switch (this) {
+            case LT:
+                return GT;
+            case LE:
+                return GE;
+            case GT:
+                return LT;
+            case GE:
+                return LE;
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * Checks the result of a {@code compareTo} against this comparison.
+     *
+     * @param comparison The result of comparing the left operand to the right operand.
+     * @return {@code true} if the operands match this comparison.
+     */
+    public boolean matches(int comparison) {
+        switch (this) {
+            case EQ:
+                return comparison == 0;
+            case NE:
+                return comparison != 0;
+            case LT:
+                return comparison < 0;
+            case LE:
+                return comparison <= 0;
+            case GT:
+                return comparison > 0;
+            default:
+                return comparison >= 0;
+        }
+    }
+
+    /**
+     * Compares floating point values with the Java operators: NaN is unequal to every value, including itself, and
+     * the infinities are ordered like any other value.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return {@code true} if the operands match this comparison.
+     */
+    public boolean matches(double left, double right) {
+        switch (this) {
+            case EQ:
+                return left == right;
+            case NE:
+                return left != right;
+            case LT:
+                return left < right;
+            case LE:
+                return left <= right;
+            case GT:
+                return left > right;
+            default:
+                return left >= right;
+        }
+    }
+}
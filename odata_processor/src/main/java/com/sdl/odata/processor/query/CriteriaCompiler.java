@@ -0,0 +1,435 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.query;
+
+import com.sdl.odata.api.ODataBadRequestException;
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.edm.model.EnumMember;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
+import com.sdl.odata.api.edm.model.StructuralProperty;
+import com.sdl.odata.api.edm.model.StructuredType;
+import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.api.processor.query.AddOperator$;
+import com.sdl.odata.api.processor.query.AndOperator$;
+import com.sdl.odata.api.processor.query.ArithmeticCriteriaValue;
+import com.sdl.odata.api.processor.query.ArithmeticOperator;
+import com.sdl.odata.api.processor.query.ComparisonCriteria;
+import com.sdl.odata.api.processor.query.CompositeCriteria;
+import com.sdl.odata.api.processor.query.ContainsMethodCriteria;
+import com.sdl.odata.api.processor.query.Criteria;
+import com.sdl.odata.api.processor.query.CriteriaValue;
+import com.sdl.odata.api.processor.query.DivOperator$;
+import com.sdl.odata.api.processor.query.EndsWithMethodCriteria;
+import com.sdl.odata.api.processor.query.LiteralCriteriaValue;
+import com.sdl.odata.api.processor.query.MulOperator$;
+import com.sdl.odata.api.processor.query.PropertyCriteriaValue;
+import com.sdl.odata.api.processor.query.StartsWithMethodCriteria;
+import com.sdl.odata.api.processor.query.SubOperator$;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Compiles the {@link Criteria} of a filter into a {@link Predicate} which evaluates them against entities in memory.
+ * Data source providers which keep their entities in memory can use it instead of interpreting the criteria tree for
+ * every entity.
+ * <p>
+ * The property accessors are resolved once, when the criteria are compiled. A comparison between a property of a
+ * primitive Java type and a literal is done on the primitive value, without boxing, and "and" and "or" are short
+ * circuited. As in OData, a comparison with {@code null} can only be true for {@code eq} and {@code ne}.
+ * The compiled predicate holds no state, so it can be shared between threads.
+ */
+public final class CriteriaCompiler {
+
+    private final StructuredType entityType;
+    private final EntityDataModel entityDataModel;
+
+    private CriteriaCompiler(StructuredType entityType, EntityDataModel entityDataModel) {
+        this.entityType = entityType;
+        this.entityDataModel = entityDataModel;
+    }
+
+    /**
+     * Compiles criteria into a predicate for entities of the given type.
+     *
+     * @param criteria        The criteria to compile.
+     * @param entityType      The type of the entities the predicate is evaluated against.
+     * @param entityDataModel The entity data model, used to resolve paths into complex properties.
+     * @return A predicate which returns {@code true} for the entities which match the criteria.
+     * @throws ODataException If the criteria refer to an unknown property or use an unsupported operation.
+     */
+    public static Predicate<Object> compile(Criteria criteria, EntityType entityType,
+                                            EntityDataModel entityDataModel) throws ODataException {
+        return new CriteriaCompiler(entityType, entityDataModel).compileCriteria(criteria);
+    }
+
+    /**
+     * A compiled criteria value.
+     */
+    @FunctionalInterface
+    private interface ValueExpression {
+        Object evaluate(Object entity);
+    }
+
+    private Predicate<Object> compileCriteria(Criteria criteria) throws ODataException {
+        if (criteria instanceof CompositeCriteria) {
+            CompositeCriteria composite = (CompositeCriteria) criteria;
+            Predicate<Object> left = compileCriteria(composite.getLeft());
+            Predicate<Object> right = compileCriteria(composite.getRight());
+            return composite.getOperator() == AndOperator$.MODULE$ ? left.and(right) : left.or(right);
+        } else if (criteria instanceof ComparisonCriteria) {
+            ComparisonCriteria comparison = (ComparisonCriteria) criteria;
+            return compileComparison(Comparison.of(comparison.getOperator()), comparison.getLeft(),
+                    comparison.getRight());
+        } else if (criteria instanceof StartsWithMethodCriteria) {
+            StartsWithMethodCriteria method = (StartsWithMethodCriteria) criteria;
+            return compileStringMethod(method.getProperty(), method.getStringLiteral(), String::startsWith);
+        } else if (criteria instanceof EndsWithMethodCriteria) {
+            EndsWithMethodCriteria method = (EndsWithMethodCriteria) criteria;
+            return compileStringMethod(method.getProperty(), method.getStringLiteral(), String::endsWith);
+        } else if (criteria instanceof ContainsMethodCriteria) {
+            ContainsMethodCriteria method = (ContainsMethodCriteria) criteria;
+            return compileStringMethod(method.getProperty(), method.getStringLiteral(), String::contains);
+        }
+        throw new ODataNotImplementedException("Unsupported criteria for in-memory filtering: " + criteria);
+    }
+
+    private Predicate<Object> compileComparison(Comparison operator, CriteriaValue left, CriteriaValue right)
+            throws ODataException {
+        if (left instanceof LiteralCriteriaValue) {
+            if (right instanceof LiteralCriteriaValue) {
+                boolean result = compare(operator, literalValue((LiteralCriteriaValue) left),
+                        literalValue((LiteralCriteriaValue) right));
+                return entity -> result;
+            }
+            return compileComparison(operator.reverse(), right, left);
+        }
+
+        if (left instanceof PropertyCriteriaValue && right instanceof LiteralCriteriaValue) {
+            List<PropertyAccessor> path = resolvePath(((PropertyCriteriaValue) left).getPropertyName());
+            if (path.size() == 1) {
+                Predicate<Object> predicate = compilePropertyComparison(operator, path.get(0),
+                        literalValue((LiteralCriteriaValue) right));
+                if (predicate != null) {
+                    return predicate;
+                }
+            }
+        }
+
+        ValueExpression leftValue = compileValue(left);
+        ValueExpression rightValue = compileValue(right);
+        return entity -> compare(operator, leftValue.evaluate(entity), rightValue.evaluate(entity));
+    }
+
+    /**
+     * Compiles a comparison between a property and a literal into a predicate specialized for the Java type of the
+     * property. Returns {@code null} if there is no specialized predicate for the combination of types.
+     */
+    private Predicate<Object> compilePropertyComparison(Comparison operator, PropertyAccessor accessor,
+                                                        Object literal) {
+        Class<?> type = accessor.getType();
+        if (literal == null) {
+            if (type.isPrimitive() || (operator != Comparison.EQ && operator != Comparison.NE)) {
+                boolean result = type.isPrimitive() && operator == Comparison.NE;
+                return entity -> result;
+            }
+            return operator == Comparison.EQ
+                    ? entity -> accessor.get(entity) == null
+                    : entity -> accessor.get(entity) != null;
+        }
+
+        if (literal instanceof Number && (type == long.class || type == int.class || type == short.class ||
+                type == byte.class)) {
+            if (isFloatingPoint((Number) literal)) {
+                double constant = ((Number) literal).doubleValue();
+                return entity -> operator.matches(accessor.getLong(entity), constant);
+            }
+            BigDecimal value = toBigDecimal((Number) literal);
+            if (isLong(value)) {
+                return compileLongComparison(operator, accessor, value.longValueExact());
+            }
+            double constant = value.doubleValue();
+            return entity -> operator.matches(Double.compare(accessor.getLong(entity), constant));
+        }
+        if (literal instanceof Number && (type == double.class || type == float.class)) {
+            return compileDoubleComparison(operator, accessor, ((Number) literal).doubleValue());
+        }
+        if (literal instanceof Boolean && type == boolean.class &&
+                (operator == Comparison.EQ || operator == Comparison.NE)) {
+            boolean constant = (Boolean) literal;
+            return operator == Comparison.EQ
+                    ? entity -> accessor.getBoolean(entity) == constant
+                    : entity -> accessor.getBoolean(entity) != constant;
+        }
+        if (literal instanceof String && type == String.class) {
+            String constant = (String) literal;
+            if (operator == Comparison.EQ) {
+                return entity -> constant.equals(accessor.get(entity));
+            } else if (operator == Comparison.NE) {
+                return entity -> !constant.equals(accessor.get(entity));
+            }
+            return entity -> {
+                String value = (String) accessor.get(entity);
+                return value != null && operator.matches(value.compareTo(constant));
+            };
+        }
+        return null;
+    }
+
+    private static Predicate<Object> compileLongComparison(Comparison operator, PropertyAccessor accessor,
+                                                           long constant) {
+        switch (operator) {
+            case EQ:
+                return entity -> accessor.getLong(entity) == constant;
+            case NE:
+                return entity -> accessor.getLong(entity) != constant;
+            case LT:
+                return entity -> accessor.getLong(entity) < constant;
+            case LE:
+                return entity -> accessor.getLong(entity) <= constant;
+            case GT:
+                return entity -> accessor.getLong(entity) > constant;
+            default:
+                return entity -> accessor.getLong(entity) >= constant;
+        }
+    }
+
+    private static Predicate<Object> compileDoubleComparison(Comparison operator, PropertyAccessor accessor,
+                                                             double constant) {
+        switch (operator) {
+            case EQ:
+                return entity -> accessor.getDouble(entity) == constant;
+            case NE:
+                return entity -> accessor.getDouble(entity) != constant;
+            case LT:
+                return entity -> accessor.getDouble(entity) < constant;
+            case LE:
+                return entity -> accessor.getDouble(entity) <= constant;
+            case GT:
+                return entity -> accessor.getDouble(entity) > constant;
+            default:
+                return entity -> accessor.getDouble(entity) >= constant;
+        }
+    }
+
+    private Predicate<Object> compileStringMethod(CriteriaValue property, CriteriaValue argument,
+                                                  BiPredicate<String, String> method) throws ODataException {
+        if (property instanceof PropertyCriteriaValue && argument instanceof LiteralCriteriaValue &&
+                ((LiteralCriteriaValue) argument).getValue() instanceof String) {
+            List<PropertyAccessor> path = resolvePath(((PropertyCriteriaValue) property).getPropertyName());
+            if (path.size() == 1 && path.get(0).getType() == String.class) {
+                PropertyAccessor accessor = path.get(0);
+                String constant = (String) ((LiteralCriteriaValue) argument).getValue();
+                return entity -> {
+                    String value = (String) accessor.get(entity);
+                    return value != null && method.test(value, constant);
+                };
+            }
+        }
+
+        ValueExpression propertyValue = compileValue(property);
+        ValueExpression argumentValue = compileValue(argument);
+        return entity -> {
+            Object value = propertyValue.evaluate(entity);
+            Object argumentResult = argumentValue.evaluate(entity);
+            return value instanceof String && argumentResult instanceof String &&
+                    method.test((String) value, (String) argumentResult);
+        };
+    }
+
+    private ValueExpression compileValue(CriteriaValue value) throws ODataException {
+        if (value instanceof LiteralCriteriaValue) {
+            Object literal = literalValue((LiteralCriteriaValue) value);
+            return entity -> literal;
+        } else if (value instanceof PropertyCriteriaValue) {
+            List<PropertyAccessor> path = resolvePath(((PropertyCriteriaValue) value).getPropertyName());
+            if (path.size() == 1) {
+                PropertyAccessor accessor = path.get(0);
+                return accessor::get;
+            }
+            return entity -> {
+                Object current = entity;
+                for (PropertyAccessor accessor : path) {
+                    if (current == null) {
+                        return null;
+                    }
+                    current = accessor.get(current);
+                }
+                return current;
+            };
+        } else if (value instanceof ArithmeticCriteriaValue) {
+            ArithmeticCriteriaValue arithmetic = (ArithmeticCriteriaValue) value;
+            ArithmeticOperator operator = arithmetic.getOperator();
+            ValueExpression left = compileValue(arithmetic.getLeft());
+            ValueExpression right = compileValue(arithmetic.getRight());
+            return entity -> calculate(operator, left.evaluate(entity), right.evaluate(entity));
+        }
+        throw new ODataNotImplementedException("Unsupported criteria value for in-memory filtering: " + value);
+    }
+
+    /**
+     * Resolves a property path, with segments separated by dots, into the accessors of the properties on the path.
+     */
+    private List<PropertyAccessor> resolvePath(String propertyPath) throws ODataException {
+        List<PropertyAccessor> path = new ArrayList<>();
+        StructuredType currentType = entityType;
+        String[] segments = propertyPath.split("\\.");
+        for (int i = 0; i < segments.length; i++) {
+            StructuralProperty property = currentType.getStructuralProperty(segments[i]);
+            if (property == null) {
+                throw new ODataBadRequestException("The type '" + currentType.getFullyQualifiedName() +
+                        "' does not contain a property named '" + segments[i] + "'");
+            }
+            if (property.isCollection() || property.getPropertyAccessor() == null) {
+                throw new ODataNotImplementedException("The property '" + propertyPath +
+                        "' cannot be used for in-memory filtering");
+            }
+            path.add(property.getPropertyAccessor());
+
+            if (i < segments.length - 1) {
+                Type propertyType = entityDataModel.getType(property.getTypeName());
+                if (!(propertyType instanceof StructuredType)) {
+                    throw new ODataBadRequestException("The property '" + segments[i] + "' in path '" +
+                            propertyPath + "' is not of a structured type");
+                }
+                currentType = (StructuredType) propertyType;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Converts a literal to the value it is compared with: numbers become {@link BigDecimal}s and a single enum member
+     * becomes its name.
+     */
+    private static Object literalValue(LiteralCriteriaValue literal) throws ODataNotImplementedException {
+        Object value = literal.getValue();
+        if (value instanceof scala.math.BigDecimal) {
+            return ((scala.math.BigDecimal) value).bigDecimal();
+        }
+        if (value instanceof scala.collection.Seq) {
+            scala.collection.Seq<?> members = (scala.collection.Seq<?>) value;
+            if (members.size() != 1 || !(members.head() instanceof EnumMember)) {
+                throw new ODataNotImplementedException("Only a single enum member can be used for in-memory " +
+                        "filtering: " + value);
+            }
+            return ((EnumMember) members.head()).getName();
+        }
+        return value;
+    }
+
+    private static boolean compare(Comparison operator, Object left, Object right) {
+        if (left == null || right == null) {
+            if (operator == Comparison.EQ) {
+                return left == right;
+            }
+            return operator == Comparison.NE && left != right;
+        }
+
+        Object leftValue = left instanceof Enum ? ((Enum<?>) left).name() : left;
+        Object rightValue = right instanceof Enum ? ((Enum<?>) right).name() : right;
+        if (leftValue instanceof Number && rightValue instanceof Number) {
+            Number leftNumber = (Number) leftValue;
+            Number rightNumber = (Number) rightValue;
+            if (isFloatingPoint(leftNumber) || isFloatingPoint(rightNumber)) {
+                return operator.matches(leftNumber.doubleValue(), rightNumber.doubleValue());
+            }
+            return operator.matches(toBigDecimal(leftNumber).compareTo(toBigDecimal(rightNumber)));
+        }
+        if (leftValue instanceof Comparable && leftValue.getClass().isInstance(rightValue)) {
+            @SuppressWarnings("unchecked")
+            int comparison = ((Comparable<Object>) leftValue).compareTo(rightValue);
+            return operator.matches(comparison);
+        }
+
+        boolean equal = leftValue.equals(rightValue);
+        return operator == Comparison.EQ ? equal : operator == Comparison.NE && !equal;
+    }
+
+    private static Object calculate(ArithmeticOperator operator, Object left, Object right) {
+        if (!(left instanceof Number) || !(right instanceof Number)) {
+            return null;
+        }
+        if (isFloatingPoint((Number) left) || isFloatingPoint((Number) right)) {
+            return calculateDoubles(operator, ((Number) left).doubleValue(), ((Number) right).doubleValue());
+        }
+        BigDecimal leftValue = toBigDecimal((Number) left);
+        BigDecimal rightValue = toBigDecimal((Number) right);
+        if (operator == AddOperator$.MODULE$) {
+            return leftValue.add(rightValue);
+        } else if (operator == SubOperator$.MODULE$) {
+            return leftValue.subtract(rightValue);
+        } else if (operator == MulOperator$.MODULE$) {
+            return leftValue.multiply(rightValue);
+        }
+        if (rightValue.signum() == 0) {
+            return null;
+        }
+        return operator == DivOperator$.MODULE$
+                ? leftValue.divide(rightValue, MathContext.DECIMAL128)
+                : leftValue.remainder(rightValue, MathContext.DECIMAL128);
+    }
+
+    private static Double calculateDoubles(ArithmeticOperator operator, double left, double right) {
+        if (operator == AddOperator$.MODULE$) {
+            return left + right;
+        } else if (operator == SubOperator$.MODULE$) {
+            return left - right;
+        } else if (operator == MulOperator$.MODULE$) {
+            return left * right;
+        }
+        if (right == 0) {
+            return null;
+        }
+        return operator == DivOperator$.MODULE$ ? left / right : left % right;
+    }
+
+    /**
+     * Floating point values are compared and calculated as doubles: NaN and the infinities cannot be converted to a
+     * {@link BigDecimal}.
+     */
+    private static boolean isFloatingPoint(Number number) {
+        return number instanceof Double || number instanceof Float;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof scala.math.BigDecimal) {
+            return ((scala.math.BigDecimal) number).bigDecimal();
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    private static boolean isLong(BigDecimal value) {
+        try {
+            value.longValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+}
@@ -25,7 +25,9 @@ import com.sdl.odata.api.parser.ODataUri;
 import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.parser.TargetType;
 import com.sdl.odata.api.processor.ProcessorResult;
+import com.sdl.odata.api.processor.datasource.BulkDataSource;
 import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.datasource.ODataDataSourceException;
 import com.sdl.odata.api.processor.datasource.ODataTargetTypeException;
 import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
 import com.sdl.odata.api.processor.datasource.factory.DataSourceFactory;
@@ -33,6 +35,8 @@ import com.sdl.odata.api.service.ChangeSetEntity;
 import com.sdl.odata.api.service.ODataRequest;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.api.unmarshaller.ODataEntityFeed;
+import com.sdl.odata.processor.QueryResultCache;
 import com.sdl.odata.processor.write.util.WriteMethodUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +51,8 @@ import static com.sdl.odata.api.processor.query.QueryResult.from;
 
 /**
  * Batch Method Handler is specific to batch operations.
+ * The entity types resolved for the request URIs and the data sources for those types are remembered for the
+ * changeset, so that operations which target the same entity set only resolve them once.
  */
 public class BatchMethodHandler {
     private static final Logger LOG = LoggerFactory.getLogger(BatchMethodHandler.class);
@@ -54,18 +60,29 @@ public class BatchMethodHandler {
     private final List<ChangeSetEntity> changeSetEntities;
     private final EntityDataModel entityDataModel;
     private final DataSourceFactory dataSourceFactory;
+    private final QueryResultCache queryResultCache;
 
     private final Map<String, TransactionalDataSource> dataSourceMap = new HashMap<>();
+    private final Map<ODataUri, Type> requestTypes = new HashMap<>();
+    private final Map<String, TransactionalDataSource> typeDataSources = new HashMap<>();
 
     public BatchMethodHandler(ODataRequestContext requestContext, DataSourceFactory dataSourceFactory,
                               List<ChangeSetEntity> changeSetEntries) {
+        this(requestContext, dataSourceFactory, changeSetEntries, null);
+    }
+
+    public BatchMethodHandler(ODataRequestContext requestContext, DataSourceFactory dataSourceFactory,
+                              List<ChangeSetEntity> changeSetEntries, QueryResultCache queryResultCache) {
         this.changeSetEntities = changeSetEntries;
         this.entityDataModel = requestContext.getEntityDataModel();
         this.dataSourceFactory = dataSourceFactory;
+        this.queryResultCache = queryResultCache;
     }
 
     /**
      * Handles transactional operations for each parsed odata request.
+     * Consecutive operations with the same method on the same entity type are handed over in one call when the data
+     * source is a {@link BulkDataSource}.
      *
      * @return processor results
      */
@@ -74,20 +91,15 @@ public class BatchMethodHandler {
         List<ProcessorResult> resultList = new ArrayList<>();
 
         try {
-            for (ChangeSetEntity changeSetEntity : changeSetEntities) {
-                ODataRequestContext odataRequestContext = changeSetEntity.getRequestContext();
-                ODataUri requestUri = odataRequestContext.getUri();
-                ODataRequest.Method method = odataRequestContext.getRequest().getMethod();
-
-                ProcessorResult result = null;
-                if (method == ODataRequest.Method.POST) {
-                    result = handlePOST(odataRequestContext, requestUri, changeSetEntity);
-                } else if (method == ODataRequest.Method.PUT || method == ODataRequest.Method.PATCH) {
-                    result = handlePutAndPatch(odataRequestContext, requestUri, changeSetEntity);
-                } else if (method == ODataRequest.Method.DELETE) {
-                    result = handleDelete(odataRequestContext, requestUri, changeSetEntity);
+            int start = 0;
+            while (start < changeSetEntities.size()) {
+                int end = findBulkOperationEnd(start);
+                if (end - start > 1) {
+                    resultList.addAll(handleBulk(changeSetEntities.subList(start, end)));
+                } else {
+                    resultList.add(handleOperation(changeSetEntities.get(start)));
                 }
-                resultList.add(result);
+                start = end;
             }
 
             commitTransactions();
@@ -95,12 +107,112 @@ public class BatchMethodHandler {
             LOG.error("Transaction could not be processed, rolling back", e);
             rollbackTransactions();
             throw e;
+        } finally {
+            invalidateQueryResults();
         }
         return resultList;
     }
 
+    private ProcessorResult handleOperation(ChangeSetEntity changeSetEntity) throws ODataException {
+        ODataRequestContext odataRequestContext = changeSetEntity.getRequestContext();
+        ODataUri requestUri = odataRequestContext.getUri();
+        ODataRequest.Method method = odataRequestContext.getRequest().getMethod();
+
+        ProcessorResult result = null;
+        if (method == ODataRequest.Method.POST) {
+            result = handlePOST(odataRequestContext, requestUri, changeSetEntity);
+        } else if (method == ODataRequest.Method.PUT || method == ODataRequest.Method.PATCH) {
+            result = handlePutAndPatch(odataRequestContext, requestUri, changeSetEntity);
+        } else if (method == ODataRequest.Method.DELETE) {
+            result = handleDelete(odataRequestContext, requestUri, changeSetEntity);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the end (exclusive) of the run of operations starting at the given index which can be handed over to a
+     * bulk data source in one call: same method, same entity type, and a data source which supports bulk operations.
+     */
+    private int findBulkOperationEnd(int start) throws ODataException {
+        ChangeSetEntity first = changeSetEntities.get(start);
+        ODataRequest.Method method = first.getRequestContext().getRequest().getMethod();
+        Type type = resolveRequestType(first);
+        if (type == null || !(method == ODataRequest.Method.POST || method == ODataRequest.Method.PUT ||
+                method == ODataRequest.Method.PATCH || method == ODataRequest.Method.DELETE) ||
+                !(getTransactionalDataSource(first.getRequestContext(), type) instanceof BulkDataSource)) {
+            return start + 1;
+        }
+
+        int end = start + 1;
+        while (end < changeSetEntities.size()) {
+            ChangeSetEntity next = changeSetEntities.get(end);
+            if (next.getRequestContext().getRequest().getMethod() != method || resolveRequestType(next) != type) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private List<ProcessorResult> handleBulk(List<ChangeSetEntity> operations) throws ODataException {
+        ODataRequestContext firstRequestContext = operations.get(0).getRequestContext();
+        ODataRequest.Method method = firstRequestContext.getRequest().getMethod();
+        LOG.debug("Handling {} {} operations in one call", operations.size(), method);
+
+        List<PreparedOperation> prepared = new ArrayList<>(operations.size());
+        for (ChangeSetEntity changeSetEntity : operations) {
+            ODataRequestContext odataRequestContext = changeSetEntity.getRequestContext();
+            ODataUri requestUri = odataRequestContext.getUri();
+            if (method == ODataRequest.Method.POST) {
+                prepared.add(preparePOST(odataRequestContext, requestUri, changeSetEntity));
+            } else if (method == ODataRequest.Method.DELETE) {
+                prepared.add(prepareDelete(odataRequestContext, requestUri, changeSetEntity));
+            } else {
+                prepared.add(preparePutAndPatch(odataRequestContext, requestUri, changeSetEntity));
+            }
+        }
+
+        BulkDataSource dataSource = (BulkDataSource) prepared.get(0).dataSource;
+        List<ProcessorResult> results = new ArrayList<>(prepared.size());
+        if (method == ODataRequest.Method.DELETE) {
+            List<ODataUri> uris = new ArrayList<>(prepared.size());
+            prepared.forEach(operation -> uris.add(operation.uri));
+            dataSource.deleteAll(uris, entityDataModel);
+            for (PreparedOperation operation : prepared) {
+                results.add(deleteResult(operation));
+            }
+            return results;
+        }
+
+        List<BulkDataSource.Operation> bulkOperations = new ArrayList<>(prepared.size());
+        prepared.forEach(operation -> bulkOperations.add(new BulkDataSource.Operation(operation.uri,
+                operation.entity)));
+        List<Object> writtenEntities = method == ODataRequest.Method.POST
+                ? dataSource.createAll(bulkOperations, entityDataModel)
+                : dataSource.updateAll(bulkOperations, entityDataModel);
+        if (writtenEntities == null || writtenEntities.size() != prepared.size()) {
+            throw new ODataDataSourceException("The data source returned " +
+                    (writtenEntities == null ? 0 : writtenEntities.size()) + " results for " + prepared.size() +
+                    " " + method + " operations");
+        }
+
+        for (int i = 0; i < prepared.size(); i++) {
+            results.add(method == ODataRequest.Method.POST
+                    ? createResult(prepared.get(i), writtenEntities.get(i))
+                    : updateResult(prepared.get(i), writtenEntities.get(i)));
+        }
+        return results;
+    }
+
     private ProcessorResult handlePOST(ODataRequestContext oDataRequestContext,
                                        ODataUri oDataUri, ChangeSetEntity changeSetEntity) throws ODataException {
+        PreparedOperation operation = preparePOST(oDataRequestContext, oDataUri, changeSetEntity);
+        Object createdEntity = operation.dataSource.create(oDataUri, operation.entity, entityDataModel);
+        return createResult(operation, createdEntity);
+    }
+
+    private PreparedOperation preparePOST(ODataRequestContext oDataRequestContext,
+                                          ODataUri oDataUri, ChangeSetEntity changeSetEntity) throws ODataException {
         LOG.debug("Handling POST operation");
         Object entityData = changeSetEntity.getOdataEntity();
         Map<String, String> headers = buildDefaultEntityHeaders(oDataRequestContext, changeSetEntity);
@@ -111,16 +223,26 @@ public class BatchMethodHandler {
         headers.putAll(oDataRequest.getHeaders());
         headers.put("changeSetId", changeSetEntity.getChangeSetId());
 
-        Object createdEntity = dataSource.create(oDataUri, entityData, entityDataModel);
+        return new PreparedOperation(oDataRequestContext, oDataUri, entityData, headers, dataSource);
+    }
 
-        if (WriteMethodUtil.isMinimalReturnPreferred(oDataRequest)) {
-            return new ProcessorResult(ODataResponse.Status.NO_CONTENT, headers);
+    private ProcessorResult createResult(PreparedOperation operation, Object createdEntity) {
+        if (WriteMethodUtil.isMinimalReturnPreferred(operation.requestContext.getRequest())) {
+            return new ProcessorResult(ODataResponse.Status.NO_CONTENT, operation.headers);
         }
-        return new ProcessorResult(ODataResponse.Status.CREATED, from(createdEntity), headers, oDataRequestContext);
+        return new ProcessorResult(ODataResponse.Status.CREATED, from(createdEntity), operation.headers,
+                operation.requestContext);
     }
 
     private ProcessorResult handleDelete(ODataRequestContext odataRequestContext,
                                          ODataUri odataUri, ChangeSetEntity changeSetEntity) throws ODataException {
+        PreparedOperation operation = prepareDelete(odataRequestContext, odataUri, changeSetEntity);
+        operation.dataSource.delete(odataUri, entityDataModel);
+        return deleteResult(operation);
+    }
+
+    private PreparedOperation prepareDelete(ODataRequestContext odataRequestContext,
+                                            ODataUri odataUri, ChangeSetEntity changeSetEntity) throws ODataException {
         LOG.debug("Handling DELETE operation");
         Map<String, String> headers = buildDefaultEntityHeaders(odataRequestContext, changeSetEntity);
 
@@ -131,13 +253,25 @@ public class BatchMethodHandler {
             throw new ODataBadRequestException("The URI refers to the singleton '" + singletonName.get() +
                     "'. Singletons cannot be deleted.");
         }
-        dataSource.delete(odataUri, entityDataModel);
-        return new ProcessorResult(ODataResponse.Status.NO_CONTENT, null, headers, odataRequestContext);
+        return new PreparedOperation(odataRequestContext, odataUri, null, headers, dataSource);
+    }
+
+    private ProcessorResult deleteResult(PreparedOperation operation) {
+        return new ProcessorResult(ODataResponse.Status.NO_CONTENT, null, operation.headers,
+                operation.requestContext);
     }
 
     private ProcessorResult handlePutAndPatch(ODataRequestContext odataRequestContext,
                                               ODataUri requestUri,
                                               ChangeSetEntity changeSetEntity) throws ODataException {
+        PreparedOperation operation = preparePutAndPatch(odataRequestContext, requestUri, changeSetEntity);
+        Object updatedEntity = operation.dataSource.update(requestUri, operation.entity, entityDataModel);
+        return updateResult(operation, updatedEntity);
+    }
+
+    private PreparedOperation preparePutAndPatch(ODataRequestContext odataRequestContext,
+                                                 ODataUri requestUri,
+                                                 ChangeSetEntity changeSetEntity) throws ODataException {
         LOG.debug("Handling PUT or PATCH operation");
         Object entityData = changeSetEntity.getOdataEntity();
         ODataRequest oDataRequest = odataRequestContext.getRequest();
@@ -162,14 +296,18 @@ public class BatchMethodHandler {
         WriteMethodUtil.validateKeys(entityData, (EntityType) type, requestUri, entityDataModel);
 
         DataSource dataSource = getTransactionalDataSource(odataRequestContext, type);
-        Object updatedEntity = dataSource.update(requestUri, entityData, entityDataModel);
 
         // add additional headers
         headers.putAll(oDataRequest.getHeaders());
-        if (WriteMethodUtil.isMinimalReturnPreferred(oDataRequest)) {
-            return new ProcessorResult(ODataResponse.Status.NO_CONTENT, headers);
+        return new PreparedOperation(odataRequestContext, requestUri, entityData, headers, dataSource);
+    }
+
+    private ProcessorResult updateResult(PreparedOperation operation, Object updatedEntity) {
+        if (WriteMethodUtil.isMinimalReturnPreferred(operation.requestContext.getRequest())) {
+            return new ProcessorResult(ODataResponse.Status.NO_CONTENT, operation.headers);
         }
-        return new ProcessorResult(ODataResponse.Status.OK, from(updatedEntity), headers, odataRequestContext);
+        return new ProcessorResult(ODataResponse.Status.OK, from(updatedEntity), operation.headers,
+                operation.requestContext);
     }
 
     private Map<String, String> buildDefaultEntityHeaders(ODataRequestContext odataRequestContext,
@@ -182,9 +320,19 @@ public class BatchMethodHandler {
         return headers;
     }
 
-    private void commitTransactions() {
+    private void commitTransactions() throws ODataDataSourceException {
         LOG.info("Committing batch transactions");
-        dataSourceMap.values().forEach(TransactionalDataSource::commit);
+        for (TransactionalDataSource transaction : dataSourceMap.values()) {
+            if (!transaction.commit()) {
+                throw new ODataDataSourceException("The transaction of the changeset could not be committed");
+            }
+        }
+    }
+
+    private void invalidateQueryResults() {
+        if (queryResultCache != null) {
+            changeSetEntities.forEach(entity -> queryResultCache.invalidate(entity.getRequestContext()));
+        }
     }
 
     private void rollbackTransactions() {
@@ -199,8 +347,26 @@ public class BatchMethodHandler {
      * @throws ODataTargetTypeException if unable to determine request type
      */
     private Type getRequestType(ODataRequest oDataRequest, ODataUri oDataUri) throws ODataTargetTypeException {
-        TargetType targetType = WriteMethodUtil.getTargetType(oDataRequest, entityDataModel, oDataUri);
-        return entityDataModel.getType(targetType.typeName());
+        Type type = requestTypes.get(oDataUri);
+        if (type == null) {
+            TargetType targetType = WriteMethodUtil.getTargetType(oDataRequest, entityDataModel, oDataUri);
+            type = entityDataModel.getType(targetType.typeName());
+            requestTypes.put(oDataUri, type);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the request type of the given operation, or {@code null} if it cannot be determined; in that case the
+     * operation is handled on its own, which reports the error.
+     */
+    private Type resolveRequestType(ChangeSetEntity changeSetEntity) {
+        ODataRequestContext odataRequestContext = changeSetEntity.getRequestContext();
+        try {
+            return getRequestType(odataRequestContext.getRequest(), odataRequestContext.getUri());
+        } catch (ODataTargetTypeException e) {
+            return null;
+        }
     }
 
     /**
@@ -209,25 +375,54 @@ public class BatchMethodHandler {
      */
     private TransactionalDataSource getTransactionalDataSource(
             ODataRequestContext odataRequestContext, Type type) throws ODataException {
+        TransactionalDataSource typeDataSource = typeDataSources.get(type.getFullyQualifiedName());
+        if (typeDataSource != null) {
+            return typeDataSource;
+        }
+
         DataSource dataSource = dataSourceFactory.getDataSource(odataRequestContext, type.getFullyQualifiedName());
         String dataSourceKey = dataSource.getClass().toString();
-        if (dataSourceMap.containsKey(dataSourceKey)) {
-            return dataSourceMap.get(dataSourceKey);
-        } else {
-            TransactionalDataSource transactionalDataSource = dataSource.startTransaction();
-
+        TransactionalDataSource transactionalDataSource = dataSourceMap.get(dataSourceKey);
+        if (transactionalDataSource == null) {
+            transactionalDataSource = dataSource.startTransaction();
             dataSourceMap.put(dataSourceKey, transactionalDataSource);
-            return transactionalDataSource;
         }
+        typeDataSources.put(type.getFullyQualifiedName(), transactionalDataSource);
+        return transactionalDataSource;
     }
 
     private void validateEntityData(ODataRequest oDataRequest,
                                     ODataUri oDataUri,
                                     Object entityData) throws ODataException {
+        if (entityData instanceof ODataEntityFeed) {
+            ((ODataEntityFeed) entityData).close();
+            throw new ODataBadRequestException("A collection of entities cannot be written in a batch request, " +
+                    "each entity must be written in its own operation.");
+        }
         Type targetType = getRequestType(oDataRequest, oDataUri);
         if (!MetaType.ENTITY.equals(targetType.getMetaType())) {
             throw new ODataBadRequestException("The body of the write request must contain a valid entity.");
         }
         WriteMethodUtil.validateProperties(entityData, entityDataModel);
     }
+
+    /**
+     * An operation which has been validated and is ready to be written to its data source.
+     */
+    private static final class PreparedOperation {
+        private final ODataRequestContext requestContext;
+        private final ODataUri uri;
+        private final Object entity;
+        private final Map<String, String> headers;
+        private final DataSource dataSource;
+
+        private PreparedOperation(ODataRequestContext requestContext, ODataUri uri, Object entity,
+                                  Map<String, String> headers, DataSource dataSource) {
+            this.requestContext = requestContext;
+            this.uri = uri;
+            this.entity = entity;
+            this.headers = headers;
+            this.dataSource = dataSource;
+        }
+    }
 }
@@ -21,14 +21,20 @@ import com.sdl.odata.api.edm.model.MetaType;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.TargetType;
 import com.sdl.odata.api.processor.ProcessorResult;
+import com.sdl.odata.api.processor.datasource.BulkDataSource;
 import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.datasource.ODataDataSourceException;
+import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
 import com.sdl.odata.api.processor.datasource.factory.DataSourceFactory;
 import com.sdl.odata.api.processor.link.ODataLink;
 import com.sdl.odata.api.processor.query.QueryResult;
 import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.unmarshaller.ODataEntityFeed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static com.sdl.odata.api.service.ODataResponse.Status.CREATED;
@@ -40,14 +46,42 @@ import static com.sdl.odata.api.service.ODataResponse.Status.NO_CONTENT;
 public class PostMethodHandler extends WriteMethodHandler {
     private static Logger log = LoggerFactory.getLogger(PostMethodHandler.class);
 
+    /**
+     * Default number of entities of a collection which are handed over to the data source at once.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final int chunkSize;
+
     public PostMethodHandler(ODataRequestContext requestContext, DataSourceFactory dataSourceFactory) {
+        this(requestContext, dataSourceFactory, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a handler which creates the entities of a collection in the request body in chunks of the given size.
+     *
+     * @param requestContext    The request context.
+     * @param dataSourceFactory The data source factory.
+     * @param chunkSize         The maximum number of entities which are held in memory and handed over to the data
+     *                          source at once.
+     */
+    public PostMethodHandler(ODataRequestContext requestContext, DataSourceFactory dataSourceFactory,
+                             int chunkSize) {
         super(requestContext, dataSourceFactory);
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be at least 1: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
     }
 
     @Override
     public ProcessorResult handleWrite(Object entity) throws ODataException {
         if (entity instanceof ODataLink) {
             return processLink((ODataLink) entity);
+        } else if (entity instanceof ODataEntityFeed) {
+            try (ODataEntityFeed feed = (ODataEntityFeed) entity) {
+                return processFeed(feed);
+            }
         } else {
             if (entity == null) {
                 throw new ODataBadRequestException("The body of a POST request must contain a valid entity.");
@@ -84,6 +118,77 @@ public class PostMethodHandler extends WriteMethodHandler {
         }
     }
 
+    /**
+     * Creates all entities of the collection in the request body in one transaction. The entities are read from the
+     * feed and handed over to the data source in chunks, so that only one chunk is held in memory at a time. The
+     * created entities are not returned.
+     */
+    private ProcessorResult processFeed(ODataEntityFeed feed) throws ODataException {
+        TargetType targetType = getTargetType();
+        if (!targetType.isCollection()) {
+            throw new ODataBadRequestException("The URI for a POST request should refer to a collection in which " +
+                    "to create the entities, not to a single entity.");
+        }
+        Type type = getEntityDataModel().getType(targetType.typeName());
+        if (!MetaType.ENTITY.equals(type.getMetaType())) {
+            throw new ODataBadRequestException("The body of a POST request must contain valid entities.");
+        }
+
+        DataSource dataSource = getDataSource(type.getFullyQualifiedName());
+        TransactionalDataSource transaction = dataSource.startTransaction();
+        DataSource target = transaction != null ? transaction : dataSource;
+        try {
+            List<Object> chunk = new ArrayList<>(chunkSize);
+            int count = 0;
+            Object entity;
+            while ((entity = feed.nextEntity()) != null) {
+                validateProperties(entity, getEntityDataModel());
+                validateTargetType(entity);
+                chunk.add(entity);
+                if (chunk.size() == chunkSize) {
+                    count += createChunk(target, chunk);
+                }
+            }
+            count += createChunk(target, chunk);
+
+            if (transaction != null && !transaction.commit()) {
+                throw new ODataDataSourceException("The creation of " + count + " entities of type '" +
+                        type.getFullyQualifiedName() + "' could not be committed");
+            }
+            log.debug("Created {} entities of type '{}'", count, type.getFullyQualifiedName());
+            return new ProcessorResult(NO_CONTENT);
+        } catch (ODataException | RuntimeException e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private int createChunk(DataSource dataSource, List<Object> chunk) throws ODataException {
+        int size = chunk.size();
+        if (size == 0) {
+            return 0;
+        }
+
+        if (dataSource instanceof BulkDataSource) {
+            List<BulkDataSource.Operation> operations = new ArrayList<>(size);
+            chunk.forEach(entity -> operations.add(new BulkDataSource.Operation(getoDataUri(), entity)));
+            List<Object> createdEntities = ((BulkDataSource) dataSource).createAll(operations, getEntityDataModel());
+            if (createdEntities == null || createdEntities.size() != size) {
+                throw new ODataDataSourceException("The data source returned " +
+                        (createdEntities == null ? 0 : createdEntities.size()) + " results for " + size +
+                        " POST operations");
+            }
+        } else {
+            for (Object entity : chunk) {
+                dataSource.create(getoDataUri(), entity, getEntityDataModel());
+            }
+        }
+        chunk.clear();
+        return size;
+    }
+
     private ProcessorResult processLink(ODataLink link) throws ODataException {
         if (!link.getFromNavigationProperty().isCollection()) {
             throw new ODataBadRequestException("For a POST request to store an entity link, " +
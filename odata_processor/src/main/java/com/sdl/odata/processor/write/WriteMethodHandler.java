@@ -26,7 +26,6 @@ import com.sdl.odata.api.edm.model.PropertyRef;
 import com.sdl.odata.api.edm.model.StructuredType;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.ODataUri;
-import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.parser.TargetType;
 import com.sdl.odata.api.processor.ODataProcessorException;
 import com.sdl.odata.api.processor.ProcessorResult;
@@ -76,7 +75,7 @@ public abstract class WriteMethodHandler {
     public abstract ProcessorResult handleWrite(Object entity) throws ODataException;
 
     protected TargetType getTargetType() throws ODataTargetTypeException {
-        Option<TargetType> targetTypeOption = ODataUriUtil.resolveTargetType(getoDataUri(), getEntityDataModel());
+        Option<TargetType> targetTypeOption = requestContext.getResolvedPlan().getTargetType();
         if (targetTypeOption.isEmpty()) {
             throw new ODataTargetTypeException("The target type of this URI cannot be determined: "
                     + getRequest().getUri());
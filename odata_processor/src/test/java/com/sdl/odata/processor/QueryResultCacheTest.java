@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import com.sdl.odata.parser.ODataParserImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.sdl.odata.api.service.ODataRequest.Method.DELETE;
+import static com.sdl.odata.api.service.ODataRequest.Method.GET;
+import static com.sdl.odata.test.util.TestUtils.SERVICE_ROOT;
+import static com.sdl.odata.test.util.TestUtils.createODataRequestContext;
+import static com.sdl.odata.test.util.TestUtils.getEdmEntityClasses;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link QueryResultCache}.
+ */
+public class QueryResultCacheTest {
+
+    private static final int MAX_SIZE = 2;
+    private static final long TTL = 60000;
+    private static final String[] HEADERS = {"Authorization"};
+
+    private EntityDataModel entityDataModel;
+    private QueryResultCache cache;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Before
+    public void setUp() throws ODataException {
+        entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClasses(getEdmEntityClasses()).buildEntityDataModel();
+        cache = new QueryResultCache(true, MAX_SIZE, TTL, HEADERS);
+    }
+
+    @Test
+    public void testCachedResult() throws Exception {
+        QueryResult first = query("Customers?$filter=name eq 'Alice'");
+        QueryResult second = query("Customers?$filter=name eq 'Alice'");
+
+        assertThat(second, sameInstance(first));
+        assertThat(executions.get(), is(1));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultEvicted() throws Exception {
+        query("Customers");
+        query("Orders");
+        query("Customers");
+        query("Products");
+        query("Customers");
+
+        assertThat(cache.size(), is(MAX_SIZE));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testExpiredResultExecutedAgain() throws Exception {
+        cache = new QueryResultCache(true, MAX_SIZE, -1, HEADERS);
+
+        query("Customers");
+        query("Customers");
+
+        assertThat(executions.get(), is(2));
+    }
+
+    @Test
+    public void testHeadersArePartOfKey() throws Exception {
+        query("Customers", Collections.singletonMap("Authorization", "Basic YWxpY2U6"));
+        query("Customers", Collections.singletonMap("Authorization", "Basic Ym9iOg=="));
+        query("Customers", Collections.singletonMap("Authorization", "Basic YWxpY2U6"));
+
+        assertThat(executions.get(), is(2));
+    }
+
+    @Test
+    public void testWriteInvalidatesEntitySet() throws Exception {
+        query("Customers");
+        query("Orders");
+        cache.invalidate(requestContext(DELETE, "Customers(1)", null));
+        query("Customers");
+        query("Orders");
+
+        assertThat(executions.get(), is(3));
+        assertThat(cache.getInvalidationCount(), is(1L));
+    }
+
+    @Test
+    public void testWriteInvalidatesExpandedQuery() throws Exception {
+        query("Customers?$expand=Orders");
+        cache.invalidate(requestContext(DELETE, "Orders(1)", null));
+        query("Customers?$expand=Orders");
+
+        assertThat(executions.get(), is(2));
+    }
+
+    @Test
+    public void testResultReadDuringWriteNotCached() throws Exception {
+        ODataRequestContext requestContext = requestContext(GET, "Customers", null);
+        ODataRequestContext writeContext = requestContext(DELETE, "Customers(1)", null);
+        cache.getOrExecute(requestContext, new QueryModelBuilder(entityDataModel).build(requestContext),
+                ODataUriUtil.resolveTargetType(requestContext.getUri(), entityDataModel).get(), () -> {
+                    cache.invalidate(writeContext);
+                    return QueryResult.from(Collections.emptyList());
+                });
+
+        assertThat(cache.size(), is(0));
+    }
+
+    private QueryResult query(String path) throws Exception {
+        return query(path, null);
+    }
+
+    private QueryResult query(String path, Map<String, String> headers) throws Exception {
+        ODataRequestContext requestContext = requestContext(GET, path, headers);
+        return cache.getOrExecute(requestContext, new QueryModelBuilder(entityDataModel).build(requestContext),
+                ODataUriUtil.resolveTargetType(requestContext.getUri(), entityDataModel).get(), () -> {
+                    executions.incrementAndGet();
+                    return QueryResult.from(Collections.emptyList());
+                });
+    }
+
+    private ODataRequestContext requestContext(ODataRequest.Method method, String path, Map<String, String> headers)
+            throws Exception {
+        return createODataRequestContext(method,
+                new ODataParserImpl().parseUri(SERVICE_ROOT + "/" + path, entityDataModel), entityDataModel, headers);
+    }
+}
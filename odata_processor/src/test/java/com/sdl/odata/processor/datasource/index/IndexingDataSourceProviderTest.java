@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.datasource.index;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.processor.datasource.DataSource;
+import com.sdl.odata.api.processor.datasource.DataSourceProvider;
+import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
+import com.sdl.odata.api.processor.query.QueryOperation;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.processor.query.strategy.QueryOperationStrategy;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import com.sdl.odata.parser.ODataParserImpl;
+import com.sdl.odata.processor.QueryModelBuilder;
+import com.sdl.odata.processor.datasource.index.IndexingDataSourceProvider.IndexType;
+import com.sdl.odata.test.model.Category;
+import com.sdl.odata.test.model.Product;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.sdl.odata.api.service.ODataRequest.Method.GET;
+import static com.sdl.odata.test.util.TestUtils.SERVICE_ROOT;
+import static com.sdl.odata.test.util.TestUtils.createODataRequestContext;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The Indexing Data Source Provider Test.
+ */
+public class IndexingDataSourceProviderTest {
+
+    private final List<Product> products = new ArrayList<>(Arrays.asList(
+            product(1, "Apple", Category.HOUSEHOLD),
+            product(2, "Banana", Category.BOOKS),
+            product(3, "Cherry", Category.ELECTRONICS),
+            product(4, "Date", Category.BOOKS),
+            product(5, "Elderberry", Category.HOUSEHOLD)));
+
+    private EntityDataModel entityDataModel;
+    private QueryOperationStrategy delegateStrategy;
+    private DataSource delegateDataSource;
+    private IndexingDataSourceProvider provider;
+
+    @Before
+    public void setUp() throws ODataException {
+        entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClass(Category.class)
+                .addClass(Product.class)
+                .buildEntityDataModel();
+
+        delegateStrategy = mock(QueryOperationStrategy.class);
+        when(delegateStrategy.execute()).thenAnswer(invocation -> QueryResult.from(new ArrayList<>(products)));
+        delegateDataSource = mock(DataSource.class);
+        when(delegateDataSource.create(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(delegateDataSource.startTransaction()).thenReturn(mock(TransactionalDataSource.class));
+
+        DataSourceProvider delegate = mock(DataSourceProvider.class);
+        when(delegate.getStrategy(any(), any(), any())).thenReturn(delegateStrategy);
+        when(delegate.getDataSource(any())).thenReturn(delegateDataSource);
+
+        provider = new IndexingDataSourceProvider(delegate)
+                .indexProperty("ODataDemo.Product", "id", IndexType.SORTED)
+                .indexProperty("ODataDemo.Product", "name", IndexType.HASH);
+    }
+
+    @Test
+    public void testSelectByKeyFromIndex() throws Exception {
+        assertEquals(Arrays.asList(3L), ids(query("Products(3)")));
+        assertEquals(Arrays.asList(), ids(query("Products(42)")));
+
+        // Only the initial load is executed by the wrapped strategy
+        verify(delegateStrategy, times(1)).execute();
+    }
+
+    @Test
+    public void testEqualityFromHashIndex() throws Exception {
+        assertEquals(Arrays.asList(4L), ids(query("Products?$filter=name eq 'Date'")));
+        assertEquals(Arrays.asList(2L), ids(query("Products?$filter='Banana' eq name")));
+        assertEquals(Arrays.asList(), ids(query("Products?$filter=name eq 'Date' and id lt 4")));
+
+        verify(delegateStrategy, times(1)).execute();
+    }
+
+    @Test
+    public void testRangeFromSortedIndex() throws Exception {
+        assertEquals(Arrays.asList(4L, 5L), sorted(ids(query("Products?$filter=id gt 3"))));
+        assertEquals(Arrays.asList(1L, 2L), sorted(ids(query("Products?$filter=3 gt id"))));
+        assertEquals(Arrays.asList(2L, 3L), sorted(ids(query("Products?$filter=id ge 2 and id le 3"))));
+
+        verify(delegateStrategy, times(1)).execute();
+    }
+
+    @Test
+    public void testUnindexedFilterUsesWrappedStrategy() throws Exception {
+        query("Products?$filter=name ne 'Date'");
+        query("Products?$filter=id gt 3 or name eq 'Date'");
+
+        verify(delegateStrategy, times(2)).execute();
+    }
+
+    @Test
+    public void testWritesUpdateIndex() throws Exception {
+        query("Products(1)");
+        DataSource dataSource = provider.getDataSource(requestContext("Products"));
+
+        dataSource.create(parse("Products"), product(6, "Fig", Category.BOOKS), entityDataModel);
+        dataSource.delete(parse("Products(2)"), entityDataModel);
+
+        assertEquals(Arrays.asList(6L), ids(query("Products?$filter=name eq 'Fig'")));
+        assertEquals(Arrays.asList(), ids(query("Products?$filter=name eq 'Banana'")));
+        assertEquals(Arrays.asList(6L), ids(query("Products(6)")));
+        verify(delegateStrategy, times(1)).execute();
+    }
+
+    @Test
+    public void testUpdateWithoutResultReloadsIndex() throws Exception {
+        query("Products(1)");
+        DataSource dataSource = provider.getDataSource(requestContext("Products"));
+
+        // A partial update, for which the wrapped data source does not return the updated entity
+        dataSource.update(parse("Products(2)"), new Product().setId(2L).setName("Blueberry"), entityDataModel);
+        products.set(1, product(2, "Blueberry", Category.BOOKS));
+
+        assertEquals(Arrays.asList(2L), ids(query("Products?$filter=name eq 'Blueberry'")));
+        assertEquals(Category.BOOKS, ((Product) ((List<?>) query("Products(2)").getData()).get(0)).getCategory());
+        verify(delegateStrategy, times(2)).execute();
+    }
+
+    @Test
+    public void testTransactionUpdatesIndexOnCommit() throws Exception {
+        query("Products(1)");
+        TransactionalDataSource transaction = provider.getDataSource(requestContext("Products")).startTransaction();
+        when(delegateDataSource.startTransaction().commit()).thenReturn(true);
+
+        transaction.delete(parse("Products(1)"), entityDataModel);
+        assertEquals(Arrays.asList(1L), ids(query("Products(1)")));
+
+        assertTrue(transaction.commit());
+        assertEquals(Arrays.asList(), ids(query("Products(1)")));
+    }
+
+    private QueryResult query(String path) throws Exception {
+        ODataRequestContext requestContext = requestContext(path);
+        QueryOperation operation = new QueryModelBuilder(entityDataModel).build(requestContext).operation();
+        TargetType targetType = ODataUriUtil.resolveTargetType(requestContext.getUri(), entityDataModel).get();
+        return provider.getStrategy(requestContext, operation, targetType).execute();
+    }
+
+    private ODataRequestContext requestContext(String path) throws Exception {
+        return createODataRequestContext(GET, parse(path), entityDataModel);
+    }
+
+    private ODataUri parse(String path) throws ODataException {
+        return new ODataParserImpl().parseUri(SERVICE_ROOT + "/" + path, entityDataModel);
+    }
+
+    private static List<Long> ids(QueryResult result) {
+        return ((List<?>) result.getData()).stream()
+                .map(entity -> ((Product) entity).getId())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        ids.sort(null);
+        return ids;
+    }
+
+    private static Product product(long id, String name, Category category) {
+        return new Product().setId(id).setName(name).setCategory(category);
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.query;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.processor.query.AndOperator$;
+import com.sdl.odata.api.processor.query.ComparisonCriteria;
+import com.sdl.odata.api.processor.query.CompositeCriteria;
+import com.sdl.odata.api.processor.query.Criteria;
+import com.sdl.odata.api.processor.query.CriteriaValue;
+import com.sdl.odata.api.processor.query.EqOperator$;
+import com.sdl.odata.api.processor.query.GeOperator$;
+import com.sdl.odata.api.processor.query.GtOperator$;
+import com.sdl.odata.api.processor.query.LeOperator$;
+import com.sdl.odata.api.processor.query.LiteralCriteriaValue;
+import com.sdl.odata.api.processor.query.LtOperator$;
+import com.sdl.odata.api.processor.query.NeOperator$;
+import com.sdl.odata.api.processor.query.OrOperator$;
+import com.sdl.odata.api.processor.query.PropertyCriteriaValue;
+import com.sdl.odata.api.processor.query.StartsWithMethodCriteria;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import com.sdl.odata.test.model.Category;
+import com.sdl.odata.test.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Compares a predicate compiled by {@link CriteriaCompiler} with a naive interpreter which walks the criteria tree and
+ * looks up every property by name for each entity, filtering 1 million products with
+ * {@code id ge 250000 and id lt 750000 and (startswith(name,'Product 4') or name eq 'Product 999')}.
+ * Run with the GC profiler (as {@link #main(String[])} does) to compare the allocation rate of both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g" })
+public class CriteriaCompilerBenchmark {
+
+    private static final int ENTITIES = 1_000_000;
+    private static final int LOWER_ID = 250_000;
+    private static final int UPPER_ID = 750_000;
+
+    /**
+     * Whether the filter is evaluated by a compiled predicate or by interpreting the criteria.
+     */
+    @Param({"compiled", "interpreted" })
+    public String evaluation;
+
+    private List<Product> products;
+    private Predicate<Object> predicate;
+
+    @Setup
+    public void setup() throws ODataException {
+        EntityDataModel entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClass(Category.class)
+                .addClass(Product.class)
+                .buildEntityDataModel();
+        EntityType productType = (EntityType) entityDataModel.getType(Product.class);
+
+        Category[] categories = Category.values();
+        products = new ArrayList<>(ENTITIES);
+        for (int id = 0; id < ENTITIES; id++) {
+            products.add(new Product().setId(id).setName("Product " + id)
+                    .setCategory(categories[id % categories.length]));
+        }
+
+        Criteria criteria = new CompositeCriteria(AndOperator$.MODULE$,
+                new CompositeCriteria(AndOperator$.MODULE$,
+                        new ComparisonCriteria(GeOperator$.MODULE$, property("id"), number(LOWER_ID)),
+                        new ComparisonCriteria(LtOperator$.MODULE$, property("id"), number(UPPER_ID))),
+                new CompositeCriteria(OrOperator$.MODULE$,
+                        new StartsWithMethodCriteria(property("name"), new LiteralCriteriaValue("Product 4")),
+                        new ComparisonCriteria(EqOperator$.MODULE$, property("name"),
+                                new LiteralCriteriaValue("Product 999"))));
+
+        predicate = "compiled".equals(evaluation)
+                ? CriteriaCompiler.compile(criteria, productType, entityDataModel)
+                : new NaiveInterpreter(criteria, productType);
+    }
+
+    @Benchmark
+    public int filter() {
+        int matches = 0;
+        for (Product product : products) {
+            if (predicate.test(product)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static CriteriaValue property(String name) {
+        return new PropertyCriteriaValue(name);
+    }
+
+    private static CriteriaValue number(long value) {
+        return new LiteralCriteriaValue(new scala.math.BigDecimal(BigDecimal.valueOf(value)));
+    }
+
+    /**
+     * Evaluates criteria the straightforward way: the criteria tree is walked for each entity, properties are looked
+     * up by name and read through reflection, and numbers are compared as {@link BigDecimal}s.
+     */
+    private static final class NaiveInterpreter implements Predicate<Object> {
+        private final Criteria criteria;
+        private final EntityType entityType;
+
+        private NaiveInterpreter(Criteria criteria, EntityType entityType) {
+            this.criteria = criteria;
+            this.entityType = entityType;
+        }
+
+        @Override
+        public boolean test(Object entity) {
+            return evaluate(criteria, entity);
+        }
+
+        private boolean evaluate(Criteria node, Object entity) {
+            if (node instanceof CompositeCriteria) {
+                CompositeCriteria composite = (CompositeCriteria) node;
+                boolean left = evaluate(composite.getLeft(), entity);
+                boolean right = evaluate(composite.getRight(), entity);
+                return composite.getOperator() == AndOperator$.MODULE$ ? left && right : left || right;
+            } else if (node instanceof StartsWithMethodCriteria) {
+                StartsWithMethodCriteria method = (StartsWithMethodCriteria) node;
+                Object value = value(method.getProperty(), entity);
+                return value != null && value.toString().startsWith(value(method.getStringLiteral(), entity)
+                        .toString());
+            }
+
+            ComparisonCriteria comparison = (ComparisonCriteria) node;
+            Object left = value(comparison.getLeft(), entity);
+            Object right = value(comparison.getRight(), entity);
+            if (left == null || right == null) {
+                return comparison.getOperator() == EqOperator$.MODULE$ ? left == right
+                        : comparison.getOperator() == NeOperator$.MODULE$ && left != right;
+            }
+            int result = left instanceof Number
+                    ? new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString()))
+                    : left.toString().compareTo(right.toString());
+            if (comparison.getOperator() == EqOperator$.MODULE$) {
+                return result == 0;
+            } else if (comparison.getOperator() == NeOperator$.MODULE$) {
+                return result != 0;
+            } else if (comparison.getOperator() == LtOperator$.MODULE$) {
+                return result < 0;
+            } else if (comparison.getOperator() == LeOperator$.MODULE$) {
+                return result <= 0;
+            } else if (comparison.getOperator() == GtOperator$.MODULE$) {
+                return result > 0;
+            }
+            return result >= 0;
+        }
+
+        private Object value(CriteriaValue value, Object entity) {
+            if (value instanceof LiteralCriteriaValue) {
+                return ((LiteralCriteriaValue) value).getValue();
+            }
+            Field field = entityType.getStructuralProperty(((PropertyCriteriaValue) value).getPropertyName())
+                    .getJavaField();
+            try {
+                field.setAccessible(true);
+                return field.get(entity);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CriteriaCompilerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
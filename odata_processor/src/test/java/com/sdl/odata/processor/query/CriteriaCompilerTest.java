@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.processor.query;
+
+import com.sdl.odata.api.ODataBadRequestException;
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.processor.query.AndOperator$;
+import com.sdl.odata.api.processor.query.ArithmeticCriteriaValue;
+import com.sdl.odata.api.processor.query.ComparisonCriteria;
+import com.sdl.odata.api.processor.query.ComparisonOperator;
+import com.sdl.odata.api.processor.query.CompositeCriteria;
+import com.sdl.odata.api.processor.query.ContainsMethodCriteria;
+import com.sdl.odata.api.processor.query.Criteria;
+import com.sdl.odata.api.processor.query.CriteriaValue;
+import com.sdl.odata.api.processor.query.EndsWithMethodCriteria;
+import com.sdl.odata.api.processor.query.EqOperator$;
+import com.sdl.odata.api.processor.query.GeOperator$;
+import com.sdl.odata.api.processor.query.GeoIntersectsMethodCriteria;
+import com.sdl.odata.api.processor.query.GtOperator$;
+import com.sdl.odata.api.processor.query.LeOperator$;
+import com.sdl.odata.api.processor.query.LiteralCriteriaValue;
+import com.sdl.odata.api.processor.query.LtOperator$;
+import com.sdl.odata.api.processor.query.ModOperator$;
+import com.sdl.odata.api.processor.query.MulOperator$;
+import com.sdl.odata.api.processor.query.NeOperator$;
+import com.sdl.odata.api.processor.query.OrOperator$;
+import com.sdl.odata.api.processor.query.PropertyCriteriaValue;
+import com.sdl.odata.api.processor.query.StartsWithMethodCriteria;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import com.sdl.odata.edm.model.EnumMemberImpl;
+import com.sdl.odata.processor.model.ODataAddress;
+import com.sdl.odata.processor.model.ODataMobilePhone;
+import com.sdl.odata.processor.model.ODataPerson;
+import com.sdl.odata.test.model.Category;
+import com.sdl.odata.test.model.Product;
+import org.junit.Before;
+import org.junit.Test;
+import scala.collection.JavaConverters;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The Criteria Compiler Test.
+ */
+public class CriteriaCompilerTest {
+
+    private EntityDataModel entityDataModel;
+    private EntityType productType;
+    private EntityType personType;
+
+    private final Product book = new Product().setId(1L).setName("Java Concurrency").setCategory(Category.BOOKS);
+    private final Product radio = new Product().setId(2L).setName("Radio").setCategory(Category.ELECTRONICS);
+    private final Product unnamed = new Product().setId(3L);
+
+    @Before
+    public void setUp() throws ODataException {
+        entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClass(Category.class)
+                .addClass(Product.class)
+                .addClass(ODataAddress.class)
+                .addClass(ODataMobilePhone.class)
+                .addClass(ODataPerson.class)
+                .buildEntityDataModel();
+        productType = (EntityType) entityDataModel.getType(Product.class);
+        personType = (EntityType) entityDataModel.getType(ODataPerson.class);
+    }
+
+    @Test
+    public void testIntegralComparisons() throws ODataException {
+        assertMatches(compare(EqOperator$.MODULE$, property("id"), number(2)), false, true, false);
+        assertMatches(compare(NeOperator$.MODULE$, property("id"), number(2)), true, false, true);
+        assertMatches(compare(LtOperator$.MODULE$, property("id"), number(2)), true, false, false);
+        assertMatches(compare(LeOperator$.MODULE$, property("id"), number(2)), true, true, false);
+        assertMatches(compare(GtOperator$.MODULE$, property("id"), number(2)), false, false, true);
+        assertMatches(compare(GeOperator$.MODULE$, property("id"), number(2)), false, true, true);
+    }
+
+    @Test
+    public void testLiteralOnTheLeftSideIsSwapped() throws ODataException {
+        assertMatches(compare(LtOperator$.MODULE$, number(2), property("id")), false, false, true);
+        assertMatches(compare(GeOperator$.MODULE$, number(2), property("id")), true, true, false);
+    }
+
+    @Test
+    public void testIntegralPropertyWithFractionalLiteral() throws ODataException {
+        assertMatches(compare(LtOperator$.MODULE$, property("id"), number(1.5)), true, false, false);
+        assertMatches(compare(EqOperator$.MODULE$, property("id"), number(1.5)), false, false, false);
+    }
+
+    @Test
+    public void testNonFiniteFloatingPointOperands() throws ODataException {
+        assertMatches(compare(EqOperator$.MODULE$, property("id"), literal(Double.NaN)), false, false, false);
+        assertMatches(compare(NeOperator$.MODULE$, property("id"), literal(Double.NaN)), true, true, true);
+        assertMatches(compare(LtOperator$.MODULE$, property("id"), literal(Double.POSITIVE_INFINITY)),
+                true, true, true);
+        assertMatches(compare(GtOperator$.MODULE$, number(2), literal(Float.NEGATIVE_INFINITY)), true, true, true);
+
+        CriteriaValue infinite = new ArithmeticCriteriaValue(MulOperator$.MODULE$, property("id"),
+                literal(Double.POSITIVE_INFINITY));
+        assertMatches(compare(GtOperator$.MODULE$, infinite, number(1000)), true, true, true);
+    }
+
+    @Test
+    public void testStringComparisons() throws ODataException {
+        assertMatches(compare(EqOperator$.MODULE$, property("name"), string("Radio")), false, true, false);
+        assertMatches(compare(NeOperator$.MODULE$, property("name"), string("Radio")), true, false, true);
+        assertMatches(compare(GtOperator$.MODULE$, property("name"), string("Pen")), false, true, false);
+    }
+
+    @Test
+    public void testNullComparisons() throws ODataException {
+        assertMatches(compare(EqOperator$.MODULE$, property("name"), literal(null)), false, false, true);
+        assertMatches(compare(NeOperator$.MODULE$, property("name"), literal(null)), true, true, false);
+        assertMatches(compare(LtOperator$.MODULE$, property("name"), literal(null)), false, false, false);
+        assertMatches(compare(EqOperator$.MODULE$, property("id"), literal(null)), false, false, false);
+        assertMatches(compare(NeOperator$.MODULE$, property("id"), literal(null)), true, true, true);
+    }
+
+    @Test
+    public void testEnumComparison() throws ODataException {
+        CriteriaValue books = literal(JavaConverters.asScalaBuffer(
+                Collections.singletonList(new EnumMemberImpl("BOOKS", 0))).toList());
+        assertMatches(compare(EqOperator$.MODULE$, property("category"), books), true, false, false);
+        assertMatches(compare(NeOperator$.MODULE$, property("category"), books), false, true, true);
+    }
+
+    @Test
+    public void testCompositeCriteria() throws ODataException {
+        Criteria first = compare(EqOperator$.MODULE$, property("id"), number(1));
+        Criteria named = compare(NeOperator$.MODULE$, property("name"), literal(null));
+        Criteria radioName = compare(EqOperator$.MODULE$, property("name"), string("Radio"));
+
+        assertMatches(new CompositeCriteria(AndOperator$.MODULE$, first, named), true, false, false);
+        assertMatches(new CompositeCriteria(OrOperator$.MODULE$, first, radioName), true, true, false);
+    }
+
+    @Test
+    public void testStringMethods() throws ODataException {
+        assertMatches(new StartsWithMethodCriteria(property("name"), string("Java")), true, false, false);
+        assertMatches(new EndsWithMethodCriteria(property("name"), string("io")), false, true, false);
+        assertMatches(new ContainsMethodCriteria(property("name"), string("a")), true, true, false);
+    }
+
+    @Test
+    public void testArithmetic() throws ODataException {
+        CriteriaValue doubled = new ArithmeticCriteriaValue(MulOperator$.MODULE$, property("id"), number(2));
+        assertMatches(compare(EqOperator$.MODULE$, doubled, number(4)), false, true, false);
+
+        CriteriaValue odd = new ArithmeticCriteriaValue(ModOperator$.MODULE$, property("id"), number(2));
+        assertMatches(compare(EqOperator$.MODULE$, odd, number(1)), true, false, true);
+    }
+
+    @Test
+    public void testComplexPropertyPathAndDates() throws ODataException {
+        ODataAddress address = new ODataAddress();
+        address.setCityName("Timberville");
+        ODataPerson person = new ODataPerson();
+        person.setPrimaryAddress(address);
+        person.setBirthDate(LocalDate.of(1955, 10, 28));
+        ODataPerson homeless = new ODataPerson();
+
+        Predicate<Object> inCity = CriteriaCompiler.compile(compare(EqOperator$.MODULE$,
+                property("primaryAddress.cityName"), string("Timberville")), personType, entityDataModel);
+        assertTrue(inCity.test(person));
+        assertFalse(inCity.test(homeless));
+
+        Predicate<Object> bornBefore = CriteriaCompiler.compile(compare(LtOperator$.MODULE$,
+                property("birthDate"), literal(LocalDate.of(1960, 1, 1))), personType, entityDataModel);
+        assertTrue(bornBefore.test(person));
+        assertFalse(bornBefore.test(homeless));
+    }
+
+    @Test(expected = ODataBadRequestException.class)
+    public void testUnknownProperty() throws ODataException {
+        CriteriaCompiler.compile(compare(EqOperator$.MODULE$, property("price"), number(1)), productType,
+                entityDataModel);
+    }
+
+    @Test(expected = ODataNotImplementedException.class)
+    public void testUnsupportedMethod() throws ODataException {
+        CriteriaCompiler.compile(new GeoIntersectsMethodCriteria(property("name"), string("POINT(0 0)")),
+                productType, entityDataModel);
+    }
+
+    private void assertMatches(Criteria criteria, boolean matchesBook, boolean matchesRadio,
+                               boolean matchesUnnamed) throws ODataException {
+        Predicate<Object> predicate = CriteriaCompiler.compile(criteria, productType, entityDataModel);
+        assertTrue(predicate.test(book) == matchesBook);
+        assertTrue(predicate.test(radio) == matchesRadio);
+        assertTrue(predicate.test(unnamed) == matchesUnnamed);
+    }
+
+    private static Criteria compare(ComparisonOperator operator, CriteriaValue left, CriteriaValue right) {
+        return new ComparisonCriteria(operator, left, right);
+    }
+
+    private static CriteriaValue property(String name) {
+        return new PropertyCriteriaValue(name);
+    }
+
+    private static CriteriaValue number(double value) {
+        return literal(scala.math.BigDecimal.decimal(value));
+    }
+
+    private static CriteriaValue string(String value) {
+        return literal(value);
+    }
+
+    private static CriteriaValue literal(Object value) {
+        return new LiteralCriteriaValue(value);
+    }
+}
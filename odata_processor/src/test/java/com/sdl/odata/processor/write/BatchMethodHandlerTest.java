@@ -18,6 +18,8 @@ package com.sdl.odata.processor.write;
 import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.processor.ProcessorResult;
+import com.sdl.odata.api.processor.datasource.BulkDataSource;
 import com.sdl.odata.api.processor.datasource.ODataDataSourceException;
 import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
 import com.sdl.odata.api.service.ChangeSetEntity;
@@ -26,12 +28,22 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static com.sdl.odata.api.service.ODataRequest.Method.POST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 /**
  * The Batch Method Handler Test.
@@ -56,6 +68,7 @@ public class BatchMethodHandlerTest extends MethodHandlerTest {
         TransactionalDataSource trxDataSourceMock = mock(TransactionalDataSource.class);
         when(trxDataSourceMock.create(any(ODataUri.class), any(), any(EntityDataModel.class)))
                 .thenThrow(new ODataDataSourceException("something went wrong with db"));
+        when(trxDataSourceMock.commit()).thenReturn(true);
         when(dataSourceMock.startTransaction()).thenReturn(trxDataSourceMock);
 
         EntityDataModel entityDataModel = getEntityDataModel();
@@ -67,13 +80,91 @@ public class BatchMethodHandlerTest extends MethodHandlerTest {
         stubForTesting(getEntity());
         TransactionalDataSource trxDataSourceMock = mock(TransactionalDataSource.class);
         when(trxDataSourceMock.create(any(ODataUri.class), any(), any(EntityDataModel.class))).thenReturn(getEntity());
+        when(trxDataSourceMock.commit()).thenReturn(true);
         when(dataSourceMock.startTransaction()).thenReturn(trxDataSourceMock);
 
         EntityDataModel entityDataModel = getEntityDataModel();
         getPostMethodHandler(entityDataModel, getEntity()).handleWrite();
     }
 
+    @Test(expected = ODataDataSourceException.class)
+    public void testFailWhenTransactionIsNotCommitted() throws Exception {
+        stubForTesting(getEntity());
+        TransactionalDataSource trxDataSourceMock = mock(TransactionalDataSource.class);
+        when(trxDataSourceMock.create(any(ODataUri.class), any(), any(EntityDataModel.class))).thenReturn(getEntity());
+        when(trxDataSourceMock.commit()).thenReturn(false);
+        when(dataSourceMock.startTransaction()).thenReturn(trxDataSourceMock);
+
+        EntityDataModel entityDataModel = getEntityDataModel();
+        try {
+            getPostMethodHandler(entityDataModel, getEntity()).handleWrite();
+        } finally {
+            verify(trxDataSourceMock).rollback();
+        }
+    }
+
+    @Test
+    public void testDataSourceIsResolvedOncePerEntityType() throws Exception {
+        stubForTesting(getEntity());
+        TransactionalDataSource trxDataSourceMock = mock(TransactionalDataSource.class);
+        when(trxDataSourceMock.create(any(ODataUri.class), any(), any(EntityDataModel.class))).thenReturn(getEntity());
+        when(trxDataSourceMock.commit()).thenReturn(true);
+        when(dataSourceMock.startTransaction()).thenReturn(trxDataSourceMock);
 
+        EntityDataModel entityDataModel = getEntityDataModel();
+        ODataRequestContext requestContext = super.createRequestContext(POST, true, entityDataModel);
+        BatchMethodHandler handler = new BatchMethodHandler(requestContext, dataSourceFactoryMock, Arrays.asList(
+                new ChangeSetEntity("1", requestContext, getEntity()),
+                new ChangeSetEntity("1", requestContext, getEntity()),
+                new ChangeSetEntity("1", requestContext, getEntity())));
 
+        assertEquals(3, handler.handleWrite().size());
+        verify(dataSourceFactoryMock, times(1)).getDataSource(any(ODataRequestContext.class), anyString());
+        verify(trxDataSourceMock, times(3)).create(any(ODataUri.class), any(), any(EntityDataModel.class));
+        verify(trxDataSourceMock).commit();
+    }
 
+    @Test
+    public void testConsecutiveOperationsAreHandedOverToBulkDataSource() throws Exception {
+        stubForTesting(getEntity());
+        TransactionalDataSource trxDataSourceMock = mock(TransactionalDataSource.class,
+                withSettings().extraInterfaces(BulkDataSource.class));
+        Object first = getEntity();
+        Object second = getEntity();
+        when(((BulkDataSource) trxDataSourceMock).createAll(anyList(), any(EntityDataModel.class)))
+                .thenReturn(Arrays.asList(first, second));
+        when(trxDataSourceMock.commit()).thenReturn(true);
+        when(dataSourceMock.startTransaction()).thenReturn(trxDataSourceMock);
+
+        EntityDataModel entityDataModel = getEntityDataModel();
+        ODataRequestContext requestContext = super.createRequestContext(POST, true, entityDataModel);
+        BatchMethodHandler handler = new BatchMethodHandler(requestContext, dataSourceFactoryMock, Arrays.asList(
+                new ChangeSetEntity("1", requestContext, getEntity()),
+                new ChangeSetEntity("1", requestContext, getEntity())));
+
+        List<ProcessorResult> results = handler.handleWrite();
+        assertEquals(2, results.size());
+        assertSame(first, results.get(0).getData());
+        assertSame(second, results.get(1).getData());
+        verify((BulkDataSource) trxDataSourceMock, times(1)).createAll(anyList(), any(EntityDataModel.class));
+        verify(trxDataSourceMock, never()).create(any(ODataUri.class), any(), any(EntityDataModel.class));
+        verify(trxDataSourceMock).commit();
+    }
+
+    @Test(expected = ODataDataSourceException.class)
+    public void testBulkDataSourceMustReturnResultForEachOperation() throws Exception {
+        stubForTesting(getEntity());
+        TransactionalDataSource trxDataSourceMock = mock(TransactionalDataSource.class,
+                withSettings().extraInterfaces(BulkDataSource.class));
+        when(((BulkDataSource) trxDataSourceMock).createAll(anyList(), any(EntityDataModel.class)))
+                .thenReturn(Collections.singletonList(getEntity()));
+        when(trxDataSourceMock.commit()).thenReturn(true);
+        when(dataSourceMock.startTransaction()).thenReturn(trxDataSourceMock);
+
+        EntityDataModel entityDataModel = getEntityDataModel();
+        ODataRequestContext requestContext = super.createRequestContext(POST, true, entityDataModel);
+        new BatchMethodHandler(requestContext, dataSourceFactoryMock, Arrays.asList(
+                new ChangeSetEntity("1", requestContext, getEntity()),
+                new ChangeSetEntity("1", requestContext, getEntity()))).handleWrite();
+    }
 }
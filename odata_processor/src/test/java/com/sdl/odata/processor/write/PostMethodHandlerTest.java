@@ -19,20 +19,36 @@ import com.sdl.odata.api.ODataBadRequestException;
 import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.processor.ProcessorResult;
+import com.sdl.odata.api.processor.datasource.BulkDataSource;
+import com.sdl.odata.api.processor.datasource.TransactionalDataSource;
 import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.unmarshaller.ODataEntityFeed;
 import com.sdl.odata.processor.model.ODataPerson;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 
 import static com.sdl.odata.api.service.ODataRequest.Method.POST;
 import static com.sdl.odata.api.service.ODataResponse.Status.CREATED;
+import static com.sdl.odata.api.service.ODataResponse.Status.NO_CONTENT;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 /**
  * The POST Method Handler Test.
@@ -107,6 +123,68 @@ public class PostMethodHandlerTest extends MethodHandlerTest {
         // Should fail with an exception because 'primaryPhone' is not nullable
     }
 
+    @Test
+    public void testWriteFeedInChunks() throws Exception {
+        EntityDataModel entityDataModel = getEntityDataModel();
+        stubForTesting(getEntity(), entityDataModel);
+        TransactionalDataSource transaction = mock(TransactionalDataSource.class);
+        when(dataSourceMock.startTransaction()).thenReturn(transaction);
+        when(transaction.commit()).thenReturn(true);
+
+        ListFeed feed = new ListFeed(getEntity(), getEntity(), getEntity(), getEntity(), getEntity());
+        ProcessorResult result = new PostMethodHandler(createRequestContext(POST, true, entityDataModel),
+                dataSourceFactoryMock, 2).handleWrite(feed);
+
+        assertThat(result.getStatus(), is(NO_CONTENT));
+        assertTrue(feed.closed);
+        verify(transaction, times(5)).create(eq(entitySetOdataURI), any(ODataPerson.class), eq(entityDataModel));
+        verify(transaction, times(1)).commit();
+        verify(dataSourceMock, never()).create(any(), any(), any());
+    }
+
+    @Test
+    public void testWriteFeedWithBulkDataSource() throws Exception {
+        EntityDataModel entityDataModel = getEntityDataModel();
+        stubForTesting(getEntity(), entityDataModel);
+        TransactionalDataSource transaction = mock(TransactionalDataSource.class,
+                withSettings().extraInterfaces(BulkDataSource.class));
+        when(dataSourceMock.startTransaction()).thenReturn(transaction);
+        when(transaction.commit()).thenReturn(true);
+        when(((BulkDataSource) transaction).createAll(anyList(), eq(entityDataModel)))
+                .thenAnswer(invocation -> new ArrayList<Object>(invocation.<List<?>>getArgument(0)));
+
+        ListFeed feed = new ListFeed(getEntity(), getEntity(), getEntity(), getEntity(), getEntity());
+        ProcessorResult result = new PostMethodHandler(createRequestContext(POST, true, entityDataModel),
+                dataSourceFactoryMock, 2).handleWrite(feed);
+
+        assertThat(result.getStatus(), is(NO_CONTENT));
+        verify((BulkDataSource) transaction, times(3)).createAll(anyList(), eq(entityDataModel));
+        verify(transaction, never()).create(any(), any(), any());
+        verify(transaction, times(1)).commit();
+    }
+
+    @Test
+    public void testWriteFeedWithInvalidEntityRollsBack() throws Exception {
+        EntityDataModel entityDataModel = getEntityDataModel();
+        stubForTesting(getEntity(), entityDataModel);
+        TransactionalDataSource transaction = mock(TransactionalDataSource.class);
+        when(dataSourceMock.startTransaction()).thenReturn(transaction);
+        when(transaction.isActive()).thenReturn(true);
+
+        ODataPerson invalid = (ODataPerson) getEntity();
+        invalid.setPrimaryPhone(null);
+        ListFeed feed = new ListFeed(getEntity(), invalid);
+        try {
+            new PostMethodHandler(createRequestContext(POST, true, entityDataModel), dataSourceFactoryMock, 1)
+                    .handleWrite(feed);
+            fail("Expected an ODataBadRequestException");
+        } catch (ODataBadRequestException e) {
+            verify(transaction, times(1)).rollback();
+            verify(transaction, never()).commit();
+            assertTrue(feed.closed);
+        }
+    }
+
     @Test(expected = ODataBadRequestException.class)
     public void testValidatePropertiesMissingComplex() throws Exception {
         Object entity = getEntity();
@@ -116,6 +194,25 @@ public class PostMethodHandlerTest extends MethodHandlerTest {
         // Should fail with an exception because 'primaryAddress' is not nullable
     }
 
-
-
+    /**
+     * A feed of the given entities.
+     */
+    private static final class ListFeed implements ODataEntityFeed {
+        private final Iterator<Object> entities;
+        private boolean closed;
+
+        private ListFeed(Object... entities) {
+            this.entities = Arrays.asList(entities).iterator();
+        }
+
+        @Override
+        public Object nextEntity() {
+            return entities.hasNext() ? entities.next() : null;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
 }
@@ -18,16 +18,21 @@ package com.sdl.odata;
 import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.parser.ODataUri;
 import com.sdl.odata.api.parser.ODataUriUtil;
+import com.sdl.odata.api.ODataSystemException;
 import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.unmarshaller.ODataUnmarshallingException;
 import scala.Option;
 import scala.collection.JavaConverters;
 
+import java.io.UnsupportedEncodingException;
 import java.util.Map;
 
 import static com.sdl.odata.JsonConstants.METADATA;
 import static com.sdl.odata.api.parser.ODataUriUtil.getContextUrl;
 import static com.sdl.odata.api.parser.ODataUriUtil.getFunctionCallParameters;
 import static com.sdl.odata.api.parser.ODataUriUtil.isFunctionCallUri;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * This class contains render utility classes.
@@ -147,4 +152,22 @@ public final class ODataRendererUtils {
         return false;
     }
 
+    /**
+     * Returns the body of the request as UTF-8 text.
+     *
+     * @param request The request.
+     * @return The text of the body.
+     * @throws ODataUnmarshallingException If the body has already been consumed as a stream by another unmarshaller.
+     */
+    public static String getBodyText(ODataRequest request) throws ODataUnmarshallingException {
+        if (request.isBodyConsumed()) {
+            throw new ODataUnmarshallingException("The request body has already been read");
+        }
+        try {
+            return request.getBodyText(UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new ODataSystemException("UTF-8 is not supported", e);
+        }
+    }
+
 }
@@ -21,7 +21,6 @@ import com.sdl.odata.api.service.ODataRequestContext;
 
 import java.util.List;
 
-import static com.sdl.odata.api.parser.ODataUriUtil.getFormatOption;
 import static com.sdl.odata.api.service.MediaType.ATOM_XML;
 import static com.sdl.odata.api.service.MediaType.XML;
 import static java.lang.Math.max;
@@ -36,8 +35,8 @@ public abstract class AbstractAtomRenderer extends AbstractRenderer {
     public int score(ODataRequestContext requestContext, QueryResult data) {
 
         // Try scoring against the $format query parameter
-        int atomXmlFormatScore = scoreByFormat(getFormatOption(requestContext.getUri()), ATOM_XML);
-        int xmlFormatScore = scoreByFormat(getFormatOption(requestContext.getUri()), XML);
+        int atomXmlFormatScore = scoreByFormat(requestContext.getResolvedPlan().getFormatOption(), ATOM_XML);
+        int xmlFormatScore = scoreByFormat(requestContext.getResolvedPlan().getFormatOption(), XML);
 
         // Try the types that should be allowed according to the OData specification
         // See: OData Atom Format Version 4.0, chapter 3: Requesting the Atom Format
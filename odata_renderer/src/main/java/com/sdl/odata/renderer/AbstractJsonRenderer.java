@@ -23,7 +23,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
-import static com.sdl.odata.api.parser.ODataUriUtil.getFormatOption;
 import static com.sdl.odata.api.service.MediaType.JSON;
 
 /**
@@ -37,7 +36,7 @@ public abstract class AbstractJsonRenderer extends AbstractRenderer {
     public int score(ODataRequestContext requestContext, QueryResult data) {
 
         // Try scoring against the $format query parameter
-        int formatScore = scoreByFormat(getFormatOption(requestContext.getUri()), JSON);
+        int formatScore = scoreByFormat(requestContext.getResolvedPlan().getFormatOption(), JSON);
 
         // Try the types that should be allowed according to the OData specification
         // See: OData Atom Format Version 4.0, chapter 3: Requesting the Atom Format
@@ -22,10 +22,10 @@ import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.edm.model.StructuredType;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.ODataUri;
-import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.parser.TargetType;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
 import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Option;
@@ -47,11 +47,17 @@ public abstract class AbstractPropertyWriter implements PropertyStreamWriter {
     private static final Logger LOG = LoggerFactory.getLogger(AbstractPropertyWriter.class);
     private final ODataUri oDataUri;
     private final EntityDataModel entityDataModel;
+    private final ResolvedRequestPlan plan;
     private final TargetType targetType;
 
     public AbstractPropertyWriter(ODataUri oDataUri, EntityDataModel entityDataModel) throws ODataRenderException {
-        this.oDataUri = checkNotNull(oDataUri);
-        this.entityDataModel = checkNotNull(entityDataModel);
+        this(new ResolvedRequestPlan(checkNotNull(oDataUri), checkNotNull(entityDataModel)));
+    }
+
+    public AbstractPropertyWriter(ResolvedRequestPlan plan) throws ODataRenderException {
+        this.plan = checkNotNull(plan);
+        this.oDataUri = checkNotNull(plan.getUri());
+        this.entityDataModel = checkNotNull(plan.getEntityDataModel());
         this.targetType = getTargetType();
     }
 
@@ -244,7 +250,7 @@ public abstract class AbstractPropertyWriter implements PropertyStreamWriter {
     }
 
     private TargetType getTargetType() throws ODataRenderException {
-        Option<TargetType> targetTypeOption = ODataUriUtil.resolveTargetType(oDataUri, entityDataModel);
+        Option<TargetType> targetTypeOption = plan.getTargetType();
         if (targetTypeOption.isEmpty()) {
             throw new ODataRenderException("Target type should not be empty");
         }
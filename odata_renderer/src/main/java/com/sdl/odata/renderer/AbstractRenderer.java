@@ -21,7 +21,6 @@ import com.sdl.odata.api.edm.model.MetaType;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.FormatOption;
 import com.sdl.odata.api.parser.ODataUri;
-import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.parser.TargetType;
 import com.sdl.odata.api.processor.query.QueryResult;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
@@ -31,6 +30,7 @@ import com.sdl.odata.api.service.MediaType;
 import com.sdl.odata.api.service.ODataRequest;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Option;
@@ -41,8 +41,6 @@ import java.util.Optional;
 import java.util.stream.Stream;
 
 import static com.sdl.odata.ODataRendererUtils.buildContextUrlFromOperationCall;
-import static com.sdl.odata.api.parser.ODataUriUtil.getContextUrl;
-import static com.sdl.odata.api.parser.ODataUriUtil.getContextUrlWriteOperation;
 import static com.sdl.odata.api.service.MediaType.ATOM_XML;
 import static com.sdl.odata.api.service.MediaType.JSON;
 import static com.sdl.odata.api.service.ODataRequest.Method;
@@ -104,7 +102,17 @@ public abstract class AbstractRenderer implements ODataRenderer {
      * @return {@code true} if it is about an entity query.
      */
     protected boolean isEntityQuery(ODataUri uri, EntityDataModel entityDataModel) {
-        return getTargetType(uri, entityDataModel).map(t -> t.getMetaType() == MetaType.ENTITY).orElse(false);
+        return isEntityQuery(new ResolvedRequestPlan(uri, entityDataModel));
+    }
+
+    /**
+     * Check if the request is a query and it results in an entity or a collection of entities.
+     *
+     * @param requestContext The request context.
+     * @return {@code true} if it is about an entity query.
+     */
+    protected boolean isEntityQuery(ODataRequestContext requestContext) {
+        return isEntityQuery(requestContext.getResolvedPlan());
     }
 
     /**
@@ -116,15 +124,34 @@ public abstract class AbstractRenderer implements ODataRenderer {
      * @return {@code true} if it is about an entity query.
      */
     protected boolean isNonEntityQuery(ODataUri uri, EntityDataModel entityDataModel) {
-        return getTargetType(uri, entityDataModel).map(t -> t.getMetaType() != MetaType.ENTITY).orElse(false);
+        return isNonEntityQuery(new ResolvedRequestPlan(uri, entityDataModel));
+    }
+
+    /**
+     * Check if the request is a query and it results in something that is not an entity or a collection of
+     * entities; for example a primitive value, complex object, enum value or a collection of any of those.
+     *
+     * @param requestContext The request context.
+     * @return {@code true} if it is about a non-entity query.
+     */
+    protected boolean isNonEntityQuery(ODataRequestContext requestContext) {
+        return isNonEntityQuery(requestContext.getResolvedPlan());
+    }
+
+    private boolean isEntityQuery(ResolvedRequestPlan plan) {
+        return getTargetType(plan).map(t -> t.getMetaType() == MetaType.ENTITY).orElse(false);
+    }
+
+    private boolean isNonEntityQuery(ResolvedRequestPlan plan) {
+        return getTargetType(plan).map(t -> t.getMetaType() != MetaType.ENTITY).orElse(false);
     }
 
-    private Optional<Type> getTargetType(ODataUri uri, EntityDataModel entityDataModel) {
-        final Option<TargetType> targetTypeOption = ODataUriUtil.resolveTargetType(uri, entityDataModel);
+    private Optional<Type> getTargetType(ResolvedRequestPlan plan) {
+        final Option<TargetType> targetTypeOption = plan.getTargetType();
         if (!targetTypeOption.isEmpty()) {
             TargetType targetType = targetTypeOption.get();
             LOG.debug("Target type is {} and is it collection {}", targetType.typeName(), targetType.isCollection());
-            return Optional.ofNullable(entityDataModel.getType(targetType.typeName()));
+            return Optional.ofNullable(plan.getTargetEdmType());
         }
         return Optional.empty();
     }
@@ -203,17 +230,17 @@ public abstract class AbstractRenderer implements ODataRenderer {
      * @throws ODataRenderException If unable to build context url
      */
     protected String buildContextURL(ODataRequestContext requestContext, Object data) throws ODataRenderException {
-        ODataUri oDataUri = requestContext.getUri();
-        if (ODataUriUtil.isActionCallUri(oDataUri) || ODataUriUtil.isFunctionCallUri(oDataUri)) {
-            return buildContextUrlFromOperationCall(oDataUri, requestContext.getEntityDataModel(),
+        ResolvedRequestPlan plan = requestContext.getResolvedPlan();
+        if (plan.isOperationCall()) {
+            return buildContextUrlFromOperationCall(requestContext.getUri(), requestContext.getEntityDataModel(),
                     isListOrStream(data));
         }
 
         Option<String> contextURL;
         if (isWriteOperation(requestContext)) {
-            contextURL = getContextUrlWriteOperation(oDataUri);
+            contextURL = plan.getWriteContextUrl();
         } else {
-            contextURL = getContextUrl(oDataUri);
+            contextURL = plan.getContextUrl();
         }
         checkContextURL(requestContext, contextURL);
         return contextURL.get();
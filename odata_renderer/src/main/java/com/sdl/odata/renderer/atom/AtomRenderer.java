@@ -59,7 +59,7 @@ public class AtomRenderer extends AbstractAtomRenderer {
     public int score(ODataRequestContext requestContext, QueryResult data) {
 
         // This renderer only handles entity queries
-        if (!isEntityQuery(requestContext.getUri(), requestContext.getEntityDataModel())) {
+        if (!isEntityQuery(requestContext)) {
             return DEFAULT_SCORE;
         }
         int returnScore = super.score(requestContext, data);
@@ -144,8 +144,8 @@ public class AtomRenderer extends AbstractAtomRenderer {
     }
 
     protected AtomWriter initAtomWriter(ODataRequestContext requestContext) {
-        return new AtomWriter(ZonedDateTime.now(), requestContext.getUri(),
-                requestContext.getEntityDataModel(), new ODataV4AtomNSConfigurationProvider(),
-                isWriteOperation(requestContext), isActionCallUri(requestContext.getUri()));
+        return new AtomWriter(ZonedDateTime.now(), requestContext.getResolvedPlan(),
+                new ODataV4AtomNSConfigurationProvider(), isWriteOperation(requestContext),
+                isActionCallUri(requestContext.getUri()), false);
     }
 }
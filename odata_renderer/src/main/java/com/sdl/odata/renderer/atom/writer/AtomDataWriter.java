@@ -31,7 +31,6 @@ import org.slf4j.LoggerFactory;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
-import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
@@ -191,15 +190,8 @@ public class AtomDataWriter {
 
         String propertyName = property.getName();
 
-        // Get the property value through reflection
-        Object propertyValue;
-        Field field = property.getJavaField();
-        try {
-            field.setAccessible(true);
-            propertyValue = field.get(object);
-        } catch (IllegalAccessException e) {
-            throw new ODataRenderException("Error getting field value of field: " + field.toGenericString());
-        }
+        // Get the property value through its precomputed accessor
+        Object propertyValue = property.getPropertyAccessor().get(object);
 
         // Collection properties and non-nullable properties should not be null
         if (propertyValue == null) {
@@ -23,6 +23,7 @@ import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.ODataUri;
 import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import com.sdl.odata.util.edm.EntityDataModelUtil;
 import scala.Option;
 
@@ -56,7 +57,6 @@ import static com.sdl.odata.AtomConstants.TERM;
 import static com.sdl.odata.AtomConstants.TITLE;
 import static com.sdl.odata.ODataRendererUtils.checkNotNull;
 import static com.sdl.odata.api.parser.ODataUriUtil.getEntitySetId;
-import static com.sdl.odata.api.parser.ODataUriUtil.getEntitySetName;
 import static com.sdl.odata.util.edm.EntityDataModelUtil.formatEntityKey;
 import static com.sdl.odata.util.edm.EntityDataModelUtil.getAndCheckEntityType;
 import static com.sdl.odata.util.edm.EntityDataModelUtil.getEntityName;
@@ -86,6 +86,7 @@ public class AtomMetadataWriter {
     private final XMLStreamWriter xmlWriter;
     private final ODataUri oDataUri;
     private final EntityDataModel entityDataModel;
+    private final ResolvedRequestPlan plan;
     private final AtomNSConfigurationProvider nsConfigurationProvider;
 
     /**
@@ -99,9 +100,23 @@ public class AtomMetadataWriter {
      */
     public AtomMetadataWriter(XMLStreamWriter xmlWriter, ODataUri oDataUri,
                               EntityDataModel entityDataModel, AtomNSConfigurationProvider nsConfigurationProvider) {
+        this(xmlWriter, new ResolvedRequestPlan(checkNotNull(oDataUri), checkNotNull(entityDataModel)),
+                nsConfigurationProvider);
+    }
+
+    /**
+     * Creates an instance of {@link AtomMetadataWriter} for a request whose URI has already been resolved.
+     *
+     * @param xmlWriter               The XML writer to use. It can not be {@code null}.
+     * @param plan                    The resolved plan of the request. It can not be {@code null}.
+     * @param nsConfigurationProvider The NameSpace provider to provide OData Atom specific namespaces.
+     */
+    public AtomMetadataWriter(XMLStreamWriter xmlWriter, ResolvedRequestPlan plan,
+                              AtomNSConfigurationProvider nsConfigurationProvider) {
         this.xmlWriter = checkNotNull(xmlWriter);
-        this.oDataUri = checkNotNull(oDataUri);
-        this.entityDataModel = checkNotNull(entityDataModel);
+        this.plan = checkNotNull(plan);
+        this.oDataUri = checkNotNull(plan.getUri());
+        this.entityDataModel = checkNotNull(plan.getEntityDataModel());
         this.nsConfigurationProvider = checkNotNull(nsConfigurationProvider);
     }
 
@@ -209,8 +224,7 @@ public class AtomMetadataWriter {
                     getEntityWithKey(entity), property.getName()));
         } else {
             String id;
-            if (ODataUriUtil.isActionCallUri(oDataUri) ||
-                    ODataUriUtil.isFunctionCallUri(oDataUri)) {
+            if (plan.isOperationCall()) {
                 id = buildFeedIdFromOperationCall(oDataUri);
             } else {
                 id = getEntitySetId(oDataUri).get();
@@ -237,8 +251,8 @@ public class AtomMetadataWriter {
         xmlWriter.writeAttribute(REL, SELF);
 
         if (entity == null) {
-            if (ODataUriUtil.isActionCallUri(oDataUri) || ODataUriUtil.isFunctionCallUri(oDataUri)) {
-                Option<TargetType> targetTypeOption = ODataUriUtil.resolveTargetType(oDataUri, entityDataModel);
+            if (plan.isOperationCall()) {
+                Option<TargetType> targetTypeOption = plan.getTargetType();
                 if (targetTypeOption.isDefined()) {
                     TargetType targetType = targetTypeOption.get();
                     String entitySetName = EntityDataModelUtil.getEntitySetByEntityTypeName(entityDataModel,
@@ -250,8 +264,8 @@ public class AtomMetadataWriter {
                 }
 
             } else {
-                xmlWriter.writeAttribute(TITLE, getEntitySetName(oDataUri).get());
-                xmlWriter.writeAttribute(HREF, getEntitySetName(oDataUri).get());
+                xmlWriter.writeAttribute(TITLE, plan.getEntitySetName().get());
+                xmlWriter.writeAttribute(HREF, plan.getEntitySetName().get());
             }
         } else {
             xmlWriter.writeAttribute(TITLE, property.getName());
@@ -22,8 +22,8 @@ import com.sdl.odata.api.edm.model.EntityType;
 import com.sdl.odata.api.edm.model.NavigationProperty;
 import com.sdl.odata.api.edm.model.StructuralProperty;
 import com.sdl.odata.api.parser.ODataUri;
-import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,8 +59,6 @@ import static com.sdl.odata.AtomConstants.TYPE;
 import static com.sdl.odata.AtomConstants.XML_VERSION;
 import static com.sdl.odata.ODataRendererUtils.checkNotNull;
 import static com.sdl.odata.ODataRendererUtils.isForceExpandParamSet;
-import static com.sdl.odata.api.parser.ODataUriUtil.asJavaList;
-import static com.sdl.odata.api.parser.ODataUriUtil.getSimpleExpandPropertyNames;
 import static com.sdl.odata.api.service.MediaType.ATOM_XML;
 import static com.sdl.odata.api.service.MediaType.XML;
 import static com.sdl.odata.util.edm.EntityDataModelUtil.formatEntityKey;
@@ -85,6 +83,7 @@ public class AtomWriter {
     private AtomDataWriter dataWriter = null;
     private final ZonedDateTime dateTime;
     private final ODataUri oDataUri;
+    private final ResolvedRequestPlan plan;
     private final EntityDataModel entityDataModel;
     private final AtomNSConfigurationProvider nsConfigurationProvider;
     // Note: At the moment only a list of comma-separated properties are supported in the $expand operation
@@ -125,16 +124,34 @@ public class AtomWriter {
     public AtomWriter(ZonedDateTime dateTime, ODataUri oDataUri, EntityDataModel entityDataModel,
                       AtomNSConfigurationProvider nsConfigurationProvider,
                       boolean isWriteOperation, boolean isActionCall, boolean isDeepInsert) {
+        this(dateTime, new ResolvedRequestPlan(checkNotNull(oDataUri), checkNotNull(entityDataModel)),
+                nsConfigurationProvider, isWriteOperation, isActionCall, isDeepInsert);
+    }
+
+    /**
+     * Creates an instance of {@link AtomWriter} for a request whose URI has already been resolved.
+     *
+     * @param dateTime                The given date and time. It can not be {@code null}.
+     * @param plan                    The resolved plan of the request. It can not be {@code null}.
+     * @param nsConfigurationProvider The configuration provider for namespaces
+     * @param isWriteOperation        True if this is a write operation or false if its a read operation
+     * @param isActionCall            True if this is a action call
+     * @param isDeepInsert            True if this is a deep insert
+     */
+    public AtomWriter(ZonedDateTime dateTime, ResolvedRequestPlan plan,
+                      AtomNSConfigurationProvider nsConfigurationProvider,
+                      boolean isWriteOperation, boolean isActionCall, boolean isDeepInsert) {
 
         this.dateTime = checkNotNull(dateTime);
-        this.oDataUri = checkNotNull(oDataUri);
-        this.entityDataModel = checkNotNull(entityDataModel);
+        this.plan = checkNotNull(plan);
+        this.oDataUri = checkNotNull(plan.getUri());
+        this.entityDataModel = checkNotNull(plan.getEntityDataModel());
         this.isWriteOperation = checkNotNull(isWriteOperation);
         this.nsConfigurationProvider = checkNotNull(nsConfigurationProvider);
         this.isDeepInsert = isDeepInsert;
         this.isActionCall = isActionCall;
 
-        expandedProperties.addAll(asJavaList(getSimpleExpandPropertyNames(oDataUri)));
+        expandedProperties.addAll(plan.getExpandPropertyNames());
         forceExpand = isForceExpandParamSet(oDataUri);
     }
 
@@ -159,7 +176,7 @@ public class AtomWriter {
         try {
             outputStream = os;
             xmlWriter = XML_OUTPUT_FACTORY.createXMLStreamWriter(os, UTF_8.name());
-            metadataWriter = new AtomMetadataWriter(xmlWriter, oDataUri, entityDataModel, nsConfigurationProvider);
+            metadataWriter = new AtomMetadataWriter(xmlWriter, plan, nsConfigurationProvider);
             dataWriter = new AtomDataWriter(xmlWriter, entityDataModel, nsConfigurationProvider);
             xmlWriter.writeStartDocument(UTF_8.name(), XML_VERSION);
             xmlWriter.setPrefix(METADATA, nsConfigurationProvider.getOdataMetadataNs());
@@ -226,7 +243,7 @@ public class AtomWriter {
         try {
             startFeed(false);
 
-            if (ODataUriUtil.hasCountOption(oDataUri) &&
+            if (plan.hasCountOption() &&
                     meta != null && meta.containsKey("count")) {
                 metadataWriter.writeCount(meta.get("count"));
             }
@@ -332,7 +349,7 @@ public class AtomWriter {
 
         startFeed(isInlineFeed);
 
-        if (ODataUriUtil.hasCountOption(oDataUri) &&
+        if (plan.hasCountOption() &&
                 meta != null && meta.containsKey("count")) {
             metadataWriter.writeCount(meta.get("count"));
         }
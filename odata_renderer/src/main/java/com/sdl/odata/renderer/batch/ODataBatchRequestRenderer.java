@@ -23,10 +23,13 @@ import com.sdl.odata.api.parser.ODataBatchRendererException;
 import com.sdl.odata.api.processor.ProcessorResult;
 import com.sdl.odata.api.processor.query.QueryResult;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
+import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.renderer.ODataStreamingRenderer;
 import com.sdl.odata.api.service.MediaType;
 import com.sdl.odata.api.service.ODataRequest;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.api.service.ODataStreamingContent;
 import com.sdl.odata.renderer.AbstractRenderer;
 import com.sdl.odata.renderer.atom.AtomRenderer;
 import com.sdl.odata.renderer.json.JsonRenderer;
@@ -34,13 +37,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static com.sdl.odata.ODataRendererUtils.checkNotNull;
 import static com.sdl.odata.api.ODataErrorCode.UNKNOWN_ERROR;
@@ -56,7 +66,7 @@ import static java.lang.Math.max;
  * The main class for creating batch response. Includes the batch error processing.
  */
 @Component
-public class ODataBatchRequestRenderer extends AbstractRenderer {
+public class ODataBatchRequestRenderer extends AbstractRenderer implements ODataStreamingRenderer {
 
     private static final Logger LOG = LoggerFactory.getLogger(ODataBatchRequestRenderer.class);
 
@@ -70,8 +80,6 @@ public class ODataBatchRequestRenderer extends AbstractRenderer {
     private static final String FORMAT = "format";
     private static final String BODY = "body";
 
-    private String contentLength;
-
     /**
      * Batch score mechanism exists not only for simple rendering, but also
      * for computing batch error scores.
@@ -105,142 +113,180 @@ public class ODataBatchRequestRenderer extends AbstractRenderer {
         checkNotNull(data);
         checkNotNull(data.getData());
 
-        StringBuilder sb = new StringBuilder();
-
-        contentLength = requestContext.getRequest().getHeader(CONTENT_LENGTH.toLowerCase());
-
-        if (contentLength == null) {
-            contentLength = requestContext.getRequest().getHeader(CONTENT_LENGTH);
-        }
-        // building batchId (changeSetId are already provided in result headers
-        String batchId = buildBatchId(requestContext);
-
-        // the start of batch
-        sb.append(batchId).append(NEW_LINE);
-        buildHTTPandBinary(sb);
-        sb.append(NEW_LINE);
-
-        int changeSetCount = 0;
-        if (data.getType() == QueryResult.ResultType.COLLECTION) {
-            List<ProcessorResult> results = (List<ProcessorResult>) data.getData();
-            int numberOfChangeSets = getNumberOfChangeSetsInResult(results);
-            for (ProcessorResult result : results) {
-
-                Map<String, String> renderMap = buildRenderedData(result);
-
-                boolean isGET = result.getRequestContext().getRequest().getMethod().equals(ODataRequest.Method.GET);
-
-                // only batch can handle GET request
-                if (isGET) {
-                    if (!renderMap.isEmpty()) {
-                        buildObjectData(sb, result, renderMap);
-                    } else {
-                        buildException(new ODataBatchRendererException("Unable to render batch data"), sb, result);
-                    }
-                } else {
-                    changeSetCount++;
-                    String changeSetId = result.getHeaders().get("changeSetId");
-
-                    if (changeSetCount == 1) {
-                        sb.append(batchId).append(NEW_LINE);
-                        sb.append(CONTENT_TYPE + COLON).append("multipart/mixed;boundary=")
-                                .append(changeSetId).append(NEW_LINE);
-                        sb.append(NEW_LINE);
-                    }
-
-                    sb.append("--").append(changeSetId).append(NEW_LINE);
-                    buildHTTPandBinary(sb);
-                    if (result.getHeaders().get(CONTENT_ID) != null) {
-                        sb.append(CONTENT_ID + COLON).append(result.getHeaders().get(CONTENT_ID)).append(NEW_LINE);
-                    } else {
-                        // not such a good implementation, but we should somehow provide the Content-ID
-                        sb.append(CONTENT_ID + COLON).append(changeSetCount).append(NEW_LINE);
-                    }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeBatch(requestContext, data, outputStream);
 
-                    sb.append(NEW_LINE);
+        responseBuilder
+                .setStatus(ODataResponse.Status.OK)
+                .setContentType(MediaType.MULTIPART)
+                .setHeader("OData-Version", ODATA_VERSION_HEADER)
+                .setBody(outputStream.toByteArray());
 
-                    if (!renderMap.isEmpty()) {
-                        buildObjectData(sb, result, renderMap);
-                    } else {
-                        buildException(new ODataBatchRendererException("Unable to render changeset data"), sb, result);
-                    }
-
-                    if (changeSetCount == numberOfChangeSets) {
-                        sb.append("--").append(changeSetId).append("--").append(NEW_LINE);
-                    }
-                }
-            }
+        LOG.trace("Finishing rendering batch request entities for request: {}", requestContext);
+    }
 
-        } else if (data.getType() == QueryResult.ResultType.EXCEPTION) {
-            buildException((ODataException) data.getData(), sb, null);
-        }
+    @Override
+    public boolean isStreamable(ODataRequestContext requestContext, QueryResult data) {
+        return data.getType() == QueryResult.ResultType.COLLECTION ||
+                data.getType() == QueryResult.ResultType.STREAM ||
+                data.getType() == QueryResult.ResultType.EXCEPTION;
+    }
 
-        // the end of batch
-        sb.append(batchId).append("--").append(NEW_LINE);
+    /**
+     * Writes the batch response straight into the response output stream when the response is written, instead of
+     * building the complete multipart body in memory. When the batch result is a {@link java.util.stream.Stream}, each
+     * part is taken from the stream, rendered and written before the next part is taken, so only one part is held in
+     * memory at a time. An {@link ODataException} thrown while taking the next part is written as the last part of the
+     * batch.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void renderToStream(ODataRequestContext requestContext, QueryResult data,
+                               ODataResponse.Builder responseBuilder, int bufferSize) throws ODataException {
+        LOG.debug("Start streaming rendering batch request entities for request: {}", requestContext);
+        checkNotNull(data);
+        checkNotNull(data.getData());
 
-        try {
-            responseBuilder
-                    .setStatus(ODataResponse.Status.OK)
-                    .setContentType(MediaType.MULTIPART)
-                    .setHeader("OData-Version", ODATA_VERSION_HEADER)
-                    .setBodyText(sb.toString(), StandardCharsets.UTF_8.name());
-        } catch (UnsupportedEncodingException e) {
-            throw new ODataSystemException(e);
-        }
+        // Build the batch id up front, so that a missing Content-Type is reported before the response is committed
+        buildBatchId(requestContext);
 
-        LOG.trace("Finishing rendering batch request entities for request: {}", requestContext);
+        responseBuilder
+                .setContentType(MediaType.MULTIPART)
+                .setHeader("OData-Version", ODATA_VERSION_HEADER)
+                .setODataContent(new ODataStreamingContent(out -> writeBatch(requestContext, data, out), bufferSize));
     }
 
+    /**
+     * Writes the start of the batch response. The result is the complete batch result: the parts of the batch, as a
+     * list or a stream, or the exception that made the batch fail. The parts are written with {@link #renderBody},
+     * and the batch is closed with {@link #renderEnd}.
+     * <p>
+     * {@inheritDoc}
+     */
     @Override
     public ChunkedActionRenderResult renderStart(ODataRequestContext requestContext, QueryResult result,
                                                  OutputStream outputStream) throws ODataException {
-        ChunkedActionRenderResult renderResult = super.renderStart(requestContext, result, outputStream);
+        BatchResponseWriter writer = new BatchResponseWriter(outputStream, buildBatchId(requestContext),
+                getContentLength(requestContext));
+        writer.writeStart();
+        writer.flush();
+
+        ChunkedActionRenderResult renderResult = new ChunkedActionRenderResult(outputStream, writer);
         renderResult.setContentType(MediaType.MULTIPART);
         renderResult.addHeader("OData-Version", ODATA_VERSION_HEADER);
 
         return renderResult;
     }
 
-    private void buildHTTPandBinary(StringBuilder sb) {
-        sb.append(CONTENT_TYPE_HTTP).append(NEW_LINE).append(CT_ENCODING_BINARY).append(NEW_LINE);
+    /**
+     * Writes a single part of the batch response. The result is one {@link ProcessorResult} of the batch, the list of
+     * {@link ProcessorResult}s of one changeset or the exception that made the batch fail. A {@link ProcessorResult}
+     * of a request other than GET is written as a changeset of its own.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public ChunkedActionRenderResult renderBody(ODataRequestContext requestContext, QueryResult result,
+                                                ChunkedActionRenderResult previousResult) throws ODataException {
+        BatchResponseWriter writer = (BatchResponseWriter) previousResult.getWriter();
+        if (result.getType() == QueryResult.ResultType.EXCEPTION) {
+            writer.writeException((ODataException) result.getData(), null);
+        } else if (result.getType() == QueryResult.ResultType.COLLECTION) {
+            writer.writeChangeSet((List<ProcessorResult>) result.getData());
+        } else {
+            ProcessorResult processorResult = (ProcessorResult) result.getData();
+            if (isGET(processorResult)) {
+                writer.writePart(processorResult);
+            } else {
+                writer.writeChangeSet(Collections.singletonList(processorResult));
+            }
+        }
+        writer.flush();
+
+        return previousResult;
+    }
+
+    @Override
+    public void renderEnd(ODataRequestContext requestContext, QueryResult result,
+                          ChunkedActionRenderResult previousResult) throws ODataException {
+        BatchResponseWriter writer = (BatchResponseWriter) previousResult.getWriter();
+        writer.writeEnd();
+        writer.flush();
     }
 
-    private void buildObjectData(StringBuilder sb, ProcessorResult result, Map<String, String> renderMap) {
-        String location = result.getHeaders().get(LOCATION);
+    /**
+     * Writes the complete batch. The parts of the batch are either {@link ProcessorResult}s, where consecutive results
+     * of the same changeset are written as one changeset, or lists with the {@link ProcessorResult}s of one changeset.
+     */
+    private void writeBatch(ODataRequestContext requestContext, QueryResult data, OutputStream outputStream)
+            throws ODataException {
+        ChunkedActionRenderResult renderResult = renderStart(requestContext, data, outputStream);
+        if (data.getType() == QueryResult.ResultType.COLLECTION || data.getType() == QueryResult.ResultType.STREAM) {
+            Iterator<?> parts = data.getType() == QueryResult.ResultType.COLLECTION
+                    ? ((List<?>) data.getData()).iterator() : ((Stream<?>) data.getData()).iterator();
+            List<ProcessorResult> changeSet = new ArrayList<>();
+            while (true) {
+                Object part;
+                try {
+                    if (!parts.hasNext()) {
+                        break;
+                    }
+                    part = parts.next();
+                } catch (Exception e) {
+                    // The parts of a stream may be produced by Scala code, which can throw checked exceptions
+                    if (!(e instanceof ODataException)) {
+                        throw e;
+                    }
+                    renderResult = renderChangeSet(requestContext, changeSet, renderResult);
+                    renderResult = renderBody(requestContext, QueryResult.from((ODataException) e), renderResult);
+                    break;
+                }
 
-        sb.append(HTTP_VERSION + " ").append(result.getStatus().toString().replace("_", " ")).append(NEW_LINE);
-        sb.append(CONTENT_TYPE).append(COLON).append(renderMap.get(FORMAT)).append(NEW_LINE);
-        if (location != null) {
-            sb.append(LOCATION).append(COLON).append(location).append(NEW_LINE);
+                if (part instanceof ProcessorResult && !isGET((ProcessorResult) part)) {
+                    ProcessorResult result = (ProcessorResult) part;
+                    if (!changeSet.isEmpty() && !getChangeSetId(changeSet.get(0)).equals(getChangeSetId(result))) {
+                        renderResult = renderChangeSet(requestContext, changeSet, renderResult);
+                    }
+                    changeSet.add(result);
+                } else {
+                    renderResult = renderChangeSet(requestContext, changeSet, renderResult);
+                    renderResult = renderBody(requestContext, QueryResult.from(part), renderResult);
+                }
+            }
+            renderResult = renderChangeSet(requestContext, changeSet, renderResult);
+        } else if (data.getType() == QueryResult.ResultType.EXCEPTION) {
+            renderResult = renderBody(requestContext, data, renderResult);
         }
-        sb.append(CONTENT_LENGTH).append(COLON).append(contentLength).append(NEW_LINE);
-        sb.append(NEW_LINE);
+        renderEnd(requestContext, data, renderResult);
+    }
 
-        if (renderMap.get(BODY) != null) {
-            sb.append(renderMap.get(BODY)).append(NEW_LINE).append(NEW_LINE);
-        } else {
-            // DELETE shouldn't contain message inside the batch body
-            sb.append(NEW_LINE);
+    private ChunkedActionRenderResult renderChangeSet(ODataRequestContext requestContext,
+                                                      List<ProcessorResult> changeSet,
+                                                      ChunkedActionRenderResult renderResult) throws ODataException {
+        if (changeSet.isEmpty()) {
+            return renderResult;
         }
+        ChunkedActionRenderResult nextResult = renderBody(requestContext,
+                QueryResult.from(new ArrayList<>(changeSet)), renderResult);
+        changeSet.clear();
+        return nextResult;
     }
 
-    private void buildException(ODataException ex, StringBuilder sb, ProcessorResult result) {
-        LOG.debug("{} was found. Start to create an error batch request");
-        if (result != null) {
-            sb.append(HTTP_VERSION + " ").append(result.getStatus().toString().replace("_", " ")).append(NEW_LINE);
-        } else if (ex.getCode() != null) {
-            if (ex.getCode().toString().equals("ENTITY_NOT_FOUND_ERROR")) {
-                sb.append(HTTP_VERSION + " ")
-                        .append(ODataResponse.Status.NOT_FOUND.toString().replace("_", " ")).append(NEW_LINE);
+    private static boolean isGET(ProcessorResult result) {
+        return result.getRequestContext().getRequest().getMethod().equals(ODataRequest.Method.GET);
+    }
 
-            } else {
-                sb.append(HTTP_VERSION + " ")
-                        .append(ODataResponse.Status.BAD_REQUEST.toString().replace("_", " ")).append(NEW_LINE);
-            }
+    private static String getChangeSetId(ProcessorResult result) {
+        return String.valueOf(result.getHeaders().get("changeSetId"));
+    }
+
+    private String getContentLength(ODataRequestContext requestContext) {
+        String contentLength = requestContext.getRequest().getHeader(CONTENT_LENGTH.toLowerCase());
+        if (contentLength == null) {
+            contentLength = requestContext.getRequest().getHeader(CONTENT_LENGTH);
         }
-        sb.append(CONTENT_TYPE_HTTP).append(NEW_LINE);
-        sb.append(CONTENT_LENGTH).append(COLON).append(contentLength).append(NEW_LINE).append(NEW_LINE);
-        sb.append(ex.getMessage()).append(NEW_LINE);
+        return contentLength;
     }
 
     private Map<String, String> buildRenderedData(ProcessorResult result) throws ODataException {
@@ -303,18 +349,6 @@ public class ODataBatchRequestRenderer extends AbstractRenderer {
         }
     }
 
-    private int getNumberOfChangeSetsInResult(List<ProcessorResult> result) {
-        int changeSets = 0;
-
-        for (ProcessorResult processorResult : result) {
-            if (!processorResult.getRequestContext().getRequest().getMethod().equals(ODataRequest.Method.GET)) {
-                changeSets++;
-            }
-        }
-
-        return changeSets;
-    }
-
     private String buildBatchId(ODataRequestContext requestContext) throws ODataBatchRendererException {
         StringBuilder sb = new StringBuilder();
         String contentType = requestContext.getRequest().getHeaders().get(CONTENT_TYPE.toLowerCase());
@@ -333,4 +367,156 @@ public class ODataBatchRequestRenderer extends AbstractRenderer {
         // substring existing batch id after "batch_" charset
         return sb.toString();
     }
+
+    /**
+     * Writes the parts of a single batch response. Changeset ids are taken from the result headers; each changeset is
+     * opened before its first part and closed after its last one.
+     */
+    private final class BatchResponseWriter {
+
+        private final Writer out;
+        private final String batchId;
+        private final String contentLength;
+        private int changeSetPartCount;
+
+        private BatchResponseWriter(OutputStream outputStream, String batchId, String contentLength) {
+            this.out = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            this.batchId = batchId;
+            this.contentLength = contentLength;
+        }
+
+        private void writeStart() throws ODataException {
+            try {
+                out.append(batchId).append(NEW_LINE);
+                writeHTTPandBinary();
+                out.append(NEW_LINE);
+            } catch (IOException e) {
+                throw new ODataRenderException("Unable to write the start of the batch response", e);
+            }
+        }
+
+        private void writePart(ProcessorResult result) throws ODataException {
+            // Render the part before writing anything, so that it is not written partially if rendering fails
+            Map<String, String> renderMap = buildRenderedData(result);
+
+            try {
+                // only batch can handle GET request
+                if (!renderMap.isEmpty()) {
+                    writeObjectData(result, renderMap);
+                } else {
+                    writeException(new ODataBatchRendererException("Unable to render batch data"), result);
+                }
+            } catch (IOException e) {
+                throw new ODataRenderException("Unable to write batch response part for request: " +
+                        result.getRequestContext().getRequest(), e);
+            }
+        }
+
+        private void writeChangeSet(List<ProcessorResult> results) throws ODataException {
+            // Render the parts before writing anything, so that the changeset is not written partially
+            List<Map<String, String>> renderMaps = new ArrayList<>();
+            for (ProcessorResult result : results) {
+                renderMaps.add(buildRenderedData(result));
+            }
+
+            String changeSetId = results.get(0).getHeaders().get("changeSetId");
+            try {
+                out.append(batchId).append(NEW_LINE);
+                out.append(CONTENT_TYPE + COLON).append("multipart/mixed;boundary=")
+                        .append(changeSetId).append(NEW_LINE);
+                out.append(NEW_LINE);
+
+                for (int i = 0; i < results.size(); i++) {
+                    ProcessorResult result = results.get(i);
+                    Map<String, String> renderMap = renderMaps.get(i);
+                    changeSetPartCount++;
+
+                    out.append("--").append(changeSetId).append(NEW_LINE);
+                    writeHTTPandBinary();
+                    if (result.getHeaders().get(CONTENT_ID) != null) {
+                        out.append(CONTENT_ID + COLON).append(result.getHeaders().get(CONTENT_ID)).append(NEW_LINE);
+                    } else {
+                        // not such a good implementation, but we should somehow provide the Content-ID
+                        out.append(CONTENT_ID + COLON).append(String.valueOf(changeSetPartCount)).append(NEW_LINE);
+                    }
+
+                    out.append(NEW_LINE);
+
+                    if (!renderMap.isEmpty()) {
+                        writeObjectData(result, renderMap);
+                    } else {
+                        writeException(new ODataBatchRendererException("Unable to render changeset data"), result);
+                    }
+                }
+
+                out.append("--").append(changeSetId).append("--").append(NEW_LINE);
+            } catch (IOException e) {
+                throw new ODataRenderException("Unable to write batch response changeset: " + changeSetId, e);
+            }
+        }
+
+        private void writeEnd() throws ODataException {
+            try {
+                out.append(batchId).append("--").append(NEW_LINE);
+            } catch (IOException e) {
+                throw new ODataRenderException("Unable to write the end of the batch response", e);
+            }
+        }
+
+        private void flush() throws ODataException {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new ODataRenderException("Unable to write the batch response", e);
+            }
+        }
+
+        private void writeHTTPandBinary() throws IOException {
+            out.append(CONTENT_TYPE_HTTP).append(NEW_LINE).append(CT_ENCODING_BINARY).append(NEW_LINE);
+        }
+
+        private void writeObjectData(ProcessorResult result, Map<String, String> renderMap) throws IOException {
+            String location = result.getHeaders().get(LOCATION);
+
+            out.append(HTTP_VERSION + " ").append(result.getStatus().toString().replace("_", " ")).append(NEW_LINE);
+            out.append(CONTENT_TYPE).append(COLON).append(renderMap.get(FORMAT)).append(NEW_LINE);
+            if (location != null) {
+                out.append(LOCATION).append(COLON).append(location).append(NEW_LINE);
+            }
+            out.append(CONTENT_LENGTH).append(COLON).append(contentLength).append(NEW_LINE);
+            out.append(NEW_LINE);
+
+            if (renderMap.get(BODY) != null) {
+                out.append(renderMap.get(BODY)).append(NEW_LINE).append(NEW_LINE);
+            } else {
+                // DELETE shouldn't contain message inside the batch body
+                out.append(NEW_LINE);
+            }
+        }
+
+        private void writeException(ODataException ex, ProcessorResult result) throws ODataException {
+            LOG.debug("{} was found. Start to create an error batch request", ex.getClass().getSimpleName());
+            try {
+                if (result != null) {
+                    out.append(HTTP_VERSION + " ").append(result.getStatus().toString().replace("_", " "))
+                            .append(NEW_LINE);
+                } else if (ex.getCode() != null) {
+                    if (ex.getCode().toString().equals("ENTITY_NOT_FOUND_ERROR")) {
+                        out.append(HTTP_VERSION + " ")
+                                .append(ODataResponse.Status.NOT_FOUND.toString().replace("_", " ")).append(NEW_LINE);
+
+                    } else {
+                        out.append(HTTP_VERSION + " ")
+                                .append(ODataResponse.Status.BAD_REQUEST.toString().replace("_", " "))
+                                .append(NEW_LINE);
+                    }
+                }
+                out.append(CONTENT_TYPE_HTTP).append(NEW_LINE);
+                out.append(CONTENT_LENGTH).append(COLON).append(contentLength).append(NEW_LINE).append(NEW_LINE);
+                out.append(ex.getMessage()).append(NEW_LINE);
+            } catch (IOException e) {
+                throw new ODataRenderException("Unable to write batch error response", e);
+            }
+        }
+    }
 }
@@ -19,9 +19,11 @@ import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.ODataSystemException;
 import com.sdl.odata.api.processor.query.QueryResult;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
+import com.sdl.odata.api.renderer.ODataStreamingRenderer;
 import com.sdl.odata.api.service.MediaType;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.api.service.ODataStreamingContent;
 import com.sdl.odata.renderer.AbstractJsonRenderer;
 import com.sdl.odata.renderer.json.writer.JsonWriter;
 import org.slf4j.Logger;
@@ -34,6 +36,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static com.sdl.odata.api.processor.query.QueryResult.ResultType.COLLECTION;
+import static com.sdl.odata.api.processor.query.QueryResult.ResultType.OBJECT;
 import static com.sdl.odata.api.processor.query.QueryResult.ResultType.RAW_JSON;
 
 /**
@@ -42,7 +45,7 @@ import static com.sdl.odata.api.processor.query.QueryResult.ResultType.RAW_JSON;
  * OData Atom Format Version 4.0 specification</a>
  */
 @Component
-public final class JsonRenderer extends AbstractJsonRenderer {
+public final class JsonRenderer extends AbstractJsonRenderer implements ODataStreamingRenderer {
 
     private static final Logger LOG = LoggerFactory.getLogger(JsonRenderer.class);
 
@@ -50,7 +53,7 @@ public final class JsonRenderer extends AbstractJsonRenderer {
     public int score(ODataRequestContext requestContext, QueryResult data) {
 
         // This renderer only handles entity queries
-        if (!isEntityQuery(requestContext.getUri(), requestContext.getEntityDataModel())) {
+        if (!isEntityQuery(requestContext)) {
             return 0;
         }
 
@@ -66,7 +69,7 @@ public final class JsonRenderer extends AbstractJsonRenderer {
 
         LOG.debug("Start rendering entity(es) for request: {}", requestContext);
 
-        JsonWriter writer = new JsonWriter(requestContext.getUri(), requestContext.getEntityDataModel());
+        JsonWriter writer = new JsonWriter(requestContext.getResolvedPlan());
 
         String contextUrl = buildContextURL(requestContext, result.getData());
         String json;
@@ -91,6 +94,34 @@ public final class JsonRenderer extends AbstractJsonRenderer {
         LOG.debug("End rendering entity(es) for request: {}", requestContext);
     }
 
+    @Override
+    public boolean isStreamable(ODataRequestContext requestContext, QueryResult result) {
+        return (result.getType() == COLLECTION && result.getData() instanceof List) || result.getType() == OBJECT;
+    }
+
+    @Override
+    public void renderToStream(ODataRequestContext requestContext, QueryResult result,
+                               ODataResponse.Builder responseBuilder, int bufferSize) throws ODataException {
+
+        LOG.debug("Start streaming rendering entity(es) for request: {}", requestContext);
+
+        JsonWriter writer = new JsonWriter(requestContext.getResolvedPlan());
+
+        // Build the context URL up front, so that a failure is reported before the response is committed
+        String contextUrl = buildContextURL(requestContext, result.getData());
+        ODataStreamingContent.BodyWriter bodyWriter;
+        if (result.getType() == COLLECTION) {
+            bodyWriter = out -> writer.writeFeed((List<?>) result.getData(), contextUrl, result.getMeta(), out);
+        } else {
+            bodyWriter = out -> writer.writeEntry(result.getData(), contextUrl, out);
+        }
+
+        responseBuilder
+                .setContentType(MediaType.JSON)
+                .setHeader("OData-Version", ODATA_VERSION_HEADER)
+                .setODataContent(new ODataStreamingContent(bodyWriter, bufferSize));
+    }
+
     @Override
     public ChunkedActionRenderResult renderStart(ODataRequestContext requestContext, QueryResult result,
                                                  OutputStream outputStream) throws ODataException {
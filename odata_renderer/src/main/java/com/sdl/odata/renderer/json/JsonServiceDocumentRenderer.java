@@ -23,9 +23,12 @@ import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.service.ODataResponse;
 import com.sdl.odata.renderer.AbstractRenderer;
 import com.sdl.odata.renderer.json.writer.JsonServiceDocumentWriter;
+import com.sdl.odata.renderer.metadata.PrerenderedDocumentCache;
+import com.sdl.odata.renderer.metadata.PrerenderedDocumentCache.DocumentKind;
 import com.sdl.odata.renderer.metadata.ServiceDocumentRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.OutputStream;
@@ -47,6 +50,9 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class JsonServiceDocumentRenderer extends ServiceDocumentRenderer {
     private static final Logger LOG = LoggerFactory.getLogger(JsonServiceDocumentRenderer.class);
 
+    @Autowired(required = false)
+    private PrerenderedDocumentCache documentCache;
+
     @Override
     public int score(ODataRequestContext requestContext, QueryResult data) {
 
@@ -62,6 +68,14 @@ public class JsonServiceDocumentRenderer extends ServiceDocumentRenderer {
 
         LOG.debug("Start rendering entity(es) for request: {}", requestContext);
 
+        if (documentCache != null) {
+            responseBuilder.setContentType(JSON).setHeader("OData-Version", AbstractRenderer.ODATA_VERSION_HEADER);
+            if (documentCache.render(requestContext, DocumentKind.JSON_SERVICE_DOCUMENT, responseBuilder)) {
+                LOG.debug("End rendering pre-rendered service document for request: {}", requestContext);
+                return;
+            }
+        }
+
         JsonServiceDocumentWriter writer = new JsonServiceDocumentWriter(requestContext.getUri(),
                 requestContext.getEntityDataModel());
         String json = writer.buildJson();
@@ -46,7 +46,7 @@ public class JsonValueRenderer extends AbstractJsonRenderer {
     @Override
     public int score(ODataRequestContext requestContext, QueryResult data) {
         // This renderer only handles non-entity queries
-        if (!isNonEntityQuery(requestContext.getUri(), requestContext.getEntityDataModel())) {
+        if (!isNonEntityQuery(requestContext)) {
             return DEFAULT_SCORE;
         }
 
@@ -67,8 +67,7 @@ public class JsonValueRenderer extends AbstractJsonRenderer {
             throws ODataException {
         LOG.debug("Start rendering property for request: {}", requestContext);
 
-        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getResolvedPlan());
         String json = propertyWriter.getPropertyAsString(data.getData());
         LOG.trace("Response property json is {}", json);
         try {
@@ -87,8 +86,7 @@ public class JsonValueRenderer extends AbstractJsonRenderer {
     public ChunkedActionRenderResult renderStart(ODataRequestContext requestContext, QueryResult result,
                                                  OutputStream outputStream) throws ODataException {
         LOG.debug("Start rendering start property for request: {}", requestContext);
-        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getResolvedPlan());
         ChunkedActionRenderResult renderResult = propertyWriter.getPropertyStartDocument(result.getData(),
                 outputStream);
         renderResult.setContentType(MediaType.JSON);
@@ -101,8 +99,7 @@ public class JsonValueRenderer extends AbstractJsonRenderer {
     public ChunkedActionRenderResult renderBody(ODataRequestContext requestContext, QueryResult result,
                                                 ChunkedActionRenderResult previousResult) throws ODataException {
         LOG.debug("Start rendering body property for request: {}", requestContext);
-        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getResolvedPlan());
         return propertyWriter.getPropertyBodyDocument(result.getData(), previousResult);
     }
 
@@ -110,8 +107,7 @@ public class JsonValueRenderer extends AbstractJsonRenderer {
     public void renderEnd(ODataRequestContext requestContext, QueryResult result,
                           ChunkedActionRenderResult previousResult) throws ODataException {
         LOG.debug("Start rendering end property for request: {}", requestContext);
-        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        JsonPropertyWriter propertyWriter = new JsonPropertyWriter(requestContext.getResolvedPlan());
         propertyWriter.getPropertyEndDocument(result.getData(), previousResult);
     }
 }
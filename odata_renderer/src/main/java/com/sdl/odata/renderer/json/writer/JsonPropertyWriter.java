@@ -21,19 +21,20 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.edm.model.NavigationProperty;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
 import com.sdl.odata.api.edm.model.StructuralProperty;
 import com.sdl.odata.api.edm.model.StructuredType;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.ODataUri;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
 import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import com.sdl.odata.renderer.AbstractPropertyWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.util.List;
 
 import static com.sdl.odata.JsonConstants.CONTEXT;
@@ -59,7 +60,11 @@ public class JsonPropertyWriter extends AbstractPropertyWriter {
     private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
     public JsonPropertyWriter(ODataUri uri, EntityDataModel entityDataModel) throws ODataRenderException {
-        super(uri, entityDataModel);
+        this(new ResolvedRequestPlan(uri, entityDataModel));
+    }
+
+    public JsonPropertyWriter(ResolvedRequestPlan plan) throws ODataRenderException {
+        super(plan);
         try {
             jsonGenerator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8)
                     .setCodec(new JsonCodecMapper());
@@ -253,13 +258,12 @@ public class JsonPropertyWriter extends AbstractPropertyWriter {
 
     private void handleProperty(Object data, StructuralProperty property, JsonGenerator generator)
             throws IllegalAccessException, IOException, ODataException {
-        Field field = property.getJavaField();
-        field.setAccessible(true);
-        Object value = field.get(data);
+        PropertyAccessor accessor = property.getPropertyAccessor();
+        Object value = accessor.get(data);
         LOG.trace("Property name is '{}' and its value is '{}'", property.getName(), value);
         Type type = getType(value);
         if (type == null) {
-            String msg = String.format("Field type %s is not found in entity data model", field.getType());
+            String msg = String.format("Field type %s is not found in entity data model", accessor.getType());
             LOG.error(msg);
             throw new ODataRenderException(msg);
         }
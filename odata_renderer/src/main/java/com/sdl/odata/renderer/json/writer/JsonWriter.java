@@ -25,19 +25,22 @@ import com.sdl.odata.api.edm.model.EntityType;
 import com.sdl.odata.api.edm.model.EnumType;
 import com.sdl.odata.api.edm.model.NavigationProperty;
 import com.sdl.odata.api.edm.model.PrimitiveType;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
 import com.sdl.odata.api.edm.model.StructuralProperty;
 import com.sdl.odata.api.edm.model.StructuredType;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.edm.model.TypeDefinition;
 import com.sdl.odata.api.parser.ODataUri;
 import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import com.sdl.odata.renderer.json.util.JsonWriterUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -55,9 +58,6 @@ import static com.sdl.odata.ODataRendererUtils.checkNotNull;
 import static com.sdl.odata.ODataRendererUtils.isForceExpandParamSet;
 import static com.sdl.odata.api.edm.model.MetaType.COMPLEX;
 import static com.sdl.odata.api.edm.model.MetaType.ENTITY;
-import static com.sdl.odata.api.parser.ODataUriUtil.asJavaList;
-import static com.sdl.odata.api.parser.ODataUriUtil.getSimpleExpandPropertyNames;
-import static com.sdl.odata.api.parser.ODataUriUtil.hasCountOption;
 import static com.sdl.odata.util.edm.EntityDataModelUtil.formatEntityKey;
 import static com.sdl.odata.util.edm.EntityDataModelUtil.getEntityName;
 import static com.sdl.odata.util.edm.EntityDataModelUtil.visitProperties;
@@ -74,6 +74,7 @@ public class JsonWriter {
     private JsonGenerator jsonGenerator;
     private final ODataUri odataUri;
     private final EntityDataModel entityDataModel;
+    private final ResolvedRequestPlan plan;
     private EntitySet entitySet;
     private List<String> expandedProperties = new ArrayList<>();
     private String contextURL = null;
@@ -86,9 +87,19 @@ public class JsonWriter {
      * @param entityDataModel The <i>Entity Data Model (EDM)</i>. It can not be {@code null}.
      */
     public JsonWriter(ODataUri oDataUri, EntityDataModel entityDataModel) {
-        this.odataUri = checkNotNull(oDataUri);
-        this.entityDataModel = checkNotNull(entityDataModel);
-        expandedProperties.addAll(asJavaList(getSimpleExpandPropertyNames(oDataUri)));
+        this(new ResolvedRequestPlan(checkNotNull(oDataUri), checkNotNull(entityDataModel)));
+    }
+
+    /**
+     * Create an OData JSON Writer for a request whose URI has already been resolved.
+     *
+     * @param plan The resolved plan of the request. It can not be {@code null}.
+     */
+    public JsonWriter(ResolvedRequestPlan plan) {
+        this.plan = checkNotNull(plan);
+        this.odataUri = checkNotNull(plan.getUri());
+        this.entityDataModel = checkNotNull(plan.getEntityDataModel());
+        expandedProperties.addAll(plan.getExpandPropertyNames());
         forceExpand = isForceExpandParamSet(odataUri);
     }
 
@@ -103,10 +114,28 @@ public class JsonWriter {
      */
     public String writeFeed(List<?> entities, String contextUrl, Map<String, Object> meta)
             throws ODataRenderException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writeFeed(entities, contextUrl, meta, stream);
+        return toUTF8String(stream);
+    }
+
+    /**
+     * Write a list of entities (feed) directly to the given output stream. The entities are written as they are
+     * marshalled, so the rendered feed is never held in memory as a whole. The output stream is flushed, but not
+     * closed.
+     *
+     * @param entities     The list of entities to fill in the JSON stream.
+     * @param contextUrl   The 'Context URL' to write.
+     * @param meta         Additional metadata for the writer.
+     * @param outputStream The output stream to write to.
+     * @throws ODataRenderException In case it is not possible to write to the JSON stream.
+     */
+    public void writeFeed(List<?> entities, String contextUrl, Map<String, Object> meta, OutputStream outputStream)
+            throws ODataRenderException {
         this.contextURL = checkNotNull(contextUrl);
 
         try {
-            return writeJson(entities, meta);
+            writeJson(entities, meta, outputStream);
         } catch (IOException | IllegalAccessException | NoSuchFieldException
                 | ODataEdmException | ODataRenderException e) {
             LOG.error("Not possible to marshall feed stream JSON");
@@ -123,11 +152,26 @@ public class JsonWriter {
      * @throws ODataRenderException In case it is not possible to write to the JSON stream.
      */
     public String writeEntry(Object entity, String contextUrl) throws ODataRenderException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writeEntry(entity, contextUrl, stream);
+        return toUTF8String(stream);
+    }
+
+    /**
+     * Write a single entity (entry) directly to the given output stream. The output stream is flushed, but not
+     * closed.
+     *
+     * @param entity       The entity to fill in the JSON stream. It can not be {@code null}.
+     * @param contextUrl   The 'Context URL' to write. It can not be {@code null}.
+     * @param outputStream The output stream to write to.
+     * @throws ODataRenderException In case it is not possible to write to the JSON stream.
+     */
+    public void writeEntry(Object entity, String contextUrl, OutputStream outputStream) throws ODataRenderException {
 
         this.contextURL = checkNotNull(contextUrl);
 
         try {
-            return writeJson(entity, null);
+            writeJson(entity, null, outputStream);
         } catch (IOException | IllegalAccessException | NoSuchFieldException |
                 ODataEdmException | ODataRenderException e) {
             LOG.error("Not possible to marshall single entity stream JSON");
@@ -160,16 +204,16 @@ public class JsonWriter {
      * Write the given data to the JSON stream. The data to write will be either a single entity or a feed depending on
      * whether it is a single object or list.
      *
-     * @param data The given data.
-     * @param meta Additional values to write.
-     * @return The written JSON stream.
+     * @param data         The given data.
+     * @param meta         Additional values to write.
+     * @param outputStream The output stream to write to; it is flushed but not closed.
      * @throws ODataRenderException if unable to render
      */
-    private String writeJson(Object data, Map<String, Object> meta) throws IOException, NoSuchFieldException,
-            IllegalAccessException, ODataEdmException, ODataRenderException {
+    private void writeJson(Object data, Map<String, Object> meta, OutputStream outputStream) throws IOException,
+            NoSuchFieldException, IllegalAccessException, ODataEdmException, ODataRenderException {
 
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        jsonGenerator = JSON_FACTORY.createGenerator(stream, JsonEncoding.UTF8);
+        jsonGenerator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8);
+        jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
 
         jsonGenerator.writeStartObject();
 
@@ -179,7 +223,7 @@ public class JsonWriter {
         jsonGenerator.writeStringField(CONTEXT, contextURL);
 
         // Write @odata.count if requested and provided.
-        if (hasCountOption(odataUri) && data instanceof List &&
+        if (plan.hasCountOption() && data instanceof List &&
                 meta != null && meta.containsKey("count")) {
 
             long count;
@@ -210,8 +254,14 @@ public class JsonWriter {
 
         jsonGenerator.writeEndObject();
         jsonGenerator.close();
+    }
 
-        return stream.toString(StandardCharsets.UTF_8.name());
+    private static String toUTF8String(ByteArrayOutputStream stream) throws ODataRenderException {
+        try {
+            return stream.toString(StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new ODataRenderException("Not possible to encode JSON stream: ", e);
+        }
     }
 
     private void marshallEntities(List<?> entities) throws IOException,
@@ -336,17 +386,15 @@ public class JsonWriter {
             throws ODataRenderException, IOException, NoSuchFieldException, IllegalAccessException {
         String propertyName = property.getName();
 
-        // Get the property value through reflection
-        Object propertyValue;
-        Field field = property.getJavaField();
-        try {
-            field.setAccessible(true);
-            propertyValue = field.get(object);
-        } catch (IllegalAccessException e) {
-            LOG.error("Error getting field value of field: " + field.toGenericString());
-            throw new ODataRenderException("Error getting field value of field: " + field.toGenericString());
+        // Primitive numeric and boolean values are written without boxing them
+        PropertyAccessor accessor = property.getPropertyAccessor();
+        if (!property.isCollection() && writePrimitiveField(object, propertyName, accessor)) {
+            return;
         }
 
+        // Get the property value through the precomputed accessor
+        Object propertyValue = accessor.get(object);
+
         // Collection properties and non-nullable properties should not be null
         if (propertyValue == null) {
             if (property.isCollection()) {
@@ -452,13 +500,33 @@ public class JsonWriter {
         return expandedProperties.contains(property.getName());
     }
 
-    private Object getValueFromProperty(Object entity, NavigationProperty property)
-            throws NoSuchFieldException, IllegalAccessException {
-
-        Field propertyField = property.getJavaField();
-        propertyField.setAccessible(true);
+    private Object getValueFromProperty(Object entity, NavigationProperty property) {
+        return property.getPropertyAccessor().get(entity);
+    }
 
-        return propertyField.get(entity);
+    /**
+     * Writes the value of a property with a primitive Java type directly from the accessor.
+     *
+     * @param object       The object which holds the property value.
+     * @param propertyName The name of the property.
+     * @param accessor     The accessor of the property.
+     * @return {@code true} if the value was written, {@code false} if the property does not have a Java type which
+     * can be written this way.
+     * @throws IOException If unable to write the value.
+     */
+    private boolean writePrimitiveField(Object object, String propertyName, PropertyAccessor accessor)
+            throws IOException {
+        Class<?> javaType = accessor.getType();
+        if (javaType == long.class || javaType == int.class || javaType == short.class) {
+            jsonGenerator.writeNumberField(propertyName, accessor.getLong(object));
+        } else if (javaType == double.class) {
+            jsonGenerator.writeNumberField(propertyName, accessor.getDouble(object));
+        } else if (javaType == boolean.class) {
+            jsonGenerator.writeBooleanField(propertyName, accessor.getBoolean(object));
+        } else {
+            return false;
+        }
+        return true;
     }
 
     private EntitySet getEntitySet(Object entity) {
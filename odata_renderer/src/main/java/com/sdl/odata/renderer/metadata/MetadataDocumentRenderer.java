@@ -24,8 +24,10 @@ import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.service.ODataResponse;
 import com.sdl.odata.renderer.AbstractRenderer;
+import com.sdl.odata.renderer.metadata.PrerenderedDocumentCache.DocumentKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.OutputStream;
@@ -49,6 +51,9 @@ public final class MetadataDocumentRenderer extends AbstractRenderer {
     public static final int MAX = 100;
     private static final String ODATA_VERSION_HEADER = "4.0";
 
+    @Autowired(required = false)
+    private PrerenderedDocumentCache documentCache;
+
     @Override
     public int score(ODataRequestContext requestContext, QueryResult data) {
         ODataUri uri = requestContext.getUri();
@@ -61,6 +66,14 @@ public final class MetadataDocumentRenderer extends AbstractRenderer {
 
         LOG.debug("Start rendering $metadata document for request: {}", requestContext);
 
+        if (documentCache != null) {
+            responseBuilder.setContentType(XML).setHeader("OData-Version", ODATA_VERSION_HEADER);
+            if (documentCache.render(requestContext, DocumentKind.METADATA, responseBuilder)) {
+                LOG.debug("End rendering pre-rendered $metadata document for request: {}", requestContext);
+                return;
+            }
+        }
+
         MetadataDocumentWriter writer = new MetadataDocumentWriter(requestContext.getEntityDataModel());
         writer.startDocument();
         writer.writeMetadataDocument();
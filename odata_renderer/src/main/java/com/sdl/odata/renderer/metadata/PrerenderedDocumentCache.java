@@ -0,0 +1,371 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.renderer.metadata;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataSystemException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.registry.ODataEdmRegistry;
+import com.sdl.odata.api.edm.registry.ODataEdmRegistryListener;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.parser.ServiceRootUri;
+import com.sdl.odata.api.service.MediaType;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.renderer.json.writer.JsonServiceDocumentWriter;
+import com.sdl.odata.renderer.xml.writer.XMLServiceDocumentWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static com.sdl.odata.api.service.HeaderNames.ACCEPT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.ETAG;
+import static com.sdl.odata.api.service.HeaderNames.IF_NONE_MATCH;
+import static com.sdl.odata.api.service.HeaderNames.VARY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Cache of the pre-rendered $metadata and service documents.
+ * <p>
+ * These documents only depend on the entity data model and, for the service documents, on the service root. They are
+ * rendered once per model and kept as immutable byte arrays, together with a gzip variant and a strong ETag, so that
+ * requests are answered without serializing the model again. A request with a matching {@code If-None-Match} header
+ * gets a 304 Not Modified without a body.
+ * <p>
+ * The documents belong to the entity data model they were rendered for. When the {@link ODataEdmRegistry} publishes
+ * a new model, the $metadata document and the service documents of the service roots seen so far are rendered for it
+ * on the background thread of the registry.
+ */
+@Component
+public class PrerenderedDocumentCache implements ODataEdmRegistryListener {
+    private static final Logger LOG = LoggerFactory.getLogger(PrerenderedDocumentCache.class);
+
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+    private static final int ETAG_BYTES = 16;
+
+    /**
+     * The kinds of documents in the cache.
+     */
+    public enum DocumentKind {
+        /**
+         * The $metadata document.
+         */
+        METADATA,
+        /**
+         * The service document in XML.
+         */
+        XML_SERVICE_DOCUMENT,
+        /**
+         * The service document in JSON.
+         */
+        JSON_SERVICE_DOCUMENT
+    }
+
+    private final boolean enabled;
+    private final int maxSize;
+
+    private final AtomicReference<Table> table = new AtomicReference<>(new Table(null));
+
+    @Autowired(required = false)
+    private ODataEdmRegistry edmRegistry;
+
+    @Autowired
+    public PrerenderedDocumentCache(@Value("${odata.renderer.document-cache.enabled:false}") boolean enabled,
+                                    @Value("${odata.renderer.document-cache.max-size:64}") int maxSize) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled && edmRegistry != null) {
+            edmRegistry.addListener(this);
+        }
+    }
+
+    /**
+     * Answer a request with the pre-rendered document, rendering it first if it is not in the cache yet. Sets the
+     * status, the {@code ETag} and, when the client accepts gzip, the {@code Content-Encoding} and the gzip body.
+     * The content type and other headers are left to the renderer.
+     *
+     * @param requestContext  The request context.
+     * @param kind            The kind of document to respond with.
+     * @param responseBuilder The response builder.
+     * @return {@code false} if the cache is disabled and the renderer has to render the document itself.
+     * @throws ODataException If unable to render the document.
+     */
+    public boolean render(ODataRequestContext requestContext, DocumentKind kind, ODataResponse.Builder responseBuilder)
+            throws ODataException {
+        EntityDataModel entityDataModel = requestContext.getEntityDataModel();
+        if (!enabled || entityDataModel == null || requestContext.getUri() == null) {
+            return false;
+        }
+
+        String serviceRoot = kind == DocumentKind.METADATA ? null : requestContext.getUri().serviceRoot();
+        PrerenderedDocument document = getDocument(entityDataModel, new DocumentKey(kind, serviceRoot));
+
+        ODataRequest request = requestContext.getRequest();
+        boolean gzip = document.gzipBody != null && acceptsGzip(request.getHeader(ACCEPT_ENCODING));
+        responseBuilder.setHeader(ETAG, gzip ? document.gzipETag : document.eTag);
+        if (document.gzipBody != null) {
+            responseBuilder.setHeader(VARY, ACCEPT_ENCODING);
+        }
+
+        if (matches(request.getHeader(IF_NONE_MATCH), document)) {
+            responseBuilder.setStatus(ODataResponse.Status.NOT_MODIFIED);
+        } else if (gzip) {
+            responseBuilder.setStatus(ODataResponse.Status.OK)
+                    .setHeader(CONTENT_ENCODING, GZIP)
+                    .setBody(document.gzipBody);
+        } else {
+            responseBuilder.setStatus(ODataResponse.Status.OK)
+                    .setBody(document.body);
+        }
+        return true;
+    }
+
+    @Override
+    public void entityDataModelPublished(EntityDataModel entityDataModel, long version) {
+        List<DocumentKey> keys = new ArrayList<>();
+        keys.add(new DocumentKey(DocumentKind.METADATA, null));
+        keys.addAll(table.get().documents.keySet());
+
+        LOG.debug("Rendering {} documents for EntityDataModel version {}", keys.size(), version);
+        for (DocumentKey key : keys) {
+            try {
+                getDocument(entityDataModel, key);
+            } catch (ODataException | RuntimeException e) {
+                LOG.warn("Unable to render " + key + " for EntityDataModel version " + version, e);
+            }
+        }
+    }
+
+    PrerenderedDocument getDocument(EntityDataModel entityDataModel, DocumentKey key) throws ODataException {
+        ConcurrentMap<DocumentKey, PrerenderedDocument> documents = getTable(entityDataModel).documents;
+        PrerenderedDocument document = documents.get(key);
+        if (document != null) {
+            return document;
+        }
+
+        document = new PrerenderedDocument(renderDocument(entityDataModel, key));
+        if (documents.size() < maxSize) {
+            PrerenderedDocument previous = documents.putIfAbsent(key, document);
+            if (previous != null) {
+                return previous;
+            }
+        }
+        return document;
+    }
+
+    private Table getTable(EntityDataModel entityDataModel) {
+        Table current = table.get();
+        if (current.entityDataModel == entityDataModel) {
+            return current;
+        }
+
+        Table created = new Table(entityDataModel);
+        return table.compareAndSet(current, created) ? created : getTable(entityDataModel);
+    }
+
+    private static String renderDocument(EntityDataModel entityDataModel, DocumentKey key) throws ODataException {
+        switch (key.kind) {
+            case METADATA:
+                MetadataDocumentWriter writer = new MetadataDocumentWriter(entityDataModel);
+                writer.startDocument();
+                writer.writeMetadataDocument();
+                writer.endDocument();
+                return writer.getXml();
+            case XML_SERVICE_DOCUMENT:
+                return new XMLServiceDocumentWriter(serviceRootUri(key.serviceRoot), entityDataModel)
+                        .buildServiceDocument();
+            case JSON_SERVICE_DOCUMENT:
+                return new JsonServiceDocumentWriter(serviceRootUri(key.serviceRoot), entityDataModel).buildJson();
+            default:
+                throw new IllegalArgumentException("Unknown document kind: " + key.kind);
+        }
+    }
+
+    private static ODataUri serviceRootUri(String serviceRoot) {
+        return new ODataUri(serviceRoot, new ServiceRootUri(scala.Option.<MediaType>apply(null)));
+    }
+
+    /**
+     * Check whether an {@code Accept-Encoding} header allows a gzip encoded body.
+     *
+     * @param acceptEncoding The header value, may be {@code null}.
+     * @return {@code true} if gzip is acceptable.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean acceptable = parts.length < 2 || !isZeroQuality(parts[1].trim());
+            if (GZIP.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+                return acceptable;
+            } else if ("*".equals(name)) {
+                wildcard = acceptable;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        if (!parameter.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(parameter.substring(2).trim()) == 0.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check whether an {@code If-None-Match} header matches the document. The weak comparison is used, as required
+     * for {@code If-None-Match}, and both the identity and the gzip entity tags match.
+     *
+     * @param ifNoneMatch The header value, may be {@code null}.
+     * @param document    The document.
+     * @return {@code true} if the client already has the document.
+     */
+    static boolean matches(String ifNoneMatch, PrerenderedDocument document) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String tag : ifNoneMatch.split(",")) {
+            String eTag = tag.trim();
+            if (eTag.startsWith("W/")) {
+                eTag = eTag.substring(2);
+            }
+            if ("*".equals(eTag) || eTag.equals(document.eTag) || eTag.equals(document.gzipETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A rendered document with its gzip variant and entity tags.
+     */
+    static final class PrerenderedDocument {
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String eTag;
+        private final String gzipETag;
+
+        PrerenderedDocument(String text) {
+            this.body = text.getBytes(UTF_8);
+            byte[] compressed = gzip(body);
+            this.gzipBody = compressed.length < body.length ? compressed : null;
+
+            String hash = hash(body);
+            this.eTag = '"' + hash + '"';
+            this.gzipETag = '"' + hash + GZIP_ETAG_SUFFIX + '"';
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new ODataSystemException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private static String hash(byte[] bytes) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, ETAG_BYTES));
+            } catch (NoSuchAlgorithmException e) {
+                throw new ODataSystemException(e);
+            }
+        }
+    }
+
+    /**
+     * Identifies a document: its kind and, for service documents, the service root.
+     */
+    static final class DocumentKey {
+        private final DocumentKind kind;
+        private final String serviceRoot;
+
+        DocumentKey(DocumentKind kind, String serviceRoot) {
+            this.kind = kind;
+            this.serviceRoot = serviceRoot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DocumentKey)) {
+                return false;
+            }
+            DocumentKey that = (DocumentKey) o;
+            return kind == that.kind && Objects.equals(serviceRoot, that.serviceRoot);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, serviceRoot);
+        }
+
+        @Override
+        public String toString() {
+            return serviceRoot == null ? kind.toString() : kind + " of " + serviceRoot;
+        }
+    }
+
+    /**
+     * The documents rendered for an entity data model.
+     */
+    private static final class Table {
+        private final EntityDataModel entityDataModel;
+        private final ConcurrentMap<DocumentKey, PrerenderedDocument> documents = new ConcurrentHashMap<>();
+
+        private Table(EntityDataModel entityDataModel) {
+            this.entityDataModel = entityDataModel;
+        }
+    }
+}
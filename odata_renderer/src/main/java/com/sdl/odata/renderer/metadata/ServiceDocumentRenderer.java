@@ -21,7 +21,6 @@ import com.sdl.odata.api.service.MediaType;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.renderer.AbstractRenderer;
 
-import static com.sdl.odata.api.parser.ODataUriUtil.getFormatOption;
 import static java.lang.Math.max;
 
 /**
@@ -50,7 +49,7 @@ public abstract class ServiceDocumentRenderer extends AbstractRenderer {
      */
     protected int scoreServiceDocument(ODataRequestContext requestContext, MediaType requiredMediaType) {
         if (isServiceDocument(requestContext.getUri())) {
-            int scoreByFormat = scoreByFormat(getFormatOption(requestContext.getUri()), requiredMediaType);
+            int scoreByFormat = scoreByFormat(requestContext.getResolvedPlan().getFormatOption(), requiredMediaType);
             int scoreByMediaType = scoreByMediaType(requestContext.getRequest().getAccept(), requiredMediaType);
             return max(scoreByFormat, scoreByMediaType);
         } else {
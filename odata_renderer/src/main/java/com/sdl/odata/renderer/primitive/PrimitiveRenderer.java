@@ -61,8 +61,7 @@ public class PrimitiveRenderer extends AbstractRenderer {
             throws ODataException {
         LOG.debug("Start value for request: {}", requestContext);
 
-        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getResolvedPlan());
         String response = primitiveWriter.getPropertyAsString(data.getData());
 
         LOG.debug("Response value is {}", response);
@@ -82,8 +81,7 @@ public class PrimitiveRenderer extends AbstractRenderer {
     @Override
     public ChunkedActionRenderResult renderStart(ODataRequestContext requestContext, QueryResult result,
                                                  OutputStream outputStream) throws ODataException {
-        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getResolvedPlan());
         ChunkedActionRenderResult renderResult = primitiveWriter.getPropertyStartDocument(result.getData(),
                 outputStream);
         renderResult.setContentType(TEXT);
@@ -95,16 +93,14 @@ public class PrimitiveRenderer extends AbstractRenderer {
     @Override
     public ChunkedActionRenderResult renderBody(ODataRequestContext requestContext, QueryResult result,
                                                 ChunkedActionRenderResult previousResult) throws ODataException {
-        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getResolvedPlan());
         return primitiveWriter.getPropertyBodyDocument(result.getData(), previousResult);
     }
 
     @Override
     public void renderEnd(ODataRequestContext requestContext, QueryResult result,
                           ChunkedActionRenderResult previousResult) throws ODataException {
-        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        PrimitiveWriter primitiveWriter = new PrimitiveWriter(requestContext.getResolvedPlan());
         primitiveWriter.getPropertyEndDocument(result.getData(), previousResult);
     }
 }
@@ -22,6 +22,7 @@ import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.ODataUri;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
 import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import com.sdl.odata.renderer.AbstractPropertyWriter;
 import org.slf4j.Logger;
 
@@ -42,6 +43,10 @@ public class PrimitiveWriter extends AbstractPropertyWriter {
         super(oDataUri, entityDataModel);
     }
 
+    public PrimitiveWriter(ResolvedRequestPlan plan) throws ODataRenderException {
+        super(plan);
+    }
+
     @Override
     protected ChunkedActionRenderResult getPrimitivePropertyChunked(
             Object data, Type type, ChunkedStreamAction action, ChunkedActionRenderResult previousResult)
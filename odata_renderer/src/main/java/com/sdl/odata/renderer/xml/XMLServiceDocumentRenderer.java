@@ -22,10 +22,13 @@ import com.sdl.odata.api.processor.query.QueryResult;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.renderer.metadata.PrerenderedDocumentCache;
+import com.sdl.odata.renderer.metadata.PrerenderedDocumentCache.DocumentKind;
 import com.sdl.odata.renderer.metadata.ServiceDocumentRenderer;
 import com.sdl.odata.renderer.xml.writer.XMLServiceDocumentWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.OutputStream;
@@ -41,6 +44,9 @@ import static com.sdl.odata.api.service.MediaType.XML;
 public class XMLServiceDocumentRenderer extends ServiceDocumentRenderer {
     private static final Logger LOG = LoggerFactory.getLogger(XMLServiceDocumentRenderer.class);
 
+    @Autowired(required = false)
+    private PrerenderedDocumentCache documentCache;
+
     @Override
     public int score(ODataRequestContext requestContext, QueryResult data) {
 
@@ -58,6 +64,14 @@ public class XMLServiceDocumentRenderer extends ServiceDocumentRenderer {
             throws ODataException {
         LOG.debug("Start rendering service document for request: {}", requestContext);
 
+        if (documentCache != null) {
+            responseBuilder.setContentType(XML).setHeader("OData-Version", ODATA_VERSION_HEADER);
+            if (documentCache.render(requestContext, DocumentKind.XML_SERVICE_DOCUMENT, responseBuilder)) {
+                LOG.debug("End rendering pre-rendered service document for request: {}", requestContext);
+                return;
+            }
+        }
+
         XMLServiceDocumentWriter writer = new XMLServiceDocumentWriter(requestContext.getUri(),
                 requestContext.getEntityDataModel());
         String serviceDocument = writer.buildServiceDocument();
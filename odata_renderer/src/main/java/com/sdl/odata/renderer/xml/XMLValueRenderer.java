@@ -54,7 +54,7 @@ public final class XMLValueRenderer extends AbstractAtomRenderer {
     @Override
     public int score(ODataRequestContext requestContext, QueryResult data) {
         // This renderer only handles non-entity queries
-        if (!isNonEntityQuery(requestContext.getUri(), requestContext.getEntityDataModel())) {
+        if (!isNonEntityQuery(requestContext)) {
             return DEFAULT_SCORE;
         }
 
@@ -77,8 +77,7 @@ public final class XMLValueRenderer extends AbstractAtomRenderer {
         LOG.debug("Start rendering property for request: {}", requestContext);
 
         // Root element must be <metadata:value>
-        XMLPropertyWriter propertyWriter = new XMLPropertyWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        XMLPropertyWriter propertyWriter = new XMLPropertyWriter(requestContext.getResolvedPlan());
         String response = propertyWriter.getPropertyAsString(data.getData());
         LOG.debug("Response property xml is {}", response);
         try {
@@ -96,8 +95,7 @@ public final class XMLValueRenderer extends AbstractAtomRenderer {
     public ChunkedActionRenderResult renderStart(ODataRequestContext requestContext, QueryResult result,
                                                  OutputStream outputStream) throws ODataException {
         LOG.debug("Start rendering start property for request: {}", requestContext);
-        XMLPropertyWriter propertyWriter = new XMLPropertyWriter(requestContext.getUri(),
-                requestContext.getEntityDataModel());
+        XMLPropertyWriter propertyWriter = new XMLPropertyWriter(requestContext.getResolvedPlan());
         Type type = propertyWriter.getTypeFromODataUri();
         propertyWriter.validateRequestChunk(type, result.getData());
 
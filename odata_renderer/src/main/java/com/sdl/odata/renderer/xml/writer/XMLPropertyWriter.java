@@ -18,12 +18,14 @@ package com.sdl.odata.renderer.xml.writer;
 import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.edm.model.NavigationProperty;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
 import com.sdl.odata.api.edm.model.StructuralProperty;
 import com.sdl.odata.api.edm.model.StructuredType;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.ODataUri;
 import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
 import com.sdl.odata.api.renderer.ODataRenderException;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import com.sdl.odata.renderer.AbstractPropertyWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +35,6 @@ import javax.xml.stream.XMLStreamWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
 import java.util.List;
 
 import static com.sdl.odata.AtomConstants.ELEMENT;
@@ -68,6 +69,10 @@ public class XMLPropertyWriter extends AbstractPropertyWriter {
         super(uri, entityDataModel);
     }
 
+    public XMLPropertyWriter(ResolvedRequestPlan plan) throws ODataRenderException {
+        super(plan);
+    }
+
     @Override
     protected ChunkedActionRenderResult getPrimitivePropertyChunked(
             Object data, Type type, ChunkedStreamAction action, ChunkedActionRenderResult previousResult)
@@ -186,13 +191,12 @@ public class XMLPropertyWriter extends AbstractPropertyWriter {
 
     private void handleProperty(Object entity, StructuralProperty property, XMLStreamWriter writer)
             throws IllegalAccessException, XMLStreamException, ODataException {
-        Field field = property.getJavaField();
-        field.setAccessible(true);
-        Object value = field.get(entity);
+        PropertyAccessor accessor = property.getPropertyAccessor();
+        Object value = accessor.get(entity);
         LOG.trace("Property name is '{}' and its value is '{}'", property.getName(), value);
         Type type = getType(value);
         if (type == null) {
-            String msg = String.format("Field type %s is not found in entity data model", field.getType());
+            String msg = String.format("Field type %s is not found in entity data model", accessor.getType());
             LOG.error(msg);
             throw new ODataRenderException(msg);
         }
@@ -36,7 +36,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static com.sdl.odata.ODataRendererUtils.checkNotNull;
-import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.sdl.odata.ODataRendererUtils.getBodyText;
 
 /**
  * Abstract Action Parser.
@@ -102,7 +102,7 @@ public abstract class AbstractActionParser {
         Set<Parameter> actionParameters = action.getParameters();
         Map<String, Object> bodyParameters;
         try {
-            bodyParameters = parseRequestBody(requestContext.getRequest().getBodyText(UTF_8.name()));
+            bodyParameters = parseRequestBody(getBodyText(requestContext.getRequest()));
         } catch (IOException e) {
             throw new ODataUnmarshallingException("Error has occurred during parameter parsing", e);
         }
@@ -153,7 +153,7 @@ public abstract class AbstractActionParser {
         Set<Parameter> actionParameters = action.getParameters();
         Map<String, Object> bodyParameters;
         try {
-            bodyParameters = parseRequestBody(requestContext.getRequest().getBodyText(UTF_8.name()));
+            bodyParameters = parseRequestBody(getBodyText(requestContext.getRequest()));
         } catch (IOException e) {
             throw new ODataUnmarshallingException("Error during request body parsing", e);
         }
@@ -18,25 +18,30 @@ package com.sdl.odata.unmarshaller;
 import com.sdl.odata.api.ODataException;
 import com.sdl.odata.api.ODataSystemException;
 import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
 import com.sdl.odata.api.edm.model.StructuralProperty;
 import com.sdl.odata.api.edm.model.Type;
 import com.sdl.odata.api.parser.ODataParser;
 import com.sdl.odata.api.parser.ODataUri;
-import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.parser.QueryOption;
 import com.sdl.odata.api.parser.ResourcePath;
 import com.sdl.odata.api.parser.ResourcePathUri;
 import com.sdl.odata.api.parser.TargetType;
 import com.sdl.odata.api.service.ODataRequest;
 import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
 import com.sdl.odata.api.unmarshaller.ODataUnmarshallingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Option;
 import scala.collection.immutable.List$;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -54,16 +59,19 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public abstract class AbstractParser {
     private static final Logger LOG = LoggerFactory.getLogger(AbstractParser.class);
+    private static final int BUFFER_SIZE = 4096;
 
     private final EntityDataModel entityDataModel;
     private final ODataRequest request;
     private final ODataUri oDataUri;
+    private final ResolvedRequestPlan plan;
     private final ODataParser uriParser;
 
     public AbstractParser(ODataRequestContext context, ODataParser oDataParser) {
         this.entityDataModel = checkNotNull(context.getEntityDataModel());
         this.request = checkNotNull(context.getRequest());
         this.oDataUri = checkNotNull(context.getUri());
+        this.plan = context.getResolvedPlan();
         this.uriParser = checkNotNull(oDataParser);
     }
 
@@ -74,6 +82,9 @@ public abstract class AbstractParser {
      * @throws ODataException In case of a parsing or validation error
      */
     public Object getODataEntity() throws ODataException {
+        if (request.getBodySource() != null) {
+            return processEntity(getBodyStream("Payload is empty. Expected an entry."));
+        }
         final String bodyText = getBodyText();
         LOG.trace("Text of the body is {}", bodyText);
         if (!isNullOrEmpty(bodyText)) {
@@ -90,6 +101,9 @@ public abstract class AbstractParser {
      * @throws ODataException In case of a parsing or validation error
      */
     public List<?> getODataEntities() throws ODataException {
+        if (request.getBodySource() != null) {
+            return processEntities(getBodyStream("Payload is empty. Expected a feed."));
+        }
         final String bodyText = getBodyText();
         LOG.trace("Text of the body is {}", bodyText);
         if (!isNullOrEmpty(bodyText)) {
@@ -117,6 +131,67 @@ public abstract class AbstractParser {
      */
     protected abstract List<?> processEntities(String bodyText) throws ODataException;
 
+    /**
+     * Process entity by reading the given stream. This is used when the request body is consumed lazily; parsers which
+     * are able to parse incrementally should override it. By default the stream is read completely.
+     *
+     * @param bodyStream The stream containing the payload, which is not empty.
+     * @return Object that represents entity by unmarshalling.
+     * @throws ODataException in case of an invalid payload.
+     */
+    protected Object processEntity(InputStream bodyStream) throws ODataException {
+        return processEntity(readBodyText(bodyStream));
+    }
+
+    /**
+     * Process the entities (feed) by reading the given stream. This is used when the request body is consumed lazily;
+     * parsers which are able to parse incrementally should override it. By default the stream is read completely.
+     *
+     * @param bodyStream The stream containing the payload, which is not empty.
+     * @return The process entities.
+     * @throws ODataException If unable to process entities
+     */
+    protected List<?> processEntities(InputStream bodyStream) throws ODataException {
+        return processEntities(readBodyText(bodyStream));
+    }
+
+    private InputStream getBodyStream(String emptyMessage) throws ODataUnmarshallingException {
+        if (request.isBodyConsumed()) {
+            throw new ODataUnmarshallingException("The request body has already been read");
+        }
+        InputStream bodyStream = request.getBodyStream();
+        if (bodyStream == null) {
+            throw new ODataUnmarshallingException(emptyMessage);
+        }
+
+        // Peek at the first byte to find out whether the payload is empty, without reading it all
+        PushbackInputStream pushbackStream = new PushbackInputStream(bodyStream);
+        try {
+            int first = pushbackStream.read();
+            if (first == -1) {
+                throw new ODataUnmarshallingException(emptyMessage);
+            }
+            pushbackStream.unread(first);
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("Unable to read the payload", e);
+        }
+        return pushbackStream;
+    }
+
+    private String readBodyText(InputStream bodyStream) throws ODataUnmarshallingException {
+        StringBuilder bodyText = new StringBuilder();
+        try (Reader reader = new InputStreamReader(bodyStream, UTF_8)) {
+            char[] buffer = new char[BUFFER_SIZE];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                bodyText.append(buffer, 0, count);
+            }
+            return bodyText.toString();
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("Unable to read the payload", e);
+        }
+    }
+
     protected String getBodyText() {
         try {
             return request.getBodyText(UTF_8.name());
@@ -138,7 +213,7 @@ public abstract class AbstractParser {
     }
 
     protected TargetType getTargetType() {
-        Option<TargetType> targetTypeOption = ODataUriUtil.resolveTargetType(oDataUri, entityDataModel);
+        Option<TargetType> targetTypeOption = plan.getTargetType();
         if (targetTypeOption.isDefined()) {
             return targetTypeOption.get();
         }
@@ -191,17 +266,16 @@ public abstract class AbstractParser {
     protected void saveReferencedEntity(Object entity, String propertyName, StructuralProperty property,
                                         Object referencedEntity) throws ODataUnmarshallingException {
         // Save the referenced entity in the entity we are unmarshalling
-        Field field = property.getJavaField();
-        field.setAccessible(true);
+        PropertyAccessor accessor = property.getPropertyAccessor();
         try {
-            if (List.class.isAssignableFrom(field.getType())) {
-                saveReferencedEntityListField(entity, referencedEntity, field);
-            } else if (Set.class.isAssignableFrom(field.getType())) {
-                saveReferencedEntitySetField(entity, referencedEntity, field);
+            if (List.class.isAssignableFrom(accessor.getType())) {
+                saveReferencedEntityListField(entity, referencedEntity, accessor);
+            } else if (Set.class.isAssignableFrom(accessor.getType())) {
+                saveReferencedEntitySetField(entity, referencedEntity, accessor);
             } else {
-                field.set(entity, referencedEntity);
+                accessor.set(entity, referencedEntity);
             }
-        } catch (IllegalAccessException e) {
+        } catch (IllegalArgumentException e) {
             throw new ODataUnmarshallingException("Error while getting or setting navigation property field " +
                     propertyName, e);
         }
@@ -210,28 +284,26 @@ public abstract class AbstractParser {
         // for this, see 11.4.2.2 Create Related Entities When Creating an Entity
     }
 
-    private void saveReferencedEntitySetField(Object entity, Object referencedEntity,
-                                              Field field) throws IllegalAccessException {
+    private void saveReferencedEntitySetField(Object entity, Object referencedEntity, PropertyAccessor accessor) {
         @SuppressWarnings("unchecked")
-        Set<Object> set = (Set<Object>) field.get(entity);
+        Set<Object> set = (Set<Object>) accessor.get(entity);
 
         if (set == null) {
             set = new HashSet<>();
-            field.set(entity, set);
+            accessor.set(entity, set);
         }
 
         set.add(referencedEntity);
     }
 
-    private void saveReferencedEntityListField(Object entity, Object referencedEntity,
-                                               Field field) throws IllegalAccessException {
+    private void saveReferencedEntityListField(Object entity, Object referencedEntity, PropertyAccessor accessor) {
 
         @SuppressWarnings("unchecked")
-        List<Object> list = (List<Object>) field.get(entity);
+        List<Object> list = (List<Object>) accessor.get(entity);
 
         if (list == null) {
             list = new ArrayList<>();
-            field.set(entity, list);
+            accessor.set(entity, list);
         }
 
         list.add(referencedEntity);
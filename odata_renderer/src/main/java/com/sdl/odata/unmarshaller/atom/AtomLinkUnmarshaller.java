@@ -30,11 +30,10 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 
 import static com.sdl.odata.AtomConstants.ID;
 import static com.sdl.odata.AtomConstants.REF;
+import static com.sdl.odata.ODataRendererUtils.getBodyText;
 import static com.sdl.odata.util.ReferenceUtil.isNullOrEmpty;
 
 /**
@@ -62,12 +61,7 @@ public class AtomLinkUnmarshaller extends AbstractLinkUnmarshaller {
         // The body is expected to contain a single entity reference
         // See OData Atom XML specification chapter 13
 
-        String bodyText;
-        try {
-            bodyText = requestContext.getRequest().getBodyText(StandardCharsets.UTF_8.name());
-        } catch (UnsupportedEncodingException e) {
-            throw new ODataSystemException("UTF-8 is not supported", e);
-        }
+        String bodyText = getBodyText(requestContext.getRequest());
 
         Document document = parseXML(bodyText);
         Element rootElement = document.getDocumentElement();
@@ -24,6 +24,7 @@ import com.sdl.odata.unmarshaller.AbstractUnmarshaller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import static com.sdl.odata.renderer.AbstractRenderer.DEFAULT_SCORE;
@@ -38,6 +39,9 @@ public class AtomUnmarshaller extends AbstractUnmarshaller {
     @Autowired
     private ODataParser uriParser;
 
+    @Value("${odata.unmarshaller.atom.streaming:false}")
+    private boolean streaming;
+
     @Override
     public int score(ODataRequestContext requestContext) {
         if (isRightMethodForUnmarshall(requestContext.getRequest()) &&
@@ -54,6 +58,9 @@ public class AtomUnmarshaller extends AbstractUnmarshaller {
     @Override
     public Object unmarshall(ODataRequestContext requestContext) throws ODataException {
         LOG.info("Atom Unmarshaller invoked with {}", requestContext.getRequest());
+        if (streaming) {
+            return new ODataAtomStreamParser(requestContext, uriParser).getODataEntity();
+        }
         return new ODataAtomParser(requestContext, uriParser).getODataEntity();
     }
 }
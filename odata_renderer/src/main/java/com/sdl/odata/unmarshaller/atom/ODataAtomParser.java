@@ -47,8 +47,8 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -124,6 +124,16 @@ public class ODataAtomParser extends AbstractParser {
         return processEntities(parseXML(bodyText).getDocumentElement());
     }
 
+    @Override
+    protected Object processEntity(InputStream bodyStream) throws ODataException {
+        return processEntity(parseXML(bodyStream).getDocumentElement());
+    }
+
+    @Override
+    protected List<?> processEntities(InputStream bodyStream) throws ODataException {
+        return processEntities(parseXML(bodyStream).getDocumentElement());
+    }
+
     private Document parseXML(String xml) throws ODataUnmarshallingException {
         try {
             return DOCBUILDER_FACTORY.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
@@ -137,6 +147,17 @@ public class ODataAtomParser extends AbstractParser {
         }
     }
 
+    private Document parseXML(InputStream xml) throws ODataUnmarshallingException {
+        try {
+            return DOCBUILDER_FACTORY.newDocumentBuilder().parse(new InputSource(xml));
+        } catch (SAXException | IOException e) {
+            // Reading the stream fails for example when the payload is larger than the maximum body size
+            throw new ODataUnmarshallingException("Error while parsing XML", e);
+        } catch (ParserConfigurationException e) {
+            throw new ODataSystemException(e);
+        }
+    }
+
     private Object processEntity(Element entryElement) throws ODataException {
         if (!entryElement.getNodeName().equals(ATOM_ENTRY)) {
             throw new ODataUnmarshallingException("Expected <entry> as the root element, but found: " +
@@ -303,23 +324,32 @@ public class ODataAtomParser extends AbstractParser {
         LOG.debug("Found property element: {}, type: {}, value: {} ({})", propertyName, propertyTypeFromXML,
                 propertyValue, notNullableProperty ? propertyValue.getClass().getName() : "<null>");
         try {
-            Field field = property.getJavaField();
-            field.setAccessible(true);
-            field.set(instance, propertyValue);
-        } catch (ReflectiveOperationException e) {
+            property.getPropertyAccessor().set(instance, propertyValue);
+        } catch (IllegalArgumentException e) {
             throw new ODataUnmarshallingException("Error while setting property value for property '" +
                     propertyName + "': " + propertyValue + " in class " + instance.getClass().getCanonicalName(), e);
         }
     }
 
     private PropertyType getPropertyTypeFromXML(Element propertyElement) throws ODataUnmarshallingException {
-        String propertyName = propertyElement.getLocalName();
+        return getPropertyType(getEntityDataModel(), propertyElement.getLocalName(),
+                propertyElement.getAttributeNS(getODataMetadataNS(), TYPE));
+    }
 
+    /**
+     * Determines the type of a property from the value of its {@code metadata:type} attribute.
+     *
+     * @param entityDataModel The entity data model.
+     * @param propertyName    The name of the property.
+     * @param typeName        The value of the type attribute; may be {@code null} or empty.
+     * @return The type of the property, or {@code null} if the type is not found in the entity data model.
+     * @throws ODataUnmarshallingException If the type attribute is specified incorrectly.
+     */
+    static PropertyType getPropertyType(EntityDataModel entityDataModel, String propertyName, String typeName)
+            throws ODataUnmarshallingException {
         Type type;
         boolean collection = false;
 
-        String typeName = propertyElement.getAttributeNS(getODataMetadataNS(), TYPE);
-
         // If there is no type attribute, then use the default, which is String
         if (isNullOrEmpty(typeName)) {
             typeName = PrimitiveType.STRING.getName();
@@ -352,7 +382,7 @@ public class ODataAtomParser extends AbstractParser {
             typeName = EntityDataModel.EDM_NAMESPACE + "." + PrimitiveType.DATE_TIME_OFFSET.getName();
         }
 
-        type = getEntityDataModel().getType(typeName);
+        type = entityDataModel.getType(typeName);
         if (type == null) {
             LOG.debug("Type for property {} is not found", propertyName);
             return null;
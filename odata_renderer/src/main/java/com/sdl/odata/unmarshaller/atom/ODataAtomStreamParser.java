@@ -0,0 +1,671 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.unmarshaller.atom;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.ODataNotImplementedException;
+import com.sdl.odata.api.edm.model.ComplexType;
+import com.sdl.odata.api.edm.model.EntityType;
+import com.sdl.odata.api.edm.model.EnumType;
+import com.sdl.odata.api.edm.model.MetaType;
+import com.sdl.odata.api.edm.model.NavigationProperty;
+import com.sdl.odata.api.edm.model.PrimitiveType;
+import com.sdl.odata.api.edm.model.StructuralProperty;
+import com.sdl.odata.api.edm.model.StructuredType;
+import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.api.parser.ODataParser;
+import com.sdl.odata.api.parser.util.ParserUtil;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.unmarshaller.ODataUnmarshallingException;
+import com.sdl.odata.unmarshaller.AbstractParser;
+import com.sdl.odata.unmarshaller.PropertyType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import static com.sdl.odata.AtomConstants.ATOM_CATEGORY;
+import static com.sdl.odata.AtomConstants.ATOM_ENTRY;
+import static com.sdl.odata.AtomConstants.ATOM_FEED;
+import static com.sdl.odata.AtomConstants.ATOM_ID;
+import static com.sdl.odata.AtomConstants.ATOM_LINK;
+import static com.sdl.odata.AtomConstants.ATOM_NS;
+import static com.sdl.odata.AtomConstants.ATOM_UPDATED;
+import static com.sdl.odata.AtomConstants.ELEMENT;
+import static com.sdl.odata.AtomConstants.FEED_METADATA_ATOM_ID_IDX;
+import static com.sdl.odata.AtomConstants.FEED_METADATA_LINK_IDX;
+import static com.sdl.odata.AtomConstants.FEED_METADATA_MIN_ITEMS;
+import static com.sdl.odata.AtomConstants.FEED_METADATA_TITLE_IDX;
+import static com.sdl.odata.AtomConstants.FEED_METADATA_UPDATED_IDX;
+import static com.sdl.odata.AtomConstants.HREF;
+import static com.sdl.odata.AtomConstants.ID;
+import static com.sdl.odata.AtomConstants.INLINE;
+import static com.sdl.odata.AtomConstants.NULL;
+import static com.sdl.odata.AtomConstants.ODATA_CONTENT;
+import static com.sdl.odata.AtomConstants.ODATA_METADATA_NS;
+import static com.sdl.odata.AtomConstants.ODATA_NAVIGATION_LINK_REL_NS_PREFIX;
+import static com.sdl.odata.AtomConstants.ODATA_PROPERTIES;
+import static com.sdl.odata.AtomConstants.ODATA_SCHEME_NS;
+import static com.sdl.odata.AtomConstants.REF;
+import static com.sdl.odata.AtomConstants.REL;
+import static com.sdl.odata.AtomConstants.SCHEME;
+import static com.sdl.odata.AtomConstants.TERM;
+import static com.sdl.odata.AtomConstants.TITLE;
+import static com.sdl.odata.AtomConstants.TYPE;
+import static com.sdl.odata.util.edm.EntityDataModelUtil.getStructuralProperty;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * The OData Atom Parser which reads the payload with an {@link XMLStreamReader}.
+ * <p>
+ * In contrast with {@link ODataAtomParser}, no DOM tree of the payload is built: elements are mapped onto entity
+ * instances through the entity data model while they are read. Navigation links, which precede the
+ * {@code <category>} element that specifies the entity type, are kept until the entity type is known. The
+ * {@code <category>} element must precede the {@code <content>} element, as it does in the output of the Atom
+ * renderer.
+ */
+public class ODataAtomStreamParser extends AbstractParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ODataAtomStreamParser.class);
+    private static final Set<String> FEED_METADATA_ELEMENT_NAMES = new HashSet<>(Arrays.asList(
+            ATOM_ID, TITLE, ATOM_UPDATED, ATOM_LINK));
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    private final Set<String> foundCollectionProperties = new HashSet<>();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    public ODataAtomStreamParser(ODataRequestContext context, ODataParser uriParser) {
+        super(context, uriParser);
+    }
+
+    @Override
+    protected Object processEntity(String bodyText) throws ODataException {
+        try {
+            return readRootEntry(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(bodyText)));
+        } catch (XMLStreamException e) {
+            throw new ODataUnmarshallingException("Error while parsing XML", e);
+        }
+    }
+
+    @Override
+    protected List<?> processEntities(String bodyText) throws ODataException {
+        try {
+            return readRootFeed(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(bodyText)));
+        } catch (XMLStreamException e) {
+            throw new ODataUnmarshallingException("Error while parsing XML", e);
+        }
+    }
+
+    @Override
+    protected Object processEntity(InputStream bodyStream) throws ODataException {
+        try {
+            return readRootEntry(XML_INPUT_FACTORY.createXMLStreamReader(bodyStream));
+        } catch (XMLStreamException e) {
+            throw new ODataUnmarshallingException("Error while parsing XML", e);
+        }
+    }
+
+    @Override
+    protected List<?> processEntities(InputStream bodyStream) throws ODataException {
+        try {
+            return readRootFeed(XML_INPUT_FACTORY.createXMLStreamReader(bodyStream));
+        } catch (XMLStreamException e) {
+            throw new ODataUnmarshallingException("Error while parsing XML", e);
+        }
+    }
+
+    protected String getOdataSchemeNS() {
+        return ODATA_SCHEME_NS;
+    }
+
+    protected String getODataMetadataNS() {
+        return ODATA_METADATA_NS;
+    }
+
+    protected String getODataNavLinkRelationNSPrefix() {
+        return ODATA_NAVIGATION_LINK_REL_NS_PREFIX;
+    }
+
+    private Object readRootEntry(XMLStreamReader reader) throws ODataException, XMLStreamException {
+        try {
+            reader.nextTag();
+            if (!ATOM_ENTRY.equals(reader.getLocalName())) {
+                throw new ODataUnmarshallingException("Expected <entry> as the root element, but found: " +
+                        reader.getLocalName());
+            }
+            return readEntry(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private List<?> readRootFeed(XMLStreamReader reader) throws ODataException, XMLStreamException {
+        try {
+            reader.nextTag();
+            return readFeed(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads an {@code <entry>} element. The reader must be positioned at its start tag; when this method returns, the
+     * reader is positioned at its end tag.
+     */
+    private Object readEntry(XMLStreamReader reader) throws ODataException, XMLStreamException {
+        EntityType entityType = null;
+        Object entity = null;
+        List<NavigationLink> navigationLinks = new ArrayList<>();
+
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+
+            String localName = reader.getLocalName();
+            if (ATOM_CATEGORY.equals(localName) && ATOM_NS.equals(reader.getNamespaceURI())) {
+                EntityType categoryType = getEntityType(reader);
+                if (categoryType != null) {
+                    if (entity != null && !categoryType.equals(entityType)) {
+                        throw new ODataUnmarshallingException("The <category> element that specifies the entity " +
+                                "type must precede the <content> element of the entry");
+                    }
+                    entityType = categoryType;
+                }
+                skipElement(reader);
+            } else if (ATOM_LINK.equals(localName)) {
+                NavigationLink navigationLink = readLink(reader);
+                if (navigationLink != null) {
+                    navigationLinks.add(navigationLink);
+                }
+            } else if (ODATA_CONTENT.equals(localName)) {
+                if (entityType == null) {
+                    throw new ODataUnmarshallingException("The <category> element that specifies the entity " +
+                            "type must precede the <content> element of the entry");
+                }
+                if (entity == null) {
+                    entity = newInstance(entityType);
+                }
+                readContent(reader, entity, entityType);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        if (entityType == null) {
+            throw new ODataUnmarshallingException("No <category> element found with attribute scheme=\""
+                    + getOdataSchemeNS() + "\" that specifies the entity type.");
+        }
+        if (entity == null) {
+            entity = newInstance(entityType);
+        }
+
+        setEntityNavigationProperties(entity, entityType, navigationLinks);
+        ensureNonNullableCollectionArePresent(entityType);
+        return entity;
+    }
+
+    /**
+     * Reads a {@code <feed>} element. The reader must be positioned at its start tag; when this method returns, the
+     * reader is positioned at its end tag.
+     */
+    private List<?> readFeed(XMLStreamReader reader) throws ODataException, XMLStreamException {
+        List<String> feedMetadataElementNames = new ArrayList<>();
+        boolean foundRef = false;
+        List<Object> entities = new ArrayList<>();
+
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+
+            String localName = reader.getLocalName();
+            if (ATOM_ENTRY.equals(localName)) {
+                entities.add(readEntry(reader));
+            } else {
+                if (REF.equals(localName)) {
+                    foundRef = true;
+                } else if (FEED_METADATA_ELEMENT_NAMES.contains(localName)) {
+                    feedMetadataElementNames.add(localName);
+                }
+                skipElement(reader);
+            }
+        }
+
+        //Note: decide how to process metadata:ref - references to entities for read operation
+        if (!foundRef) {
+            checkFeedMetadata(feedMetadataElementNames);
+        }
+        return entities;
+    }
+
+    private void checkFeedMetadata(List<String> feedMetadataElementNames) throws ODataUnmarshallingException {
+        if (feedMetadataElementNames.size() < FEED_METADATA_MIN_ITEMS) {
+            throw new ODataUnmarshallingException("Feed metadata information missing. Expected metadata: '<id>', " +
+                    "'<title>', '<updated>', '<link>'");
+        }
+        checkFeedMetadata(feedMetadataElementNames.get(FEED_METADATA_ATOM_ID_IDX), ATOM_ID);
+        checkFeedMetadata(feedMetadataElementNames.get(FEED_METADATA_TITLE_IDX), TITLE);
+        checkFeedMetadata(feedMetadataElementNames.get(FEED_METADATA_UPDATED_IDX), ATOM_UPDATED);
+        checkFeedMetadata(feedMetadataElementNames.get(FEED_METADATA_LINK_IDX), ATOM_LINK);
+    }
+
+    private void checkFeedMetadata(String foundLocalName, String nodeLocalName) throws ODataUnmarshallingException {
+        if (!nodeLocalName.equals(foundLocalName)) {
+            throw new ODataUnmarshallingException("Wrong Feed metadata. Found: '" + foundLocalName +
+                    "'. Expected: '" + nodeLocalName + "'");
+        }
+    }
+
+    private EntityType getEntityType(XMLStreamReader reader) throws ODataUnmarshallingException {
+        String scheme = reader.getAttributeValue(null, SCHEME);
+        if (!getOdataSchemeNS().equals(scheme)) {
+            LOG.debug("Found a <category> element with an unexpected 'scheme' attribute: " + scheme);
+            return null;
+        }
+
+        String term = reader.getAttributeValue(null, TERM);
+        String entityTypeName = null;
+        int index = term == null ? -1 : term.lastIndexOf('#');
+        if (index >= 0 && term.length() > index + 1) {
+            entityTypeName = term.substring(index + 1);
+        }
+        if (entityTypeName == null) {
+            throw new ODataUnmarshallingException("Found a <category> element, but its term attribute " +
+                    "does not correctly specify the entity type: term=\"" + term + "\"");
+        }
+
+        LOG.debug("Found entity type name: {}", entityTypeName);
+        Type type = getEntityDataModel().getType(entityTypeName);
+        if (type == null) {
+            throw new ODataUnmarshallingException("Entity type does not exist in the entity data model: " +
+                    entityTypeName);
+        }
+        if (type.getMetaType() != MetaType.ENTITY) {
+            throw new ODataUnmarshallingException("This type exists in the entity data model, but it is " +
+                    "not an entity type: " + entityTypeName + "; it is: " + type.getMetaType());
+        }
+        return (EntityType) type;
+    }
+
+    private Object newInstance(StructuredType structuredType) throws ODataUnmarshallingException {
+        try {
+            Class<?> javaType = structuredType.getJavaType();
+            LOG.trace("Creating new instance of type: {}", javaType.getName());
+            return javaType.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ODataUnmarshallingException("Error while instantiating instance of type: " +
+                    structuredType.getFullyQualifiedName(), e);
+        }
+    }
+
+    /**
+     * Reads the {@code <content>} element of an entry and sets the properties it contains in the entity.
+     */
+    private void readContent(XMLStreamReader reader, Object entity, EntityType entityType)
+            throws ODataException, XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                if (ODATA_PROPERTIES.equals(reader.getLocalName()) &&
+                        getODataMetadataNS().equals(reader.getNamespaceURI())) {
+                    readProperties(reader, entity, entityType);
+                } else {
+                    depth++;
+                }
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the child elements of the current element as the properties of the given instance.
+     */
+    private void readProperties(XMLStreamReader reader, Object instance, StructuredType structType)
+            throws ODataException, XMLStreamException {
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() == START_ELEMENT) {
+                setStructProperty(reader, instance, structType);
+            }
+        }
+    }
+
+    private void setStructProperty(XMLStreamReader reader, Object instance, StructuredType structType)
+            throws ODataException, XMLStreamException {
+        String propertyName = reader.getLocalName();
+
+        PropertyType propertyTypeFromXML = ODataAtomParser.getPropertyType(getEntityDataModel(), propertyName,
+                reader.getAttributeValue(getODataMetadataNS(), TYPE));
+        if (propertyTypeFromXML == null) {
+            LOG.debug("Skip rendering for {} property", propertyName);
+            skipElement(reader);
+            return;
+        }
+
+        StructuralProperty property = getStructuralProperty(getEntityDataModel(), structType, propertyName);
+        if (property == null) {
+            if (!structType.isOpen()) {
+                LOG.debug("{} property is not found in the following {} type. Ignoring",
+                        propertyName, structType.toString());
+                skipElement(reader);
+                return;
+            }
+            throw new ODataNotImplementedException("Open types are not supported, cannot set property value " +
+                    "for property '" + propertyName + "' in instance of type: " + structType);
+        }
+
+        if (propertyTypeFromXML.isCollection() != property.isCollection()) {
+            throw new ODataUnmarshallingException("The type of the property '" + propertyName + "' is " +
+                    (propertyTypeFromXML.isCollection() ? "" : "not ") + "a collection type: " +
+                    propertyTypeFromXML + ", but according to the entity data model it " +
+                    (property.isCollection() ? "is" : "is not") + " a collection: " + property.getTypeName());
+        }
+
+        Object propertyValue;
+        if (propertyTypeFromXML.isCollection()) {
+            foundCollectionProperties.add(propertyName);
+            propertyValue = parsePropertyValueCollection(reader, propertyTypeFromXML.getType(),
+                    property.getPropertyAccessor().getType());
+        } else {
+            propertyValue = parsePropertyValueSingle(reader, propertyTypeFromXML.getType());
+        }
+
+        LOG.debug("Found property element: {}, type: {}, value: {}", propertyName, propertyTypeFromXML,
+                propertyValue);
+        try {
+            property.getPropertyAccessor().set(instance, propertyValue);
+        } catch (IllegalArgumentException e) {
+            throw new ODataUnmarshallingException("Error while setting property value for property '" +
+                    propertyName + "': " + propertyValue + " in class " + instance.getClass().getCanonicalName(), e);
+        }
+    }
+
+    private Object parsePropertyValueCollection(XMLStreamReader reader, Type elementType,
+                                                Class<?> javaCollectionType)
+            throws ODataException, XMLStreamException {
+        Collection<Object> result;
+        if (List.class.isAssignableFrom(javaCollectionType)) {
+            result = new ArrayList<>();
+        } else if (Set.class.isAssignableFrom(javaCollectionType)) {
+            result = new HashSet<>();
+        } else {
+            throw new ODataNotImplementedException("Unsupported collection type: " + javaCollectionType.getName() +
+                    "; only List and Set are supported");
+        }
+
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+            if (ELEMENT.equals(reader.getLocalName()) && getODataMetadataNS().equals(reader.getNamespaceURI())) {
+                result.add(parsePropertyValueSingle(reader, elementType));
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses the value of the current element. When this method returns, the reader is positioned at the end tag of
+     * the element.
+     */
+    private Object parsePropertyValueSingle(XMLStreamReader reader, Type type)
+            throws ODataException, XMLStreamException {
+        if ("true".equals(reader.getAttributeValue(getODataMetadataNS(), NULL))) {
+            skipElement(reader);
+            return null;
+        }
+
+        switch (type.getMetaType()) {
+            case PRIMITIVE:
+                return ParserUtil.parsePrimitiveValue(readText(reader).trim(), (PrimitiveType) type);
+
+            case ENUM:
+                return parsePropertyValueEnum(readText(reader).trim(), (EnumType) type);
+
+            case COMPLEX:
+                Object instance = newInstance((ComplexType) type);
+                readProperties(reader, instance, (ComplexType) type);
+                return instance;
+
+            default:
+                throw new ODataUnmarshallingException("The property '" + reader.getLocalName() + "' must be " +
+                        "of a PRIMITIVE, ENUM or COMPLEX type; something else was found instead: " + type +
+                        " (" + type.getMetaType() + ")");
+        }
+    }
+
+    private Object parsePropertyValueEnum(String text, EnumType enumType) throws ODataException {
+        String[] values = text.split(",");
+        if (values.length > 1) {
+            throw new ODataNotImplementedException("Multiple enum values are not supported, type: " + enumType +
+                    " for value: " + text);
+        }
+
+        return ParserUtil.parseEnumValue(values[0].trim(), enumType);
+    }
+
+    /**
+     * Reads a {@code <link>} element. Returns {@code null} if it is not a navigation link.
+     */
+    private NavigationLink readLink(XMLStreamReader reader) throws ODataException, XMLStreamException {
+        String rel = reader.getAttributeValue(null, REL);
+        if (rel == null || !rel.startsWith(getODataNavLinkRelationNSPrefix())) {
+            skipElement(reader);
+            return null;
+        }
+
+        NavigationLink navigationLink = new NavigationLink(rel.substring(getODataNavLinkRelationNSPrefix().length()),
+                reader.getAttributeValue(null, HREF));
+        LOG.debug("Found link element for navigation property: {}", navigationLink.propertyName);
+
+        boolean firstChild = true;
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+            if (firstChild && INLINE.equals(reader.getLocalName()) &&
+                    getODataMetadataNS().equals(reader.getNamespaceURI())) {
+                readInline(reader, navigationLink);
+            } else {
+                skipElement(reader);
+            }
+            firstChild = false;
+        }
+        return navigationLink;
+    }
+
+    /**
+     * Reads the {@code <metadata:inline>} element of a navigation link. For 'write operations' only the references
+     * in an inline feed are used; for 'read operations' the inline entry or feed is unmarshalled.
+     */
+    private void readInline(XMLStreamReader reader, NavigationLink navigationLink)
+            throws ODataException, XMLStreamException {
+        boolean firstChild = true;
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+            String localName = reader.getLocalName();
+            if (firstChild && ATOM_FEED.equals(localName) && isWriteOperation()) {
+                navigationLink.refIds = readFeedRefs(reader);
+            } else if (firstChild && ATOM_FEED.equals(localName)) {
+                navigationLink.inlineFeed = readFeed(reader);
+            } else if (firstChild && ATOM_ENTRY.equals(localName) && !isWriteOperation()) {
+                navigationLink.inlineEntry = readEntry(reader);
+            } else {
+                skipElement(reader);
+            }
+            firstChild = false;
+        }
+    }
+
+    private List<String> readFeedRefs(XMLStreamReader reader) throws XMLStreamException {
+        List<String> refIds = new ArrayList<>();
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+            if (REF.equals(reader.getLocalName())) {
+                refIds.add(reader.getAttributeValue(null, ID));
+            }
+            skipElement(reader);
+        }
+        return refIds;
+    }
+
+    private void setEntityNavigationProperties(Object entity, EntityType entityType,
+                                               List<NavigationLink> navigationLinks) throws ODataException {
+        Set<String> foundNavigationProperties = new HashSet<>();
+        for (NavigationLink navigationLink : navigationLinks) {
+            String propertyName = navigationLink.propertyName;
+            StructuralProperty property = entityType.getStructuralProperty(propertyName);
+            if (!(property instanceof NavigationProperty)) {
+                throw new ODataUnmarshallingException("The request contains a navigation link '" + propertyName +
+                        "' but the entity type '" + entityType + "' does not contain a navigation property " +
+                        "with this name.");
+            }
+
+            if (isWriteOperation()) {
+                if (property.isCollection()) {
+                    for (String id : navigationLink.refIds) {
+                        Object referencedEntity = getReferencedEntity(id, propertyName);
+                        LOG.debug("Referenced entity: {}", referencedEntity);
+                        saveReferencedEntity(entity, propertyName, property, referencedEntity);
+                    }
+                } else {
+                    // Get the referenced entity, but only with the key fields filled in.
+                    if (navigationLink.href == null || navigationLink.href.isEmpty()) {
+                        throw new ODataUnmarshallingException("The request contains a navigation link for the " +
+                                "property '" + propertyName + "' but the element 'href' is empty.");
+                    }
+                    Object referencedEntity = getReferencedEntity(navigationLink.href, propertyName);
+                    LOG.debug("Referenced entity: {}", referencedEntity);
+                    saveReferencedEntity(entity, propertyName, property, referencedEntity);
+                }
+            } else if (navigationLink.inlineEntry != null) {
+                LOG.debug("Linked entry: {}", navigationLink.inlineEntry);
+                saveReferencedEntity(entity, propertyName, property, navigationLink.inlineEntry);
+            } else {
+                for (Object linkedEntry : navigationLink.inlineFeed) {
+                    LOG.debug("Linked feed entry: {}", linkedEntry);
+                    saveReferencedEntity(entity, propertyName, property, linkedEntry);
+                }
+            }
+            foundNavigationProperties.add(propertyName);
+        }
+
+        if (getRequest().getMethod() == ODataRequest.Method.POST) {
+            entityType.getStructuralProperties().stream()
+                    .filter(property -> property instanceof NavigationProperty && !property.isNullable() &&
+                            !foundNavigationProperties.contains(property.getName()))
+                    .forEach(property -> LOG.debug("Non-nullable navigation property {} is not found in the request",
+                            property.getName()));
+        }
+    }
+
+    private void ensureNonNullableCollectionArePresent(StructuredType entityType) throws ODataException {
+        if (getRequest().getMethod() != ODataRequest.Method.POST) {
+            return;
+        }
+
+        StringJoiner missingCollectionPropertyNames = new StringJoiner(",");
+        entityType.getStructuralProperties().stream()
+                .filter(property -> property.isCollection() && !(property instanceof NavigationProperty) &&
+                        !property.isNullable() && !foundCollectionProperties.contains(property.getName()))
+                .forEach(property -> missingCollectionPropertyNames.add(property.getName()));
+        if (missingCollectionPropertyNames.length() != 0) {
+            LOG.debug("Non-nullable collections of {} are not found in the request", missingCollectionPropertyNames);
+            throw new ODataUnmarshallingException("The request does not specify the non-nullable collections: '"
+                    + missingCollectionPropertyNames + ".");
+        }
+    }
+
+    /**
+     * Returns the text content of the current element, including the text of nested elements. When this method
+     * returns, the reader is positioned at the end tag of the element.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                    event == XMLStreamConstants.SPACE) {
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Skips the current element, including its children. When this method returns, the reader is positioned at the
+     * end tag of the element.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * A navigation link of an entry, kept until the entity type of the entry is known.
+     */
+    private static final class NavigationLink {
+        private final String propertyName;
+        private final String href;
+        private List<String> refIds = new ArrayList<>();
+        private Object inlineEntry;
+        private List<?> inlineFeed = new ArrayList<>();
+
+        private NavigationLink(String propertyName, String href) {
+            this.propertyName = propertyName;
+            this.href = href;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.sdl.odata.unmarshaller.AbstractUnmarshaller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import static com.sdl.odata.renderer.AbstractRenderer.DEFAULT_SCORE;
@@ -41,6 +42,9 @@ public class BatchUnmarshaller extends AbstractUnmarshaller {
     @Autowired
     private ODataParser uriParser;
 
+    @Value("${odata.unmarshaller.batch.streaming:false}")
+    private boolean streaming;
+
     @Override
     public int score(ODataRequestContext requestContext) {
         if (isRightMethodForUnmarshall(requestContext.getRequest()) &&
@@ -57,6 +61,6 @@ public class BatchUnmarshaller extends AbstractUnmarshaller {
     @Override
     public Object unmarshall(ODataRequestContext requestContext) throws ODataException {
         LOG.info("Multipart unmarshaller invoked with {}", requestContext.getRequest());
-        return new ODataBatchParser(requestContext, uriParser).getODataEntity();
+        return new ODataBatchParser(requestContext, uriParser, streaming).getODataEntity();
     }
 }
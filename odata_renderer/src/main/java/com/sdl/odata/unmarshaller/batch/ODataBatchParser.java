@@ -20,17 +20,34 @@ import com.sdl.odata.api.ODataNotImplementedException;
 import com.sdl.odata.api.parser.ODataParser;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.parser.ODataBatchRequestParser;
+import com.sdl.odata.parser.ODataBatchRequestReader;
 import com.sdl.odata.unmarshaller.AbstractParser;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * The OData Multipart Parser that is used to parse Batch request that contain multipart/mixed as the Content-Type.
+ * <p>
+ * With streaming enabled the body is read by {@link ODataBatchRequestReader} in a single pass, and the components
+ * after the first one are only read when the batch is processed. When the request body is consumed lazily, it is
+ * read straight from the request stream.
  */
 public class ODataBatchParser extends AbstractParser {
 
+    private final boolean streaming;
+
     public ODataBatchParser(ODataRequestContext request, ODataParser uriParser) {
+        this(request, uriParser, false);
+    }
+
+    public ODataBatchParser(ODataRequestContext request, ODataParser uriParser, boolean streaming) {
         super(request, uriParser);
+        this.streaming = streaming;
     }
 
     /**
@@ -41,9 +58,20 @@ public class ODataBatchParser extends AbstractParser {
      */
     @Override
     protected Object processEntity(String bodyText) throws ODataException {
+        if (streaming) {
+            return new ODataBatchRequestReader(new StringReader(bodyText)).read();
+        }
         return new ODataBatchRequestParser().parseBatch(bodyText);
     }
 
+    @Override
+    protected Object processEntity(InputStream bodyStream) throws ODataException {
+        if (streaming) {
+            return new ODataBatchRequestReader(new InputStreamReader(bodyStream, UTF_8)).read();
+        }
+        return super.processEntity(bodyStream);
+    }
+
     /**
      * This method will not be used because batch body processing will go through 'processEntity' method.
      * @param bodyText The given batch request body
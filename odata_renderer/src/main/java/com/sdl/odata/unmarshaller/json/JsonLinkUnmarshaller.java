@@ -19,7 +19,6 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.sdl.odata.JsonConstants;
-import com.sdl.odata.api.ODataSystemException;
 import com.sdl.odata.api.service.MediaType;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.api.unmarshaller.ODataUnmarshallingException;
@@ -27,9 +26,8 @@ import com.sdl.odata.unmarshaller.AbstractLinkUnmarshaller;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 
+import static com.sdl.odata.ODataRendererUtils.getBodyText;
 import static com.sdl.odata.util.ReferenceUtil.isNullOrEmpty;
 
 /**
@@ -54,12 +52,7 @@ public class JsonLinkUnmarshaller extends AbstractLinkUnmarshaller {
         // The body is expected to contain a single entity reference
         // See OData JSON specification chapter 13
 
-        String bodyText;
-        try {
-            bodyText = requestContext.getRequest().getBodyText(StandardCharsets.UTF_8.name());
-        } catch (UnsupportedEncodingException e) {
-            throw new ODataSystemException("UTF-8 is not supported", e);
-        }
+        String bodyText = getBodyText(requestContext.getRequest());
 
         String idValue = null;
         try {
@@ -16,14 +16,17 @@
 package com.sdl.odata.unmarshaller.json;
 
 import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
 import com.sdl.odata.api.parser.ODataParser;
 import com.sdl.odata.api.parser.ODataUriUtil;
 import com.sdl.odata.api.service.MediaType;
 import com.sdl.odata.api.service.ODataRequestContext;
 import com.sdl.odata.unmarshaller.AbstractUnmarshaller;
+import com.sdl.odata.unmarshaller.json.core.JsonEntityBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import static com.sdl.odata.renderer.AbstractRenderer.DEFAULT_SCORE;
@@ -39,6 +42,11 @@ public class JsonUnmarshaller extends AbstractUnmarshaller {
     @Autowired
     private ODataParser uriParser;
 
+    @Value("${odata.unmarshaller.json.direct-binding:false}")
+    private boolean directBinding;
+
+    private volatile JsonEntityBinder binder;
+
     @Override
     public int score(ODataRequestContext requestContext) {
         if (isRightMethodForUnmarshall(requestContext.getRequest()) &&
@@ -55,6 +63,26 @@ public class JsonUnmarshaller extends AbstractUnmarshaller {
     @Override
     public Object unmarshall(ODataRequestContext requestContext) throws ODataException {
         LOG.info("Json Unmarshaller invoked with {}", requestContext.getRequest());
+        if (directBinding) {
+            return new ODataJsonBindingParser(requestContext, uriParser,
+                    getBinder(requestContext.getEntityDataModel())).getODataEntity();
+        }
         return new ODataJsonParser(requestContext, uriParser).getODataEntity();
     }
+
+    /**
+     * Gets the binder for the given entity data model. The binder, which holds the bindings of the entity types, is
+     * replaced when the entity data model changes.
+     *
+     * @param entityDataModel The entity data model of the request.
+     * @return The binder for the entity data model.
+     */
+    private JsonEntityBinder getBinder(EntityDataModel entityDataModel) {
+        JsonEntityBinder current = binder;
+        if (current == null || current.getEntityDataModel() != entityDataModel) {
+            current = new JsonEntityBinder(entityDataModel);
+            binder = current;
+        }
+        return current;
+    }
 }
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.unmarshaller.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.parser.ODataParser;
+import com.sdl.odata.api.parser.TargetType;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.unmarshaller.ODataEntityFeed;
+import com.sdl.odata.api.unmarshaller.ODataUnmarshallingException;
+import com.sdl.odata.unmarshaller.json.core.JsonEntityBinder;
+import com.sdl.odata.unmarshaller.json.core.JsonEntityBinder.BoundEntity;
+import com.sdl.odata.unmarshaller.json.core.JsonNullableValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OData Json Parser which binds the payload directly onto an entity with a {@link JsonEntityBinder}.
+ * <p>
+ * In contrast with {@link ODataJsonParser}, the payload is not first converted into maps of strings: property values
+ * are converted into their Java types while they are read. The {@code @odata.type} annotation of the entity must
+ * precede its properties.
+ * <p>
+ * A payload with a collection of entities ({@code {"value": [...]}}) is accepted for a POST request to an entity set.
+ * The entities are then not read up front: {@link #getODataEntity()} returns an {@link ODataEntityFeed} which reads
+ * and unmarshalls them one at a time, so that the request can be processed in chunks with bounded memory.
+ */
+public class ODataJsonBindingParser extends ODataJsonParser {
+    private static final Logger LOG = LoggerFactory.getLogger(ODataJsonBindingParser.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonEntityBinder binder;
+
+    public ODataJsonBindingParser(ODataRequestContext request, ODataParser uriParser) {
+        this(request, uriParser, new JsonEntityBinder(request.getEntityDataModel()));
+    }
+
+    /**
+     * Creates a parser which uses the given binder, so that the bindings of the entity types are shared between
+     * requests.
+     *
+     * @param request   The request context.
+     * @param uriParser The URI parser, used to resolve navigation links.
+     * @param binder    The binder for the entity data model of the request.
+     */
+    public ODataJsonBindingParser(ODataRequestContext request, ODataParser uriParser, JsonEntityBinder binder) {
+        super(request, uriParser);
+        this.binder = binder;
+    }
+
+    @Override
+    protected Object processEntity(String bodyText) throws ODataException {
+        try {
+            return processEntity(JSON_FACTORY.createParser(bodyText));
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("It is unable to unmarshall", e);
+        }
+    }
+
+    @Override
+    protected Object processEntity(InputStream bodyStream) throws ODataException {
+        try {
+            return processEntity(JSON_FACTORY.createParser(bodyStream));
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("It is unable to unmarshall", e);
+        }
+    }
+
+    @Override
+    protected List<?> processEntities(String bodyText) throws ODataException {
+        try {
+            return processEntities(JSON_FACTORY.createParser(bodyText));
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("It is unable to unmarshall", e);
+        }
+    }
+
+    @Override
+    protected List<?> processEntities(InputStream bodyStream) throws ODataException {
+        try {
+            return processEntities(JSON_FACTORY.createParser(bodyStream));
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("It is unable to unmarshall", e);
+        }
+    }
+
+    /**
+     * Reads an entity, or a collection of entities for a POST request to an entity set. In the latter case the
+     * parser is handed over to the returned {@link ODataEntityFeed}, which reads the entities when they are requested.
+     */
+    private Object processEntity(JsonParser jsonParser) throws ODataException {
+        boolean feed = false;
+        try {
+            String typeName = getTargetTypeName();
+            BoundEntity bound = binder.readEntity(jsonParser, typeName);
+            if (bound.isCollection()) {
+                TargetType targetType = getTargetType();
+                if (getRequest().getMethod() != ODataRequest.Method.POST || targetType == null ||
+                        !targetType.isCollection()) {
+                    throw new ODataUnmarshallingException("Feed is not supported");
+                }
+                feed = true;
+                return new JsonEntityFeed(jsonParser, typeName);
+            }
+            return completeEntity(bound);
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("It is unable to unmarshall", e);
+        } finally {
+            if (!feed) {
+                close(jsonParser);
+            }
+        }
+    }
+
+    private List<?> processEntities(JsonParser jsonParser) throws ODataException {
+        String typeName = getTargetTypeName();
+        List<Object> entities = new ArrayList<>();
+        try (ODataEntityFeed feed = new JsonEntityFeed(jsonParser, typeName)) {
+            if (!binder.readEntity(jsonParser, typeName).isCollection()) {
+                throw new ODataUnmarshallingException("The payload does not contain a collection of entities");
+            }
+            Object entity;
+            while ((entity = feed.nextEntity()) != null) {
+                entities.add(entity);
+            }
+        } catch (IOException e) {
+            throw new ODataUnmarshallingException("It is unable to unmarshall", e);
+        }
+        return entities;
+    }
+
+    private String getTargetTypeName() {
+        TargetType targetType = getTargetType();
+        return targetType == null ? null : targetType.typeName();
+    }
+
+    private Object completeEntity(BoundEntity bound) throws ODataException {
+        if (getRequest().getMethod() == ODataRequest.Method.POST) {
+            JsonNullableValidator validator = new JsonNullableValidator(bound.getFieldNames(), bound.getLinks());
+            validator.ensureCollection(bound.getEntityType());
+            validator.ensureNavigationProperties(bound.getEntityType());
+        }
+
+        setEntityNavigationProperties(bound.getEntity(), bound.getEntityType(), bound.getLinks());
+        return bound.getEntity();
+    }
+
+    private static void close(JsonParser jsonParser) {
+        try {
+            jsonParser.close();
+        } catch (IOException e) {
+            LOG.warn("Unable to close the JSON parser", e);
+        }
+    }
+
+    /**
+     * The entities of the {@code value} array of a collection, read from the parser one at a time.
+     */
+    private final class JsonEntityFeed implements ODataEntityFeed {
+        private final JsonParser jsonParser;
+        private final String typeName;
+        private boolean done;
+
+        private JsonEntityFeed(JsonParser jsonParser, String typeName) {
+            this.jsonParser = jsonParser;
+            this.typeName = typeName;
+        }
+
+        @Override
+        public Object nextEntity() throws ODataException {
+            if (done) {
+                return null;
+            }
+            try {
+                JsonToken token = jsonParser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    close();
+                    return null;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new ODataUnmarshallingException("Expected an entity in the collection, but found: " + token);
+                }
+                return completeEntity(binder.readCollectionEntity(jsonParser, typeName));
+            } catch (IOException e) {
+                close();
+                throw new ODataUnmarshallingException("It is unable to unmarshall", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!done) {
+                done = true;
+                ODataJsonBindingParser.close(jsonParser);
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ import com.sdl.odata.unmarshaller.json.core.JsonPropertyExpander;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -70,7 +71,16 @@ public class ODataJsonParser extends AbstractParser {
 
     @Override
     protected Object processEntity(String bodyText) throws ODataException {
-        initializeProcessor(new JsonProcessor(bodyText));
+        return processEntity(new JsonProcessor(bodyText));
+    }
+
+    @Override
+    protected Object processEntity(InputStream bodyStream) throws ODataException {
+        return processEntity(new JsonProcessor(bodyStream));
+    }
+
+    private Object processEntity(JsonProcessor processor) throws ODataException {
+        initializeProcessor(processor);
 
         JsonPropertyExpander expander = new JsonPropertyExpander(getEntityDataModel());
 
@@ -134,7 +144,20 @@ public class ODataJsonParser extends AbstractParser {
      * @throws ODataException If unable to set navigation properties
      */
     protected void setEntityNavigationProperties(Object entity, StructuredType entityType) throws ODataException {
-        for (Map.Entry<String, Object> entry : links.entrySet()) {
+        setEntityNavigationProperties(entity, entityType, links);
+    }
+
+    /**
+     * Sets the given entity with the given navigation links.
+     *
+     * @param entity          entity
+     * @param entityType      the entity type
+     * @param navigationLinks the links, keyed on the name of the navigation property
+     * @throws ODataException If unable to set navigation properties
+     */
+    protected void setEntityNavigationProperties(Object entity, StructuredType entityType,
+                                                 Map<String, Object> navigationLinks) throws ODataException {
+        for (Map.Entry<String, Object> entry : navigationLinks.entrySet()) {
             String propertyName = entry.getKey();
             Object entryLinks = entry.getValue();
             LOG.debug("Found link for navigation property: {}", propertyName);
@@ -0,0 +1,570 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.unmarshaller.json.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sdl.odata.JsonConstants;
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.edm.model.MetaType;
+import com.sdl.odata.api.edm.model.PropertyAccessor;
+import com.sdl.odata.api.edm.model.StructuralProperty;
+import com.sdl.odata.api.edm.model.StructuredType;
+import com.sdl.odata.api.edm.model.Type;
+import com.sdl.odata.api.unmarshaller.ODataUnmarshallingException;
+import com.sdl.odata.util.PrimitiveUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.sdl.odata.unmarshaller.json.core.JsonParserUtils.getAllProperties;
+import static com.sdl.odata.unmarshaller.json.core.JsonParserUtils.setPropertyValue;
+import static com.sdl.odata.unmarshaller.json.core.JsonProcessor.ODATA;
+import static com.sdl.odata.unmarshaller.json.core.JsonProcessor.ODATA_BIND;
+import static com.sdl.odata.util.ReferenceUtil.isNullOrEmpty;
+
+/**
+ * Binds the tokens of a {@link JsonParser} directly onto entity instances.
+ * <p>
+ * In contrast with {@link JsonProcessor} and {@link JsonPropertyExpander}, no intermediate maps of the payload are
+ * built: each property value is converted from its JSON token into the Java type of the property in the entity data
+ * model while it is read, and numbers are read through the numeric accessors of the parser instead of through their
+ * text. The property accessors, the types of the properties and the conversion methods are looked up once per
+ * structured type and kept for the lifetime of the binder, so a binder should be reused for all payloads of the same
+ * entity data model. Instances are thread-safe.
+ * <p>
+ * Property names are matched case insensitively, annotations of nested objects are ignored and properties which are
+ * not part of the entity data model are skipped, as {@link JsonPropertyExpander} does. The {@code @odata.type}
+ * annotation of the entity must precede its properties, as required by the OData JSON format.
+ */
+public class JsonEntityBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(JsonEntityBinder.class);
+
+    private final EntityDataModel entityDataModel;
+    private final ConcurrentMap<String, TypeBinding> typeBindings = new ConcurrentHashMap<>();
+
+    public JsonEntityBinder(EntityDataModel entityDataModel) {
+        this.entityDataModel = entityDataModel;
+    }
+
+    public EntityDataModel getEntityDataModel() {
+        return entityDataModel;
+    }
+
+    /**
+     * Reads an entity object from the parser. The parser must be positioned before the start of the object.
+     * <p>
+     * If the object is a collection of entities, which has a {@code value} array before any property, the parser is
+     * left at the start of the array and {@link BoundEntity#isCollection()} returns {@code true}. The entities can
+     * then be read one by one with {@link #readCollectionEntity(JsonParser, String)}.
+     *
+     * @param jsonParser      the parser
+     * @param defaultTypeName the name of the entity type if the object has no {@code @odata.type} annotation,
+     *                        may be {@code null}
+     * @return the entity with the annotations, links and names of the properties found in the object
+     * @throws IOException                 If unable to read input parser
+     * @throws ODataUnmarshallingException If the object cannot be bound onto an entity
+     */
+    public BoundEntity readEntity(JsonParser jsonParser, String defaultTypeName)
+            throws IOException, ODataUnmarshallingException {
+        if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+            throw new ODataUnmarshallingException("Expected a JSON object, but found: " +
+                    jsonParser.getCurrentToken());
+        }
+        return readEntityObject(jsonParser, defaultTypeName, true);
+    }
+
+    /**
+     * Reads an entity object of a collection from the parser. The parser must be positioned at the start of the
+     * object.
+     *
+     * @param jsonParser      the parser
+     * @param defaultTypeName the name of the entity type if the object has no {@code @odata.type} annotation,
+     *                        may be {@code null}
+     * @return the entity with the annotations, links and names of the properties found in the object
+     * @throws IOException                 If unable to read input parser
+     * @throws ODataUnmarshallingException If the object cannot be bound onto an entity
+     */
+    public BoundEntity readCollectionEntity(JsonParser jsonParser, String defaultTypeName)
+            throws IOException, ODataUnmarshallingException {
+        return readEntityObject(jsonParser, defaultTypeName, false);
+    }
+
+    private BoundEntity readEntityObject(JsonParser jsonParser, String defaultTypeName, boolean collectionAllowed)
+            throws IOException, ODataUnmarshallingException {
+        BoundEntity bound = new BoundEntity();
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = jsonParser.getCurrentName();
+            if (name.startsWith(ODATA)) {
+                String value = readAnnotation(jsonParser);
+                if (JsonConstants.TYPE.equals(name) && bound.entity != null &&
+                        !bound.entityType.getFullyQualifiedName().equals(stripHash(value))) {
+                    throw new ODataUnmarshallingException("The '" + JsonConstants.TYPE +
+                            "' annotation must precede the properties of the entity");
+                }
+                bound.odataValues.put(name, value);
+            } else if (name.endsWith(ODATA_BIND)) {
+                JsonProcessor.processLinks(jsonParser, bound.links);
+            } else {
+                JsonToken token = jsonParser.nextToken();
+                if (token == JsonToken.START_ARRAY && JsonConstants.VALUE.equals(name)) {
+                    if (!collectionAllowed || bound.entity != null) {
+                        throw new ODataUnmarshallingException("Feed is not supported");
+                    }
+                    // The object is a collection of entities, which the caller reads from the array
+                    bound.collection = true;
+                    return bound;
+                }
+                if (bound.entity == null) {
+                    bound.bind(getEntityTypeBinding(bound.odataValues, defaultTypeName));
+                }
+                bound.fieldNames.add(name);
+                readProperty(jsonParser, bound.binding, bound.entity, name);
+            }
+        }
+
+        if (bound.entity == null) {
+            bound.bind(getEntityTypeBinding(bound.odataValues, defaultTypeName));
+        }
+        return bound;
+    }
+
+    private TypeBinding getEntityTypeBinding(Map<String, String> odataValues, String defaultTypeName)
+            throws ODataUnmarshallingException {
+        String typeName = odataValues.get(JsonConstants.TYPE);
+        if (isNullOrEmpty(typeName)) {
+            if (defaultTypeName == null) {
+                throw new ODataUnmarshallingException("Could not find entity name");
+            }
+            typeName = defaultTypeName;
+        }
+        return getTypeBinding(stripHash(typeName));
+    }
+
+    private static String stripHash(String typeName) {
+        return typeName != null && typeName.startsWith("#") ? typeName.substring(1) : typeName;
+    }
+
+    private String readAnnotation(JsonParser jsonParser) throws IOException {
+        JsonToken token = jsonParser.nextToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            jsonParser.skipChildren();
+            return null;
+        }
+        return jsonParser.getText();
+    }
+
+    /**
+     * Gets the binding of the structured type with the given name, creating it on first use.
+     *
+     * @param typeName the fully qualified name of the type
+     * @return the binding of the type
+     * @throws ODataUnmarshallingException If the type is not a structured type of the entity data model
+     */
+    public TypeBinding getTypeBinding(String typeName) throws ODataUnmarshallingException {
+        TypeBinding binding = typeBindings.get(typeName);
+        if (binding == null) {
+            StructuredType structuredType = JsonParserUtils.getStructuredType(typeName, entityDataModel);
+            if (structuredType == null) {
+                LOG.warn("Given entity '{}' is not found in entity data model", typeName);
+                throw new ODataUnmarshallingException("Couldn't initiate entity because given entity [" + typeName
+                        + "] is not found in entity data model.");
+            }
+            binding = new TypeBinding(structuredType, createPropertyBindings(structuredType));
+            TypeBinding existing = typeBindings.putIfAbsent(typeName, binding);
+            if (existing != null) {
+                binding = existing;
+            }
+        }
+        return binding;
+    }
+
+    private Map<String, PropertyBinding> createPropertyBindings(StructuredType structuredType)
+            throws ODataUnmarshallingException {
+        try {
+            Map<String, PropertyBinding> bindings = new HashMap<>();
+            for (StructuralProperty property : getAllProperties(structuredType, entityDataModel)) {
+                // As in JsonPropertyExpander, the first property of which the name matches wins
+                bindings.putIfAbsent(property.getName().toLowerCase(Locale.ROOT), new PropertyBinding(property));
+            }
+            return bindings;
+        } catch (ODataUnmarshallingException e) {
+            throw e;
+        } catch (ODataException e) {
+            throw new ODataUnmarshallingException("Unable to get the properties of " + structuredType, e);
+        }
+    }
+
+    private void readProperty(JsonParser jsonParser, TypeBinding binding, Object instance, String name)
+            throws IOException, ODataUnmarshallingException {
+        PropertyBinding property = binding.getProperty(name);
+        if (property == null) {
+            LOG.debug("Skipping '{}' which is not a property of {}", name, binding.structuredType);
+            jsonParser.skipChildren();
+            return;
+        }
+
+        Object value = property.collection ? readCollection(jsonParser, property) : readValue(jsonParser, property);
+        if (value != null) {
+            property.set(instance, value);
+        }
+    }
+
+    private Collection<Object> readCollection(JsonParser jsonParser, PropertyBinding property)
+            throws IOException, ODataUnmarshallingException {
+        JsonToken token = jsonParser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new ODataUnmarshallingException("Expected an array for collection property '" +
+                    property.property.getName() + "', but found: " + token);
+        }
+
+        Collection<Object> values = property.setField ? new HashSet<>() : new ArrayList<>();
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            Object value = readValue(jsonParser, property);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private Object readValue(JsonParser jsonParser, PropertyBinding property)
+            throws IOException, ODataUnmarshallingException {
+        JsonToken token = jsonParser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (property.scalar != null) {
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                throw new ODataUnmarshallingException("Expected a primitive value for property '" +
+                        property.property.getName() + "', but found: " + token);
+            }
+            return property.scalar.read(jsonParser);
+        }
+        if (property.structuredTypeName != null) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new ODataUnmarshallingException("Expected an object for property '" +
+                        property.property.getName() + "', but found: " + token);
+            }
+            return readObject(jsonParser, property.getStructuredType());
+        }
+        throw property.unsupported();
+    }
+
+    private Object readObject(JsonParser jsonParser, TypeBinding binding)
+            throws IOException, ODataUnmarshallingException {
+        Object instance = binding.newInstance();
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = jsonParser.getCurrentName();
+            jsonParser.nextToken();
+            if (name.indexOf('@') >= 0) {
+                jsonParser.skipChildren();
+            } else {
+                readProperty(jsonParser, binding, instance, name);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * The result of binding an entity object: the entity with the annotations and links of the object and the names
+     * of the properties it contains.
+     */
+    public static final class BoundEntity {
+        private final Map<String, String> odataValues = new HashMap<>();
+        private boolean collection;
+        private final Map<String, Object> links = new TreeMap<>();
+        private final Set<String> fieldNames = new LinkedHashSet<>();
+        private TypeBinding binding;
+        private StructuredType entityType;
+        private Object entity;
+
+        private void bind(TypeBinding typeBinding) throws ODataUnmarshallingException {
+            this.binding = typeBinding;
+            this.entityType = typeBinding.structuredType;
+            this.entity = typeBinding.newInstance();
+        }
+
+        /**
+         * Returns whether the object is a collection of entities instead of an entity, in which case there is no
+         * entity.
+         *
+         * @return {@code true} if the object is a collection of entities
+         */
+        public boolean isCollection() {
+            return collection;
+        }
+
+        public Object getEntity() {
+            return entity;
+        }
+
+        public StructuredType getEntityType() {
+            return entityType;
+        }
+
+        public Map<String, String> getODataValues() {
+            return odataValues;
+        }
+
+        public Map<String, Object> getLinks() {
+            return links;
+        }
+
+        public Set<String> getFieldNames() {
+            return fieldNames;
+        }
+    }
+
+    /**
+     * The properties of a structured type, keyed on their lower case name.
+     */
+    public static final class TypeBinding {
+        private final StructuredType structuredType;
+        private final Map<String, PropertyBinding> properties;
+
+        private TypeBinding(StructuredType structuredType, Map<String, PropertyBinding> properties) {
+            this.structuredType = structuredType;
+            this.properties = properties;
+        }
+
+        public StructuredType getStructuredType() {
+            return structuredType;
+        }
+
+        private PropertyBinding getProperty(String name) {
+            return properties.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        private Object newInstance() throws ODataUnmarshallingException {
+            try {
+                return structuredType.getJavaType().newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new ODataUnmarshallingException("Cannot instantiate entity", e);
+            }
+        }
+    }
+
+    /**
+     * A property of a structured type with the way its values are read. Values are written through the property
+     * accessor of the property.
+     */
+    private final class PropertyBinding {
+        private final StructuralProperty property;
+        private final boolean collection;
+        private final boolean setField;
+        private final String typeName;
+        private final ScalarReader scalar;
+        private final String structuredTypeName;
+        private final String unsupportedMessage;
+        private volatile TypeBinding structuredType;
+
+        PropertyBinding(StructuralProperty property) {
+            this.property = property;
+            PropertyAccessor accessor = property.getPropertyAccessor();
+            this.collection = property.isCollection();
+            this.setField = accessor != null && accessor.getType().isAssignableFrom(Set.class);
+            this.typeName = collection ? property.getElementTypeName() : property.getTypeName();
+
+            // Types are resolved eagerly, but failures are only reported when the property occurs in a payload
+            Type type = entityDataModel.getType(typeName);
+            ScalarReader scalarReader = null;
+            String structuredName = null;
+            String message = null;
+            if (accessor == null) {
+                message = "Property has no Java field: " + property.getName();
+            } else if (type == null) {
+                message = "OData type not found: " + typeName;
+            } else if (type.getMetaType() == MetaType.ENTITY || type.getMetaType() == MetaType.COMPLEX) {
+                structuredName = typeName;
+            } else if ((type.getMetaType() == MetaType.PRIMITIVE || type.getMetaType() == MetaType.ENUM)
+                    && type.getJavaType() != null) {
+                scalarReader = new ScalarReader(type.getJavaType());
+            } else {
+                message = "Unsupported type: " + typeName;
+            }
+            this.scalar = scalarReader;
+            this.structuredTypeName = structuredName;
+            this.unsupportedMessage = message;
+        }
+
+        TypeBinding getStructuredType() throws ODataUnmarshallingException {
+            // Resolved lazily, because the type may (indirectly) refer to the type which declares this property
+            TypeBinding binding = structuredType;
+            if (binding == null) {
+                binding = getTypeBinding(structuredTypeName);
+                structuredType = binding;
+            }
+            return binding;
+        }
+
+        ODataUnmarshallingException unsupported() {
+            LOG.warn("Cannot read property '{}': {}", property.getName(), unsupportedMessage);
+            return new ODataUnmarshallingException(unsupportedMessage);
+        }
+
+        void set(Object instance, Object value) throws ODataUnmarshallingException {
+            setPropertyValue(property, instance, value);
+        }
+    }
+
+    /**
+     * Converts the text of a value into a value of a Java type.
+     */
+    @FunctionalInterface
+    private interface TextConverter {
+        Object convert(String text);
+    }
+
+    /**
+     * Reads primitive and enum values of a Java type. The conversion of text values is resolved once, into a method
+     * handle for the conversion method of the type; numbers and booleans are read through the accessors of the
+     * parser. Text values are converted as {@link JsonParserUtils#getAppropriateFieldValue(Class, String)} does; in
+     * addition, the {@code java.time} types are parsed through their {@code parse(CharSequence)} methods.
+     */
+    private static final class ScalarReader {
+        private static final MethodType CONVERTER_TYPE = MethodType.methodType(Object.class, String.class);
+
+        private final Class<?> javaType;
+        private final TextConverter converter;
+
+        ScalarReader(Class<?> type) {
+            this.javaType = PrimitiveUtil.wrap(type);
+            this.converter = createConverter(javaType);
+        }
+
+        private static TextConverter createConverter(Class<?> javaType) {
+            if (javaType == String.class) {
+                return text -> text;
+            } else if (javaType == byte[].class) {
+                return text -> Base64.getDecoder().decode(text);
+            } else if (javaType == UUID.class) {
+                return UUID::fromString;
+            } else if (javaType == BigDecimal.class) {
+                return BigDecimal::new;
+            }
+
+            Method method = findStaticMethod(javaType, "parse", String.class);
+            if (method == null) {
+                method = findStaticMethod(javaType, "parse", CharSequence.class);
+            }
+            if (method == null) {
+                method = findStaticMethod(javaType, "valueOf", String.class);
+            }
+            if (method == null) {
+                return null;
+            }
+
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflect(method).asType(CONVERTER_TYPE);
+            } catch (IllegalAccessException e) {
+                LOG.warn("Cannot use {} to convert values to {}", method, javaType.getCanonicalName(), e);
+                return null;
+            }
+            return text -> {
+                try {
+                    return (Object) handle.invokeExact(text);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalArgumentException(t);
+                }
+            };
+        }
+
+        private static Method findStaticMethod(Class<?> type, String name, Class<?> parameterType) {
+            try {
+                Method method = type.getMethod(name, parameterType);
+                return Modifier.isStatic(method.getModifiers()) ? method : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        Object read(JsonParser jsonParser) throws IOException, ODataUnmarshallingException {
+            switch (jsonParser.getCurrentToken()) {
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return readNumber(jsonParser);
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    return javaType == Boolean.class ? jsonParser.getBooleanValue() : fromText(jsonParser.getText());
+                default:
+                    return fromText(jsonParser.getText());
+            }
+        }
+
+        private Object readNumber(JsonParser jsonParser) throws IOException, ODataUnmarshallingException {
+            if (javaType == Long.class) {
+                return jsonParser.getLongValue();
+            } else if (javaType == Integer.class) {
+                return jsonParser.getIntValue();
+            } else if (javaType == Short.class) {
+                return jsonParser.getShortValue();
+            } else if (javaType == Byte.class) {
+                return jsonParser.getByteValue();
+            } else if (javaType == Double.class) {
+                return jsonParser.getDoubleValue();
+            } else if (javaType == Float.class) {
+                return jsonParser.getFloatValue();
+            } else if (javaType == BigDecimal.class) {
+                return jsonParser.getDecimalValue();
+            } else if (javaType == BigInteger.class) {
+                return jsonParser.getBigIntegerValue();
+            }
+            return fromText(jsonParser.getText());
+        }
+
+        private Object fromText(String text) throws ODataUnmarshallingException {
+            if (converter == null) {
+                LOG.warn("There is no conversion of '{}' to {}", text, javaType.getCanonicalName());
+                return null;
+            }
+            try {
+                return converter.convert(text);
+            } catch (RuntimeException e) {
+                throw new ODataUnmarshallingException("Could not convert '" + text + "' to " +
+                        javaType.getCanonicalName(), e);
+            }
+        }
+    }
+}
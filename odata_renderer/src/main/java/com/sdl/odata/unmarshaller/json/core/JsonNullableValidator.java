@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringJoiner;
 
 /**
@@ -35,11 +36,15 @@ import java.util.StringJoiner;
 public class JsonNullableValidator {
     private static final Logger LOG = LoggerFactory.getLogger(JsonNullableValidator.class);
 
-    private final Map<String, Object> fields;
+    private final Set<String> fieldNames;
     private final Map<String, Object> links;
 
     public JsonNullableValidator(Map<String, Object> fields, Map<String, Object> links) {
-        this.fields = fields;
+        this(fields.keySet(), links);
+    }
+
+    public JsonNullableValidator(Set<String> fieldNames, Map<String, Object> links) {
+        this.fieldNames = fieldNames;
         this.links = links;
     }
 
@@ -56,7 +61,7 @@ public class JsonNullableValidator {
                 .filter(property -> (property.isCollection())
                         && !(property instanceof NavigationProperty) && !property.isNullable()).forEach(property -> {
             LOG.debug("Validating non-nullable collection property : {}", property.getName());
-            if (!fields.containsKey(property.getName())) {
+            if (!fieldNames.contains(property.getName())) {
                 missingCollectionPropertyName.add(property.getName());
             }
         });
@@ -25,7 +25,6 @@ import com.sdl.odata.util.PrimitiveUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -115,13 +114,21 @@ public final class JsonParserUtils {
         return null;
     }
 
-    public static void setFieldValue(Field field, Object entity, Object value) throws ODataUnmarshallingException {
+    /**
+     * Sets the value of a property in an entity through the accessor of the property.
+     *
+     * @param property the property
+     * @param entity   the entity
+     * @param value    the value
+     * @throws ODataUnmarshallingException If the value cannot be assigned to the property
+     */
+    public static void setPropertyValue(StructuralProperty property, Object entity, Object value)
+            throws ODataUnmarshallingException {
         try {
-            field.setAccessible(true);
-            field.set(entity, value);
-            LOG.trace("'{}' is set with '{}'", field.getName(), value);
-        } catch (ReflectiveOperationException e) {
-            throw new ODataUnmarshallingException("Cannot set field '" + field.getName() +
+            property.getPropertyAccessor().set(entity, value);
+            LOG.trace("'{}' is set with '{}'", property.getName(), value);
+        } catch (IllegalArgumentException e) {
+            throw new ODataUnmarshallingException("Cannot set field '" + property.getName() +
                     "' = '" + value + "'", e);
         }
     }
@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -54,6 +55,7 @@ public class JsonProcessor {
      */
     public static final String SVC_EXTENSION = ".svc/";
     private final String inputJson;
+    private final InputStream inputStream;
 
     private Map<String, String> odataValues = new HashMap<>();
     private Map<String, Object> values = new HashMap<>();
@@ -64,6 +66,20 @@ public class JsonProcessor {
             throw new IllegalArgumentException();
         }
         this.inputJson = bodyText;
+        this.inputStream = null;
+    }
+
+    /**
+     * Creates a processor which parses the JSON incrementally while reading it from the given stream.
+     *
+     * @param bodyStream The stream containing the JSON.
+     */
+    public JsonProcessor(InputStream bodyStream) {
+        if (bodyStream == null) {
+            throw new IllegalArgumentException();
+        }
+        this.inputJson = null;
+        this.inputStream = bodyStream;
     }
 
     /**
@@ -73,7 +89,8 @@ public class JsonProcessor {
     public void initialize() throws ODataUnmarshallingException {
         LOG.info("Parser is initializing");
         try {
-            JsonParser jsonParser = JSON_FACTORY.createParser(inputJson);
+            JsonParser jsonParser = inputStream != null ?
+                    JSON_FACTORY.createParser(inputStream) : JSON_FACTORY.createParser(inputJson);
 
             while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
                 String token = jsonParser.getCurrentName();
@@ -200,6 +217,17 @@ public class JsonProcessor {
      * @throws IOException If unable to read input parser
      */
     private void processLinks(JsonParser jsonParser) throws IOException {
+        processLinks(jsonParser, links);
+    }
+
+    /**
+     * Process OData links into the given map, keyed on the name of the navigation property.
+     *
+     * @param jsonParser the parser, positioned at the name of the link field
+     * @param links      the map of links to fill
+     * @throws IOException If unable to read input parser
+     */
+    static void processLinks(JsonParser jsonParser, Map<String, Object> links) throws IOException {
 
         LOG.info("@odata.bind tag found - start parsing");
 
@@ -215,7 +243,7 @@ public class JsonProcessor {
             while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
                 linksList.add(processLink(jsonParser));
             }
-            this.links.put(key, linksList);
+            links.put(key, linksList);
 
         }
     }
@@ -227,7 +255,7 @@ public class JsonProcessor {
      * @throws IOException If unable to read input parser
      * @return the link
      */
-    private String processLink(JsonParser jsonParser) throws IOException {
+    private static String processLink(JsonParser jsonParser) throws IOException {
         final String link = jsonParser.getText();
         if (link.contains(SVC_EXTENSION)) {
             return link.substring(link.indexOf(SVC_EXTENSION) + SVC_EXTENSION.length());
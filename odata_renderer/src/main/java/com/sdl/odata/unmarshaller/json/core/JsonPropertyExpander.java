@@ -34,7 +34,7 @@ import java.util.Set;
 
 import static com.sdl.odata.unmarshaller.json.core.JsonParserUtils.getAllProperties;
 import static com.sdl.odata.unmarshaller.json.core.JsonParserUtils.getAppropriateFieldValue;
-import static com.sdl.odata.unmarshaller.json.core.JsonParserUtils.setFieldValue;
+import static com.sdl.odata.unmarshaller.json.core.JsonParserUtils.setPropertyValue;
 import static com.sdl.odata.util.ReferenceUtil.isNullOrEmpty;
 
 /**
@@ -88,7 +88,7 @@ public class JsonPropertyExpander {
         if (node.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null) {
             Object value = getFieldValueByType(property.getTypeName(), entry.getValue(), map, true);
             if (value != null) {
-                setFieldValue(field, entity, value);
+                setPropertyValue(property, entity, value);
                 return true;
             } else {
                 LOG.warn("There is no element with name '{}'", node);
@@ -126,7 +126,7 @@ public class JsonPropertyExpander {
                 valueSet.add(value);
             }
         }
-        setFieldValue(field, entity, valueSet);
+        setPropertyValue(property, entity, valueSet);
     }
 
     /**
@@ -146,7 +146,7 @@ public class JsonPropertyExpander {
             if (node.equalsIgnoreCase(target)) {
                 Object value = getFieldValueByType(property.getTypeName(), target, map, false);
                 if (value != null) {
-                    setFieldValue(field, entity, value);
+                    setPropertyValue(property, entity, value);
                     break;
                 } else {
                     LOG.warn("There is no element with name '{}'", node);
@@ -179,7 +179,7 @@ public class JsonPropertyExpander {
                         valueList.add(value);
                     }
                 }
-                setFieldValue(field, entity, valueList);
+                setPropertyValue(property, entity, valueList);
                 break;
             }
         }
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.renderer;
+
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.service.ResolvedRequestPlan;
+import com.sdl.odata.parser.ODataParserImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.sdl.odata.api.parser.ODataUriUtil.getContextUrl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for {@link ResolvedRequestPlan}.
+ */
+public class ResolvedRequestPlanTest extends RendererTest {
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Test
+    public void testResolvesEntitySetQuery() throws Exception {
+        ODataUri uri = new ODataParserImpl().parseUri(
+                "http://localhost:8080/odata.svc/ExpandedPropertiesSamples?$expand=ExpandedEntry,ExpandedFeed" +
+                        "&$count=true", entityDataModel);
+        ResolvedRequestPlan plan = new ResolvedRequestPlan(uri, entityDataModel);
+
+        assertEquals("ExpandedPropertiesSamples", plan.getEntitySetName().get());
+        assertEquals("ExpandedPropertiesSamples", plan.getEntitySet().getName());
+        assertTrue(plan.getTargetType().get().isCollection());
+        assertEquals(plan.getTargetType().get().typeName(), plan.getTargetEdmType().getFullyQualifiedName());
+        assertEquals(getContextUrl(uri), plan.getContextUrl());
+        assertEquals(Arrays.asList("ExpandedEntry", "ExpandedFeed"), plan.getExpandPropertyNames());
+        assertTrue(plan.hasCountOption());
+        assertFalse(plan.isOperationCall());
+        assertTrue(plan.getFormatOption().isEmpty());
+    }
+
+    @Test
+    public void testMemoizesResolvedValues() throws Exception {
+        ODataUri uri = new ODataParserImpl().parseUri("http://localhost:8080/odata.svc/Customers(1)", entityDataModel);
+        ResolvedRequestPlan plan = new ResolvedRequestPlan(uri, entityDataModel);
+
+        assertSame(plan.getTargetType(), plan.getTargetType());
+        assertSame(plan.getTargetEdmType(), plan.getTargetEdmType());
+        assertSame(plan.getContextUrl(), plan.getContextUrl());
+        assertSame(plan.getExpandPropertyNames(), plan.getExpandPropertyNames());
+        assertFalse(plan.getTargetType().get().isCollection());
+        assertFalse(plan.hasCountOption());
+    }
+
+    @Test
+    public void testPlanWithoutUri() {
+        ResolvedRequestPlan plan = new ResolvedRequestPlan(null, entityDataModel);
+
+        assertTrue(plan.getTargetType().isEmpty());
+        assertNull(plan.getTargetEdmType());
+        assertNull(plan.getEntitySet());
+        assertTrue(plan.getExpandPropertyNames().isEmpty());
+        assertFalse(plan.hasCountOption());
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.renderer.batch;
+
+import com.sdl.odata.api.parser.ODataBatchException;
+import com.sdl.odata.api.parser.ODataBatchRendererException;
+import com.sdl.odata.api.processor.ProcessorResult;
+import com.sdl.odata.api.processor.query.QueryResult;
+import com.sdl.odata.api.renderer.ChunkedActionRenderResult;
+import com.sdl.odata.api.service.MediaType;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.renderer.RendererTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.sdl.odata.api.ODataErrorCode.UNKNOWN_ERROR;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_TYPE;
+import static com.sdl.odata.api.service.ODataRequest.Method.DELETE;
+import static com.sdl.odata.api.service.ODataRequest.Method.GET;
+import static com.sdl.odata.api.service.ODataResponse.Status.NOT_FOUND;
+import static com.sdl.odata.api.service.ODataResponse.Status.NO_CONTENT;
+import static com.sdl.odata.test.util.TestUtils.createODataRequest;
+import static com.sdl.odata.test.util.TestUtils.createODataRequestContext;
+import static com.sdl.odata.test.util.TestUtils.createODataUri;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link ODataBatchRequestRenderer}.
+ */
+public class ODataBatchRequestRendererTest extends RendererTest {
+
+    private static final String BATCH_ID = "batch_36522ad7-fc75-4b56-8c71-56071383e77b";
+    private static final String CHANGESET_ID = "changeset_77162fcd-b8da-41ac-a9f8-9357efbbd";
+    private static final String OTHER_CHANGESET_ID = "changeset_1b0e3a5c-52d4-4c1f-8e0b-3f6a2d9c7e41";
+    private static final int BUFFER_SIZE = 8192;
+
+    private ODataBatchRequestRenderer renderer;
+    private ODataRequestContext batchContext;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        renderer = new ODataBatchRequestRenderer();
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put(CONTENT_TYPE, "multipart/mixed;boundary=" + BATCH_ID);
+        batchContext = createODataRequestContext(createODataRequest(ODataRequest.Method.POST, headers),
+                createODataUri(), entityDataModel);
+    }
+
+    @Test
+    public void testStreamedResponseEqualsRenderedResponse() throws Exception {
+        QueryResult batchResult = QueryResult.from(createBatchResults());
+
+        ODataResponse.Builder renderedBuilder = new ODataResponse.Builder();
+        renderer.render(batchContext, batchResult, renderedBuilder);
+        String rendered = new String(renderedBuilder.build().getBody(), UTF_8);
+
+        ODataResponse.Builder streamedBuilder = new ODataResponse.Builder().setStatus(ODataResponse.Status.OK);
+        assertTrue(renderer.isStreamable(batchContext, batchResult));
+        renderer.renderToStream(batchContext, batchResult, streamedBuilder, BUFFER_SIZE);
+        ODataResponse streamedResponse = streamedBuilder.build();
+        assertThat(streamedResponse.getContentType(), is(MediaType.MULTIPART));
+        assertThat(streamedResponse.getStreamingContent(), is(notNullValue()));
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        streamedResponse.getStreamingContent().write(createServletResponse(written));
+
+        assertThat(new String(written.toByteArray(), UTF_8), is(rendered));
+        assertThat(rendered, containsString("--" + CHANGESET_ID + "--"));
+        assertTrue(rendered.endsWith("--" + BATCH_ID + "--" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testEachPartIsWrittenWhenItIsRendered() throws Exception {
+        List<ProcessorResult> results = createBatchResults();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ChunkedActionRenderResult renderResult = renderer.renderStart(batchContext, QueryResult.from(results),
+                outputStream);
+        assertThat(renderResult.getHeaders().get(CONTENT_TYPE), is(MediaType.MULTIPART.toString()));
+        assertTrue(new String(outputStream.toByteArray(), UTF_8).startsWith("--" + BATCH_ID));
+
+        renderResult = renderer.renderBody(batchContext, QueryResult.from(results.get(0)), renderResult);
+        String firstPart = new String(outputStream.toByteArray(), UTF_8);
+        assertThat(firstPart, containsString("Entity not found"));
+        assertFalse(firstPart.contains(CHANGESET_ID));
+
+        renderResult = renderer.renderBody(batchContext, QueryResult.from(results.get(1)), renderResult);
+        assertThat(new String(outputStream.toByteArray(), UTF_8), containsString("--" + CHANGESET_ID + "--"));
+
+        renderer.renderEnd(batchContext, QueryResult.from(results), renderResult);
+        assertTrue(new String(outputStream.toByteArray(), UTF_8).endsWith("--" + BATCH_ID + "--" +
+                System.lineSeparator()));
+    }
+
+    @Test
+    public void testStreamedPartIsWrittenBeforeTheNextPartIsTaken() throws Exception {
+        List<ProcessorResult> results = createBatchResults();
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        Iterator<Object> parts = new Iterator<Object>() {
+            private int taken;
+
+            @Override
+            public boolean hasNext() {
+                return taken < 2;
+            }
+
+            @Override
+            public Object next() {
+                if (taken == 1) {
+                    assertThat(new String(written.toByteArray(), UTF_8), containsString("Entity not found"));
+                }
+                return taken++ == 0 ? results.get(0) : Collections.singletonList(results.get(1));
+            }
+        };
+        QueryResult batchResult = QueryResult.from(stream(parts));
+
+        ODataResponse.Builder streamedBuilder = new ODataResponse.Builder().setStatus(ODataResponse.Status.OK);
+        assertTrue(renderer.isStreamable(batchContext, batchResult));
+        renderer.renderToStream(batchContext, batchResult, streamedBuilder, BUFFER_SIZE);
+        streamedBuilder.build().getStreamingContent().write(createServletResponse(written));
+
+        String streamed = new String(written.toByteArray(), UTF_8);
+        assertThat(streamed, containsString("--" + CHANGESET_ID + "--"));
+        assertTrue(streamed.endsWith("--" + BATCH_ID + "--" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testFailureWhileTakingThePartsIsWrittenAsLastPart() throws Exception {
+        List<ProcessorResult> results = createBatchResults();
+        Iterator<Object> parts = new Iterator<Object>() {
+            private boolean taken;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                if (taken) {
+                    // Like the Scala code producing the parts, which can throw checked exceptions
+                    throwUnchecked(new ODataBatchException(UNKNOWN_ERROR, "Unable to read the next part"));
+                }
+                taken = true;
+                return results.get(0);
+            }
+        };
+
+        ODataResponse.Builder renderedBuilder = new ODataResponse.Builder();
+        renderer.render(batchContext, QueryResult.from(stream(parts)), renderedBuilder);
+        String rendered = new String(renderedBuilder.build().getBody(), UTF_8);
+
+        assertThat(rendered, containsString("Entity not found"));
+        assertThat(rendered, containsString("Unable to read the next part"));
+        assertTrue(rendered.endsWith("--" + BATCH_ID + "--" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testEachChangeSetIsClosed() throws Exception {
+        List<ProcessorResult> results = new ArrayList<>(createBatchResults());
+        Map<String, String> changeSetHeaders = new HashMap<>();
+        changeSetHeaders.put("changeSetId", OTHER_CHANGESET_ID);
+        results.add(new ProcessorResult(NO_CONTENT, QueryResult.from(null), changeSetHeaders,
+                createODataRequestContext(DELETE, entityDataModel)));
+
+        ODataResponse.Builder renderedBuilder = new ODataResponse.Builder();
+        renderer.render(batchContext, QueryResult.from(results), renderedBuilder);
+        String rendered = new String(renderedBuilder.build().getBody(), UTF_8);
+
+        assertThat(rendered, containsString("boundary=" + CHANGESET_ID));
+        assertThat(rendered, containsString("boundary=" + OTHER_CHANGESET_ID));
+        assertTrue(rendered.indexOf("--" + CHANGESET_ID + "--") < rendered.indexOf("boundary=" + OTHER_CHANGESET_ID));
+        assertThat(rendered, containsString("--" + OTHER_CHANGESET_ID + "--"));
+    }
+
+    @Test(expected = ODataBatchRendererException.class)
+    public void testMissingContentTypeIsReportedBeforeStreaming() throws Exception {
+        ODataRequestContext context = createODataRequestContext(createODataRequest(ODataRequest.Method.POST,
+                new HashMap<>()), createODataUri(), entityDataModel);
+
+        renderer.renderToStream(context, QueryResult.from(createBatchResults()), new ODataResponse.Builder(),
+                BUFFER_SIZE);
+    }
+
+    private List<ProcessorResult> createBatchResults() throws UnsupportedEncodingException {
+        ProcessorResult query = new ProcessorResult(NOT_FOUND, QueryResult.from("Entity not found"),
+                new HashMap<>(), createODataRequestContext(GET, entityDataModel));
+
+        Map<String, String> changeSetHeaders = new HashMap<>();
+        changeSetHeaders.put("changeSetId", CHANGESET_ID);
+        changeSetHeaders.put("Content-ID", "1");
+        ProcessorResult delete = new ProcessorResult(NO_CONTENT, QueryResult.from(null), changeSetHeaders,
+                createODataRequestContext(DELETE, entityDataModel));
+
+        return Arrays.asList(query, delete);
+    }
+
+    private static Stream<Object> stream(Iterator<Object> parts) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(parts, Spliterator.ORDERED), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> void throwUnchecked(Exception e) throws E {
+        throw (E) e;
+    }
+
+    private HttpServletResponse createServletResponse(ByteArrayOutputStream written) throws Exception {
+        HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+        when(servletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                written.write(b);
+            }
+        });
+        return servletResponse;
+    }
+}
@@ -21,7 +21,9 @@ import com.sdl.odata.renderer.WriterTest;
 import com.sdl.odata.test.model.SingletonSample;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -99,6 +101,18 @@ public class JsonWriterTest extends WriterTest {
         checkWrittenJsonStream(createCustomersSample(), CUSTOMERS_URL, EXPECTED_CUSTOMER_FEED_PATH);
     }
 
+    @Test
+    public void testCustomersSampleWrittenToOutputStream() throws Exception {
+
+        odataUri = new ODataParserImpl().parseUri("http://localhost:8080/odata.svc/Customers", entityDataModel);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new JsonWriter(odataUri, entityDataModel).writeFeed(createCustomersSample(), CUSTOMERS_URL, null,
+                outputStream);
+
+        assertEquals(prettyPrintJson(readContent(EXPECTED_CUSTOMER_FEED_PATH)),
+                prettyPrintJson(outputStream.toString(StandardCharsets.UTF_8.name())));
+    }
+
     @Test
     public void testCustomersWithCountSample() throws Exception {
 
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.renderer.metadata;
+
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.renderer.RendererTest;
+import com.sdl.odata.renderer.json.writer.JsonServiceDocumentWriter;
+import com.sdl.odata.renderer.metadata.PrerenderedDocumentCache.DocumentKind;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static com.sdl.odata.api.service.HeaderNames.ACCEPT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.CONTENT_ENCODING;
+import static com.sdl.odata.api.service.HeaderNames.ETAG;
+import static com.sdl.odata.api.service.HeaderNames.IF_NONE_MATCH;
+import static com.sdl.odata.api.service.ODataRequest.Method.GET;
+import static com.sdl.odata.api.service.ODataResponse.Status.NOT_MODIFIED;
+import static com.sdl.odata.api.service.ODataResponse.Status.OK;
+import static com.sdl.odata.renderer.metadata.PrerenderedDocumentCache.acceptsGzip;
+import static com.sdl.odata.test.util.TestUtils.createODataRequest;
+import static com.sdl.odata.test.util.TestUtils.createODataUriForMetaData;
+import static com.sdl.odata.test.util.TestUtils.createODataUriForServiceDocument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PrerenderedDocumentCache}.
+ */
+public class PrerenderedDocumentCacheTest extends RendererTest {
+
+    private PrerenderedDocumentCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new PrerenderedDocumentCache(true, 64);
+    }
+
+    @Test
+    public void testRenderMetadataDocument() throws Exception {
+        MetadataDocumentWriter writer = new MetadataDocumentWriter(entityDataModel);
+        writer.startDocument();
+        writer.writeMetadataDocument();
+        writer.endDocument();
+
+        ODataResponse response = render(DocumentKind.METADATA, createODataUriForMetaData(), new HashMap<>());
+
+        assertEquals(OK, response.getStatus());
+        assertEquals(writer.getXml(), response.getBodyText(UTF_8.name()));
+        assertNotNull(response.getHeader(ETAG));
+        assertNull(response.getHeader(CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testRenderServiceDocument() throws Exception {
+        ODataUri uri = createODataUriForServiceDocument();
+        String expected = new JsonServiceDocumentWriter(uri, entityDataModel).buildJson();
+
+        ODataResponse response = render(DocumentKind.JSON_SERVICE_DOCUMENT, uri, new HashMap<>());
+
+        assertEquals(OK, response.getStatus());
+        assertEquals(expected, response.getBodyText(UTF_8.name()));
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        String eTag = render(DocumentKind.METADATA, createODataUriForMetaData(), new HashMap<>()).getHeader(ETAG);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put(IF_NONE_MATCH, "\"other\", W/" + eTag);
+        ODataResponse response = render(DocumentKind.METADATA, createODataUriForMetaData(), headers);
+
+        assertEquals(NOT_MODIFIED, response.getStatus());
+        assertEquals(eTag, response.getHeader(ETAG));
+        assertNull(response.getBody());
+
+        headers.put(IF_NONE_MATCH, "\"other\"");
+        assertEquals(OK, render(DocumentKind.METADATA, createODataUriForMetaData(), headers).getStatus());
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        ODataResponse plain = render(DocumentKind.METADATA, createODataUriForMetaData(), new HashMap<>());
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put(ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+        ODataResponse gzip = render(DocumentKind.METADATA, createODataUriForMetaData(), headers);
+
+        assertEquals("gzip", gzip.getHeader(CONTENT_ENCODING));
+        assertNotEquals(plain.getHeader(ETAG), gzip.getHeader(ETAG));
+        assertArrayEquals(plain.getBody(), gunzip(gzip.getBody()));
+
+        // The gzip entity tag validates the cached response as well
+        headers.put(IF_NONE_MATCH, gzip.getHeader(ETAG));
+        assertEquals(NOT_MODIFIED, render(DocumentKind.METADATA, createODataUriForMetaData(), headers).getStatus());
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertTrue(acceptsGzip("gzip"));
+        assertTrue(acceptsGzip("deflate, GZIP"));
+        assertTrue(acceptsGzip("*;q=0.5"));
+        assertFalse(acceptsGzip(null));
+        assertFalse(acceptsGzip("deflate"));
+        assertFalse(acceptsGzip("gzip;q=0"));
+        assertFalse(acceptsGzip("*, gzip;q=0.0"));
+    }
+
+    @Test
+    public void testPublishedModelIsRenderedAgain() throws Exception {
+        PrerenderedDocumentCache.DocumentKey serviceDocument = new PrerenderedDocumentCache.DocumentKey(
+                DocumentKind.XML_SERVICE_DOCUMENT, createODataUriForServiceDocument().serviceRoot());
+        PrerenderedDocumentCache.PrerenderedDocument before = cache.getDocument(entityDataModel, serviceDocument);
+
+        // A newly published model gets its own documents, for the service roots seen before as well
+        super.setUp();
+        cache.entityDataModelPublished(entityDataModel, 2L);
+        PrerenderedDocumentCache.PrerenderedDocument after = cache.getDocument(entityDataModel, serviceDocument);
+
+        assertNotSame(before, after);
+        assertSame(after, cache.getDocument(entityDataModel, serviceDocument));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        cache = new PrerenderedDocumentCache(false, 64);
+        ODataRequestContext requestContext = new ODataRequestContext(createODataRequest(GET),
+                createODataUriForMetaData(), entityDataModel);
+
+        assertFalse(cache.render(requestContext, DocumentKind.METADATA, new ODataResponse.Builder()));
+    }
+
+    private ODataResponse render(DocumentKind kind, ODataUri uri, Map<String, String> headers) throws Exception {
+        ODataRequestContext requestContext = new ODataRequestContext(createODataRequest(GET, headers), uri,
+                entityDataModel);
+        ODataResponse.Builder builder = new ODataResponse.Builder();
+        assertTrue(cache.render(requestContext, kind, builder));
+        return builder.build();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.unmarshaller.atom;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataParser;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import com.sdl.odata.parser.ODataParserImpl;
+import com.sdl.odata.test.util.TestUtils;
+import com.sdl.odata.unmarshaller.AbstractParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.sdl.odata.test.util.TestUtils.getEdmEntityClasses;
+import static com.sdl.odata.test.util.TestUtils.readContent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares the DOM based {@link ODataAtomParser} with the streaming {@link ODataAtomStreamParser} on a large entry
+ * (a customer with many addresses) and a large feed (many customers). Run with the GC profiler (as
+ * {@link #main(String[])} does) to compare the allocation rate of both parsers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AtomUnmarshallerBenchmark {
+
+    private static final String ADDRESS_START = "<metadata:element>";
+    private static final String ADDRESS_END = "</metadata:element>";
+    private static final String ENTRY_START = "<entry>";
+    private static final String ENTRY_END = "</entry>";
+
+    /**
+     * The unmarshaller to benchmark.
+     */
+    @Param({"dom", "stax" })
+    public String parser;
+
+    /**
+     * The number of addresses in the entry and of entries in the feed.
+     */
+    @Param({"100", "1000" })
+    public int size;
+
+    private final ODataParser uriParser = new ODataParserImpl();
+    private ODataRequestContext entryContext;
+    private ODataRequestContext feedContext;
+
+    @Setup
+    public void setup() throws Exception {
+        EntityDataModel entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClasses(getEdmEntityClasses()).buildEntityDataModel();
+        ODataUri oDataUri = TestUtils.createODataUri("http://localhost:8080/odata.svc", "Customers");
+
+        String entry = repeat(readContent("/xml/CustomerWithNoLinks.xml"), ADDRESS_START, ADDRESS_END);
+        entryContext = new ODataRequestContext(new ODataRequest.Builder()
+                .setUri(oDataUri.serviceRoot())
+                .setMethod(ODataRequest.Method.POST)
+                .setBodyText(entry, UTF_8.name())
+                .build(), oDataUri, entityDataModel);
+
+        String feed = repeat(readContent("/xml/Customers.xml"), ENTRY_START, ENTRY_END);
+        feedContext = new ODataRequestContext(new ODataRequest.Builder()
+                .setUri(oDataUri.serviceRoot())
+                .setMethod(ODataRequest.Method.GET)
+                .setBodyText(feed, UTF_8.name())
+                .build(), oDataUri, entityDataModel);
+    }
+
+    /**
+     * Replaces the elements between the first start tag and the last end tag with {@link #size} copies of the first
+     * element.
+     */
+    private String repeat(String xml, String startTag, String endTag) {
+        int start = xml.indexOf(startTag);
+        String element = xml.substring(start, xml.indexOf(endTag, start) + endTag.length());
+        int end = xml.lastIndexOf(endTag) + endTag.length();
+
+        StringBuilder sb = new StringBuilder(xml.length() + element.length() * size);
+        sb.append(xml, 0, start);
+        for (int i = 0; i < size; i++) {
+            sb.append(element);
+        }
+        return sb.append(xml, end, xml.length()).toString();
+    }
+
+    private AbstractParser createParser(ODataRequestContext context) {
+        return "stax".equals(parser) ? new ODataAtomStreamParser(context, uriParser)
+                : new ODataAtomParser(context, uriParser);
+    }
+
+    @Benchmark
+    public Object largeEntry() throws ODataException {
+        return createParser(entryContext).getODataEntity();
+    }
+
+    @Benchmark
+    public List<?> largeFeed() throws ODataException {
+        return createParser(feedContext).getODataEntities();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AtomUnmarshallerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.unmarshaller.json;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.model.EntityDataModel;
+import com.sdl.odata.api.parser.ODataParser;
+import com.sdl.odata.api.parser.ODataUri;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.edm.factory.annotations.AnnotationEntityDataModelFactory;
+import com.sdl.odata.parser.ODataParserImpl;
+import com.sdl.odata.test.util.TestUtils;
+import com.sdl.odata.unmarshaller.AbstractParser;
+import com.sdl.odata.unmarshaller.json.core.JsonEntityBinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.sdl.odata.test.util.TestUtils.getEdmEntityClasses;
+import static com.sdl.odata.test.util.TestUtils.readContent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares the map based {@link ODataJsonParser} with the direct binding {@link ODataJsonBindingParser} on a small
+ * entity (a customer with one address) and a large entity (a customer with many addresses). Run with the GC profiler
+ * (as {@link #main(String[])} does) to compare the allocation rate of both parsers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonUnmarshallerBenchmark {
+
+    private static final String ADDRESS_START = "{";
+    private static final String ADDRESS_END = "}";
+    private static final String ADDRESSES = "\"address\" : [";
+
+    /**
+     * The unmarshaller to benchmark.
+     */
+    @Param({"maps", "binding" })
+    public String parser;
+
+    /**
+     * The number of addresses in the payload.
+     */
+    @Param({"1", "1000" })
+    public int size;
+
+    private final ODataParser uriParser = new ODataParserImpl();
+    private JsonEntityBinder binder;
+    private ODataRequestContext entityContext;
+
+    @Setup
+    public void setup() throws Exception {
+        EntityDataModel entityDataModel = new AnnotationEntityDataModelFactory()
+                .addClasses(getEdmEntityClasses()).buildEntityDataModel();
+        ODataUri oDataUri = TestUtils.createODataUri("http://localhost:8080/odata.svc", "Customers");
+        binder = new JsonEntityBinder(entityDataModel);
+
+        // Validation of non-nullable navigation properties only happens for POST, the sample has no links
+        String entity = repeatAddress(readContent("/json/Customer.json"));
+        entityContext = new ODataRequestContext(new ODataRequest.Builder()
+                .setUri(oDataUri.serviceRoot())
+                .setMethod(ODataRequest.Method.PUT)
+                .setBodyText(entity, UTF_8.name())
+                .build(), oDataUri, entityDataModel);
+    }
+
+    /**
+     * Replaces the addresses of the customer with {@link #size} copies of the first address.
+     */
+    private String repeatAddress(String json) {
+        int arrayStart = json.indexOf(ADDRESSES) + ADDRESSES.length();
+        int start = json.indexOf(ADDRESS_START, arrayStart);
+        String address = json.substring(start, json.indexOf(ADDRESS_END, start) + ADDRESS_END.length());
+        int end = json.indexOf(']', start);
+
+        StringBuilder sb = new StringBuilder(json.length() + (address.length() + 1) * size);
+        sb.append(json, 0, arrayStart);
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append(address);
+        }
+        return sb.append(json, end, json.length()).toString();
+    }
+
+    private AbstractParser createParser(ODataRequestContext context) {
+        return "binding".equals(parser) ? new ODataJsonBindingParser(context, uriParser, binder)
+                : new ODataJsonParser(context, uriParser);
+    }
+
+    @Benchmark
+    public Object entity() throws ODataException {
+        return createParser(entityContext).getODataEntity();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonUnmarshallerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
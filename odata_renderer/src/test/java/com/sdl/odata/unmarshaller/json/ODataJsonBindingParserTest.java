@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.unmarshaller.json;
+
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.parser.ODataParser;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataRequestBody;
+import com.sdl.odata.api.service.ODataRequestContext;
+import com.sdl.odata.api.unmarshaller.ODataEntityFeed;
+import com.sdl.odata.api.unmarshaller.ODataUnmarshallingException;
+import com.sdl.odata.parser.ODataParserImpl;
+import com.sdl.odata.test.model.Customer;
+import com.sdl.odata.test.model.PrimitiveTypesSample;
+import com.sdl.odata.unmarshaller.UnmarshallerTest;
+import com.sdl.odata.unmarshaller.json.core.JsonEntityBinder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.sdl.odata.test.util.TestUtils.readContent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link ODataJsonBindingParser}.
+ */
+public class ODataJsonBindingParserTest extends UnmarshallerTest {
+
+    private static final String CUSTOMER_ENTITY_PATH = "/json/Customer.json";
+    private static final String CUSTOMER_WITH_NO_ADDRESS_ENTITY_PATH = "/json/CustomerWithNoAddress.json";
+    private static final String CUSTOMER_WITH_LINKS_ENTITY_PATH = "/json/CustomerWithLinks.json";
+    private static final String PRODUCT_ENTITY_PATH = "/json/Product.json";
+    private static final String PRIMITIVE_TYPES_ENTITY_PATH = "/json/PrimitiveTypesSample.json";
+    private static final String COLLECTIONS_ENTITY_PATH = "/json/CollectionsSample.json";
+    private static final String CUSTOMER_FEED_PATH = "/json/Customers.json";
+    private static final String ODATA_DEMO_SAMPLE = "/json/ODataDemoSample.json";
+    private static final String ABSTRACT_ENTITY_PATH = "/json/AbstractEntitySample.json";
+
+    private ODataParser uriParser;
+
+    @Before
+    public void setUpParser() {
+        uriParser = new ODataParserImpl();
+    }
+
+    @Test(expected = ODataUnmarshallingException.class)
+    public void testShouldThrowExceptionAsOrdersIsNull() throws Exception {
+
+        requestBuilder.setUri(odataUri.serviceRoot()).setMethod(ODataRequest.Method.POST);
+        preparePostRequestContext(CUSTOMER_ENTITY_PATH);
+
+        new ODataJsonBindingParser(context, uriParser).getODataEntity();
+    }
+
+    @Test
+    public void testShouldNotThrowExceptionAsAddressIsNullANDMethodIsNotPost() throws Exception {
+
+        prepareGetRequestContext(CUSTOMER_WITH_NO_ADDRESS_ENTITY_PATH);
+
+        singleCustomer = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+    }
+
+    @Test(expected = ODataUnmarshallingException.class)
+    public void testShouldThrowExceptionAsAddressIsNull() throws Exception {
+
+        requestBuilder.setUri(odataUri.serviceRoot()).setMethod(ODataRequest.Method.POST);
+        preparePostRequestContext(CUSTOMER_WITH_NO_ADDRESS_ENTITY_PATH);
+
+        new ODataJsonBindingParser(context, uriParser).getODataEntity();
+    }
+
+    @Test
+    public void testCustomerWithLinksSample() throws Exception {
+
+        preparePostRequestContext(CUSTOMER_WITH_LINKS_ENTITY_PATH);
+
+        singleCustomer = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertCustomerWithLinksSample();
+    }
+
+    @Test
+    public void testCustomerWithLinksReadFromBodySource() throws Exception {
+        byte[] body = readContent(CUSTOMER_WITH_LINKS_ENTITY_PATH).getBytes(UTF_8);
+        request = requestBuilder.setMethod(ODataRequest.Method.POST)
+                .setBodySource(new ODataRequestBody(new ByteArrayInputStream(body), body.length, body.length))
+                .build();
+        context = new ODataRequestContext(request, odataUri, entityDataModel);
+
+        singleCustomer = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertCustomerWithLinksSample();
+    }
+
+    @Test
+    public void testProductSample() throws Exception {
+
+        createODataUri(SERVICE_ROOT, "Products");
+        preparePostRequestContext(PRODUCT_ENTITY_PATH);
+
+        products = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertProductSample();
+    }
+
+    @Test
+    public void testPrimitiveTypesSample() throws Exception {
+
+        createODataUri(SERVICE_ROOT, "PrimitiveTypesSamples");
+        preparePostRequestContext(PRIMITIVE_TYPES_ENTITY_PATH);
+
+        primitiveTypesSamples = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertPrimitiveTypesSample();
+
+        PrimitiveTypesSample sample = (PrimitiveTypesSample) primitiveTypesSamples;
+        assertThat(sample.getDecimalValueProperty(), is(new BigDecimal(21)));
+        assertThat(sample.getDateProperty(), is(LocalDate.of(2014, 5, 7)));
+        assertThat(sample.getInt16Property(), is((short) 2));
+        assertThat(sample.getInt32Property(), is(5));
+        assertThat(sample.getSingleProperty(), is(12.3f));
+        assertThat(sample.isBooleanProperty(), is(true));
+    }
+
+    @Test
+    public void testCollectionsSample() throws Exception {
+
+        createODataUri(SERVICE_ROOT, "CollectionsSamples");
+        preparePostRequestContext(COLLECTIONS_ENTITY_PATH);
+
+        collectionsTypesSamples = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertCollectionsTypesSample();
+    }
+
+    @Test(expected = ODataUnmarshallingException.class)
+    public void testCustomersSampleShouldThrowExceptionAsOrdersIsNull() throws ODataException, IOException {
+
+        preparePostRequestContext(CUSTOMER_FEED_PATH);
+        Object feed = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertTrue(feed instanceof ODataEntityFeed);
+        ((ODataEntityFeed) feed).nextEntity();
+    }
+
+    @Test(expected = ODataUnmarshallingException.class)
+    public void testCustomersSampleShouldThrowExceptionForPut() throws Exception {
+
+        request = requestBuilder.setMethod(ODataRequest.Method.PUT)
+                .setBodyText(readContent(CUSTOMER_FEED_PATH), UTF_8.name())
+                .build();
+        context = new ODataRequestContext(request, odataUri, entityDataModel);
+        new ODataJsonBindingParser(context, uriParser).getODataEntity();
+    }
+
+    @Test
+    public void testCustomersReadSample() throws Exception {
+
+        prepareGetRequestContext(CUSTOMER_FEED_PATH);
+        customersFeed = new ODataJsonBindingParser(context, uriParser).getODataEntities();
+        assertCustomersSample();
+    }
+
+    @Test
+    public void testCustomersFeedReadFromBodySource() throws Exception {
+        String customer = readContent(CUSTOMER_WITH_LINKS_ENTITY_PATH);
+        byte[] body = ("{\"@odata.context\":\"http://localhost:8080/odata.svc/$metadata#Customers\",\"value\":[" +
+                customer + "," + customer + "]}").getBytes(UTF_8);
+        request = requestBuilder.setMethod(ODataRequest.Method.POST)
+                .setBodySource(new ODataRequestBody(new ByteArrayInputStream(body), body.length, body.length))
+                .build();
+        context = new ODataRequestContext(request, odataUri, entityDataModel);
+
+        try (ODataEntityFeed feed = (ODataEntityFeed) new ODataJsonBindingParser(context, uriParser)
+                .getODataEntity()) {
+            singleCustomer = feed.nextEntity();
+            assertCustomerWithLinksSample();
+            singleCustomer = feed.nextEntity();
+            assertCustomerWithLinksSample();
+            assertNull(feed.nextEntity());
+        }
+    }
+
+    @Test
+    public void testNestedComplexTypes() throws Exception {
+
+        createODataUri(SERVICE_ROOT, "ODataDemoEntities");
+        preparePostRequestContext(ODATA_DEMO_SAMPLE);
+
+        nestedComplexTypesSamples = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertNestedComplexTypesSamples();
+    }
+
+    @Test
+    public void testAbstractEntitySample() throws Exception {
+
+        createODataUri(SERVICE_ROOT, "EntityTypeSamples");
+        preparePostRequestContext(ABSTRACT_ENTITY_PATH);
+
+        entityTypeSample = new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertAbstractEntityTypeSample();
+    }
+
+    @Test
+    public void testPropertyNamesAreCaseInsensitive() throws Exception {
+        request = requestBuilder.setMethod(ODataRequest.Method.PUT)
+                .setBodyText("{\"ID\":42,\"NAME\":\"Ron\",\"Unknown\":{\"a\":[1,2]},\"Phone\":[\"123\",null]}",
+                        UTF_8.name())
+                .build();
+        context = new ODataRequestContext(request, odataUri, entityDataModel);
+
+        Customer customer = (Customer) new ODataJsonBindingParser(context, uriParser).getODataEntity();
+        assertThat(customer.getId(), is(42L));
+        assertThat(customer.getName(), is("Ron"));
+        assertThat(customer.getPhoneNumbers().size(), is(1));
+    }
+
+    @Test(expected = ODataUnmarshallingException.class)
+    public void testTypeAnnotationAfterPropertiesShouldThrowException() throws Exception {
+        request = requestBuilder.setMethod(ODataRequest.Method.PUT)
+                .setBodyText("{\"id\":10,\"@odata.type\":\"#ODataDemo.Product\"}", UTF_8.name())
+                .build();
+        context = new ODataRequestContext(request, odataUri, entityDataModel);
+
+        new ODataJsonBindingParser(context, uriParser).getODataEntity();
+    }
+
+    @Test
+    public void testBinderIsShared() throws Exception {
+        JsonEntityBinder binder = new JsonEntityBinder(entityDataModel);
+
+        preparePostRequestContext(CUSTOMER_WITH_LINKS_ENTITY_PATH);
+        singleCustomer = new ODataJsonBindingParser(context, uriParser, binder).getODataEntity();
+        assertCustomerWithLinksSample();
+
+        preparePostRequestContext(CUSTOMER_WITH_LINKS_ENTITY_PATH);
+        singleCustomer = new ODataJsonBindingParser(context, uriParser, binder).getODataEntity();
+        assertCustomerWithLinksSample();
+    }
+}
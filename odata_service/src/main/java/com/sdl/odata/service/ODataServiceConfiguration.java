@@ -15,12 +15,14 @@
  */
 package com.sdl.odata.service;
 
+import akka.actor.Actor;
 import com.sdl.odata.edm.EdmConfiguration;
 import com.sdl.odata.parser.ParserConfiguration;
 import com.sdl.odata.processor.ProcessorConfiguration;
 import com.sdl.odata.renderer.RendererConfiguration;
 import com.sdl.odata.service.actor.ODataBatchProcessorActor;
 import com.sdl.odata.service.actor.ODataBatchRendererActor;
+import com.sdl.odata.service.actor.ODataMessageRouter;
 import com.sdl.odata.service.actor.ODataParserActor;
 import com.sdl.odata.service.actor.ODataQueryProcessorActor;
 import com.sdl.odata.service.actor.ODataRendererActor;
@@ -43,13 +45,16 @@ import com.sdl.odata.unmarshaller.UnmarshallerConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.ImportResource;
+import org.springframework.core.env.Environment;
 
 import javax.annotation.PostConstruct;
 
+import static com.sdl.odata.service.util.AkkaUtil.registerPool;
 import static com.sdl.odata.service.util.AkkaUtil.registerRoute;
 
 /**
@@ -64,9 +69,24 @@ public class ODataServiceConfiguration {
 
     private static final Logger LOG = LoggerFactory.getLogger(ODataServiceConfiguration.class);
 
+    private static final String POOL_SIZE_PROPERTY = "odata.pipeline.pool-size";
+
     @Autowired
     private ActorProducer actorProducer;
 
+    @Autowired
+    private Environment environment;
+
+    /**
+     * When enabled, the message router and the stage actors are created once as pooled routers and reused across
+     * requests, instead of being created for every request.
+     */
+    @Value("${odata.pipeline.enabled:false}")
+    private boolean pipelineEnabled;
+
+    @Value("${" + POOL_SIZE_PROPERTY + ":32}")
+    private int defaultPoolSize;
+
     @PostConstruct
     public void intializeService() {
         LOG.info("Initializing OData service routing");
@@ -86,5 +106,31 @@ public class ODataServiceConfiguration {
         registerRoute(Render.class, ODataRendererActor.class, actorProducer);
         registerRoute(BatchOperationResult.class, ODataBatchRendererActor.class, actorProducer);
         registerRoute(ErrorMessage.class, ODataRendererActor.class, actorProducer);
+
+        if (pipelineEnabled) {
+            LOG.info("Initializing OData pooled request pipeline");
+
+            registerPipelinePool(ODataMessageRouter.class);
+            registerPipelinePool(ODataParserActor.class);
+            registerPipelinePool(ODataUnmarshallerActor.class);
+            registerPipelinePool(ODataRequestProcessorActor.class);
+            registerPipelinePool(ODataQueryProcessorActor.class);
+            registerPipelinePool(ODataWriteProcessorActor.class);
+            registerPipelinePool(ODataBatchProcessorActor.class);
+            registerPipelinePool(ODataRendererActor.class);
+            registerPipelinePool(ODataBatchRendererActor.class);
+        }
+    }
+
+    /**
+     * Registers the pool for a pipeline stage. The pool size can be configured per stage with the property
+     * {@code odata.pipeline.pool-size.<ActorName>}, and falls back to {@code odata.pipeline.pool-size}.
+     *
+     * @param actorType The actor type of the stage.
+     */
+    private void registerPipelinePool(Class<? extends Actor> actorType) {
+        int poolSize = environment.getProperty(POOL_SIZE_PROPERTY + "." + actorType.getSimpleName(), Integer.class,
+                defaultPoolSize);
+        registerPool(actorType, poolSize, actorProducer);
     }
 }
@@ -19,6 +19,8 @@ import akka.actor.ActorContext;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
+import akka.actor.SupervisorStrategy;
+import akka.routing.RoundRobinPool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -54,6 +56,19 @@ public class ActorProducer {
         return context.actorOf(create(actorId));
     }
 
+    /**
+     * Creates a long-lived round robin pool of the given actor, which is reused across requests.
+     *
+     * @param actorId            The bean name of the pooled actor.
+     * @param poolSize           The number of routees in the pool.
+     * @param supervisorStrategy The strategy the pool applies to failing routees.
+     * @return The reference to the pool router.
+     */
+    public ActorRef pooledActorRef(String actorId, int poolSize, SupervisorStrategy supervisorStrategy) {
+        return actorSystem.actorOf(new RoundRobinPool(poolSize).withSupervisorStrategy(supervisorStrategy)
+                .props(create(actorId)), actorId);
+    }
+
     public Props create(String actorId) {
         return akkaSpringExtension.get(actorSystem).props(actorId);
     }
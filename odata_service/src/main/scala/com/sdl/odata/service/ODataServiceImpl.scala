@@ -15,21 +15,25 @@
  */
 package com.sdl.odata.service
 
+import java.nio.charset.StandardCharsets.UTF_8
 import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.{CompletableFuture, CompletionStage, Executor}
 
 import akka.actor.PoisonPill
-import akka.pattern.ask
+import akka.pattern.{AskTimeoutException, ask}
 import akka.util.Timeout
-import com.sdl.odata.api.service.{ODataRequest, ODataResponse, ODataService}
-import com.sdl.odata.service.actor.ODataMessageRouter
+import com.sdl.odata.api.service.ODataResponse.Status.GATEWAY_TIMEOUT
+import com.sdl.odata.api.service.{MediaType, ODataRequest, ODataResponse, ODataService}
+import com.sdl.odata.service.actor.{ODataMessageRouter, ODataPipelineRegistry}
 import com.sdl.odata.service.protocol.{InitialServiceRequest, ServiceResponse}
 import com.sdl.odata.service.spring.ActorProducer
 import org.slf4j.LoggerFactory
-import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.{Autowired, Value}
 import org.springframework.stereotype.Component
 
-import scala.concurrent.Await
 import scala.concurrent.duration.Duration
+import scala.concurrent.{Await, ExecutionContext, Future}
+import scala.util.{Failure, Success}
 
 /**
  * The OData Service Implementation
@@ -37,32 +41,78 @@ import scala.concurrent.duration.Duration
  * ODataServiceImpl is the service which manages the lifecycle of ODataRequest.
  * First, it is responsible for handling ODataRequest, waiting for it's result and response back.
  *
+ * A request which does not complete within the configured deadline (odata.request.timeout, in milliseconds)
+ * results in a 504 Gateway Timeout response. A deadline of 0 means that requests are never timed out.
  */
 @Component
-class ODataServiceImpl @Autowired() (producer: ActorProducer) extends ODataService {
+class ODataServiceImpl @Autowired() (producer: ActorProducer,
+                                     @Value("${odata.request.timeout:0}") requestTimeoutMillis: Long)
+  extends ODataService {
   import com.sdl.odata.service.ODataServiceImpl._
 
-  override def handleRequest(request: ODataRequest): ODataResponse = {
+  override def handleRequest(request: ODataRequest): ODataResponse =
+    Await.result(process(request), Duration.Inf)
+
+  override def handleRequestAsync(request: ODataRequest): CompletionStage[ODataResponse] = {
+    val result = new CompletableFuture[ODataResponse]()
+    process(request).onComplete {
+      case Success(response) => result.complete(response)
+      case Failure(e) => result.completeExceptionally(e)
+    }(sameThreadExecutionContext)
+    result
+  }
+
+  private def process(request: ODataRequest): Future[ODataResponse] = {
     LOG.debug("Handling request: {}", request)
 
-    implicit val timeout = new Timeout(1000000000l, MILLISECONDS)
+    implicit val timeout: Timeout =
+      if (requestTimeoutMillis > 0) new Timeout(requestTimeoutMillis, MILLISECONDS) else NoDeadline
 
     val start = System.currentTimeMillis()
-    val messageRouter = producer.actorRef(classOf[ODataMessageRouter].getSimpleName)
-    val fut = ask(messageRouter, InitialServiceRequest(request)).mapTo[ServiceResponse]
-    val serviceResponse = Await.result(fut, Duration.Inf)
+    val (messageRouter, perRequestRouter) = ODataPipelineRegistry.get(MessageRouterName) match {
+      // the pipeline is long-lived, the request context travels inside the messages
+      case Some(pooledRouter) => (pooledRouter, false)
+      case None => (producer.actorRef(MessageRouterName), true)
+    }
 
-    //kill the message router
-    messageRouter.tell(PoisonPill, null)
+    ask(messageRouter, InitialServiceRequest(request)).mapTo[ServiceResponse]
+      .map(_.response)(sameThreadExecutionContext)
+      .recover {
+        case _: AskTimeoutException => deadlineExceeded(request)
+      }(sameThreadExecutionContext)
+      .andThen {
+        case _ =>
+          //kill the message router
+          if (perRequestRouter) {
+            messageRouter.tell(PoisonPill, null)
+          }
 
-    val stop = System.currentTimeMillis()
+          val stop = System.currentTimeMillis()
 
-    LOG.debug("Request completed in " + (stop - start))
+          LOG.debug("Request completed in " + (stop - start))
+      }(sameThreadExecutionContext)
+  }
+
+  private def deadlineExceeded(request: ODataRequest): ODataResponse = {
+    LOG.warn(s"Request $request did not complete within $requestTimeoutMillis ms")
 
-    serviceResponse.response
+    new ODataResponse.Builder()
+      .setStatus(GATEWAY_TIMEOUT)
+      .setContentType(MediaType.TEXT)
+      .setBodyText(s"The request did not complete within $requestTimeoutMillis ms", UTF_8.name())
+      .build()
   }
 }
 
 object ODataServiceImpl {
   val LOG = LoggerFactory.getLogger(classOf[ODataServiceImpl])
+  val MessageRouterName: String = classOf[ODataMessageRouter].getSimpleName
+  val NoDeadline = new Timeout(1000000000l, MILLISECONDS)
+
+  /**
+    * Runs the callbacks on the thread which completes the future, they only hand the result over.
+    */
+  val sameThreadExecutionContext: ExecutionContext = ExecutionContext.fromExecutor(new Executor {
+    override def execute(runnable: Runnable): Unit = runnable.run()
+  })
 }
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.service.actor
+
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger}
+import java.util.concurrent.{Callable, ExecutionException, ExecutorService, Executors, Future}
+
+import javax.annotation.PreDestroy
+import org.springframework.beans.factory.annotation.{Autowired, Value}
+import org.springframework.stereotype.Component
+
+import scala.collection.mutable
+
+/**
+  * Executes the independent query parts of a batch request concurrently.
+  *
+  * The parts run on a thread pool shared by all batches. The results are returned by an iterator, in the order of the
+  * parts. A part is submitted as soon as it is taken from the parts, and parts are taken ahead of the results as long
+  * as fewer than the maximum number of parts per batch are running or waiting to be returned. So a large batch cannot
+  * take over the whole pool, and only a few results of a batch are held at a time. If a part fails, no further parts
+  * are started and the failure of the first failed part is thrown once the running parts have finished.
+  *
+  * When disabled, the parts are executed one after another on the thread taking the results.
+  */
+@Component
+class BatchQueryExecutor @Autowired()(@Value("${odata.batch.parallel.enabled:false}") enabled: Boolean,
+                                      @Value("${odata.batch.parallel.threads:16}") threads: Int,
+                                      @Value("${odata.batch.parallel.max-per-batch:4}") maxPerBatch: Int) {
+
+  private val executor: Option[ExecutorService] = if (enabled) {
+    val threadCount = new AtomicInteger
+    Some(Executors.newFixedThreadPool(threads, (runnable: Runnable) => {
+      val thread = new Thread(runnable, s"odata-batch-query-${threadCount.incrementAndGet}")
+      thread.setDaemon(true)
+      thread
+    }))
+  } else {
+    None
+  }
+
+  /**
+    * Execute the given parts and return their results in the same order. The parts are executed while the results
+    * are taken.
+    *
+    * @param parts The parts to execute.
+    * @return The results of the parts.
+    */
+  def execute[T](parts: Iterator[() => T]): Iterator[T] = executor match {
+    case Some(pool) if maxPerBatch > 1 => new ConcurrentResults(pool, parts)
+    case _ => parts.map(_ ())
+  }
+
+  @PreDestroy
+  def shutdown(): Unit = executor.foreach(_.shutdownNow())
+
+  private final class ConcurrentResults[T](pool: ExecutorService, parts: Iterator[() => T]) extends Iterator[T] {
+    private val submitted = mutable.Queue[Future[T]]()
+    private val failed = new AtomicBoolean
+
+    submitParts()
+
+    override def hasNext: Boolean = submitted.nonEmpty
+
+    override def next(): T = {
+      val future = submitted.dequeue()
+      val result = try {
+        future.get
+      } catch {
+        case e: ExecutionException =>
+          awaitSubmitted()
+          throw e.getCause
+      }
+      submitParts()
+      result
+    }
+
+    private def submitParts(): Unit = try {
+      while (submitted.size < maxPerBatch && !failed.get && parts.hasNext) {
+        val part = parts.next()
+        submitted += pool.submit(new Callable[T] {
+          override def call(): T = try {
+            part()
+          } catch {
+            case e: Throwable =>
+              failed.set(true)
+              throw e
+          }
+        })
+      }
+    } catch {
+      case e: Throwable =>
+        // Wait for the running parts, also when reading the next part failed or the pool rejected it
+        awaitSubmitted()
+        throw e
+    }
+
+    private def awaitSubmitted(): Unit = {
+      submitted.foreach { future =>
+        try {
+          future.get
+        } catch {
+          case _: ExecutionException =>
+        }
+      }
+      submitted.clear()
+    }
+  }
+}
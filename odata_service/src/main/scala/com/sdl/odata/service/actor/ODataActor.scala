@@ -17,6 +17,8 @@ package com.sdl.odata.service.actor
 
 import akka.actor.SupervisorStrategy.Escalate
 import akka.actor.{Actor, ActorLogging, OneForOneStrategy, SupervisorStrategy}
+import com.sdl.odata.service.protocol.{ErrorMessage, ODataContextMessage}
+import com.sdl.odata.service.util.AkkaUtil.routePooledMessage
 
 trait ODataActor extends Actor with ActorLogging {
   override def supervisorStrategy: SupervisorStrategy = OneForOneStrategy() {
@@ -25,4 +27,18 @@ trait ODataActor extends Actor with ActorLogging {
     case er: Error =>
       Escalate
   }
+
+  // Only pooled actors are restarted: they have no per-request router to escalate to, so the request context
+  // of the failed message is used to send the error message down the pipeline.
+  override def preRestart(reason: Throwable, message: Option[Any]): Unit = {
+    message match {
+      case Some(_: ErrorMessage) =>
+        log.error(reason, "Failed to handle error message")
+      case Some(msg: ODataContextMessage) =>
+        log.debug(s"Sending error message for exception: $reason")
+        routePooledMessage(ErrorMessage(msg.actorContext, reason), self)
+      case _ =>
+    }
+    super.preRestart(reason, message)
+  }
 }
@@ -15,35 +15,46 @@
  */
 package com.sdl.odata.service.actor
 
-import java.util
+import java.util.concurrent.ConcurrentHashMap
 
 import com.sdl.odata.api.ODataBadRequestException
-import com.sdl.odata.api.parser.{ODataBatchParseException, ODataUri}
+import com.sdl.odata.api.parser.{ODataBatchParseException, ODataParser, ODataUri}
 import com.sdl.odata.api.processor.datasource.factory.DataSourceFactory
 import com.sdl.odata.api.processor.{ODataQueryProcessor, ProcessorResult}
 import com.sdl.odata.api.service.ODataRequest.Method
 import com.sdl.odata.api.service.{ChangeSetEntity, MediaType, ODataRequest, ODataRequestContext}
 import com.sdl.odata.parser._
+import com.sdl.odata.processor.QueryResultCache
 import com.sdl.odata.processor.write.BatchMethodHandler
-import com.sdl.odata.unmarshaller.atom.ODataAtomParser
-import com.sdl.odata.unmarshaller.json.ODataJsonParser
+import com.sdl.odata.unmarshaller.atom.AtomUnmarshaller
+import com.sdl.odata.unmarshaller.json.JsonUnmarshaller
 import com.sdl.odata.service.protocol.{BatchOperation, BatchOperationResult}
 import com.sdl.odata.service.spring.ActorProducer
 import com.sdl.odata.service.util.AkkaUtil._
-import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.{Autowired, Value}
 import org.springframework.context.annotation.Scope
 import org.springframework.stereotype.Component
 
 import scala.collection.JavaConverters._
-import scala.collection.mutable
 
 /**
  * OData Batch Processor Actor used for processing batch operations.
+ * The URI parser and the unmarshallers are shared by all parts, and every distinct URI is only parsed once per batch.
+ *
+ * When streaming rendering is enabled, the parts are executed while the response is written, so that each part is
+ * written as soon as its result is available. Otherwise all parts are executed before the results are rendered.
  */
 @Component
 @Scope("prototype")
 class ODataBatchProcessorActor @Autowired()(actorProducer: ActorProducer, dataSourceFactory: DataSourceFactory,
-                                            oDataQueryProcessor: ODataQueryProcessor) extends ODataActor {
+                                            oDataQueryProcessor: ODataQueryProcessor,
+                                            batchQueryExecutor: BatchQueryExecutor,
+                                            oDataParser: ODataParser,
+                                            jsonUnmarshaller: JsonUnmarshaller,
+                                            atomUnmarshaller: AtomUnmarshaller,
+                                            queryResultCache: QueryResultCache,
+                                            @Value("${odata.renderer.streaming.enabled:false}")
+                                            streamingEnabled: Boolean) extends ODataActor {
 
   val ContentTypeHeader = "Content-Type"
   val BatchRequestContentTypePrefix = "multipart/mixed"
@@ -53,10 +64,15 @@ class ODataBatchProcessorActor @Autowired()(actorProducer: ActorProducer, dataSo
     case BatchOperation(actorContext, data) =>
       log.debug("Started processing OData Batch request")
       checkBatchRequestHeaders(actorContext.requestContext)
-      val results: util.List[ProcessorResult] = processBatchOperation(actorContext.requestContext, data.get).asJava
-      log.debug("OData Batch request execution complete")
-
-      routeMessage(actorProducer, context, BatchOperationResult(actorContext, results.asScala.toList))
+      val parts = processBatchOperation(actorContext.requestContext, data.get)
+      if (streamingEnabled) {
+        routeMessage(actorProducer, context, BatchOperationResult(actorContext, parts))
+      } else {
+        val results = parts.toList
+        log.debug("OData Batch request execution complete")
+
+        routeMessage(actorProducer, context, BatchOperationResult(actorContext, results.iterator))
+      }
   }
 
   private def checkBatchRequestHeaders(oDataRequestContext: ODataRequestContext) = {
@@ -70,15 +86,14 @@ class ODataBatchProcessorActor @Autowired()(actorProducer: ActorProducer, dataSo
     }
   }
 
+  /**
+   * Returns the parts of the batch response: the ProcessorResult of each query and a java.util.List with the
+   * ProcessorResults of each changeset. The parts are executed while they are taken from the returned iterator.
+   */
   private def processBatchOperation(oDataRequestContext: ODataRequestContext,
-                                   oDataBatchRequestContent: ODataBatchRequestContent): mutable.MutableList[ProcessorResult] = {
-    val results: mutable.MutableList[ProcessorResult] = mutable.MutableList()
-    oDataBatchRequestContent.requestComponents.foreach {
-      case BatchRequestComponent(requestComponentHeaders: BatchRequestHeaders, requestDetails: Map[String, String]) =>
-        results += handleBatchRequestComponent(requestComponentHeaders, requestDetails)
-      case ChangeSetRequestComponent(changeSetHeaders: BatchRequestHeaders, changeSetRequests: List[BatchRequestComponent], changesetId: String) =>
-        results ++= handleChangeSetRequestComponent(changeSetHeaders, changeSetRequests, changesetId)
-    }
+                                   oDataBatchRequestContent: ODataBatchRequestContent): Iterator[AnyRef] = {
+    // Query parts may run concurrently, so the URIs parsed for this batch are kept in a concurrent map
+    val parsedUris = new ConcurrentHashMap[String, ODataUri]()
 
     def handleBatchRequestComponent(requestComponentHeaders: BatchRequestHeaders, requestDetails: Map[String,String]): ProcessorResult = {
       val queryRequestContext = createODataRequestContext(requestDetails, requestComponentHeaders)
@@ -97,13 +112,14 @@ class ODataBatchProcessorActor @Autowired()(actorProducer: ActorProducer, dataSo
           if (componentRequestContext.getRequest.getMethod == Method.DELETE) null
           else getParsedBatchRequestComponentEntity(componentRequestContext))
       })
-      new BatchMethodHandler(oDataRequestContext, dataSourceFactory, changeSetEntities.asJava).handleWrite().asScala.toList
+      new BatchMethodHandler(oDataRequestContext, dataSourceFactory, changeSetEntities.asJava, queryResultCache)
+        .handleWrite().asScala.toList
     }
 
     def getParsedBatchRequestComponentEntity(requestContext: ODataRequestContext): Any = {
       requestContext.getRequest.getHeader("Content-Type") match {
-        case ct if ct.contains("application/json") => new ODataJsonParser(requestContext, new ODataParserImpl).getODataEntity
-        case ct if ct.contains("application/atom") => new ODataAtomParser(requestContext, new ODataParserImpl).getODataEntity
+        case ct if ct.contains("application/json") => jsonUnmarshaller.unmarshall(requestContext)
+        case ct if ct.contains("application/atom") => atomUnmarshaller.unmarshall(requestContext)
         case _ => throw new ODataBatchParseException("Content-Type Header needs to be specified for PUT, POST, " +
           "PATCH operations")
       }
@@ -115,7 +131,9 @@ class ODataBatchProcessorActor @Autowired()(actorProducer: ActorProducer, dataSo
     }
 
     def createODataUri(relativeUrl: String): ODataUri = {
-      new ODataUriParser(oDataRequestContext.getEntityDataModel).parseUri(relativeUrl)
+      parsedUris.computeIfAbsent(relativeUrl, new java.util.function.Function[String, ODataUri] {
+        override def apply(url: String): ODataUri = oDataParser.parseUri(url, oDataRequestContext.getEntityDataModel)
+      })
     }
 
     def createODataRequest(requestDetails: Map[String, String], batchRequestHeaders: BatchRequestHeaders): ODataRequest = {
@@ -148,12 +166,35 @@ class ODataBatchProcessorActor @Autowired()(actorProducer: ActorProducer, dataSo
       // Setting content type
       val contentType: Option[String] = requestDetails.get("Content-Type")
       if (contentType.isDefined) {
-        oDataRequestBuilder.setContentType(MediaType.fromString(contentType.get))
-        oDataRequestBuilder.setAccept(MediaType.fromString(contentType.get))
+        oDataRequestBuilder.setContentType(MediaType.valueOf(contentType.get))
+        oDataRequestBuilder.setAccept(MediaType.valueOf(contentType.get))
       }
       oDataRequestBuilder.setHeaders(mapAsJavaMap(batchRequestHeaders.headers))
       oDataRequestBuilder.build()
     }
-    results
+
+    // The components may be read from the request body while they are iterated, so they are only iterated once.
+    // Consecutive query parts are independent of each other; a changeset is only executed after the query parts
+    // before it have completed, and the query parts after it only start once the changeset has been executed
+    val components = oDataBatchRequestContent.componentIterator().buffered
+    val consecutiveQueries = new Iterator[() => ProcessorResult] {
+      override def hasNext: Boolean = components.hasNext && components.head.isInstanceOf[BatchRequestComponent]
+      override def next(): () => ProcessorResult = components.next() match {
+        case BatchRequestComponent(requestComponentHeaders: BatchRequestHeaders, requestDetails: Map[String, String]) =>
+          () => handleBatchRequestComponent(requestComponentHeaders, requestDetails)
+      }
+    }
+
+    val parts = new Iterator[Iterator[AnyRef]] {
+      override def hasNext: Boolean = components.hasNext
+      override def next(): Iterator[AnyRef] = components.head match {
+        case ChangeSetRequestComponent(changeSetHeaders: BatchRequestHeaders, changeSetRequests: List[BatchRequestComponent], changesetId: String) =>
+          components.next()
+          Iterator.single(handleChangeSetRequestComponent(changeSetHeaders, changeSetRequests, changesetId).asJava)
+        case _ =>
+          batchQueryExecutor.execute(consecutiveQueries)
+      }
+    }
+    parts.flatten
   }
 }
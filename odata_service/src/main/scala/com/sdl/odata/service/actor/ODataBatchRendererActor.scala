@@ -15,11 +15,14 @@
  */
 package com.sdl.odata.service.actor
 
+import java.util.stream.StreamSupport
+import java.util.{Spliterator, Spliterators}
+
 import com.sdl.odata.api.processor.query.QueryResult
 import com.sdl.odata.api.service.ODataResponse
 import com.sdl.odata.renderer.batch.ODataBatchRequestRenderer
 import com.sdl.odata.service.protocol.{BatchOperationResult, ServiceResponse}
-import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.{Autowired, Value}
 import org.springframework.context.annotation.Scope
 import org.springframework.stereotype.Component
 
@@ -27,16 +30,30 @@ import scala.collection.JavaConverters._
 
 /**
  * Renderer class for preparing the Batch Request Response.
+ * When streaming rendering is enabled, the multipart body is written straight into the servlet response when the
+ * response is written, instead of being built in memory. The parts are then executed while the response is written,
+ * and each part is written as soon as its result is available, so only one part is held in memory at a time.
  */
 @Component
 @Scope("prototype")
-class ODataBatchRendererActor @Autowired()(batchRequestRenderer: ODataBatchRequestRenderer) extends ODataActor  {
+class ODataBatchRendererActor @Autowired()(batchRequestRenderer: ODataBatchRequestRenderer,
+                                           @Value("${odata.renderer.streaming.enabled:false}") streamingEnabled: Boolean,
+                                           @Value("${odata.renderer.streaming.buffer-size:8192}") streamingBufferSize: Int)
+  extends ODataActor  {
 
   def receive = {
-    case BatchOperationResult(actorContext, resultList) =>
+    case BatchOperationResult(actorContext, parts) =>
       val responseBuilder = new ODataResponse.Builder()
-      if (resultList != null) {
-        batchRequestRenderer.render(actorContext.requestContext, QueryResult.from(resultList.asJava), responseBuilder)
+      if (parts != null) {
+        if (streamingEnabled) {
+          val batchResult = QueryResult.from(StreamSupport.stream(Spliterators.spliteratorUnknownSize(parts.asJava,
+            Spliterator.ORDERED), false))
+          batchRequestRenderer.renderToStream(actorContext.requestContext, batchResult, responseBuilder,
+            streamingBufferSize)
+        } else {
+          batchRequestRenderer.render(actorContext.requestContext, QueryResult.from(parts.toList.asJava),
+            responseBuilder)
+        }
       }
       responseBuilder.setStatus(ODataResponse.Status.OK)
       actorContext.origin ! ServiceResponse(actorContext, responseBuilder.build())
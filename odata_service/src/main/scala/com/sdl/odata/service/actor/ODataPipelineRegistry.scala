@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.service.actor
+
+import akka.actor.ActorRef
+
+/**
+ * Keeps the long-lived pooled routers of the request pipeline, keyed on the bean name of the actor they route to.
+ *
+ * When a pool is registered for a bean, messages for it are sent to the pool instead of to a new actor per request.
+ */
+object ODataPipelineRegistry {
+  private val registry = scala.collection.concurrent.TrieMap[String, ActorRef]()
+
+  def contains(beanName: String): Boolean = registry.contains(beanName)
+
+  def get(beanName: String): Option[ActorRef] = registry.get(beanName)
+
+  def add(beanName: String, pool: ActorRef): Unit = registry(beanName) = pool
+
+  def remove(beanName: String): Option[ActorRef] = registry.remove(beanName)
+}
@@ -23,17 +23,21 @@ import com.sdl.odata.api.processor.ProcessorResult
 import com.sdl.odata.api.processor.datasource.{ODataDataSourceException, ODataEntityNotFoundException}
 import com.sdl.odata.api.processor.query.QueryResult
 import com.sdl.odata.api.processor.query.QueryResult.ResultType
-import com.sdl.odata.api.renderer.{ODataRenderer, RendererFactory}
+import com.sdl.odata.api.renderer.{ODataRenderer, ODataStreamingRenderer, RendererFactory}
 import com.sdl.odata.api.service.ODataResponse.Status._
 import com.sdl.odata.api.service.{ODataContentStreamer, ODataResponse}
 import com.sdl.odata.service.protocol.{ErrorMessage, ODataActorContext, Render, ServiceResponse}
-import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.{Autowired, Value}
 import org.springframework.context.annotation.Scope
 import org.springframework.stereotype.Component
 
 @Component
 @Scope("prototype")
-class ODataRendererActor @Autowired()(rendererFactory: RendererFactory) extends ODataActor {
+class ODataRendererActor @Autowired()(rendererFactory: RendererFactory,
+                                      rendererSelectionCache: RendererSelectionCache,
+                                      @Value("${odata.renderer.streaming.enabled:false}") streamingEnabled: Boolean,
+                                      @Value("${odata.renderer.streaming.buffer-size:8192}") streamingBufferSize: Int)
+  extends ODataActor {
   val logger = org.slf4j.LoggerFactory.getLogger(classOf[ODataRendererActor])
 
   def receive = {
@@ -92,7 +96,10 @@ class ODataRendererActor @Autowired()(rendererFactory: RendererFactory) extends
         }
       }
 
-      responseBuilder.setStatus(result.getStatus)
+      // A renderer that answered a conditional request keeps its 304 Not Modified
+      if (responseBuilder.getStatus != NOT_MODIFIED) {
+        responseBuilder.setStatus(result.getStatus)
+      }
       if (result.getHeaders.size() > 0) {
         responseBuilder.setHeaders(result.getHeaders)
       }
@@ -133,7 +140,8 @@ class ODataRendererActor @Autowired()(rendererFactory: RendererFactory) extends
   }
 
   /**
-    * Render the result from the processed operation.
+    * Render the result from the processed operation. When streaming rendering is enabled and the renderer supports
+    * it for the result, the body is rendered straight into the servlet response when the response is written.
     *
     * @param actorContext    The actor context.
     * @param result          The result to render.
@@ -141,6 +149,10 @@ class ODataRendererActor @Autowired()(rendererFactory: RendererFactory) extends
     */
   def renderResult(actorContext: ODataActorContext, result: ProcessorResult, responseBuilder: ODataResponse.Builder) {
     getRenderer(actorContext, result.getQueryResult) match {
+      case Some(renderer: ODataStreamingRenderer)
+        if streamingEnabled && renderer.isStreamable(actorContext.requestContext, result.getQueryResult) =>
+        renderer.renderToStream(actorContext.requestContext, result.getQueryResult, responseBuilder,
+          streamingBufferSize)
       case Some(renderer) =>
         renderer.render(actorContext.requestContext, result.getQueryResult, responseBuilder)
       case None =>
@@ -159,7 +171,10 @@ class ODataRendererActor @Autowired()(rendererFactory: RendererFactory) extends
     responseBuilder.setStatus(INTERNAL_SERVER_ERROR)
   }
 
-  private def getRenderer(actorContext: ODataActorContext, data: QueryResult): Option[ODataRenderer] = {
+  private def getRenderer(actorContext: ODataActorContext, data: QueryResult): Option[ODataRenderer] =
+    rendererSelectionCache.getRenderer(actorContext.requestContext, data)(scoreRenderers(actorContext, data))
+
+  private def scoreRenderers(actorContext: ODataActorContext, data: QueryResult): Option[ODataRenderer] = {
     import scala.collection.JavaConverters._
     val r = rendererFactory.getRenderers
     r.asScala.map(renderer => (renderer.score(actorContext.requestContext, data), renderer))
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.service.actor
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReference
+
+import com.sdl.odata.api.edm.model.{EntityDataModel, MetaType}
+import com.sdl.odata.api.parser.{FormatOption, ODataUriUtil}
+import com.sdl.odata.api.processor.query.QueryResult
+import com.sdl.odata.api.processor.query.QueryResult.ResultType
+import com.sdl.odata.api.renderer.ODataRenderer
+import com.sdl.odata.api.service.{MediaType, ODataRequest, ODataRequestContext}
+import org.springframework.beans.factory.annotation.{Autowired, Value}
+import org.springframework.stereotype.Component
+
+/**
+  * The properties of a request and its result that the built-in renderers base their score on.
+  */
+case class RendererSelectionKey(targetTypeKind: Option[MetaType], isCollection: Boolean,
+                                uriKind: Option[Class[_]], isValuePath: Boolean, isCountPath: Boolean,
+                                isOperationCall: Boolean, format: Option[FormatOption],
+                                accept: java.util.List[MediaType], contentType: MediaType,
+                                resultType: Option[ResultType], exceptionType: Option[Class[_]],
+                                method: ODataRequest.Method)
+
+/**
+  * Dispatch table of the renderer chosen for a [[RendererSelectionKey]], shared by all renderer actors.
+  *
+  * The table belongs to the entity data model it was filled for and is discarded when a request arrives with another
+  * model, so a model published by the registry starts with an empty table. Keys that are not in the table are scored
+  * as before and the result is added, until the table holds the maximum number of keys. Renderers of extensions must
+  * only base their score on the properties in the key when the cache is enabled.
+  */
+@Component
+class RendererSelectionCache @Autowired()(@Value("${odata.renderer.selection-cache.enabled:false}") enabled: Boolean,
+                                          @Value("${odata.renderer.selection-cache.max-size:1024}") maxSize: Int) {
+
+  private case class Table(entityDataModel: EntityDataModel,
+                           renderers: ConcurrentHashMap[RendererSelectionKey, Option[ODataRenderer]])
+
+  private val table = new AtomicReference[Table](Table(null, new ConcurrentHashMap()))
+
+  /**
+    * Get the renderer for a request and its result, scoring the renderers only if the key has not been seen yet.
+    *
+    * @param requestContext The request context.
+    * @param data           The result to render.
+    * @param score          Chooses the renderer by scoring all renderers.
+    * @return The renderer, or `None` if no renderer is available.
+    */
+  def getRenderer(requestContext: ODataRequestContext, data: QueryResult)
+                 (score: => Option[ODataRenderer]): Option[ODataRenderer] = {
+    val entityDataModel = requestContext.getEntityDataModel
+    if (!enabled || entityDataModel == null) {
+      score
+    } else {
+      val renderers = getTable(entityDataModel).renderers
+      val key = createKey(requestContext, data)
+      val cached = renderers.get(key)
+      if (cached != null) {
+        cached
+      } else {
+        val renderer = score
+        if (renderers.size < maxSize) {
+          renderers.putIfAbsent(key, renderer)
+        }
+        renderer
+      }
+    }
+  }
+
+  private def getTable(entityDataModel: EntityDataModel): Table = {
+    val current = table.get
+    if (current.entityDataModel eq entityDataModel) {
+      current
+    } else {
+      val created = Table(entityDataModel, new ConcurrentHashMap())
+      if (table.compareAndSet(current, created)) created else getTable(entityDataModel)
+    }
+  }
+
+  private def createKey(requestContext: ODataRequestContext, data: QueryResult): RendererSelectionKey = {
+    val request = requestContext.getRequest
+    val resultType = Option(data).map(_.getType)
+    val exceptionType = Option(data).filter(_.getType == ResultType.EXCEPTION).flatMap(d => Option(d.getData))
+      .map(_.getClass)
+
+    Option(requestContext.getUri) match {
+      case Some(uri) =>
+        val plan = requestContext.getResolvedPlan
+        val targetType = plan.getTargetType
+        val targetTypeKind = Option(plan.getTargetEdmType).map(_.getMetaType)
+        RendererSelectionKey(targetTypeKind, targetType.exists(_.isCollection), Some(uri.relativeUri.getClass),
+          ODataUriUtil.isValuePathUri(uri), ODataUriUtil.isCountPathUri(uri), plan.isOperationCall,
+          plan.getFormatOption, request.getAccept, request.getContentType, resultType, exceptionType,
+          request.getMethod)
+      case None =>
+        RendererSelectionKey(None, isCollection = false, None, isValuePath = false, isCountPath = false,
+          isOperationCall = false, None, request.getAccept, request.getContentType, resultType, exceptionType,
+          request.getMethod)
+    }
+  }
+}
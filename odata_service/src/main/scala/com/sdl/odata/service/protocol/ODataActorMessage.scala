@@ -25,37 +25,46 @@ case class ODataActorContext(requestContext: ODataRequestContext, origin: ActorR
 
 sealed trait ODataActorMessage
 
+// A message which carries the per-request actor context through the pipeline
+sealed trait ODataContextMessage extends ODataActorMessage {
+  def actorContext: ODataActorContext
+}
+
 // Register an actor to handle a specified type of message
 case class RegisterMessageHandler(messageType: Class[_ <: ODataActorMessage], beanName: String) extends ODataActorMessage
 
 // Unregister an actor the handle a specified type of message
 case class UnregisterMessageHandler(messageType: Class[_ <: ODataActorMessage], beanName: String) extends ODataActorMessage
 
-case class ErrorMessage(actorContext: ODataActorContext, ex: Throwable) extends ODataActorMessage
+case class ErrorMessage(actorContext: ODataActorContext, ex: Throwable) extends ODataContextMessage
 
 // Initial request sent by ODataServiceImpl to ODataMessageRouter
 case class InitialServiceRequest(request: ODataRequest) extends ODataActorMessage
 
-case class ServiceRequest(actorContext: ODataActorContext) extends ODataActorMessage
+case class ServiceRequest(actorContext: ODataActorContext) extends ODataContextMessage
 
-case class ParseUri(actorContext: ODataActorContext) extends ODataActorMessage
+case class ParseUri(actorContext: ODataActorContext) extends ODataContextMessage
 
-case class ParseResult(actorContext: ODataActorContext, uri: ODataUri) extends ODataActorMessage
+case class ParseResult(actorContext: ODataActorContext, uri: ODataUri) extends ODataContextMessage
 
-case class Unmarshall(actorContext: ODataActorContext) extends ODataActorMessage
+case class Unmarshall(actorContext: ODataActorContext) extends ODataContextMessage
 
-case class UnmarshallResult(actorContext: ODataActorContext, data: Option[AnyRef]) extends ODataActorMessage
+case class UnmarshallResult(actorContext: ODataActorContext, data: Option[AnyRef]) extends ODataContextMessage
 
-case class ReadOperation(actorContext: ODataActorContext, data: Option[AnyRef]) extends ODataActorMessage
+case class ReadOperation(actorContext: ODataActorContext, data: Option[AnyRef]) extends ODataContextMessage
 
-case class WriteOperation(actorContext: ODataActorContext, data: Option[AnyRef]) extends ODataActorMessage
+case class WriteOperation(actorContext: ODataActorContext, data: Option[AnyRef]) extends ODataContextMessage
 
-case class OperationResult(actorContext: ODataActorContext, result: ProcessorResult) extends ODataActorMessage
+case class OperationResult(actorContext: ODataActorContext, result: ProcessorResult) extends ODataContextMessage
 
-case class Render(actorContext: ODataActorContext, result: ProcessorResult) extends ODataActorMessage
+case class Render(actorContext: ODataActorContext, result: ProcessorResult) extends ODataContextMessage
 
-case class ServiceResponse(actorContext: ODataActorContext, response: ODataResponse) extends ODataActorMessage
+case class ServiceResponse(actorContext: ODataActorContext, response: ODataResponse) extends ODataContextMessage
 
-case class BatchOperation(actorContext: ODataActorContext, data: Option[ODataBatchRequestContent]) extends ODataActorMessage
+case class BatchOperation(actorContext: ODataActorContext, data: Option[ODataBatchRequestContent]) extends ODataContextMessage
 
-case class BatchOperationResult(actorContext: ODataActorContext, result: List[ProcessorResult]) extends ODataActorMessage
+/**
+ * The parts of a batch response: the ProcessorResult of each query and a java.util.List with the ProcessorResults of
+ * each changeset. The parts may still be executed while they are taken from the iterator.
+ */
+case class BatchOperationResult(actorContext: ODataActorContext, result: Iterator[AnyRef]) extends ODataContextMessage
@@ -15,9 +15,10 @@
  */
 package com.sdl.odata.service.util
 
-import akka.actor.{Actor, ActorContext, ActorRef}
+import akka.actor.SupervisorStrategy.{Escalate, Restart}
+import akka.actor.{Actor, ActorContext, ActorRef, OneForOneStrategy, SupervisorStrategy}
 import com.sdl.odata.service.actor.MessageHandlerRegistry._
-import com.sdl.odata.service.actor.ODataMessageRouter
+import com.sdl.odata.service.actor.{ODataMessageRouter, ODataPipelineRegistry}
 import com.sdl.odata.service.protocol.{ODataActorMessage, RegisterMessageHandler}
 import com.sdl.odata.service.spring.ActorProducer
 import org.slf4j.{Logger, LoggerFactory}
@@ -33,6 +34,27 @@ object AkkaUtil {
     messageRouter().tell(RegisterMessageHandler(messageType, actorType.getSimpleName), null)
   }
 
+  /**
+   * Creates a long-lived round robin pool for the given actor type and registers it in the pipeline, so that
+   * messages routed to this actor type are handled by the pool instead of by a new actor per request.
+   *
+   * Routees failing with an exception are restarted; the failed message is turned into an error message by the
+   * routee itself (see [[com.sdl.odata.service.actor.ODataActor]]). Errors are escalated, a routee is not restarted
+   * into a JVM which may not be able to continue.
+   */
+  def registerPool(actorType: Class[_ <: Actor], poolSize: Int)(implicit producer: ActorProducer) {
+    val beanName = actorType.getSimpleName
+    if (!ODataPipelineRegistry.contains(beanName)) {
+      logger.info(s"Creating pipeline pool of $poolSize for: $beanName")
+      ODataPipelineRegistry.add(beanName, producer.pooledActorRef(beanName, poolSize, pipelineSupervisorStrategy))
+    }
+  }
+
+  private val pipelineSupervisorStrategy: SupervisorStrategy = OneForOneStrategy(loggingEnabled = false) {
+    case _: Exception => Restart
+    case _: Throwable => Escalate
+  }
+
   private def messageRouter()(implicit producer : ActorProducer): ActorRef =
     actorRef(classOf[ODataMessageRouter])
 
@@ -49,10 +71,28 @@ object AkkaUtil {
         beanName =>
           logger.debug(s"Sending message to: $beanName")
 
-          actorProducer.tell(beanName, message, context.self, context)
+          ODataPipelineRegistry.get(beanName) match {
+            case Some(pool) => pool.tell(message, context.self)
+            case None => actorProducer.tell(beanName, message, context.self, context)
+          }
       }
     } else {
       logger.warn(s"No handler registered for message type: $messageType")
     }
   }
+
+  /**
+   * Routes a message to the pooled handlers registered for its type, used by pooled actors that have no
+   * per-request parent to escalate to.
+   */
+  def routePooledMessage(message: ODataActorMessage, sender: ActorRef) {
+    logger.debug(s"Routing pooled message: $message")
+
+    val messageType = message.getClass
+    if (contains(messageType)) {
+      get(messageType).flatMap(ODataPipelineRegistry.get).foreach(pool => pool.tell(message, sender))
+    } else {
+      logger.warn(s"No handler registered for message type: $messageType")
+    }
+  }
 }
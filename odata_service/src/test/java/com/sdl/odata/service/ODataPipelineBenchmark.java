@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.service;
+
+import akka.actor.ActorSystem;
+import com.sdl.odata.api.ODataException;
+import com.sdl.odata.api.edm.registry.ODataEdmRegistry;
+import com.sdl.odata.api.service.MediaType;
+import com.sdl.odata.api.service.ODataRequest;
+import com.sdl.odata.api.service.ODataResponse;
+import com.sdl.odata.api.service.ODataService;
+import com.sdl.odata.test.model.Address;
+import com.sdl.odata.test.model.Customer;
+import com.sdl.odata.test.model.Order;
+import com.sdl.odata.test.model.OrderLine;
+import com.sdl.odata.test.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request latency of the request pipeline created per request with the pooled pipeline.
+ * Run with the GC profiler (as {@link #main(String[])} does) to compare the allocation rate of both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ODataPipelineBenchmark {
+
+    /**
+     * Whether the requests go through the pooled pipeline.
+     */
+    @Param({"false", "true" })
+    public boolean pipelineEnabled;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private ODataService oDataService;
+    private ODataRequest serviceDocumentRequest;
+    private ODataRequest entitySetRequest;
+
+    @Setup
+    public void setup() throws Exception {
+        applicationContext = new AnnotationConfigApplicationContext();
+        applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Collections.singletonMap("odata.pipeline.enabled", String.valueOf(pipelineEnabled))));
+        applicationContext.register(ODataServiceConfiguration.class);
+        applicationContext.refresh();
+
+        applicationContext.getBean(ODataEdmRegistry.class).registerClasses(Arrays.asList(
+                Address.class, Customer.class, Order.class, OrderLine.class, Product.class));
+        oDataService = applicationContext.getBean(ODataService.class);
+
+        serviceDocumentRequest = new ODataRequest.Builder()
+                .setMethod(ODataRequest.Method.GET)
+                .setUri("http://localhost/odata.svc")
+                .setAccept(MediaType.JSON)
+                .build();
+        // No data source is registered, so this exercises the full pipeline up to error rendering
+        entitySetRequest = new ODataRequest.Builder()
+                .setMethod(ODataRequest.Method.GET)
+                .setUri("http://localhost/odata.svc/Customers?$top=10")
+                .setAccept(MediaType.JSON)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.getBean(ActorSystem.class).terminate();
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public ODataResponse serviceDocument() throws ODataException {
+        return oDataService.handleRequest(serviceDocumentRequest);
+    }
+
+    @Benchmark
+    public ODataResponse entitySet() throws ODataException {
+        return oDataService.handleRequest(entitySetRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ODataPipelineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
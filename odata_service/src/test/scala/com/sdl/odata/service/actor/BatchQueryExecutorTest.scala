@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2014 All Rights Reserved by the SDL Group.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sdl.odata.service.actor
+
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.FunSuite
+
+/**
+ * Unit tests for 'BatchQueryExecutor'.
+ */
+class BatchQueryExecutorTest extends FunSuite {
+
+  test("Results are returned in the order of the parts") {
+    val executor = new BatchQueryExecutor(true, 4, 3)
+    try {
+      val parts = (1 to 20).map(i => () => {
+        Thread.sleep((20 - i) % 5)
+        i
+      })
+      assert(executor.execute(parts.iterator).toList == (1 to 20).toList)
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  test("No more than the maximum number of parts per batch run at the same time") {
+    val executor = new BatchQueryExecutor(true, 8, 3)
+    try {
+      val running = new AtomicInteger
+      val maxRunning = new AtomicInteger
+      val parts = (1 to 12).map(_ => () => {
+        maxRunning.accumulateAndGet(running.incrementAndGet, (a, b) => math.max(a, b))
+        Thread.sleep(20)
+        running.decrementAndGet
+      })
+      executor.execute(parts.iterator).toList
+      assert(maxRunning.get > 1)
+      assert(maxRunning.get <= 3)
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  test("No more than the maximum number of parts per batch are taken ahead of the results") {
+    val executor = new BatchQueryExecutor(true, 8, 3)
+    try {
+      val taken = new AtomicInteger
+      val parts = (1 to 12).iterator.map { i =>
+        taken.incrementAndGet
+        () => i
+      }
+      val results = executor.execute(parts)
+      assert(taken.get == 3)
+      assert(results.next() == 1)
+      assert(taken.get == 4)
+      assert(results.toList == (2 to 12).toList)
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  test("The failure of the first failed part is thrown") {
+    val executor = new BatchQueryExecutor(true, 4, 4)
+    try {
+      val parts = (1 to 8).map(i => () => if (i == 2) throw new IllegalStateException("part 2") else i)
+      val e = intercept[IllegalStateException](executor.execute(parts.iterator).toList)
+      assert(e.getMessage == "part 2")
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  test("A part that cannot be submitted is reported instead of blocking the batch") {
+    val executor = new BatchQueryExecutor(true, 4, 2)
+    executor.shutdown()
+    intercept[RejectedExecutionException](executor.execute(Iterator(() => 1, () => 2)).toList)
+  }
+
+  test("Parts are executed on the calling thread when disabled") {
+    val executor = new BatchQueryExecutor(false, 4, 4)
+    val caller = Thread.currentThread
+    assert(executor.execute(Iterator(() => Thread.currentThread eq caller, () => Thread.currentThread eq caller))
+      .toList == List(true, true))
+  }
+}